@@ -1,6 +1,8 @@
 package desmoj.core.dist;
 
-import desmoj.core.simulator.Model;
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.SnapshotReader;
+import desmoj.core.simulator.SnapshotWriter;
 
 /**
  * Normally (also known as "Gaussian") distributed stream of pseudo random
@@ -124,6 +126,65 @@ public class ContDistNormal extends ContDist {
 
 	}
 
+	/**
+	 * Resets the pseudo random generator's seed and the number of samples given
+	 * to zero and discards a Gaussian value computed but not yet delivered, so
+	 * that the distribution produces the same samples as a newly created one
+	 * with the same seed.
+	 */
+	public void reset() {
+
+		haveNextGaussian = false;
+		super.reset();
+
+	}
+
+	/**
+	 * Resets the pseudo random generator's seed to the value passed and the
+	 * number of samples given to zero and discards a Gaussian value computed
+	 * but not yet delivered.
+	 * 
+	 * @param newSeed
+	 *            long : new seed to be used by underlying random number
+	 *            generator after reset
+	 */
+	public void reset(long newSeed) {
+
+		haveNextGaussian = false;
+		super.reset(newSeed);
+
+	}
+
+	/**
+	 * Writes the state of this distribution including a Gaussian value
+	 * computed but not yet delivered to a snapshot of the experiment.
+	 * 
+	 * @param out
+	 *            SnapshotWriter : The snapshot being written
+	 */
+	@Override
+	protected void writeSnapshot(SnapshotWriter out) {
+
+		super.writeSnapshot(out);
+		out.writeBoolean(haveNextGaussian);
+		out.writeDouble(nextGaussian);
+	}
+
+	/**
+	 * Restores the state of this distribution written by
+	 * <code>writeSnapshot(SnapshotWriter out)</code>.
+	 * 
+	 * @param in
+	 *            SnapshotReader : The snapshot being read
+	 */
+	@Override
+	protected void readSnapshot(SnapshotReader in) {
+
+		super.readSnapshot(in);
+		haveNextGaussian = in.readBoolean();
+		nextGaussian = in.readDouble();
+	}
+
 	/**
 	 * Returns the next normally (also known as "Gaussian") distributed sample
 	 * from this distribution. The value depends upon the seed, the number of
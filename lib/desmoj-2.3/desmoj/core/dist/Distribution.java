@@ -1,6 +1,8 @@
 package desmoj.core.dist;
 
-import desmoj.core.simulator.Model;
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.SnapshotReader;
+import desmoj.core.simulator.SnapshotWriter;
 
 /**
  * Base class for all pseudo random number distributions used in this package.
@@ -70,6 +72,15 @@ public abstract class Distribution extends desmoj.core.simulator.Reportable {
 	 */
 	protected long initialSeed;
 
+	/**
+	 * The initial state of the underlying pseudo random generator if the
+	 * distribution has been assigned a substream by
+	 * <code>setStream(JumpableRandomGenerator stream)</code>, otherwise
+	 * <code>null</code> and the generator is restarted from
+	 * <code>initialSeed</code>.
+	 */
+	protected long[] initialState;
+
 	/**
 	 * This flag shows, if a distribution may produce negative samples or not.
 	 * This is important, if the value of a distribution's sample is to be used
@@ -103,15 +114,8 @@ public abstract class Distribution extends desmoj.core.simulator.Reportable {
 		super(owner, name, showInReport, showInTrace); // construct the
 														// reportable
 		if (randomGenerator == null) {
-			try {
-				randomGenerator = owner.getExperiment()
-						.getDistributionManager().getRandomNumberGenerator()
-						.newInstance(); // default RandomGenerator
-			} catch (InstantiationException e) {
-				randomGenerator = new LinearCongruentialRandomGenerator();
-			} catch (IllegalAccessException e) {
-				randomGenerator = new LinearCongruentialRandomGenerator();
-			}
+			randomGenerator = createDefaultGenerator(owner); // default
+																// RandomGenerator
 		}
 		owner.getExperiment().getDistributionManager().register(this);
 
@@ -119,7 +123,7 @@ public abstract class Distribution extends desmoj.core.simulator.Reportable {
 		// (for not yet running experiments, this happens automatically
 		// when the experiment is started)
 		if (owner.getExperiment().isRunning()) {
-			randomGenerator.setSeed(initialSeed);
+			restartGenerator();
 		}
 	}
 
@@ -140,6 +144,27 @@ public abstract class Distribution extends desmoj.core.simulator.Reportable {
 			desmoj.core.dist.UniformRandomGenerator randomGenerator) {
 
 		this.randomGenerator = randomGenerator;
+		this.initialState = null;
+		reset();
+
+	}
+
+	/**
+	 * Assigns a substream of a jumpable pseudo random generator to this
+	 * distribution, e.g. split from the stream of the current replication by
+	 * the <code>DistributionManager</code>. The generator replaces the
+	 * underlying random generator and its current state is kept as the
+	 * initial state to which <code>reset()</code> returns. Setting a seed
+	 * afterwards switches back to the default random generator.
+	 * 
+	 * @param stream
+	 *            JumpableRandomGenerator : The generator positioned at the
+	 *            start of the substream
+	 */
+	public void setStream(JumpableRandomGenerator stream) {
+
+		this.randomGenerator = stream;
+		this.initialState = stream.getState();
 		reset();
 
 	}
@@ -221,21 +246,13 @@ public abstract class Distribution extends desmoj.core.simulator.Reportable {
 	public void reset() {
 
 		if (randomGenerator == null) {
-			try {
-				randomGenerator = this.getModel().getExperiment()
-						.getDistributionManager().getRandomNumberGenerator()
-						.newInstance(); // default RandomGenerator
-			} catch (InstantiationException e) {
-				randomGenerator = new LinearCongruentialRandomGenerator();
-			} catch (IllegalAccessException e) {
-				randomGenerator = new LinearCongruentialRandomGenerator();
-			}
+			randomGenerator = createDefaultGenerator(this.getModel()); // default
+																		// RandomGenerator
 		}
 
 		// sets seed to the seed specified in constructor or by call to
-		// setSeed(long)
-		randomGenerator.setSeed(initialSeed); // initialSeed stays unchanged
-		// here
+		// setSeed(long), or the stream to its start
+		restartGenerator(); // initialSeed stays unchanged here
 
 		// antithetic = false;
 		/*
@@ -258,6 +275,7 @@ public abstract class Distribution extends desmoj.core.simulator.Reportable {
 	 */
 	public void reset(long newSeed) {
 
+		leaveStream();
 		randomGenerator.setSeed(newSeed);
 
 		this.initialSeed = newSeed; // initialSeed is changed here
@@ -331,6 +349,7 @@ public abstract class Distribution extends desmoj.core.simulator.Reportable {
 	 */
 	public void setSeed(long newSeed) {
 
+		leaveStream();
 		randomGenerator.setSeed(newSeed); // well, the seed is passed on...
 		// ;-)
 		initialSeed = newSeed; // remember new seed for next reset()
@@ -340,6 +359,168 @@ public abstract class Distribution extends desmoj.core.simulator.Reportable {
 
 	}
 
+	/**
+	 * Tells if this distribution can be written to a snapshot, i.e. if its
+	 * pseudo random number generator implements
+	 * <code>StatefulRandomGenerator</code>.
+	 * 
+	 * @return boolean : Is <code>true</code> if the state of the random
+	 *         number generator can be saved
+	 */
+	@Override
+	protected boolean canWriteSnapshot() {
+
+		return randomGenerator instanceof StatefulRandomGenerator;
+	}
+
+	/**
+	 * Writes the state of this distribution, including the complete state of
+	 * its pseudo random number generator, to a snapshot of the experiment.
+	 * The experiment only calls this method if
+	 * <code>canWriteSnapshot()</code> returns <code>true</code>.
+	 * 
+	 * @param out
+	 *            SnapshotWriter : The snapshot being written
+	 */
+	@Override
+	protected void writeSnapshot(SnapshotWriter out) {
+
+		super.writeSnapshot(out);
+		out.writeBoolean(antithetic);
+		out.writeLong(initialSeed);
+		out.writeBoolean(initialState != null);
+		if (initialState != null)
+			out.writeLongs(initialState, initialState.length);
+		writeGeneratorState(out, randomGenerator);
+	}
+
+	/**
+	 * Restores the state of this distribution written by
+	 * <code>writeSnapshot(SnapshotWriter out)</code>.
+	 * 
+	 * @param in
+	 *            SnapshotReader : The snapshot being read
+	 */
+	@Override
+	protected void readSnapshot(SnapshotReader in) {
+
+		super.readSnapshot(in);
+		antithetic = in.readBoolean();
+		initialSeed = in.readLong();
+		initialState = in.readBoolean() ? in.readLongs() : null;
+		randomGenerator = readGeneratorState(in, randomGenerator);
+	}
+
+	/**
+	 * Creates an instance of the experiment's default random generator class.
+	 */
+	private static UniformRandomGenerator createDefaultGenerator(Model owner) {
+
+		try {
+			return owner.getExperiment().getDistributionManager()
+					.getRandomNumberGenerator().getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException e) {
+			return new LinearCongruentialRandomGenerator();
+		}
+	}
+
+	/**
+	 * Restarts the underlying random generator from the initial state of the
+	 * assigned substream or from the initial seed.
+	 */
+	private void restartGenerator() {
+
+		if (initialState != null)
+			((StatefulRandomGenerator) randomGenerator).setState(initialState);
+		else
+			randomGenerator.setSeed(initialSeed);
+	}
+
+	/**
+	 * Replaces the generator of an assigned substream by a new default random
+	 * generator before a seed is set, so that the distribution produces the
+	 * same numbers as one which has never been assigned a substream.
+	 */
+	private void leaveStream() {
+
+		if (initialState != null) {
+			initialState = null;
+			randomGenerator = createDefaultGenerator(this.getModel());
+		}
+	}
+
+	/**
+	 * Writes the class and the state of the given pseudo random number
+	 * generator to a snapshot.
+	 * 
+	 * @param out
+	 *            SnapshotWriter : The snapshot being written
+	 * @param generator
+	 *            UniformRandomGenerator : The generator to save
+	 * @throws IllegalArgumentException
+	 *             if the generator does not implement
+	 *             <code>StatefulRandomGenerator</code>
+	 */
+	public static void writeGeneratorState(SnapshotWriter out,
+			UniformRandomGenerator generator) {
+
+		if (!(generator instanceof StatefulRandomGenerator)) {
+			throw new IllegalArgumentException("Random generator "
+					+ generator.getClass().getName()
+					+ " does not implement StatefulRandomGenerator");
+		}
+		out.writeString(generator.getClass().getName());
+		long[] state = ((StatefulRandomGenerator) generator).getState();
+		out.writeLongs(state, state.length);
+	}
+
+	/**
+	 * Restores the state of a pseudo random number generator written by
+	 * <code>writeGeneratorState(SnapshotWriter out, UniformRandomGenerator
+	 * generator)</code>. The given generator is restored if it is of the
+	 * saved class, otherwise a new generator of the saved class is created
+	 * (e.g. a substream generator saved by a replication running in stream
+	 * mode).
+	 * 
+	 * @param in
+	 *            SnapshotReader : The snapshot being read
+	 * @param generator
+	 *            UniformRandomGenerator : The generator to restore (may be
+	 *            <code>null</code>)
+	 * @return StatefulRandomGenerator : The restored generator to be used
+	 *         from now on
+	 * @throws IllegalStateException
+	 *             if the saved generator class can not be restored
+	 */
+	public static StatefulRandomGenerator readGeneratorState(
+			SnapshotReader in, UniformRandomGenerator generator) {
+
+		String className = in.readString();
+		StatefulRandomGenerator restored;
+		if (generator != null && generator.getClass().getName().equals(className)) {
+			if (!(generator instanceof StatefulRandomGenerator)) {
+				throw new IllegalStateException("Random generator "
+						+ className + " does not implement StatefulRandomGenerator");
+			}
+			restored = (StatefulRandomGenerator) generator;
+		} else {
+			try {
+				restored = Class.forName(className)
+						.asSubclass(StatefulRandomGenerator.class)
+						.getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("Random generator "
+						+ className + " can not be restored", e);
+			} catch (ClassCastException e) {
+				throw new IllegalStateException("Random generator "
+						+ className + " does not implement StatefulRandomGenerator");
+			}
+		}
+		restored.setState(in.readLongs());
+		return restored;
+	}
+
 	/**
 	 * Generates the trace output of each sample. This method is called by
 	 * sample().
@@ -1,7 +1,5 @@
 package desmoj.core.dist;
 
-import java.util.Random;
-
 /**
  * Linear congruential random generator for uniformly distributed pseudo random
  * numbers configured such that a stream of [0,1] double values is produced.
@@ -11,6 +9,9 @@ import java.util.Random;
  * <code>java.util.Random</code> class' random generator. The Java API Random
  * class uses a 48-bit seed as input to the linear congruential formula. (See
  * Donald Knuth, The Art of Computer Programming, Volume 2, Section 3.2.1.)
+ * The formula is computed here directly, producing exactly the same stream as
+ * <code>java.util.Random</code>, so that the generator's state can be saved
+ * and restored (<code>StatefulRandomGenerator</code>).
  * 
  * @see desmoj.core.dist.UniformRandomGenerator
  * @see desmoj.core.dist.Distribution
@@ -32,13 +33,20 @@ import java.util.Random;
  * 
  */
 public class LinearCongruentialRandomGenerator implements
-		desmoj.core.dist.UniformRandomGenerator {
+		desmoj.core.dist.StatefulRandomGenerator {
+
+	/**
+	 * Parameters of the linear congruential formula of
+	 * <code>java.util.Random</code>.
+	 */
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
 
 	/**
-	 * The random generator provided by the Java API class
-	 * <code>java.util.Random</code>
+	 * The current 48-bit state of the linear congruential formula.
 	 */
-	protected Random javaAPIRandomGenerator; // the random generator used
+	protected long seed;
 
 	/**
 	 * Creates a DefaultrandomGenerator with seed 42. The value 42 has been
@@ -47,7 +55,7 @@ public class LinearCongruentialRandomGenerator implements
 	 */
 	public LinearCongruentialRandomGenerator() {
 
-		javaAPIRandomGenerator = new Random(42);
+		setSeed(42);
 
 	}
 
@@ -59,7 +67,7 @@ public class LinearCongruentialRandomGenerator implements
 	 *            generator
 	 */
 	public LinearCongruentialRandomGenerator(long seed) {
-		javaAPIRandomGenerator = new Random(seed);
+		setSeed(seed);
 	}
 
 	/**
@@ -72,7 +80,23 @@ public class LinearCongruentialRandomGenerator implements
 	 */
 	public double nextDouble() {
 
-		return javaAPIRandomGenerator.nextDouble();
+		// as java.util.Random.nextDouble()
+		return (((long) next(26) << 27) + next(27)) * 0x1.0p-53;
+
+	}
+
+	/**
+	 * Advances the linear congruential formula and returns the given number
+	 * of its highest bits (as <code>java.util.Random.next(int)</code>).
+	 * 
+	 * @param bits
+	 *            int : The number of random bits
+	 * @return int : The random bits
+	 */
+	protected int next(int bits) {
+
+		seed = (seed * MULTIPLIER + ADDEND) & MASK;
+		return (int) (seed >>> (48 - bits));
 
 	}
 
@@ -85,7 +109,30 @@ public class LinearCongruentialRandomGenerator implements
 	 */
 	public void setSeed(long newSeed) {
 
-		javaAPIRandomGenerator.setSeed(newSeed);
+		seed = (newSeed ^ MULTIPLIER) & MASK;
+
+	}
+
+	/**
+	 * Returns the current state of the linear congruential formula.
+	 * 
+	 * @return long[] : The state (a single 48-bit value)
+	 */
+	public long[] getState() {
+
+		return new long[] { seed };
+
+	}
+
+	/**
+	 * Restores a state returned by <code>getState()</code>.
+	 * 
+	 * @param state
+	 *            long[] : The state to restore
+	 */
+	public void setState(long[] state) {
+
+		seed = state[0] & MASK;
 
 	}
 }
\ No newline at end of file
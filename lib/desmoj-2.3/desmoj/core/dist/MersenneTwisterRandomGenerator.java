@@ -31,7 +31,7 @@ import java.util.Random;
  * 
  */
 public class MersenneTwisterRandomGenerator implements
-		desmoj.core.dist.UniformRandomGenerator {
+		desmoj.core.dist.StatefulRandomGenerator {
 
 	/**
 	 * The random generator provided by the Java API class
@@ -152,4 +152,34 @@ public class MersenneTwisterRandomGenerator implements
 		// Twist them!
 		this.twistNumbers();
 	}
+
+	/**
+	 * Returns the current state of the generator: the index of the number to
+	 * read next followed by the 624 numbers of the repository.
+	 * 
+	 * @return long[] : The state of the generator
+	 */
+	public long[] getState() {
+
+		long[] state = new long[625];
+		state[0] = currentIndex;
+		for (int i = 0; i < 624; i++) {
+			state[i + 1] = mersenneTwister[i];
+		}
+		return state;
+	}
+
+	/**
+	 * Restores a state returned by <code>getState()</code>.
+	 * 
+	 * @param state
+	 *            long[] : The state to restore
+	 */
+	public void setState(long[] state) {
+
+		currentIndex = (int) state[0];
+		for (int i = 0; i < 624; i++) {
+			mersenneTwister[i] = (int) state[i + 1];
+		}
+	}
 }
\ No newline at end of file
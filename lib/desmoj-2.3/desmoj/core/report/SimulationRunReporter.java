@@ -93,14 +93,14 @@ public class SimulationRunReporter extends desmoj.core.report.TableReporter {
         Model m = (Model) source;
         
         entryTable[0][0] = "Simulation duration";
-        entryTable[0][1] = "Experiment run from " + TimeOperations.getStartTime() + " until " +
+        entryTable[0][1] = "Experiment run from " + m.getExperiment().getTimeBase().getStartTime() + " until " +
                      m.presentTime() + ".";
 
         entryTable[1][0] = "Computation duration (HH:MM:SS)";
         entryTable[1][1] = duration_tot;
         
         entryTable[2][0] = "Resets";
-        entryTable[2][1] = TimeInstant.isAfter(m.resetAt(), TimeOperations.getStartTime()) ?
+        entryTable[2][1] = TimeInstant.isAfter(m.resetAt(), m.getExperiment().getTimeBase().getStartTime()) ?
                      "Last reset at " + m.resetAt() + "." 
                    : "No resets during the experiment run.";
 
@@ -92,7 +92,7 @@ public abstract class Entity extends Schedulable {
 	 */
 	EventNote getEventNote() 
 	{
-		return getEventNotes().isEmpty() ? null : getEventNotes().get(0);
+		return getFirstEventNote();
 	}
 	
 	/**
@@ -105,7 +105,7 @@ public abstract class Entity extends Schedulable {
 	public List<EventAbstract> getScheduledEvents()
 	{
 		List<EventAbstract> list = new LinkedList<EventAbstract>();
-		for (EventNote note : _schedule)
+		for (EventNote note : getEventNotes())
 		{
 			list.add(note.getEvent());
 		}
@@ -917,16 +917,16 @@ public abstract class Entity extends Schedulable {
 			if (this == currentEntity()) {
 				sendTraceNote("schedules '" + what.getName()
 						+ "' of itself after '" + after.getName() + "' at "
-						+ after.getEventNotes().get(after.getEventNotes().size()-1).getTime().toString());
+						+ after.getLastEventNote().getTime().toString());
 			} else {
 				sendTraceNote("schedules '" + what.getName() + "' of '"
 						+ getName() + "' after '" + after.getName() + "' at "
-						+ after.getEventNotes().get(after.getEventNotes().size()-1).getTime().toString());
+						+ after.getLastEventNote().getTime().toString());
 			}
 		}
 
         // generate trace
-        this.generateTraceForScheduling(what, null, null, after, null, after.getEventNotes().get(after.getEventNotes().size()-1).getTime());
+        this.generateTraceForScheduling(what, null, null, after, null, after.getLastEventNote().getTime());
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleAfter(after, this,
@@ -1017,7 +1017,7 @@ public abstract class Entity extends Schedulable {
 		}
 	
         // generate trace
-        this.generateTraceForScheduling(what, who2, null, after, null, after.getEventNotes().get(after.getEventNotes().size()-1).getTime());
+        this.generateTraceForScheduling(what, who2, null, after, null, after.getLastEventNote().getTime());
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleAfter(after, this, who2,
@@ -1122,7 +1122,7 @@ public abstract class Entity extends Schedulable {
 		}
 	    
         // generate trace
-        this.generateTraceForScheduling(what, who2, who3, after, null, after.getEventNotes().get(after.getEventNotes().size()-1).getTime());
+        this.generateTraceForScheduling(what, who2, who3, after, null, after.getLastEventNote().getTime());
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleAfter(after, this, who2, who3,
@@ -1202,7 +1202,7 @@ public abstract class Entity extends Schedulable {
 		}
 
         // generate trace
-        this.generateTraceForScheduling(what, null, null, null, before, before.getEventNotes().get(0).getTime());
+        this.generateTraceForScheduling(what, null, null, null, before, before.getFirstEventNote().getTime());
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleBefore(before, this,
@@ -1294,7 +1294,7 @@ public abstract class Entity extends Schedulable {
 		}
 	
         // generate trace
-        this.generateTraceForScheduling(what, who2, null, null, before, before.getEventNotes().get(0).getTime());
+        this.generateTraceForScheduling(what, who2, null, null, before, before.getFirstEventNote().getTime());
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleBefore(before, this, who2,
@@ -1398,7 +1398,7 @@ public abstract class Entity extends Schedulable {
 		}
 	
         // generate trace
-        this.generateTraceForScheduling(what, who2, who3, null, before, before.getEventNotes().get(0).getTime());
+        this.generateTraceForScheduling(what, who2, who3, null, before, before.getFirstEventNote().getTime());
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleBefore(before, this, who2, who3,
@@ -1483,18 +1483,6 @@ public abstract class Entity extends Schedulable {
         _myQueues.remove(q);
     }
 	
-	/**
-	 * Removes an event-note from the internal list
-	 * 
-	 * * @param note
-	 *            EventNote : The <code>EventNote to be removed</code>
-	 */
-	void removeEventNote(EventNote note) 
-	{
-		_schedule.remove(note); // only removes Event in local list
-
-	}
-	
     /**
      * Utility method to generate trace output for scheduling this event (internal use only).
      *
@@ -194,6 +194,24 @@ public abstract class EventAbstract extends Schedulable
             this.sendTraceNote(trace.toString());
         }
 	}
+
+	/**
+	 * Utility method to generate trace output for scheduling this event at a
+	 * point of time given in epsilon (internal use only). The TimeInstant
+	 * printed is only created if trace notes are currently sent.
+	 *
+	 * @param who1 the first entity scheduled with this event (or <code>null</code> if not applicable) 
+	 * @param who2 the second entity scheduled with this event (or <code>null</code> if not applicable)
+	 * @param who3 the third entity scheduled with this event (or <code>null</code> if not applicable)
+	 * @param atInEpsilon the point of time at which this event is scheduled, expressed in epsilon
+	 */
+	protected void generateTraceForScheduling(Entity who1, Entity who2, Entity who3, long atInEpsilon) {
+	    
+	    if (currentlySendTraceNotes()) {
+	        this.generateTraceForScheduling(who1, who2, who3, null, null,
+	                new TimeInstant(atInEpsilon, TimeOperations.getEpsilon()), null);
+	    }
+	}
 	
     /**
      * Returns the event's scheduling priority. The scheduling priority is used
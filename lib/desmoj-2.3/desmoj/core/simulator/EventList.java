@@ -150,4 +150,60 @@ public abstract class EventList {
 	 * Removes the first event-note from the event-list.
 	 */
 	abstract void removeFirst();
+
+	/**
+	 * Tells the entities and the event carried by the given event-note that
+	 * they are scheduled by this note. Event-lists call this method whenever a
+	 * new event-note is inserted.
+	 * @param note
+	 *            EventNote : The event-note just inserted into the event-list
+	 */
+	void addToSchedulables(EventNote note) {
+
+		Entity who1 = note.getEntity1();
+		if (who1 != null) {
+			who1.addEventNote(note);
+		}
+
+		Entity who2 = note.getEntity2();
+		if (who2 != null) {
+			who2.addEventNote(note);
+		}
+
+		Entity who3 = note.getEntity3();
+		if (who3 != null) {
+			who3.addEventNote(note);
+		}
+
+		EventAbstract what = note.getEvent();
+		if (what != null) {
+			what.addEventNote(note);
+		}
+	}
+
+	/**
+	 * Tells the entities and the event carried by the given event-note that
+	 * they are no longer scheduled by this note. Event-lists call this method
+	 * whenever an event-note is removed.
+	 * @param note
+	 *            EventNote : The event-note just removed from the event-list
+	 */
+	void removeFromSchedulables(EventNote note) {
+
+		if (note.getEntity1() != null) {
+			note.getEntity1().removeEventNote(note);
+		}
+
+		if (note.getEntity2() != null) {
+			note.getEntity2().removeEventNote(note);
+		}
+
+		if (note.getEntity3() != null) {
+			note.getEntity3().removeEventNote(note);
+		}
+
+		if (note.getEvent() != null) {
+			note.getEvent().removeEventNote(note);
+		}
+	}
 }
\ No newline at end of file
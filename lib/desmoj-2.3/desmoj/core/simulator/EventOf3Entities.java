@@ -509,7 +509,7 @@ public abstract class EventOf3Entities<E extends Entity, F extends Entity, G ext
 		}
 
         // generate trace
-        this.generateTraceForScheduling(who1, who2, who3, after, null, after.getEventNotes().get(after.getEventNotes().size()-1).getTime(), null);
+        this.generateTraceForScheduling(who1, who2, who3, after, null, after.getLastEventNote().getTime(), null);
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleAfter(after, who1, who2, who3,
@@ -634,7 +634,7 @@ public abstract class EventOf3Entities<E extends Entity, F extends Entity, G ext
 		}
 
         // generate trace
-        this.generateTraceForScheduling(who1, who2, who3, null, before, before.getEventNotes().get(0).getTime(), null);
+        this.generateTraceForScheduling(who1, who2, who3, null, before, before.getFirstEventNote().getTime(), null);
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleBefore(before, who1, who2, who3,
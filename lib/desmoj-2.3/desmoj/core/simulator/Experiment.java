@@ -3,13 +3,20 @@ package desmoj.core.simulator;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import javax.swing.JFrame;
 
 import desmoj.core.dist.DistributionManager;
+import desmoj.core.dist.JumpableRandomGenerator;
+import desmoj.core.dist.Xoshiro256StarStarRandomGenerator;
 import desmoj.core.exception.DESMOJException;
 import desmoj.core.report.DebugNote;
 import desmoj.core.report.ErrorMessage;
@@ -191,6 +198,23 @@ public class Experiment extends NamedObject {
 	 */
 	private ThreadGroup _expThreads;
 
+	/**
+	 * The sim-processes of this Experiment whose thread (a SimThread or a
+	 * virtual thread) has been started but not yet finished the lifecycle.
+	 */
+	private Set<SimProcess> _simThreads;
+
+	/**
+	 * The kind of Java threads running the SimThreads of this Experiment.
+	 */
+	private SimThread.Mode _simThreadMode;
+
+	/**
+	 * The stack size of platform threads running SimThreads in bytes, 0 for
+	 * the default stack size of the Java VM.
+	 */
+	private long _simThreadStackSize;
+
 	/**
 	 * The list to register all OutputType objects to close them after finishing
 	 * the Experiment.
@@ -209,6 +233,14 @@ public class Experiment extends NamedObject {
 	 */
 	private ResourceDB _resDB;
 
+	/**
+	 * The time base (epsilon, reference unit, start time and time formatter)
+	 * of this experiment. It is bound to the threads setting up and running
+	 * this experiment, so that time conversions do not interfere with other
+	 * experiments running concurrently.
+	 */
+	private TimeBase _timeBase;
+
 	/**
 	 * The TimeInstant when the experiment is supposed to stop. Is initially
 	 * <code>null</code> and will be set only if the user provides a time limit.
@@ -220,6 +252,17 @@ public class Experiment extends NamedObject {
      * be set only if the user provides a time limit.
      */
     private ExternalEventStop _stopTimeEvent = null;
+
+    /**
+     * The first value of a snapshot file written by
+     * <code>snapshot(String fileName)</code> ("DSNP").
+     */
+    private static final int SNAPSHOT_MAGIC = 0x44534E50;
+
+    /**
+     * The version of the snapshot file layout.
+     */
+    private static final int SNAPSHOT_VERSION = 2;
 	
     /**
      * A list of <code>Condition</code>s which cause the experiment to stop. The
@@ -228,6 +271,14 @@ public class Experiment extends NamedObject {
      */
     private List<ModelCondition> _stopConditions;
 
+    /**
+     * A list of <code>TriggeredCondition</code>s which cause the experiment to
+     * stop. Unlike the conditions in <code>_stopConditions</code>, they are not
+     * polled after every event but re-evaluated by the model when the values
+     * they depend on change.
+     */
+    private List<TriggeredCondition> _triggeredStopConditions;
+
 	/**
 	 * Flag indicating whether a progressbar for this experiment should be
 	 * displayed or not.
@@ -523,9 +574,13 @@ public class Experiment extends NamedObject {
         _reportOutput = new ArrayList<OutputType>();
         _status = NOT_INITIALIZED;
         _stopConditions = new ArrayList<ModelCondition>(); // empty, i.e. no Stopper
+        _triggeredStopConditions = new ArrayList<TriggeredCondition>();
                                                         // can be set at
                                                         // instantiation time
         _expThreads = new ThreadGroup(name);
+        _simThreads = Collections.synchronizedSet(new HashSet<SimProcess>());
+        _simThreadMode = SimThread.Mode.PLATFORM;
+        _simThreadStackSize = 0;
         _registryFileOutput = new ArrayList<FileOutput>();
         _registryOutputType = new ArrayList<OutputType>();
         lastSuffix = 0; // no batches have run so far ;-)
@@ -657,30 +712,20 @@ public class Experiment extends NamedObject {
         if (epsilon == null)
         {
             // set to default unit
-            epsilon = TimeOperations.getEpsilon();
+            epsilon = TimeUnit.MICROSECONDS;
         }
         if (referenceUnit == null)
         {
             // set to default unit
-            referenceUnit = TimeOperations.getReferenceUnit();
+            referenceUnit = TimeUnit.SECONDS;
         }
-        
-        // swap epsilon and reference unit if the reference unit has a
-        // finer granularity than epsilon
-        if (referenceUnit.compareTo(epsilon) < 0)
-        {
-            TimeUnit buffer = referenceUnit;
-            referenceUnit = epsilon;
-            epsilon = buffer;
-        }
-        // set epsilon and referenceUnit
-        TimeOperations.setEpsilon(epsilon);
-        TimeOperations.setReferenceUnit(referenceUnit);
 
-        // set time formatter (use default if null passed)
-        TimeOperations.setTimeFormatter(formatter != null ? 
-                formatter : 
-                TimeOperations.getDefaultTimeFormatter());
+        // create the time base of this experiment (swapping epsilon and
+        // reference unit if the reference unit has a finer granularity than
+        // epsilon, using the default time formatter if null passed) and
+        // bind it to the thread setting up the experiment
+        _timeBase = new TimeBase(epsilon, referenceUnit, formatter);
+        TimeOperations.bind(_timeBase);
 
         // building the scheduler: prepare event list...
         // (for efficiency reasons, we use the TreeList-based implementation)
@@ -1127,24 +1172,23 @@ public class Experiment extends NamedObject {
 			f.close();
 
 		// kill all SimThreads still active
-		Thread[] survivors = new Thread[_expThreads.activeCount()];
-		_expThreads.enumerate(survivors);
+		SimProcess[] survivors;
+		synchronized (_simThreads) {
+			survivors = _simThreads.toArray(new SimProcess[_simThreads.size()]);
+		}
 
 		for (int i = 0; i < survivors.length; i++)		{
 
 			// print existing threads for controlling purposes only
 			// System.out.println(survivors[i]);
 
-			// if we get the enumeration of survivors, some of them
-			// might not have made it until here and die in between
-			// so an occasional NullPointerException is perfectly
-			// alright and no reason to worry -> we just dump it.
-			if (survivors[i] instanceof SimThread)			{
-				try				{
-					((SimThread) survivors[i]).kill();
-				} catch (NullPointerException e)				{
-					; // forget it anyway...
-				}
+			// some of the survivors might not have made it until here and
+			// die in between so an occasional NullPointerException is
+			// perfectly alright and no reason to worry -> we just dump it.
+			try				{
+				survivors[i].resume();
+			} catch (NullPointerException e)				{
+				; // forget it anyway...
 			}
 		}
 
@@ -1174,7 +1218,7 @@ public class Experiment extends NamedObject {
 	 */	
 	public TimeUnit getEpsilonUnit() {
 
-		return TimeOperations.getEpsilon();
+		return _timeBase.getEpsilon();
 	}
 	
     /**
@@ -1187,7 +1231,7 @@ public class Experiment extends NamedObject {
      */ 
     public SimTime getEpsilon() {
 
-        return SimTime.toSimTime(new TimeSpan (1L, TimeOperations.getEpsilon()));
+        return SimTime.toSimTime(new TimeSpan (1L, _timeBase.getEpsilon()));
     }
 
 	/**
@@ -1280,7 +1324,17 @@ public class Experiment extends NamedObject {
 	 * @return TimeUnit : The reference unit.
 	 */
 	public TimeUnit getReferenceUnit() {
-		return TimeOperations.getReferenceUnit();
+		return _timeBase.getReferenceUnit();
+	}
+
+	/**
+	 * Returns the time base of this experiment, i.e. its epsilon, reference
+	 * unit, start time and time formatter.
+	 * 
+	 * @return TimeBase : The time base of this experiment
+	 */
+	public TimeBase getTimeBase() {
+		return _timeBase;
 	}
 
 	/**
@@ -1342,7 +1396,9 @@ public class Experiment extends NamedObject {
      */
      public List<ModelCondition> getStopConditions() {
      
-            return new java.util.ArrayList<ModelCondition>(this._stopConditions);
+            java.util.List<ModelCondition> conditions = new java.util.ArrayList<ModelCondition>(this._stopConditions);
+            conditions.addAll(this._triggeredStopConditions);
+            return conditions;
      }
      
      /**
@@ -1351,6 +1407,10 @@ public class Experiment extends NamedObject {
       public void removeStopConditions() {
       
              this._stopConditions.clear();
+             for (TriggeredCondition c : this._triggeredStopConditions) {
+                 c.arm(null);
+             }
+             this._triggeredStopConditions.clear();
       }
 
 	/**
@@ -1366,6 +1426,50 @@ public class Experiment extends NamedObject {
 		return _expThreads;
 
 	}
+
+	/**
+	 * Creates the unstarted Java thread for the given sim-process according
+	 * to the SimThread mode and stack size of this experiment. The
+	 * sim-process is registered to be killed if the experiment is stopped
+	 * before its lifecycle has finished.
+	 * 
+	 * @param process
+	 *            SimProcess : The sim-process to create the thread for
+	 * @return java.lang.Thread : The thread to run the sim-process' lifecycle
+	 */
+	Thread newSimThread(SimProcess process) {
+
+		Thread thread = SimThread.create(process, _simThreadMode, _expThreads,
+				_simThreadStackSize);
+		_simThreads.add(process);
+		return thread;
+
+	}
+
+	/**
+	 * Removes a sim-process whose thread has finished its lifecycle from the
+	 * sim-processes to be killed at the end of the experiment.
+	 * 
+	 * @param process
+	 *            SimProcess : The sim-process whose lifecycle has finished
+	 */
+	void unregisterSimThread(SimProcess process) {
+
+		_simThreads.remove(process);
+
+	}
+
+	/**
+	 * Returns the number of SimThreads of this experiment whose sim-process'
+	 * lifecycle has been started but not finished yet.
+	 * 
+	 * @return int : The number of live SimThreads
+	 */
+	public int getLiveSimThreadCount() {
+
+		return _simThreads.size();
+
+	}
 	
 	/**
      * @deprecated Depends on TimeFormatter in use. Returns the experiment's number 
@@ -1377,8 +1481,8 @@ public class Experiment extends NamedObject {
      */
     public int getTimeFloats() {
         
-        if (TimeOperations.getTimeFormatter() instanceof SingleUnitTimeFormatter) {
-            return (int) ((SingleUnitTimeFormatter)TimeOperations.getTimeFormatter())._floats;
+        if (_timeBase.getTimeFormatter() instanceof SingleUnitTimeFormatter) {
+            return (int) ((SingleUnitTimeFormatter)_timeBase.getTimeFormatter())._floats;
         } else 
             return 0;
     }
@@ -1482,6 +1586,10 @@ public class Experiment extends NamedObject {
 	 */
 	public void proceed() {
 
+		// the experiment might be resumed by another thread than the one
+		// which has started it
+		TimeOperations.bind(_timeBase);
+
 		if (_status < STARTED) {
 			sendWarning(
 					"Can not proceed with Experiment! Command ignored.",
@@ -1538,7 +1646,8 @@ public class Experiment extends NamedObject {
 					_status = STOPPED;
 				}
 
-				// check potential stop conditions
+				// check potential stop conditions (triggered conditions
+				// stop the experiment themselves and are not polled)
 				if (!_stopConditions.isEmpty()) {
 				    for (ModelCondition c : _stopConditions) {
     					if (c.check()) {
@@ -1720,6 +1829,9 @@ public class Experiment extends NamedObject {
 		_client = mainModel;
 		_client.setMain();
 
+		// the model is initialized by the thread connecting it
+		TimeOperations.bind(_timeBase);
+
 	}
 
 	/**
@@ -2068,7 +2180,8 @@ public class Experiment extends NamedObject {
 	}
 
 	/**
-	 * Sets the TimeFormatter to be used for output of time Strings.
+	 * Sets the TimeFormatter to be used for output of time Strings by the
+	 * experiment executed by the current thread.
 	 * 
 	 * @param format
 	 *            TimeFormatter : the formatter to be used for formatting time
@@ -2097,6 +2210,144 @@ public class Experiment extends NamedObject {
 		clientScheduler.setRandomizingConcurrentEvents(randomizing);
 	}
 
+	/**
+	 * Sets the implementation of the event-list used by the scheduler of this
+	 * experiment. Default is <code>EventTreeList</code>; for models with many
+	 * pending events <code>CalendarEventList</code> offers insertion and
+	 * removal in constant amortised time, <code>HeapEventList</code> removes
+	 * cancelled or rescheduled event-notes without searching the event-list
+	 * in logarithmic time. All implementations process
+	 * concurrent events in the same order (by descending priority, then in
+	 * the order of scheduling). Event-notes already scheduled are transferred
+	 * to the new event-list, but it's a good idea to call this method right
+	 * after constructing the experiment. If the given class is abstract or
+	 * can not be instantiated using a public no-arg constructor, a warning is
+	 * issued and the event-list is not changed.
+	 * 
+	 * @param eventListClass
+	 *            Class : The event-list implementation to use, e.g.
+	 *            <code>CalendarEventList.class</code>
+	 */
+	public void setEventList(Class<? extends EventList> eventListClass) {
+
+		EventList eventList = null;
+		if ((eventListClass.getModifiers() & java.lang.reflect.Modifier.ABSTRACT) == 0) {
+			try {
+				eventList = eventListClass.getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException e) {
+				eventList = null;
+			}
+		}
+
+		if (eventList != null) {
+			clientScheduler.setEventList(eventList);
+		} else {
+			this.sendWarning(
+					"Invalid event-list given! Method call ignored!",
+					"Experiment '" + getName()
+							+ "', Method 'setEventList(Class eventListClass)'",
+					"The class provided '" + eventListClass.getSimpleName()
+							+ "' is abstract or has no public no-arg constructor.",
+					"Make sure to use a non-abstract subclass of"
+							+ " desmoj.core.simulator.EventList with a public no-arg constructor.");
+		}
+	}
+
+	/**
+	 * Switches recycling of event-notes on or off. If switched on, the
+	 * scheduler reuses the event-notes of processed events for scheduling
+	 * new ones instead of allocating a new event-note each time. Default is
+	 * off. The number of allocated and recycled event-notes can be obtained
+	 * from <code>getScheduler().getEventNotePool()</code>.
+	 * 
+	 * @param pooling
+	 *            boolean : <code>true</code> to recycle event-notes,
+	 *            <code>false</code> to allocate a new event-note for every
+	 *            scheduled event
+	 */
+	public void setEventNotePooling(boolean pooling) {
+
+		clientScheduler.getEventNotePool().setEnabled(pooling);
+	}
+
+	/**
+	 * Sets the kind of Java threads running the lifecycles of the
+	 * sim-processes of this experiment. Default is
+	 * <code>SimThread.Mode.PLATFORM</code>. Virtual threads allow for many
+	 * more live sim-processes and cheaper changes of control, but require
+	 * Java 24 or later. On earlier Java runtimes (see
+	 * <code>SimThread.isVirtualSupported()</code>) a virtual thread waiting
+	 * for its turn would pin its carrier thread, so selecting
+	 * <code>SimThread.Mode.VIRTUAL</code> only gives a warning and the
+	 * experiment keeps using platform threads, i.e.
+	 * <code>getSimThreadMode()</code> returns
+	 * <code>SimThread.Mode.PLATFORM</code>. The mode applies to sim-processes
+	 * started after this call.
+	 * 
+	 * @param mode
+	 *            SimThread.Mode : The kind of threads to run sim-processes
+	 */
+	public void setSimThreadMode(SimThread.Mode mode) {
+
+		if (mode == null) {
+			sendWarning("Can't set SimThread mode! Command ignored.",
+					"Experiment '" + getName()
+							+ "', Method 'setSimThreadMode(SimThread.Mode mode)'",
+					"The mode given as parameter is a null reference.",
+					"Be sure to have a valid mode reference before calling "
+							+ "this method.");
+			return;
+		}
+		if (mode == SimThread.Mode.VIRTUAL && !SimThread.isVirtualSupported()) {
+			sendWarning("Virtual threads not supported! Platform threads are used.",
+					"Experiment '" + getName()
+							+ "', Method 'setSimThreadMode(SimThread.Mode mode)'",
+					"This Java runtime provides no virtual threads which can "
+							+ "wait on monitors without pinning their carrier thread.",
+					"Run the experiment on Java 24 or later to use virtual threads.");
+			mode = SimThread.Mode.PLATFORM;
+		}
+		_simThreadMode = mode;
+	}
+
+	/**
+	 * Returns the kind of Java threads running the lifecycles of the
+	 * sim-processes of this experiment.
+	 * 
+	 * @return SimThread.Mode : The kind of threads to run sim-processes
+	 */
+	public SimThread.Mode getSimThreadMode() {
+
+		return _simThreadMode;
+	}
+
+	/**
+	 * Sets the stack size of the platform threads running the lifecycles of
+	 * the sim-processes of this experiment. A small stack size (e.g. 64 KB)
+	 * considerably raises the number of sim-processes that can be alive at
+	 * the same time. The Java VM may treat the value as a hint only. Default
+	 * is 0, i.e. the default stack size of the Java VM is used. Has no effect
+	 * on virtual threads.
+	 * 
+	 * @param bytes
+	 *            long : The stack size in bytes or 0 for the default
+	 */
+	public void setSimThreadStackSize(long bytes) {
+
+		_simThreadStackSize = Math.max(0, bytes);
+	}
+
+	/**
+	 * Returns the stack size of the platform threads running the
+	 * sim-processes of this experiment.
+	 * 
+	 * @return long : The stack size in bytes, 0 for the default stack size
+	 */
+	public long getSimThreadStackSize() {
+
+		return _simThreadStackSize;
+	}
+
 	/**
 	 * Sets the speed rate for an execution that is proportional to wall-clock
 	 * time (real time). Set the speed rate to a value bigger than zero for a
@@ -2126,6 +2377,48 @@ public class Experiment extends NamedObject {
 
 	}
 
+	/**
+	 * Lets all distributions draw their random numbers from non-overlapping
+	 * substreams of the given stream of the given seed instead of seeding
+	 * them from the SeedGenerator. The stream is provided by a
+	 * <code>Xoshiro256StarStarRandomGenerator</code>, so each of its 2^64
+	 * streams of a seed can be split into 2^64 substreams of 2^128 numbers.
+	 * Using the number of a replication as stream makes every replication
+	 * reproducible in isolation, independently of the order or the threads
+	 * in which the replications are run. Call this method before the model's
+	 * distributions are created; <code>setSeedGenerator(long seed)</code>
+	 * switches back to seeds.
+	 * 
+	 * @see desmoj.core.dist.Xoshiro256StarStarRandomGenerator#forStream(long,
+	 *      long)
+	 * 
+	 * @param seed
+	 *            long : The seed shared by all streams
+	 * @param stream
+	 *            long : The non-negative number of the stream, e.g. the
+	 *            number of the replication
+	 */
+	public void setStream(long seed, long stream) {
+
+		setStream(Xoshiro256StarStarRandomGenerator.forStream(seed, stream));
+
+	}
+
+	/**
+	 * Lets all distributions draw their random numbers from non-overlapping
+	 * substreams split from the given generator, positioned at the start of
+	 * the stream to use. See <code>setStream(long seed, long stream)</code>.
+	 * 
+	 * @param stream
+	 *            JumpableRandomGenerator : The stream (used and advanced by
+	 *            the experiment)
+	 */
+	public void setStream(JumpableRandomGenerator stream) {
+
+		_distMan.setStream(stream);
+
+	}
+
 	/**
 	 * Sets the underlying pseudo random number generator to be used by all
 	 * distributions created from now on. The default generator is
@@ -2141,18 +2434,10 @@ public class Experiment extends NamedObject {
 	public void setRandomNumberGenerator(
 			Class<? extends desmoj.core.dist.UniformRandomGenerator> randomNumberGenerator) {
 
-		boolean classValid = false;
-		// // Verify that a class implementing interface
-		// desmoj.desmoj.core.dist.UniformRandomGenerator was passed
-		// for (int i = 0; i < randomNumberGenerator.getInterfaces().length;
-		// i++) {
-		// if
-		// (randomNumberGenerator.getInterfaces()[i].equals(desmoj.core.dist.UniformRandomGenerator.class))
-		// {
-		// classValid = true;
-		// break;
-		// }
-		// }
+		// Verify that a class implementing interface
+		// desmoj.core.dist.UniformRandomGenerator was passed
+		boolean classValid = desmoj.core.dist.UniformRandomGenerator.class
+				.isAssignableFrom(randomNumberGenerator);
 
 		// Verify the class provided is not abstract
 		if ((randomNumberGenerator.getModifiers() & java.lang.reflect.Modifier.ABSTRACT) > 0
@@ -2242,7 +2527,8 @@ public class Experiment extends NamedObject {
 
 		// this allows us to use start() in loops for multiple experiment runs
 		// in other words, this is a shortcut for the lazy programmer
-		if (_status == STOPPED)
+		// (an experiment reset by reset(long seed) is already started)
+		if (_status == STOPPED || _status == STARTED)
 			proceed();
 
 		// here's what start was supposed to be at first
@@ -2266,6 +2552,9 @@ public class Experiment extends NamedObject {
 	 */
 	public void start(TimeInstant initTime) {
 
+		// time conversions of this thread refer to this experiment from now on
+		TimeOperations.bind(_timeBase);
+
 		if (_status < CONNECTED) {
 			sendWarning(
 					"Can not start experiment! Command ignored.",
@@ -2308,7 +2597,7 @@ public class Experiment extends NamedObject {
 		// client.init(); already done in connectToExperiment
 		_client.doInitialSchedules();
 		_client.doSubmodelSchedules();
-		TimeOperations.setStartTime(initTime);
+		_timeBase.setStartTime(initTime);
 		_client.register(new SimulationRunReporter.SimulationRunReporterProvider(_client));
 		// now everything is set up, go on and process events
 		_status = STARTED;
@@ -2317,6 +2606,364 @@ public class Experiment extends NamedObject {
 		proceed();
 
 	}
+
+	/**
+	 * Resets a stopped experiment and its model to the start time so that
+	 * another replication can be run with the given seed, without a new
+	 * experiment and model being constructed. The scheduler's event-list is
+	 * emptied and the simulation clock is set back to the start time, the
+	 * seed generator is set to the given seed and all registered
+	 * distributions draw new seeds from it in the order of their
+	 * registration, statistics are reset and the model's (and submodels')
+	 * <code>resetState()</code> and <code>doInitialSchedules()</code>
+	 * methods are called. Event-list, event-note pool, output settings, stop
+	 * conditions and the model's components are kept, so a model restoring
+	 * its state properly in <code>resetState()</code> runs exactly as a new
+	 * model connected to a new experiment whose seed generator has been set
+	 * to the same seed.
+	 * <p>
+	 * Call <code>start()</code> afterwards to run the replication. Only
+	 * event-oriented models can be reset; trace periods set by
+	 * <code>tracePeriod()</code> are not restored.
+	 * 
+	 * @param seed
+	 *            long : The new seed for the seed generator
+	 */
+	public void reset(long seed) {
+
+		if (!canReset("void reset(long seed)"))
+			return;
+
+		_distMan.setSeed(seed);
+		resetModel();
+	}
+
+	/**
+	 * Resets a stopped experiment and its model to the start time so that
+	 * another replication can be run with random numbers drawn from
+	 * substreams of the given stream, see <code>reset(long seed)</code> and
+	 * <code>setStream(long seed, long stream)</code>. The model then runs
+	 * exactly as a new model connected to a new experiment set to the same
+	 * stream.
+	 * 
+	 * @param stream
+	 *            JumpableRandomGenerator : The stream of the replication,
+	 *            positioned at its start (used and advanced by the
+	 *            experiment)
+	 */
+	public void reset(JumpableRandomGenerator stream) {
+
+		if (!canReset("void reset(JumpableRandomGenerator stream)"))
+			return;
+
+		_distMan.setStream(stream);
+		resetModel();
+	}
+
+	/**
+	 * Checks whether the experiment can be reset, sending a warning if not.
+	 * 
+	 * @param method
+	 *            java.lang.String : The signature of the calling method
+	 */
+	private boolean canReset(String method) {
+
+		if (_status < STARTED || _status > STOPPED) {
+			sendWarning(
+					"Can not reset experiment! Command ignored.",
+					"Experiment: " + getName() + " Method: " + method,
+					"Only experiments which have been started and are stopped can be reset.",
+					"Reset the experiment after it has stopped and before calling finish().");
+			return false;
+		}
+		if (!_simThreads.isEmpty()) {
+			sendWarning(
+					"Can not reset experiment! Command ignored.",
+					"Experiment: " + getName() + " Method: " + method,
+					"The lifecycles of some sim-processes have not finished yet.",
+					"Use a new experiment for each run of a process-oriented model.");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Resets the scheduler, the distributions and the model after the seed
+	 * generator or stream has been set, see <code>reset(long seed)</code>.
+	 */
+	private void resetModel() {
+
+		TimeOperations.bind(_timeBase);
+		TimeInstant initTime = _timeBase.getStartTime() != null ? _timeBase.getStartTime() : new TimeInstant(0);
+		clientScheduler.reset(initTime);
+
+		_distMan.newSeedAll();
+		_client.reset();
+		_client.resetState();
+		_client.doSubmodelResetStates();
+
+		if (_stopTimeEvent != null && TimeInstant.isAfter(_stopTime, initTime)) {
+			_stopTimeEvent.schedule(_stopTime);
+		}
+		_client.doInitialSchedules();
+		_client.doSubmodelSchedules();
+
+		_status = STARTED;
+		this._realTimeStartTime = System.nanoTime();
+	}
+
+	/**
+	 * Writes the complete state of the stopped simulation to the given file,
+	 * so that it can be continued later (or several times, e.g. with changed
+	 * parameters) by <code>restore(String fileName)</code>. The snapshot
+	 * contains the simulation clock, the seed generator, the statistics and
+	 * random number streams of all reportables, the state of the model and
+	 * the event-list. Java serialization is not used: the model has to
+	 * implement <code>writeSnapshotState</code>,
+	 * <code>readSnapshotState</code>, <code>writeSnapshotReference</code> and
+	 * <code>readSnapshotReference</code> and return <code>true</code> from
+	 * <code>isSnapshotSupported()</code>, and all distributions have to use
+	 * random number generators implementing
+	 * <code>StatefulRandomGenerator</code>; otherwise the command is ignored
+	 * with a warning. Only event-oriented models can be saved; output files
+	 * and trace settings are not part of the snapshot.
+	 * <p>
+	 * Stop the experiment at the point of time to save, e.g. by
+	 * <code>stop(TimeInstant stopTime)</code>, and call this method before
+	 * <code>finish()</code>.
+	 * 
+	 * @param fileName
+	 *            java.lang.String : The name of the snapshot file
+	 * @throws java.io.IOException
+	 *             if the file can not be written
+	 */
+	public void snapshot(String fileName) throws IOException {
+
+		SnapshotWriter out = writeSnapshot("void snapshot(String fileName)");
+		if (out != null)
+			out.writeTo(fileName);
+	}
+
+	/**
+	 * Writes the complete state of the stopped simulation to memory instead of
+	 * a file, e.g. to fork the simulation into several branches continuing
+	 * from the current point of time. The returned buffer is read-only and
+	 * may be passed to <code>restore(ByteBuffer snapshot)</code> of any
+	 * number of experiments, also concurrently, as each restore reads its own
+	 * view of the buffer. See <code>snapshot(String fileName)</code> for the
+	 * requirements on the model.
+	 * 
+	 * @return java.nio.ByteBuffer : The snapshot or <code>null</code> if the
+	 *         experiment can not be saved in its current state
+	 */
+	public ByteBuffer snapshot() {
+
+		SnapshotWriter out = writeSnapshot("ByteBuffer snapshot()");
+		return out == null ? null : out.toBuffer();
+	}
+
+	/**
+	 * Writes the snapshot of the stopped simulation.
+	 * 
+	 * @param method
+	 *            java.lang.String : The calling method for warnings
+	 * @return SnapshotWriter : The written snapshot or <code>null</code> if
+	 *         the experiment can not be saved in its current state
+	 */
+	private SnapshotWriter writeSnapshot(String method) {
+
+		if (_status < STARTED || _status > STOPPED) {
+			sendWarning(
+					"Can not write snapshot! Command ignored.",
+					"Experiment: " + getName() + " Method: " + method,
+					"Only experiments which have been started and are stopped can be saved.",
+					"Save the experiment after it has stopped and before calling finish().");
+			return null;
+		}
+		if (!_simThreads.isEmpty()) {
+			sendWarning(
+					"Can not write snapshot! Command ignored.",
+					"Experiment: " + getName() + " Method: " + method,
+					"The lifecycles of some sim-processes have not finished yet.",
+					"Only event-oriented models can be saved.");
+			return null;
+		}
+		if (!_client.isSnapshotSupported()) {
+			sendWarning(
+					"Can not write snapshot! Command ignored.",
+					"Experiment: " + getName() + " Method: " + method,
+					"The model " + _client.getName() + " does not support snapshots.",
+					"Override the snapshot methods of the model and let its method "
+							+ "isSnapshotSupported() return true.");
+			return null;
+		}
+		Reportable unsaved = _client.getReportableWithoutSnapshot();
+		if (unsaved != null || !_distMan.canWriteSnapshot()) {
+			sendWarning(
+					"Can not write snapshot! Command ignored.",
+					"Experiment: " + getName() + " Method: " + method,
+					"The random number generator of "
+							+ (unsaved != null ? unsaved.getName() : "the seed generator")
+							+ " does not implement StatefulRandomGenerator.",
+					"Use random number generators implementing StatefulRandomGenerator.");
+			return null;
+		}
+
+		TimeOperations.bind(_timeBase);
+		SnapshotWriter out = new SnapshotWriter(4096);
+		out.writeInt(SNAPSHOT_MAGIC);
+		out.writeInt(SNAPSHOT_VERSION);
+		out.writeString(_client.getClass().getName());
+		out.writeString(TimeOperations.getEpsilon().name());
+		out.writeTimeInstant(clientScheduler.presentTime());
+		out.writeTimeInstant(_timeBase.getStartTime());
+		_distMan.writeSnapshot(out);
+		_client.writeSnapshot(out);
+		_client.writeSnapshotState(out);
+		_client.writeReportableSnapshots(out);
+		clientScheduler.writeSnapshot(out, _client);
+		return out;
+	}
+
+	/**
+	 * Restores the state of a simulation saved by
+	 * <code>snapshot(String fileName)</code>. The experiment has to be
+	 * connected to a new instance of the model class which has been saved,
+	 * with the same reportables (i.e. initialized the same way), or it has to
+	 * be a stopped experiment of such a model, which is emptied as by
+	 * <code>reset(long seed)</code> first. Parameters of the model which are
+	 * not part of its state may be changed before restoring, so a saved run
+	 * can be continued under different conditions. The stop time and stop
+	 * conditions of this experiment are kept; call <code>start()</code>
+	 * afterwards to continue the simulation from the saved point of time.
+	 * 
+	 * @param fileName
+	 *            java.lang.String : The name of the snapshot file
+	 * @throws java.io.IOException
+	 *             if the file can not be read or does not match the model
+	 */
+	public void restore(String fileName) throws IOException {
+
+		if (canRestore("void restore(String fileName)"))
+			readSnapshot(SnapshotReader.map(fileName), "'" + fileName + "'");
+	}
+
+	/**
+	 * Restores the state of a simulation saved in memory by
+	 * <code>snapshot()</code>, e.g. to run one of several branches of a
+	 * forked simulation. The buffer itself is not modified, so the same
+	 * snapshot can be restored by several experiments, also concurrently.
+	 * See <code>restore(String fileName)</code> for the requirements on the
+	 * experiment and its model.
+	 * 
+	 * @param snapshot
+	 *            java.nio.ByteBuffer : The snapshot returned by
+	 *            <code>snapshot()</code>
+	 * @throws java.io.IOException
+	 *             if the snapshot does not match the model
+	 */
+	public void restore(ByteBuffer snapshot) throws IOException {
+
+		if (canRestore("void restore(ByteBuffer snapshot)"))
+			readSnapshot(new SnapshotReader(snapshot.duplicate()), "Snapshot");
+	}
+
+	/**
+	 * Tests if a snapshot can be restored, sends a warning otherwise.
+	 * 
+	 * @param method
+	 *            java.lang.String : The calling method for warnings
+	 * @return boolean : Is <code>true</code> if the experiment is connected or
+	 *         stopped, runs no sim-processes and its model supports snapshots
+	 */
+	private boolean canRestore(String method) {
+
+		if (_status < CONNECTED || _status > STOPPED) {
+			sendWarning(
+					"Can not restore snapshot! Command ignored.",
+					"Experiment: " + getName() + " Method: " + method,
+					"Only experiments connected to a model or stopped can be restored.",
+					"Connect a model to the experiment first using the model's method "
+							+ "connectToExperiment(Experiment exp).");
+			return false;
+		}
+		if (!_simThreads.isEmpty()) {
+			sendWarning(
+					"Can not restore snapshot! Command ignored.",
+					"Experiment: " + getName() + " Method: " + method,
+					"The lifecycles of some sim-processes have not finished yet.",
+					"Only event-oriented models can be restored.");
+			return false;
+		}
+		if (!_client.isSnapshotSupported()) {
+			sendWarning(
+					"Can not restore snapshot! Command ignored.",
+					"Experiment: " + getName() + " Method: " + method,
+					"The model " + _client.getName() + " does not support snapshots.",
+					"Override the snapshot methods of the model and let its method "
+							+ "isSnapshotSupported() return true.");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Restores the state of the simulation from the given snapshot.
+	 * 
+	 * @param in
+	 *            SnapshotReader : The snapshot
+	 * @param source
+	 *            java.lang.String : The source of the snapshot for error
+	 *            messages
+	 * @throws java.io.IOException
+	 *             if the snapshot does not match the model
+	 */
+	private void readSnapshot(SnapshotReader in, String source) throws IOException {
+
+		TimeOperations.bind(_timeBase);
+		if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+			throw new IOException(source + " is not a snapshot of this version");
+		}
+		String modelClass = in.readString();
+		if (!modelClass.equals(_client.getClass().getName())) {
+			throw new IOException("Snapshot of model " + modelClass + " can not be restored into model "
+					+ _client.getClass().getName());
+		}
+		String epsilon = in.readString();
+		if (!epsilon.equals(TimeOperations.getEpsilon().name())) {
+			throw new IOException("Snapshot measured in " + epsilon
+					+ " can not be restored into an experiment measured in "
+					+ TimeOperations.getEpsilon().name());
+		}
+		TimeInstant time = in.readTimeInstant();
+		TimeInstant startTime = in.readTimeInstant();
+
+		clientScheduler.reset(time);
+		if (_status == CONNECTED) {
+			_client.register(new SimulationRunReporter.SimulationRunReporterProvider(_client));
+		} else {
+			_client.resetState();
+			_client.doSubmodelResetStates();
+		}
+		_timeBase.setStartTime(startTime);
+
+		_distMan.readSnapshot(in);
+		_client.readSnapshot(in);
+		_client.readSnapshotState(in);
+		_client.readReportableSnapshots(in);
+		clientScheduler.readSnapshot(in, _client);
+		if (!in.isExhausted()) {
+			throw new IOException(source + " has not been read completely by model "
+					+ _client.getName());
+		}
+
+		if (_stopTimeEvent != null && TimeInstant.isAfter(_stopTime, time)) {
+			_stopTimeEvent.schedule(_stopTime);
+		}
+
+		_status = STARTED;
+		this._realTimeStartTime = System.nanoTime();
+	}
 	
     /**
      * @deprecated Use start(TimeInstant initTime). 
@@ -2333,6 +2980,26 @@ public class Experiment extends NamedObject {
         start(SimTime.toTimeInstant(initTime));
     }
 
+	/**
+	 * Gives all random number streams of the experiment new seeds derived from
+	 * the given seed, without changing the state of the model or the point of
+	 * simulation time. The seed generator is set to the given seed, all
+	 * registered distributions draw new seeds from it in the order of their
+	 * registration and the model's (and submodels') <code>reseed()</code>
+	 * methods are called. Used to let branches of a simulation restored from
+	 * the same snapshot diverge.
+	 * 
+	 * @param seed
+	 *            long : The new seed for the seed generator
+	 */
+	public void reseed(long seed) {
+
+		_distMan.setSeed(seed);
+		_distMan.newSeedAll();
+		_client.reseed();
+		_client.doSubmodelReseeds();
+	}
+
 	/**
 	 * Specifies a ModelCondition to stop the simulation. Note that this methode can
 	 * be called muliple times, defining alternative conditions to terminate the 
@@ -2342,6 +3009,9 @@ public class Experiment extends NamedObject {
 	 * are met; thus it is recommended to additionally always use a time limit 
 	 * if none of the conditions in question can be proven to be met during the 
 	 * run of the simulation!
+	 * A <code>TriggeredCondition</code> is not checked after every event; it is
+	 * re-evaluated only when one of the sources it depends on changes, which
+	 * removes the per-event cost of polling it.
 	 * 
 	 * @param stopCond
 	 *            ModelCondition : A condition to stop the simulation once
@@ -2357,6 +3027,10 @@ public class Experiment extends NamedObject {
 							+ "Condition reference.",
 					"Make sure to provide a valid stop Condition for "
 							+ "this experiment.");
+		} else if (stopCond instanceof TriggeredCondition) {
+			TriggeredCondition triggered = (TriggeredCondition) stopCond;
+			triggered.arm(this);
+			this._triggeredStopConditions.add(triggered);
 		} else {
 			this._stopConditions.add(stopCond);
 		}
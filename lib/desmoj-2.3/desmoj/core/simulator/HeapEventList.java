@@ -0,0 +1,579 @@
+package desmoj.core.simulator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import desmoj.core.exception.SimAbortedException;
+import desmoj.core.report.ErrorMessage;
+
+/**
+ * Implementation of the interface <code>EventList</code> as an indexed 4-ary
+ * heap. Each event-note carries its own position in the heap, so that
+ * inserting and removing any event-note (e.g. when cancelling or rescheduling
+ * a <code>Schedulable</code>) take O(log n) time without searching the
+ * event-list, and the first event-note is available in constant time.
+ * <p>
+ * The event-notes are ordered exactly like in <code>EventTreeList</code>:
+ * by time, concurrent event-notes by descending priority and event-notes of
+ * equal time and priority in the order of their insertion. To reproduce the
+ * positions of event-notes inserted by <code>insertAfter()</code>,
+ * <code>insertBefore()</code> and <code>insertAsFirst()</code>, the heap
+ * orders by a rank and a sequence number kept for each entry; an event-note
+ * inserted relative to another one takes over its rank and gets a sequence
+ * number next to it. Finding the neighbour of an event-note takes O(n) time,
+ * so <code>insertAfter()</code>, <code>insertBefore()</code>,
+ * <code>nextNote()</code>, <code>prevNote()</code> and
+ * <code>lastNote()</code> are linear. They are used rarely (scheduleAfter,
+ * scheduleBefore) or for reporting only. Like all event-lists, this
+ * implementation is not thread-safe.
+ *
+ * @see Experiment#setEventList(Class)
+ * @see EventTreeList
+ * @see EventNote
+ *
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+public class HeapEventList extends EventList {
+
+	/**
+	 * The number of children of each node of the heap.
+	 */
+	private static final int ARITY = 4;
+
+	/**
+	 * The distance between the sequence numbers of event-notes inserted one
+	 * after another, leaving room for event-notes inserted in between.
+	 */
+	private static final long SEQUENCE_GAP = 1L << 20;
+
+	/**
+	 * The event-notes in heap order; only the first <code>_size</code>
+	 * entries are in use.
+	 */
+	private EventNote[] _heap;
+
+	/**
+	 * The point of simulation time (in epsilon) of each heap entry.
+	 */
+	private long[] _times;
+
+	/**
+	 * The rank of each heap entry; entries of equal time are ordered by
+	 * descending rank. The rank is the priority of the event-note unless it
+	 * has been inserted relative to another event-note.
+	 */
+	private int[] _ranks;
+
+	/**
+	 * The sequence number of each heap entry; entries of equal time and rank
+	 * are ordered by ascending sequence number.
+	 */
+	private long[] _sequences;
+
+	/**
+	 * The number of event-notes in the heap.
+	 */
+	private int _size;
+
+	/**
+	 * The sequence number given to the next event-note inserted. All sequence
+	 * numbers in use are smaller.
+	 */
+	private long _nextSequence;
+
+	/**
+	 * Constructs an empty event-list.
+	 */
+	public HeapEventList() {
+
+		_heap = new EventNote[64];
+		_times = new long[64];
+		_ranks = new int[64];
+		_sequences = new long[64];
+		_size = 0;
+		_nextSequence = 0;
+	}
+
+	/**
+	 * Returns the first event-note in the event-list. It is the event-note with
+	 * the lowest (nearest) associated point of simulation time of all
+	 * event-notes contained in the event-list. Note that the event-note is not
+	 * removed from the event-list.
+	 *
+	 * @return EventNote : the event-note to be processed next in the order of
+	 *         time. Returns <code>null</code> if the event-list is empty.
+	 */
+	EventNote firstNote() {
+
+		return _size == 0 ? null : _heap[0];
+	}
+
+	/**
+	 * Inserts the new event-note preserving the temporal order of the
+	 * event-notes contained in the event-list. The new note is placed behind
+	 * all event-notes of the same time and higher or equal priority.
+	 *
+	 * @param newNote
+	 *            EventNote : the new note to be inserted in the event-list
+	 *            keeping the temporal order
+	 */
+	void insert(EventNote newNote) {
+
+		addToSchedulables(newNote);
+
+		long sequence = _nextSequence;
+		_nextSequence += SEQUENCE_GAP;
+		add(newNote, newNote.getPriority(), sequence);
+	}
+
+	/**
+	 * Inserts a new event-note after another event-note specified. Note that
+	 * to keep the temporal order of the event-list, the scheduled time will be
+	 * set to the same time as the referred "afterNote". If the referred note
+	 * is not contained in the event-list, a <code>SimAbortedException</code>
+	 * will be thrown, stopping the simulation.
+	 *
+	 * @param where
+	 *            EventNote : The event-note containing the event after which the
+	 *            new note is supposed to be inserted into the event-list.
+	 * @param newNote
+	 *            EventNote : The new event-note to be inserted after the
+	 *            specified EventNote in the event-list.
+	 * @throws SimAbortedException
+	 *                : if referred EventNote is not contained in the event-list
+	 */
+	void insertAfter(EventNote where, EventNote newNote) {
+
+		if (!contains(where)) {
+			throw notContained(newNote, "insertAfter(EventNote where, EventNote newNote)", "after");
+		}
+		newNote.setTimeInEpsilon(where.getTimeInEpsilon());
+		// synchronize times to keep order
+		addToSchedulables(newNote);
+
+		int i = where.getHeapIndex();
+		int successor = findNeighbour(i, true);
+		long lower = _sequences[i];
+		long upper = successor < 0 ? _nextSequence : _sequences[successor];
+		if (upper - lower < 2) {
+			renumber(_times[i], _ranks[i]);
+			lower = _sequences[i];
+			upper = successor < 0 ? _nextSequence : _sequences[successor];
+		}
+		add(newNote, _ranks[i], lower + (upper - lower) / 2);
+	}
+
+	/**
+	 * Inserts the given event-note at the first position in the event-list.
+	 * Note that for consistency the time of the new event-note is set to the
+	 * time of the current first entry, if the time of that entry is earlier.
+	 *
+	 * @param newNote
+	 *            EventNote : The event-note to be inserted at the first position
+	 *            in the event-list.
+	 */
+	void insertAsFirst(EventNote newNote) {
+
+		long time = newNote.getTimeInEpsilon();
+		if (_size > 0 && _times[0] <= time) {
+			// concurrent with the first entry: place in front of it, keeping
+			// the priority if that is high enough
+			newNote.setTimeInEpsilon(_heap[0].getTimeInEpsilon());
+			add(newNote, Math.max(newNote.getPriority(), _ranks[0]), _sequences[0] - SEQUENCE_GAP);
+		} else {
+			long sequence = _nextSequence;
+			_nextSequence += SEQUENCE_GAP;
+			add(newNote, Integer.MAX_VALUE, sequence);
+		}
+
+		addToSchedulables(newNote);
+	}
+
+	/**
+	 * Inserts a new event-note before another event-note specified. Note that
+	 * the new note will be scheduled at the time of the referred note. If the
+	 * referred note is not contained in the event-list, a
+	 * <code>SimAbortedException</code> will be thrown.
+	 *
+	 * @param where
+	 *            EventNote : The event-note containing the event before which
+	 *            the newNote is supposed to be inserted into the event-list.
+	 * @param newNote
+	 *            EventNote : The new event-note to be inserted before the
+	 *            specified EventNote in the event-list
+	 * @throws SimAbortedException
+	 *                : if referred EventNote is not contained in the event-list
+	 */
+	void insertBefore(EventNote where, EventNote newNote) {
+
+		if (!contains(where)) {
+			throw notContained(newNote, "insertBefore(EventNote where, EventNote newNote)", "before");
+		}
+		newNote.setTimeInEpsilon(where.getTimeInEpsilon());
+		// synchronize times to keep order
+		addToSchedulables(newNote);
+
+		int i = where.getHeapIndex();
+		int predecessor = findNeighbour(i, false);
+		long upper = _sequences[i];
+		long lower = predecessor < 0 ? upper - SEQUENCE_GAP : _sequences[predecessor];
+		if (upper - lower < 2) {
+			renumber(_times[i], _ranks[i]);
+			upper = _sequences[i];
+			lower = _sequences[predecessor];
+		}
+		add(newNote, _ranks[i], lower + (upper - lower) / 2);
+	}
+
+	/**
+	 * Tests if there are any scheduled events contained in the event-list.
+	 *
+	 * @return boolean : True if there are no event-notes contained in the
+	 *         event-list, false otherwise.
+	 */
+	boolean isEmpty() {
+
+		return _size == 0;
+	}
+
+	/**
+	 * Returns the last event-note in the event-list. If the event-list is
+	 * empty, <code>null</code> will be returned. Takes O(n) time.
+	 *
+	 * @return EventNote : the last event-note in the event-list, null if the
+	 *         event-list is empty
+	 */
+	EventNote lastNote() {
+
+		int last = -1;
+		for (int i = 0; i < _size; i++) {
+			if (last < 0 || before(last, i)) {
+				last = i;
+			}
+		}
+		return last < 0 ? null : _heap[last];
+	}
+
+	/**
+	 * Returns the next event-note in the event-list relative to the given
+	 * event-note. If the given event-note is not contained in the event-list
+	 * or happens to be the last event-note in the event-list, null will be
+	 * returned. Takes O(n) time.
+	 *
+	 * @return EventNote : The event-note following the given event-note or
+	 *         <code>null</code> if the given event-note was last or not found
+	 * @param origin
+	 *            EventNote : The event-note whose successor is wanted
+	 */
+	EventNote nextNote(EventNote origin) {
+
+		if (!contains(origin)) {
+			return null;
+		}
+		int originIndex = origin.getHeapIndex(), next = -1;
+		for (int i = 0; i < _size; i++) {
+			if (before(originIndex, i) && (next < 0 || before(i, next))) {
+				next = i;
+			}
+		}
+		return next < 0 ? null : _heap[next];
+	}
+
+	/**
+	 * Returns the previous event-note in the event-list relative to the given
+	 * event-note. If the given event-note is not contained in the event-list
+	 * or happens to be the first event-note in the event-list, null will be
+	 * returned. Takes O(n) time.
+	 *
+	 * @return EventNote : The event-note preceding the given event-note or
+	 *         <code>null</code> if the given event-note was first or not found
+	 * @param origin
+	 *            EventNote : The event-note whose predecessor is wanted
+	 */
+	EventNote prevNote(EventNote origin) {
+
+		if (!contains(origin)) {
+			return null;
+		}
+		int originIndex = origin.getHeapIndex(), prev = -1;
+		for (int i = 0; i < _size; i++) {
+			if (before(i, originIndex) && (prev < 0 || before(prev, i))) {
+				prev = i;
+			}
+		}
+		return prev < 0 ? null : _heap[prev];
+	}
+
+	/**
+	 * Removes the given event-note from the event-list. Does nothing if the
+	 * event-note is not contained in the event-list.
+	 *
+	 * @param note
+	 *            EventNote : The event-note to be removed from the event-list
+	 */
+	void remove(EventNote note) {
+
+		if (!contains(note)) {
+			return; // do nothing if it doesn't exist
+		}
+		removeAt(note.getHeapIndex());
+		removeFromSchedulables(note);
+	}
+
+	/**
+	 * Removes the first event-note from the event-list. Does nothing if the
+	 * event-list is already empty.
+	 */
+	void removeFirst() {
+
+		if (_size == 0) {
+			return;
+		}
+		EventNote first = _heap[0];
+		removeAt(0);
+		removeFromSchedulables(first);
+	}
+
+	/**
+	 * Returns a string representing the entries of this event-list in a row.
+	 * The resulting string includes all event-notes in ascending order.
+	 */
+	public String toString() {
+
+		Integer[] order = new Integer[_size];
+		for (int i = 0; i < _size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return before(a, b) ? -1 : (before(b, a) ? 1 : 0);
+			}
+		});
+
+		StringBuffer textBuffer = new StringBuffer();
+		for (int i = 0; i < _size; i++) {
+			textBuffer.append("[");
+			textBuffer.append(_heap[order[i]]);
+			textBuffer.append("]");
+		}
+		return textBuffer.toString();
+	}
+
+	/**
+	 * Tests if the given event-note is contained in this event-list.
+	 */
+	private boolean contains(EventNote note) {
+
+		int i = note.getHeapIndex();
+		return i >= 0 && i < _size && _heap[i] == note;
+	}
+
+	/**
+	 * Tests if the heap entry <code>i</code> is to be processed before the
+	 * heap entry <code>j</code>.
+	 */
+	private boolean before(int i, int j) {
+
+		if (_times[i] != _times[j]) {
+			return _times[i] < _times[j];
+		}
+		if (_ranks[i] != _ranks[j]) {
+			return _ranks[i] > _ranks[j];
+		}
+		return _sequences[i] < _sequences[j];
+	}
+
+	/**
+	 * Returns the heap entry of equal time and rank directly following
+	 * (<code>successor</code> true) or preceding the heap entry
+	 * <code>i</code>, -1 if there is none.
+	 */
+	private int findNeighbour(int i, boolean successor) {
+
+		int neighbour = -1;
+		for (int j = 0; j < _size; j++) {
+			if (_times[j] != _times[i] || _ranks[j] != _ranks[i] || j == i) {
+				continue;
+			}
+			if (successor ? (_sequences[j] > _sequences[i]
+					&& (neighbour < 0 || _sequences[j] < _sequences[neighbour]))
+					: (_sequences[j] < _sequences[i]
+					&& (neighbour < 0 || _sequences[j] > _sequences[neighbour]))) {
+				neighbour = j;
+			}
+		}
+		return neighbour;
+	}
+
+	/**
+	 * Spreads the sequence numbers of all heap entries of the given time and
+	 * rank, keeping their order, to make room for entries inserted in
+	 * between. The relative order of all entries is unchanged, so the heap
+	 * stays valid.
+	 */
+	private void renumber(long time, int rank) {
+
+		int count = 0;
+		for (int j = 0; j < _size; j++) {
+			if (_times[j] == time && _ranks[j] == rank) {
+				count++;
+			}
+		}
+		Integer[] members = new Integer[count];
+		count = 0;
+		for (int j = 0; j < _size; j++) {
+			if (_times[j] == time && _ranks[j] == rank) {
+				members[count++] = j;
+			}
+		}
+		Arrays.sort(members, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return _sequences[a] < _sequences[b] ? -1 : (_sequences[a] > _sequences[b] ? 1 : 0);
+			}
+		});
+
+		long sequence = _sequences[members[0]];
+		for (int k = 0; k < count; k++) {
+			_sequences[members[k]] = sequence;
+			sequence += SEQUENCE_GAP;
+		}
+		_nextSequence = Math.max(_nextSequence, sequence);
+	}
+
+	/**
+	 * Adds the event-note to the heap with the given rank and sequence number.
+	 */
+	private void add(EventNote note, int rank, long sequence) {
+
+		if (_size == _heap.length) {
+			int capacity = 2 * _heap.length;
+			_heap = Arrays.copyOf(_heap, capacity);
+			_times = Arrays.copyOf(_times, capacity);
+			_ranks = Arrays.copyOf(_ranks, capacity);
+			_sequences = Arrays.copyOf(_sequences, capacity);
+		}
+		int i = _size++;
+		set(i, note, note.getTimeInEpsilon(), rank, sequence);
+		siftUp(i);
+	}
+
+	/**
+	 * Removes the heap entry at the given position.
+	 */
+	private void removeAt(int i) {
+
+		EventNote note = _heap[i];
+		int last = --_size;
+		if (i != last) {
+			set(i, _heap[last], _times[last], _ranks[last], _sequences[last]);
+			if (i > 0 && before(i, (i - 1) / ARITY)) {
+				siftUp(i);
+			} else {
+				siftDown(i);
+			}
+		}
+		_heap[last] = null;
+		note.setHeapIndex(-1);
+	}
+
+	/**
+	 * Moves the heap entry at the given position towards the root until its
+	 * parent is to be processed before it.
+	 */
+	private void siftUp(int i) {
+
+		while (i > 0) {
+			int parent = (i - 1) / ARITY;
+			if (!before(i, parent)) {
+				break;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	/**
+	 * Moves the heap entry at the given position towards the leaves until it
+	 * is to be processed before all its children.
+	 */
+	private void siftDown(int i) {
+
+		while (true) {
+			int firstChild = ARITY * i + 1;
+			if (firstChild >= _size) {
+				break;
+			}
+			int smallest = firstChild;
+			int end = Math.min(firstChild + ARITY, _size);
+			for (int child = firstChild + 1; child < end; child++) {
+				if (before(child, smallest)) {
+					smallest = child;
+				}
+			}
+			if (!before(smallest, i)) {
+				break;
+			}
+			swap(i, smallest);
+			i = smallest;
+		}
+	}
+
+	/**
+	 * Exchanges two heap entries.
+	 */
+	private void swap(int i, int j) {
+
+		EventNote note = _heap[i];
+		long time = _times[i];
+		int rank = _ranks[i];
+		long sequence = _sequences[i];
+		set(i, _heap[j], _times[j], _ranks[j], _sequences[j]);
+		set(j, note, time, rank, sequence);
+	}
+
+	/**
+	 * Stores a heap entry at the given position.
+	 */
+	private void set(int i, EventNote note, long time, int rank, long sequence) {
+
+		_heap[i] = note;
+		_times[i] = time;
+		_ranks[i] = rank;
+		_sequences[i] = sequence;
+		note.setHeapIndex(i);
+	}
+
+	/**
+	 * Builds the exception thrown if an event-note is to be inserted relative
+	 * to an event-note not contained in the event-list.
+	 */
+	private SimAbortedException notContained(EventNote newNote, String method, String relation) {
+
+		Model mBuffer = null; // buffer current model
+		if (newNote.getEntity1() != null) {
+			mBuffer = newNote.getEntity1().getModel();
+		}
+		if (newNote.getEvent() != null) {
+			mBuffer = newNote.getEvent().getModel();
+		}
+		return new SimAbortedException(new ErrorMessage(mBuffer,
+				"Can not insert new event-note " + relation + " given EventNote! "
+						+ "Simulation aborted",
+				"Internal DESMO-J class : HeapEventList Method : " + method,
+				"The event-note to insert the new note " + relation
+						+ " is not contained in the heap event list.",
+				"This is a fatal error. Contact DESMOJ support", newNote.getTime()));
+	}
+}
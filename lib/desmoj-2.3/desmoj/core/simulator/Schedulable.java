@@ -1,6 +1,6 @@
 package desmoj.core.simulator;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -26,9 +26,21 @@ import java.util.List;
 public class Schedulable extends ModelComponent {
 
     /**
-     * A list containing all scheduled entries for this Schedulable in future.
+     * The first of all scheduled entries for this Schedulable in future. The
+     * entries are linked through the event-notes themselves (ordered by time
+     * and priority), see <code>EventNote.getNextInSchedule(int)</code>.
      */
-    protected List<EventNote> _schedule;
+    private EventNote _firstNote;
+
+    /**
+     * The last of all scheduled entries for this Schedulable in future.
+     */
+    private EventNote _lastNote;
+
+    /**
+     * The number of scheduled entries for this Schedulable in future.
+     */
+    private int _noteCount;
 
 	/**
 	 * Constructs a Schedulable object with the given name. Note that to
@@ -46,7 +58,6 @@ public class Schedulable extends ModelComponent {
 		// create modelcomponent with the checked and registered name
 		super(owner, owner.getExperiment().getNameCatalog()
 				.registeredName(name), showInTrace);
-		this._schedule = new LinkedList<EventNote>();
 	}
 
 
@@ -66,10 +77,10 @@ public class Schedulable extends ModelComponent {
         }
         
         // removes all scheduled events for this entity by using global event-list
-        while(!_schedule.isEmpty())
+        while(_firstNote != null)
         {
             //EventNote firstNote = this.getModel().getExperiment().getScheduler().evList.firstNote();
-            EventNote firstNote = _schedule.get(0);
+            EventNote firstNote = _firstNote;
             
             if (currentlySendTraceNotes()) {
                 TimeInstant time = firstNote.getTime();
@@ -86,22 +97,90 @@ public class Schedulable extends ModelComponent {
                 }
             }
             this.getModel().getExperiment().getScheduler().evList.remove(firstNote);
+            removeEventNote(firstNote); // in case it has not been in the event-list
         }
     }
 	
 
+    /**
+     * Returns a copy of the list of event-notes associated to this
+     * Schedulable. Replaces the former <code>_schedule</code> field, which no
+     * longer exists since the event-notes are linked through the notes
+     * themselves; changing the returned list does not change the schedule.
+     * 
+     * @return List<EventNote> : A copy of the event-notes associated to this
+     *         Schedulable
+     * @deprecated Use <code>isScheduled()</code>, <code>scheduledNext()</code>
+     *             or <code>cancel()</code> instead.
+     */
+    @Deprecated
+    protected List<EventNote> getSchedule()
+    {
+        return getEventNotes();
+    }
+
     /**
      * Returns a list of EventNote associated to this Entity object. If the
-     * Entity object is not currently scheduled, <code>null</code> will be
+     * Entity object is not currently scheduled, an empty list will be
      * returned. Remind that all different Event classes can be included.
+     * The list is a copy, so it may be iterated while the schedule changes.
      * 
-     * @return List<EventNote> : The event-notes associated to the entity or
-     *         <code>null</code> if Entity is not currently scheduled
+     * @return List<EventNote> : The event-notes associated to the entity
      */
     List<EventNote> getEventNotes()
     {
-        return _schedule;
+        List<EventNote> notes = new ArrayList<EventNote>(_noteCount);
+        for (EventNote note = _firstNote; note != null; note = note.getNextInSchedule(note.slotOf(this))) {
+            notes.add(note);
+        }
+        return notes;
+
+    }
 
+    /**
+     * Returns the first (earliest) event-note associated to this Schedulable.
+     * 
+     * @return EventNote : The first event-note or <code>null</code> if this
+     *         Schedulable is not currently scheduled
+     */
+    EventNote getFirstEventNote()
+    {
+        return _firstNote;
+    }
+
+    /**
+     * Returns the last (latest) event-note associated to this Schedulable.
+     * 
+     * @return EventNote : The last event-note or <code>null</code> if this
+     *         Schedulable is not currently scheduled
+     */
+    EventNote getLastEventNote()
+    {
+        return _lastNote;
+    }
+
+    /**
+     * Tests if the given event-note is associated to this Schedulable.
+     * 
+     * @param note
+     *            EventNote : The event-note to look for
+     * @return boolean : <code>true</code> if the event-note is in the
+     *         schedule of this Schedulable
+     */
+    boolean hasEventNote(EventNote note)
+    {
+        int slot = note.slotOf(this);
+        return slot >= 0 && isLinked(note, slot);
+    }
+
+    /**
+     * Returns the number of event-notes associated to this Schedulable.
+     * 
+     * @return int : The number of event-notes
+     */
+    int getEventNoteCount()
+    {
+        return _noteCount;
     }
 
 	/**
@@ -126,7 +205,7 @@ public class Schedulable extends ModelComponent {
     public boolean isScheduled() {
 
         // Not associated to EventNote if not scheduled
-        return (!_schedule.isEmpty());
+        return (_firstNote != null);
 
     }
 
@@ -138,8 +217,26 @@ public class Schedulable extends ModelComponent {
      */
     void removeEventNote(EventNote note) 
     {
-        _schedule.remove(note); // only removes Event in local list
-
+        // only removes Event in local list
+        int slot = note.slotOf(this);
+        if (slot < 0 || !isLinked(note, slot)) {
+            return;
+        }
+        EventNote prev = note.getPrevInSchedule(slot);
+        EventNote next = note.getNextInSchedule(slot);
+        if (prev == null) {
+            _firstNote = next;
+        } else {
+            prev.setNextInSchedule(prev.slotOf(this), next);
+        }
+        if (next == null) {
+            _lastNote = prev;
+        } else {
+            next.setPrevInSchedule(next.slotOf(this), prev);
+        }
+        note.setPrevInSchedule(slot, null);
+        note.setNextInSchedule(slot, null);
+        _noteCount--;
     }
 
 	/**
@@ -191,8 +288,8 @@ public class Schedulable extends ModelComponent {
         
         // create list with new events and remove old events
         EventNote newNote = null;
-        List<EventNote> oldNotes = new LinkedList<EventNote>(_schedule);
-        List<EventNote> newNotes = new LinkedList<EventNote>();
+        List<EventNote> oldNotes = getEventNotes();
+        List<EventNote> newNotes = new ArrayList<EventNote>(oldNotes.size());
         for (EventNote oldNote : oldNotes)
         {
             newNote = oldNote.copy(); // copy EventNote
@@ -260,7 +357,7 @@ public class Schedulable extends ModelComponent {
             return; // no proper parameter
         }
 
-        if (_schedule.size()>1) {
+        if (_noteCount>1) {
             sendWarning("Can't reSchedule Entity! Command ingnored.",
                     "Entity : " + getName()
                             + " Method: reSchedule(TimeInstant time)",
@@ -311,6 +408,62 @@ public class Schedulable extends ModelComponent {
 
     }
 	
+    /**
+     * Re-schedules the Schedulable to the point in simulation time given in
+     * the unit of epsilon, without creating time objects. Note that
+     * re-scheduling to the present time does not preempt the current
+     * SimProcess.
+     * 
+     * @param timeInEpsilon
+     *            long : The simulation time at which this Schedulable is to be
+     *            re-scheduled, expressed in epsilon
+     */
+    public void reScheduleAtEpsilon(long timeInEpsilon) {
+
+        if (!isScheduled() || _noteCount > 1) {
+            sendWarning("Can't reSchedule Schedulable! Command ingnored.",
+                    "Entity : " + getName()
+                            + " Method: reScheduleAtEpsilon(long timeInEpsilon)",
+                    "The Schedulable is not scheduled or scheduled more than "
+                            + "once, thus unable to be reScheduled.",
+                    "Be sure that the Schedulable is scheduled exactly once "
+                            + "before calling this method.");
+            return; // no proper parameter
+        }
+
+        if (currentlySendTraceNotes()) {
+            TimeInstant time = new TimeInstant(timeInEpsilon,
+                    TimeOperations.getEpsilon());
+            if (this == current())
+                sendTraceNote("reschedules itself at " + time);
+            else
+                sendTraceNote("reschedules '" + getName() + "' at " + time);
+        }
+
+        getModel().getExperiment().getScheduler().reScheduleAtEpsilon(this,
+                timeInEpsilon);
+
+        if (currentlySendDebugNotes()) {
+            sendDebugNote("reschedules on EventList<br>"
+                    + getModel().getExperiment().getScheduler().toString());
+        }
+
+    }
+
+    /**
+     * Re-schedules the Schedulable after the given offset to the current
+     * simulation time, given in the unit of epsilon, without creating time
+     * objects.
+     * 
+     * @param dtInEpsilon
+     *            long : The offset to the current simulation time at which
+     *            this Schedulable is to be re-scheduled, expressed in epsilon
+     * @see #reScheduleAtEpsilon(long)
+     */
+    public void reScheduleInEpsilon(long dtInEpsilon) {
+        reScheduleAtEpsilon(presentTime().getTimeInEpsilon() + dtInEpsilon);
+    }
+
 	/**
      * @deprecated Use reSchedule(TimeSpan dt).
      * Re-schedules the Schedulable at some other point in simulation time than
@@ -356,20 +509,53 @@ public class Schedulable extends ModelComponent {
         }
         else
         {
-            return _schedule.get(0).getTime();
+            return _firstNote.getTime();
         }
     }
 	
     
     /**
-     * Adds an event-note to the Schedulable.
+     * Adds an event-note to the Schedulable, keeping the event-notes ordered
+     * by time and priority. Event-notes of equal time and priority are kept
+     * in the order they have been added. Does nothing if the event-note is
+     * already associated to this Schedulable.
      */
     void addEventNote(EventNote note)
     {
-        if (!_schedule.contains(note)) {
-            _schedule.add(note);
-            java.util.Collections.sort(_schedule);
+        int slot = note.slotOf(this);
+        if (slot < 0 || isLinked(note, slot)) {
+            return;
         }
+
+        // search backwards, as new event-notes mostly belong at the end
+        EventNote prev = _lastNote;
+        while (prev != null && prev.compareTo(note) > 0) {
+            prev = prev.getPrevInSchedule(prev.slotOf(this));
+        }
+        EventNote next = (prev == null) ? _firstNote : prev.getNextInSchedule(prev.slotOf(this));
+
+        note.setPrevInSchedule(slot, prev);
+        note.setNextInSchedule(slot, next);
+        if (prev == null) {
+            _firstNote = note;
+        } else {
+            prev.setNextInSchedule(prev.slotOf(this), note);
+        }
+        if (next == null) {
+            _lastNote = note;
+        } else {
+            next.setPrevInSchedule(next.slotOf(this), note);
+        }
+        _noteCount++;
+    }
+
+    /**
+     * Tests if the given event-note is linked into the schedule of this
+     * Schedulable in the given slot.
+     */
+    private boolean isLinked(EventNote note, int slot)
+    {
+        return note.getPrevInSchedule(slot) != null || _firstNote == note;
     }
     
     /**
@@ -384,7 +570,9 @@ public class Schedulable extends ModelComponent {
         Schedulable c = (Schedulable) super.clone();
         NameCatalog nc = this.getModel().getExperiment().getNameCatalog();
         c.rename(nc.getNameWithoutSuffix(this.getName()));
-        c._schedule = new LinkedList<EventNote>();
+        c._firstNote = null;
+        c._lastNote = null;
+        c._noteCount = 0;
         return c;
     }
 }
\ No newline at end of file
@@ -1,11 +1,30 @@
 package desmoj.core.simulator;
 
+import java.lang.reflect.Method;
+
 import desmoj.core.exception.*;
 import desmoj.core.report.ErrorMessage;
 
 /**
  * SimThreads are used to mimic coroutine behaviour with the help of native Java
  * threads. SimThreads are attributes of SimProcesses only.
+ * <p>
+ * Depending on the <code>Mode</code> selected for the experiment, the
+ * lifecycle of a sim-process is run either by a SimThread, i.e. a platform
+ * thread of the experiment's threadgroup, or by a virtual thread. Both kinds
+ * of threads are created by <code>create(SimProcess, Mode, ThreadGroup,
+ * long)</code>. The change of control between the scheduler and the
+ * sim-processes is the same in both modes, thus the <code>lifeCycle()</code>
+ * of a sim-process behaves identically.
+ * <p>
+ * Virtual threads require Java 24 or later (see
+ * <code>isVirtualSupported()</code>). On earlier runtimes
+ * <code>Experiment.setSimThreadMode(Mode.VIRTUAL)</code> issues a warning and
+ * the experiment keeps using platform threads, so check
+ * <code>isVirtualSupported()</code> first if a model depends on the number of
+ * live sim-processes virtual threads allow for.
+ * 
+ * @see Experiment#setSimThreadMode(SimThread.Mode)
  * 
  * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
  * @author Tim Lechler
@@ -24,6 +43,66 @@ import desmoj.core.report.ErrorMessage;
  */
 public class SimThread extends Thread {
 
+	/**
+	 * The kinds of Java threads a SimThread can be run by.
+	 */
+	public enum Mode {
+
+		/**
+		 * Each sim-process is run by a platform thread of the experiment's
+		 * threadgroup. This is the default.
+		 */
+		PLATFORM,
+
+		/**
+		 * Each sim-process is run by a virtual thread, so the number of live
+		 * sim-processes is not limited by the number of native threads. Only
+		 * available on Java runtimes on which virtual threads blocked in
+		 * <code>Object.wait()</code> do not pin their carrier thread, i.e.
+		 * Java 24 or later; on earlier runtimes selecting this mode for an
+		 * experiment gives a warning and platform threads are used.
+		 */
+		VIRTUAL
+	}
+
+	/**
+	 * The first Java version on which virtual threads can wait on monitors
+	 * without pinning their carrier thread.
+	 */
+	private static final int VIRTUAL_THREADS_MIN_VERSION = 24;
+
+	/**
+	 * <code>Thread.ofVirtual()</code>, if available on this Java runtime.
+	 */
+	private static final Method OF_VIRTUAL;
+
+	/**
+	 * <code>Thread.Builder.name(String)</code>, if available.
+	 */
+	private static final Method BUILDER_NAME;
+
+	/**
+	 * <code>Thread.Builder.unstarted(Runnable)</code>, if available.
+	 */
+	private static final Method BUILDER_UNSTARTED;
+
+	static {
+		Method ofVirtual = null, name = null, unstarted = null;
+		if (javaVersion() >= VIRTUAL_THREADS_MIN_VERSION) {
+			try {
+				Class<?> builder = Class.forName("java.lang.Thread$Builder");
+				ofVirtual = Thread.class.getMethod("ofVirtual");
+				name = builder.getMethod("name", String.class);
+				unstarted = builder.getMethod("unstarted", Runnable.class);
+			} catch (Exception e) {
+				ofVirtual = null; // no virtual threads on this runtime
+			}
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_NAME = name;
+		BUILDER_UNSTARTED = unstarted;
+	}
+
 	/**
 	 * The sim-process this simthread serves for.
 	 */
@@ -42,11 +121,102 @@ public class SimThread extends Thread {
 	 */
 	SimThread(ThreadGroup group, SimProcess siPro) {
 
-		super(group, siPro.getName());
+		this(group, siPro, 0);
+
+	}
+
+	/**
+	 * Constructs a simple SimThread for the given SimProcess object in the
+	 * given threadgroup with the given stack size.
+	 * 
+	 * @param group
+	 *            java.lang.ThreadGroup : The sim-process' threadgroup
+	 * @param siPro
+	 *            SimProcess : The sim-process
+	 * @param stackSize
+	 *            long : The stack size in bytes or 0 to use the default
+	 *            stack size
+	 */
+	SimThread(ThreadGroup group, SimProcess siPro, long stackSize) {
+
+		super(group, null, siPro.getName(), stackSize);
 		simProc = siPro;
 
 	}
 
+	/**
+	 * Tests if sim-processes can be run by virtual threads on this Java
+	 * runtime.
+	 * 
+	 * @return boolean : <code>true</code> if <code>Mode.VIRTUAL</code> is
+	 *         supported, <code>false</code> otherwise
+	 */
+	public static boolean isVirtualSupported() {
+
+		return OF_VIRTUAL != null;
+
+	}
+
+	/**
+	 * Creates the unstarted Java thread running the lifecycle of the given
+	 * sim-process: a SimThread in the given threadgroup for
+	 * <code>Mode.PLATFORM</code>, a virtual thread for
+	 * <code>Mode.VIRTUAL</code>. For better identification and easier
+	 * debugging, the thread carries the sim-process' name.
+	 * 
+	 * @param siPro
+	 *            SimProcess : The sim-process
+	 * @param mode
+	 *            SimThread.Mode : The kind of thread to create
+	 * @param group
+	 *            java.lang.ThreadGroup : The threadgroup of platform threads
+	 * @param stackSize
+	 *            long : The stack size of platform threads in bytes or 0 to
+	 *            use the default stack size
+	 * @return java.lang.Thread : The thread running the sim-process
+	 */
+	static Thread create(SimProcess siPro, Mode mode, ThreadGroup group,
+			long stackSize) {
+
+		if (mode != Mode.VIRTUAL) {
+			return new SimThread(group, siPro, stackSize);
+		}
+		try {
+			Object builder = OF_VIRTUAL.invoke(null);
+			builder = BUILDER_NAME.invoke(builder, siPro.getName());
+			return (Thread) BUILDER_UNSTARTED.invoke(builder,
+					new VirtualLifeCycle(siPro));
+		} catch (Exception e) {
+			throw new SimAbortedException(new ErrorMessage(
+					siPro.getModel(),
+					"Can't create virtual thread! Simulation aborted.",
+					"SimThread of " + siPro.getName()
+							+ " Method: create(SimProcess, Mode, ThreadGroup, long)",
+					"Exception thrown by Java VM : " + e,
+					"Use SimThread.Mode.PLATFORM instead.",
+					siPro.presentTime()));
+		}
+
+	}
+
+	/**
+	 * Returns the feature version of the running Java runtime, e.g. 17 for
+	 * Java 17 and 8 for Java 1.8.
+	 */
+	private static int javaVersion() {
+
+		String version = System.getProperty("java.specification.version", "1");
+		if (version.startsWith("1.")) {
+			version = version.substring(2);
+		}
+		try {
+			return Integer.parseInt(version);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+
+	}
+
 	/**
 	 * Returns the status of the sim-process wether it is still running active
 	 * with this simthread or not. A return value of <code>true</code> indicates
@@ -82,10 +252,26 @@ public class SimThread extends Thread {
 	 */
 	public void run() {
 
+		runLifeCycle(simProc);
+
+	}
+
+	/**
+	 * Runs the lifecycle of the given sim-process in the current thread,
+	 * either a SimThread or a virtual thread.
+	 * 
+	 * @param simProc
+	 *            SimProcess : The sim-process
+	 */
+	static void runLifeCycle(SimProcess simProc) {
+
 		// let all other threads, esp. the main thread get into the block
 		// yield();
 		// catch SimFinishedExceptions to clear this thread
 		// needed to get all SimProcesses cleared up after end of simulation
+		// resolve time conversions of this simthread against its experiment
+		TimeOperations.bind(simProc.getModel().getExperiment().getTimeBase());
+
 		try {
 			simProc.lifeCycle();
 			if (simProc.currentlySendTraceNotes()) {
@@ -111,10 +297,35 @@ public class SimThread extends Thread {
 		// update status flag for using the sim-process' simthread
 		simProc.setTerminated(true);
 
+		// this simthread does not need to be killed any more
+		simProc.getModel().getExperiment().unregisterSimThread(simProc);
 		// release the waiting scheduler
 		simProc.freeThread();
 
 		// for debugging purposes only
 		// System.out.println(getName()+" exits");
 	}
+
+	/**
+	 * The code run by a virtual thread in place of a SimThread.
+	 */
+	private static class VirtualLifeCycle implements Runnable {
+
+		/**
+		 * The sim-process this virtual thread serves for.
+		 */
+		private final SimProcess simProc;
+
+		VirtualLifeCycle(SimProcess siPro) {
+
+			simProc = siPro;
+
+		}
+
+		public void run() {
+
+			runLifeCycle(simProc);
+
+		}
+	}
 }
\ No newline at end of file
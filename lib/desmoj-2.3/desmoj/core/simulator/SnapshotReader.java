@@ -0,0 +1,225 @@
+package desmoj.core.simulator;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the state of a simulation written by a <code>SnapshotWriter</code>
+ * from a snapshot file. The file is mapped into memory, so even large
+ * snapshots are restored without being copied through streams. Values have
+ * to be read in the order they have been written.
+ * 
+ * @see desmoj.core.simulator.SnapshotWriter
+ * @see desmoj.core.simulator.Experiment#restore(String)
+ * 
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+public class SnapshotReader {
+
+	/**
+	 * The snapshot contents.
+	 */
+	private final ByteBuffer _buffer;
+
+	/**
+	 * Creates a reader of the given snapshot contents.
+	 * 
+	 * @param buffer
+	 *            java.nio.ByteBuffer : The snapshot contents, positioned at
+	 *            their beginning
+	 */
+	public SnapshotReader(ByteBuffer buffer) {
+
+		_buffer = buffer;
+	}
+
+	/**
+	 * Maps the given snapshot file into memory.
+	 * 
+	 * @param fileName
+	 *            java.lang.String : The name of the snapshot file
+	 * @return SnapshotReader : A reader of the file's contents
+	 * @throws java.io.IOException
+	 *             if the file can not be read
+	 */
+	static SnapshotReader map(String fileName) throws IOException {
+
+		RandomAccessFile file = new RandomAccessFile(fileName, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			// the mapping stays valid after the file has been closed
+			return new SnapshotReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			file.close();
+		}
+	}
+
+	public boolean readBoolean() {
+
+		return _buffer.get() != 0;
+	}
+
+	public byte readByte() {
+
+		return _buffer.get();
+	}
+
+	public int readInt() {
+
+		return _buffer.getInt();
+	}
+
+	public long readLong() {
+
+		return _buffer.getLong();
+	}
+
+	public double readDouble() {
+
+		return _buffer.getDouble();
+	}
+
+	/**
+	 * Reads a string written by <code>SnapshotWriter.writeString</code>.
+	 * 
+	 * @return java.lang.String : The string or <code>null</code>
+	 */
+	public String readString() {
+
+		int length = readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		_buffer.get(bytes);
+		return new String(bytes, SnapshotWriter.CHARSET);
+	}
+
+	/**
+	 * Reads a point in simulation time written by
+	 * <code>SnapshotWriter.writeTimeInstant</code>.
+	 * 
+	 * @return TimeInstant : The point in simulation time or <code>null</code>
+	 */
+	public TimeInstant readTimeInstant() {
+
+		long time = readLong();
+		return time == SnapshotWriter.NO_TIME ? null : new TimeInstant(time, epsilon());
+	}
+
+	/**
+	 * Reads a span of simulation time written by
+	 * <code>SnapshotWriter.writeTimeSpan</code>.
+	 * 
+	 * @return TimeSpan : The span of simulation time or <code>null</code>
+	 */
+	public TimeSpan readTimeSpan() {
+
+		long time = readLong();
+		return time == SnapshotWriter.NO_TIME ? null : new TimeSpan(time, epsilon());
+	}
+
+	/**
+	 * Reads an array written by <code>SnapshotWriter.writeBytes</code>.
+	 * 
+	 * @return byte[] : An array of the written length
+	 */
+	public byte[] readBytes() {
+
+		byte[] values = new byte[readInt()];
+		_buffer.get(values);
+		return values;
+	}
+
+	/**
+	 * Reads an array written by <code>SnapshotWriter.writeShorts</code>.
+	 * 
+	 * @return short[] : An array of the written length
+	 */
+	public short[] readShorts() {
+
+		short[] values = new short[readInt()];
+		_buffer.asShortBuffer().get(values);
+		advance(2 * values.length);
+		return values;
+	}
+
+	/**
+	 * Reads an array written by <code>SnapshotWriter.writeInts</code>.
+	 * 
+	 * @return int[] : An array of the written length
+	 */
+	public int[] readInts() {
+
+		int[] values = new int[readInt()];
+		_buffer.asIntBuffer().get(values);
+		advance(4 * values.length);
+		return values;
+	}
+
+	/**
+	 * Reads an array written by <code>SnapshotWriter.writeLongs</code>.
+	 * 
+	 * @return long[] : An array of the written length
+	 */
+	public long[] readLongs() {
+
+		long[] values = new long[readInt()];
+		_buffer.asLongBuffer().get(values);
+		advance(8 * values.length);
+		return values;
+	}
+
+	/**
+	 * Reads an array written by <code>SnapshotWriter.writeDoubles</code>.
+	 * 
+	 * @return double[] : An array of the written length
+	 */
+	public double[] readDoubles() {
+
+		double[] values = new double[readInt()];
+		_buffer.asDoubleBuffer().get(values);
+		advance(8 * values.length);
+		return values;
+	}
+
+	/**
+	 * Returns whether all values of the snapshot have been read.
+	 * 
+	 * @return boolean : Is <code>true</code> if no values remain
+	 */
+	public boolean isExhausted() {
+
+		return !_buffer.hasRemaining();
+	}
+
+	/**
+	 * Moves the position of the buffer past values read through a view
+	 * buffer (through <code>Buffer</code> to stay compatible with Java 7).
+	 */
+	private void advance(int bytes) {
+
+		((Buffer) _buffer).position(_buffer.position() + bytes);
+	}
+
+	private TimeUnit epsilon() {
+
+		return TimeOperations.getEpsilon();
+	}
+}
@@ -5,8 +5,11 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * TimeOperations is an utility class that provides arithmetic operations for
- * the time classes TimeInstant and TimeSpan. It also holds the time settings,
- * i.e. the granularity (epsilon) and the reference time unit.
+ * the time classes TimeInstant and TimeSpan. It also provides access to the
+ * time settings, i.e. the granularity (epsilon) and the reference time unit.
+ * These settings are kept in a <code>TimeBase</code> owned by each
+ * experiment and bound to the threads executing it; threads not bound to an
+ * experiment fall back to a global default time base.
  * 
  * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
  * @author Felix Klueckmann
@@ -26,26 +29,16 @@ import java.util.concurrent.TimeUnit;
 public final class TimeOperations {
 
 	/**
-	 * The granularity of simulation time. Default is MICROSECONDS.
+	 * The time base used by threads not bound to any experiment. Epsilon
+	 * defaults to MICROSECONDS, the reference unit to SECONDS.
 	 */
-	private static TimeUnit epsilon = TimeUnit.MICROSECONDS;
+	private static final TimeBase defaultTimeBase = new TimeBase(
+			TimeUnit.MICROSECONDS, TimeUnit.SECONDS, null);
 
 	/**
-	 * The reference time unit specifying what is meant by the simulation time
-	 * step of 1 in statements without an explicit declaration of a time unit
-	 * like in <code>new TimeSpan(5)</code>.
+	 * The time base of the experiment executed by the current thread.
 	 */
-	private static TimeUnit referenceUnit = TimeUnit.SECONDS;
-
-	/**
-	 * The point in simulation time when the experiment has started.
-	 */
-	private static TimeInstant startTime;
-	
-	/**
-     * The TimeFormatter to use for printing TimeInstants in this environment.
-     */
-    private static TimeFormatter myTimeFormatter = getDefaultTimeFormatter();
+	private static final ThreadLocal<TimeBase> boundTimeBase = new ThreadLocal<TimeBase>();
 
 	// Suppress default constuctor for noninstantiability
 	private TimeOperations() {
@@ -75,7 +68,7 @@ public final class TimeOperations {
 							null)));
 		}
 		return new TimeSpan(a.getTimeInEpsilon() + b.getTimeInEpsilon(),
-				epsilon);
+				getEpsilon());
 	}
 
     /**
@@ -133,7 +126,7 @@ public final class TimeOperations {
 			}
 		}
 		TimeInstant result = new TimeInstant(span.getTimeInEpsilon()
-				+ instant.getTimeInEpsilon(), epsilon);
+				+ instant.getTimeInEpsilon(), getEpsilon());
 		result.setPreferredTimeZone(instant.getPreferredTimeZone());
 		return result;
 	}
@@ -172,7 +165,7 @@ public final class TimeOperations {
             }
         }
         TimeInstant result = new TimeInstant(instant.getTimeInEpsilon()
-                - span.getTimeInEpsilon(), epsilon);
+                - span.getTimeInEpsilon(), getEpsilon());
         result.setPreferredTimeZone(instant.getPreferredTimeZone());
         return result;
     }
@@ -193,11 +186,11 @@ public final class TimeOperations {
 
 		if (TimeSpan.isShorter(a, b)) {
 			return new TimeSpan(b.getTimeInEpsilon() - a.getTimeInEpsilon(),
-					epsilon);
+					getEpsilon());
 		}
 
 		return new TimeSpan(a.getTimeInEpsilon() - b.getTimeInEpsilon(),
-				epsilon);
+				getEpsilon());
 	}
 
 	/**
@@ -233,7 +226,7 @@ public final class TimeOperations {
 				}
 			}
 			return new TimeSpan(a.getTimeInEpsilon() - b.getTimeInEpsilon(),
-					epsilon);
+					getEpsilon());
 		} else {
 			// b is after a
 			if (a.getTimeInEpsilon() < 0) {
@@ -254,7 +247,7 @@ public final class TimeOperations {
 			}
 
 			return new TimeSpan(b.getTimeInEpsilon() - a.getTimeInEpsilon(),
-					epsilon);
+					getEpsilon());
 		}
 
 	}
@@ -286,7 +279,7 @@ public final class TimeOperations {
 								null)));
 			}
 		}
-		return new TimeSpan((long) (span.getTimeInEpsilon() * factor), epsilon);
+		return new TimeSpan((long) (span.getTimeInEpsilon() * factor), getEpsilon());
 	}
 
 	/**
@@ -369,7 +362,7 @@ public final class TimeOperations {
 			}
 		}
 		return new TimeSpan((long) (dividend.getTimeInEpsilon() / divisor),
-				epsilon);
+				getEpsilon());
 	}
 
 	/**
@@ -379,7 +372,7 @@ public final class TimeOperations {
 	 * @return TimeUnit : The granularity of simulation time
 	 */
 	public static TimeUnit getEpsilon() {
-		return epsilon;
+		return getTimeBase().getEpsilon();
 	}
 	
     /**
@@ -389,9 +382,40 @@ public final class TimeOperations {
      *       of the epsilon unit 
      */
     public static TimeSpan getEpsilonSpan() {
-        return new TimeSpan(1, epsilon);
+        return new TimeSpan(1, getEpsilon());
     }
 
+	/**
+	 * Converts the given duration to the unit of epsilon without creating a
+	 * TimeSpan object. The result equals the value of
+	 * <code>new TimeSpan(duration, unit).getTimeInEpsilon()</code>.
+	 * 
+	 * @param duration
+	 *            long : The duration in the given unit
+	 * @param unit
+	 *            TimeUnit : The unit of the duration
+	 * @return long : The duration expressed in epsilon
+	 */
+	public static long toEpsilon(long duration, TimeUnit unit) {
+		return getEpsilon().convert(duration, unit);
+	}
+
+	/**
+	 * Converts the given duration to the unit of epsilon without creating a
+	 * TimeSpan object. The result equals the value of
+	 * <code>new TimeSpan(duration, unit).getTimeInEpsilon()</code>, i.e. the
+	 * fraction finer than epsilon is truncated.
+	 * 
+	 * @param duration
+	 *            double : The duration in the given unit
+	 * @param unit
+	 *            TimeUnit : The unit of the duration
+	 * @return long : The duration expressed in epsilon
+	 */
+	public static long toEpsilon(double duration, TimeUnit unit) {
+		return (long) (duration * getEpsilon().convert(1, unit));
+	}
+
 	/**
 	 * Returns the reference time unit specifying what is meant by the
 	 * simulation time step of 1 in statements without an explicit declaration
@@ -402,7 +426,7 @@ public final class TimeOperations {
 	 * 
 	 */
 	static TimeUnit getReferenceUnit() {
-		return referenceUnit;
+		return getTimeBase().getReferenceUnit();
 	}
 
 	/**
@@ -415,7 +439,7 @@ public final class TimeOperations {
 	 *            smallest distinguishable span of simulation time.
 	 */
 	static void setEpsilon(TimeUnit epsilon) {
-		TimeOperations.epsilon = epsilon;
+		getTimeBase().setEpsilon(epsilon);
 	}
 	
 	/**
@@ -430,7 +454,7 @@ public final class TimeOperations {
 	 * 
 	 */
 	static void setReferenceUnit(TimeUnit referenceUnit) {
-		TimeOperations.referenceUnit = referenceUnit;
+		getTimeBase().setReferenceUnit(referenceUnit);
 	}
 
 	/**
@@ -443,7 +467,7 @@ public final class TimeOperations {
 	 */
 
 	static String formatTimeInstant(TimeInstant instant) {
-		return myTimeFormatter.buildTimeString(instant);
+		return getTimeBase().getTimeFormatter().buildTimeString(instant);
 	}
 
 	/**
@@ -455,7 +479,7 @@ public final class TimeOperations {
 	 * 
 	 */
 	static String formatTimeSpan(TimeSpan span) {
-		return myTimeFormatter.buildTimeString(span);
+		return getTimeBase().getTimeFormatter().buildTimeString(span);
 	}
 
 	/**
@@ -463,7 +487,7 @@ public final class TimeOperations {
 	 * framework use only.
 	 */
 	public static TimeFormatter getTimeFormatter() {
-		return myTimeFormatter;
+		return getTimeBase().getTimeFormatter();
 	}
 
 	/**
@@ -474,7 +498,7 @@ public final class TimeOperations {
 	 *            the Time Formatter
 	 */
 	static void setTimeFormatter(TimeFormatter myTimeFormatter) {
-		TimeOperations.myTimeFormatter = myTimeFormatter;
+		getTimeBase().setTimeFormatter(myTimeFormatter);
 	}
 		   
     /**
@@ -484,7 +508,7 @@ public final class TimeOperations {
      * internal framework use only.
      */
     static TimeFormatter getDefaultTimeFormatter() {
-        return new SingleUnitTimeFormatter(referenceUnit, epsilon, 4, false);
+        return getTimeBase().createDefaultTimeFormatter();
     }   
 
 	/**
@@ -494,10 +518,40 @@ public final class TimeOperations {
 	 *         started.
 	 */
 	public static TimeInstant getStartTime() {
-		return startTime;
+		return getTimeBase().getStartTime();
 	}
 
 	static void setStartTime(TimeInstant startTime) {
-		TimeOperations.startTime = startTime;
+		getTimeBase().setStartTime(startTime);
+	}
+
+	/**
+	 * Returns the time base all time conversions of the current thread are
+	 * resolved against, i.e. the time base of the experiment executed by this
+	 * thread or the global default time base if the thread is not bound to an
+	 * experiment.
+	 * 
+	 * @return TimeBase : The time base of the current thread
+	 */
+	public static TimeBase getTimeBase() {
+		TimeBase timeBase = boundTimeBase.get();
+		return timeBase != null ? timeBase : defaultTimeBase;
+	}
+
+	/**
+	 * Binds the given time base to the current thread. This is a package
+	 * private method for internal framework use only; experiments bind their
+	 * time base to the threads setting them up and running them.
+	 * 
+	 * @param timeBase
+	 *            TimeBase : The time base to bind or <code>null</code> to
+	 *            revert to the global default time base
+	 */
+	static void bind(TimeBase timeBase) {
+		if (timeBase == null) {
+			boundTimeBase.remove();
+		} else {
+			boundTimeBase.set(timeBase);
+		}
 	}
 }
\ No newline at end of file
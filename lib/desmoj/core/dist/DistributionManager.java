@@ -1,6 +1,8 @@
 package desmoj.core.dist;
 
-import desmoj.core.simulator.NamedObject;
+import desmoj.core.simulator.NamedObject;
+import desmoj.core.simulator.SnapshotReader;
+import desmoj.core.simulator.SnapshotWriter;
 
 /**
  * Controls all distributions used during an experiment. Provides the service of
@@ -47,6 +49,13 @@ public class DistributionManager extends NamedObject {
 	 */
 	private UniformRandomGenerator _seedGenerator;
 
+	/**
+	 * The stream of the current replication in stream mode, split into
+	 * substreams for the registered distributions, otherwise
+	 * <code>null</code>.
+	 */
+	private JumpableRandomGenerator _streams;
+
 	/**
 	 * Creates a new distributionManager with the given name and the given
 	 * initial seed for the seed-generator.
@@ -83,16 +92,36 @@ public class DistributionManager extends NamedObject {
 	}
 
 	/**
-	 * Provides all registered distributions with new seed values, thus
-	 * resetting all distribution statistics at the same time.
+	 * Provides all registered distributions with new seed values (or new
+	 * substreams in stream mode), thus resetting all distribution statistics
+	 * at the same time.
 	 */
 	public void newSeedAll() {
 
 		for (Distribution d : _distributions) {
-			d.setSeed(nextSeed());
+			if (_streams != null)
+				d.setStream(_streams.split());
+			else
+				d.setSeed(nextSeed());
 		}
 	}
 
+	/**
+	 * Returns a new pseudo random number generator for a random number
+	 * stream of the model not backed by a distribution. In stream mode the
+	 * generator produces the next substream of the replication's stream,
+	 * otherwise it is a <code>LinearCongruentialRandomGenerator</code> seeded
+	 * with <code>nextSeed()</code>.
+	 * 
+	 * @return StatefulRandomGenerator : A new generator
+	 */
+	public StatefulRandomGenerator nextStream() {
+
+		if (_streams != null)
+			return _streams.split();
+		return new LinearCongruentialRandomGenerator(nextSeed());
+	}
+
 	/**
 	 * Returns a new seed value to be used as an initial seed for registered
 	 * distributions.
@@ -116,7 +145,10 @@ public class DistributionManager extends NamedObject {
 	public void register(Distribution dist) {
 
 		dist.setAntithetic(_antitheticMode); // set antithetic mode to default
-		dist.setSeed(nextSeed()); // set new seed
+		if (_streams != null)
+			dist.setStream(_streams.split()); // set next substream
+		else
+			dist.setSeed(nextSeed()); // set new seed
 		_distributions.add(dist); // add to Vector
 
 	}
@@ -146,6 +178,61 @@ public class DistributionManager extends NamedObject {
 		}
 	}
 
+	/**
+	 * Tells if the seed generator can be written to a snapshot, i.e.
+	 * implements <code>StatefulRandomGenerator</code> (stream generators
+	 * always do).
+	 * 
+	 * @return boolean : Is <code>true</code> if the state of the seed
+	 *         generator can be saved
+	 */
+	public boolean canWriteSnapshot() {
+
+		return _seedGenerator instanceof StatefulRandomGenerator;
+	}
+
+	/**
+	 * Writes the state of the seed generator and the antithetic mode to a
+	 * snapshot of the experiment. The distributions themselves are saved as
+	 * reportables of the model.
+	 * 
+	 * @param out
+	 *            SnapshotWriter : The snapshot being written
+	 */
+	public void writeSnapshot(SnapshotWriter out) {
+
+		out.writeBoolean(_antitheticMode);
+		Distribution.writeGeneratorState(out, _seedGenerator);
+		out.writeBoolean(_streams != null);
+		if (_streams != null)
+			Distribution.writeGeneratorState(out, _streams);
+	}
+
+	/**
+	 * Restores the state written by
+	 * <code>writeSnapshot(SnapshotWriter out)</code>.
+	 * 
+	 * @param in
+	 *            SnapshotReader : The snapshot being read
+	 */
+	public void readSnapshot(SnapshotReader in) {
+
+		_antitheticMode = in.readBoolean();
+		_seedGenerator = Distribution.readGeneratorState(in, _seedGenerator);
+		if (in.readBoolean()) {
+			StatefulRandomGenerator streams = Distribution.readGeneratorState(
+					in, _streams);
+			if (!(streams instanceof JumpableRandomGenerator)) {
+				throw new IllegalStateException("Random generator "
+						+ streams.getClass().getName()
+						+ " can not provide streams");
+			}
+			_streams = (JumpableRandomGenerator) streams;
+		} else {
+			_streams = null;
+		}
+	}
+
 	/**
 	 * Sets the seed of the SeedGenerator to the given value. If the seed is not
 	 * set here, its default is zero, unless specified in the experimentoptions.
@@ -155,10 +242,48 @@ public class DistributionManager extends NamedObject {
 	 */
 	public void setSeed(long newSeed) {
 
+		if (_streams != null) { // leave stream mode
+			_streams = null;
+			_seedGenerator = new LinearCongruentialRandomGenerator();
+		}
 		_seedGenerator.setSeed(newSeed); // go ahead and set it!
 
 	}
 
+	/**
+	 * Switches to stream mode: the given generator, positioned at the start of
+	 * the stream of the current replication (e.g. by
+	 * <code>Xoshiro256StarStarRandomGenerator.forStream(long seed, long stream)</code>),
+	 * is split into non-overlapping substreams. The first substream replaces
+	 * the seed generator, each distribution registered from now on or
+	 * provided by <code>newSeedAll()</code> receives the next one. Distinct
+	 * replication streams hence yield independent distributions, reproducible
+	 * regardless of other replications. <code>setSeed(long)</code> switches
+	 * back to seeds.
+	 * 
+	 * @param stream
+	 *            JumpableRandomGenerator : The stream of the replication
+	 *            (used and advanced by the distributionmanager)
+	 */
+	public void setStream(JumpableRandomGenerator stream) {
+
+		_streams = stream;
+		_seedGenerator = _streams.split();
+
+	}
+
+	/**
+	 * Returns whether the distributionmanager is in stream mode.
+	 * 
+	 * @return boolean : Is <code>true</code> if distributions receive
+	 *         substreams instead of seeds
+	 */
+	public boolean isStreamMode() {
+
+		return _streams != null;
+
+	}
+
 	/**
 	 * Sets the underlying pseudo random number generator to be used by all
 	 * distributions created from now on. The default generator is
@@ -0,0 +1,61 @@
+package desmoj.core.dist;
+
+/**
+ * A pseudo random number generator whose stream can be divided into long,
+ * non-overlapping substreams by jumping ahead. Jumping lets independent
+ * streams be derived deterministically from a single seed, e.g. one stream
+ * per replication of an experiment and one substream per distribution within
+ * a replication, so that every replication can be reproduced on its own and
+ * parallel runs deliver the same results regardless of the number of threads.
+ * 
+ * @see desmoj.core.dist.DistributionManager#setStream(JumpableRandomGenerator)
+ * @see desmoj.core.simulator.Experiment#setStream(long, long)
+ * 
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ * 
+ *         Licensed under the Apache License, Version 2.0 (the "License"); you
+ *         may not use this file except in compliance with the License. You may
+ *         obtain a copy of the License at
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *         implied. See the License for the specific language governing
+ *         permissions and limitations under the License.
+ * 
+ */
+public interface JumpableRandomGenerator extends StatefulRandomGenerator {
+
+	/**
+	 * Advances the generator as if <code>nextDouble()</code> had been called
+	 * a fixed, very large number of times (the length of a substream).
+	 */
+	public void jump();
+
+	/**
+	 * Advances the generator by a number of steps much larger than the one of
+	 * <code>jump()</code>, so that the generator can be split into substreams
+	 * by <code>jump()</code> within every stream separated by
+	 * <code>longJump()</code>.
+	 */
+	public void longJump();
+
+	/**
+	 * Returns a new generator of the same class in the same state as this
+	 * one.
+	 * 
+	 * @return JumpableRandomGenerator : A copy of this generator
+	 */
+	public JumpableRandomGenerator copy();
+
+	/**
+	 * Returns a generator producing the substream starting at the current
+	 * state of this generator and advances this generator to the next
+	 * substream by <code>jump()</code>. Repeated calls hence return
+	 * generators with non-overlapping streams.
+	 * 
+	 * @return JumpableRandomGenerator : The generator of the split substream
+	 */
+	public JumpableRandomGenerator split();
+}
@@ -0,0 +1,42 @@
+package desmoj.core.dist;
+
+/**
+ * A pseudo random number generator whose complete internal state can be read
+ * and restored, e.g. to save a running simulation to a snapshot and to
+ * continue it later with exactly the same random number streams.
+ * 
+ * @see desmoj.core.simulator.Experiment#snapshot(String)
+ * 
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ * 
+ *         Licensed under the Apache License, Version 2.0 (the "License"); you
+ *         may not use this file except in compliance with the License. You may
+ *         obtain a copy of the License at
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *         implied. See the License for the specific language governing
+ *         permissions and limitations under the License.
+ * 
+ */
+public interface StatefulRandomGenerator extends UniformRandomGenerator {
+
+	/**
+	 * Returns the current internal state of the generator.
+	 * 
+	 * @return long[] : A copy of the generator's state
+	 */
+	public long[] getState();
+
+	/**
+	 * Restores an internal state previously returned by
+	 * <code>getState()</code> of a generator of the same class. The generator
+	 * then continues with the same stream of numbers.
+	 * 
+	 * @param state
+	 *            long[] : The state to restore
+	 */
+	public void setState(long[] state);
+}
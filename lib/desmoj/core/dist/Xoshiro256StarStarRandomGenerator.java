@@ -0,0 +1,273 @@
+package desmoj.core.dist;
+
+/**
+ * The xoshiro256** random generator by David Blackman and Sebastiano Vigna
+ * (Scrambled Linear Pseudorandom Number Generators, 2018) for uniformly
+ * distributed pseudo random numbers configured such that a stream of [0,1)
+ * double values is produced. The generator has a 256-bit state and a period
+ * of 2^256 - 1. <code>jump()</code> advances it by 2^128 steps and
+ * <code>longJump()</code> by 2^192 steps, so a single seed yields 2^64
+ * non-overlapping streams of 2^64 substreams each (see
+ * <code>forStream(long seed, long stream)</code>).
+ * <p>
+ * The 256-bit state is initialised from a seed by the SplitMix64 generator,
+ * as recommended by the authors.
+ * 
+ * @see desmoj.core.dist.JumpableRandomGenerator
+ * @see <a href="http://prng.di.unimi.it/">http://prng.di.unimi.it/</a>
+ * 
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ * 
+ *         Licensed under the Apache License, Version 2.0 (the "License"); you
+ *         may not use this file except in compliance with the License. You may
+ *         obtain a copy of the License at
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *         implied. See the License for the specific language governing
+ *         permissions and limitations under the License.
+ * 
+ */
+public class Xoshiro256StarStarRandomGenerator implements
+		desmoj.core.dist.JumpableRandomGenerator {
+
+	/**
+	 * Jump polynomial advancing the generator by 2^128 steps.
+	 */
+	private static final long[] JUMP = { 0x180ec6d33cfd0abaL,
+			0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL, 0x39abdc4529b1661cL };
+
+	/**
+	 * Jump polynomial advancing the generator by 2^192 steps.
+	 */
+	private static final long[] LONG_JUMP = { 0x76e15d3efefdcbbfL,
+			0xc5004e441c522fb3L, 0x77710069854ee241L, 0x39109bb02acbe635L };
+
+	/**
+	 * The 256-bit state of the generator.
+	 */
+	protected long s0, s1, s2, s3;
+
+	/**
+	 * Creates a Xoshiro256StarStarRandomGenerator with seed 42.
+	 */
+	public Xoshiro256StarStarRandomGenerator() {
+
+		setSeed(42);
+
+	}
+
+	/**
+	 * Creates a Xoshiro256StarStarRandomGenerator with given value as initial
+	 * seed.
+	 * 
+	 * @param seed
+	 *            long : The initial seed of the underlying pseudo random
+	 *            generator
+	 */
+	public Xoshiro256StarStarRandomGenerator(long seed) {
+
+		setSeed(seed);
+
+	}
+
+	/**
+	 * Returns a generator positioned at the start of the given stream of the
+	 * given seed, i.e. seeded with <code>seed</code> and advanced by
+	 * <code>stream</code> calls of <code>longJump()</code>. The generator can
+	 * be split into substreams by <code>split()</code>. The effort grows
+	 * linearly with the stream number; to iterate over consecutive streams,
+	 * call <code>longJump()</code> on a copy instead.
+	 * 
+	 * @param seed
+	 *            long : The seed shared by all streams
+	 * @param stream
+	 *            long : The non-negative number of the stream
+	 * @return Xoshiro256StarStarRandomGenerator : The generator of the stream
+	 */
+	public static Xoshiro256StarStarRandomGenerator forStream(long seed,
+			long stream) {
+
+		if (stream < 0) {
+			throw new IllegalArgumentException("Negative stream number: "
+					+ stream);
+		}
+		Xoshiro256StarStarRandomGenerator generator = new Xoshiro256StarStarRandomGenerator(
+				seed);
+		for (long i = 0; i < stream; i++) {
+			generator.longJump();
+		}
+		return generator;
+
+	}
+
+	/**
+	 * Returns the next pseudo random uniform [0,1) distributed double value
+	 * from the stream produced by the underlying pseudo random number
+	 * generator.
+	 * 
+	 * @return double : The next pseudo random uniform [0,1) distributed double
+	 *         value
+	 */
+	public double nextDouble() {
+
+		// the 53 highest bits as mantissa
+		return (next() >>> 11) * 0x1.0p-53;
+
+	}
+
+	/**
+	 * Advances the generator and returns the next 64 random bits.
+	 * 
+	 * @return long : The random bits
+	 */
+	protected long next() {
+
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+
+	}
+
+	/**
+	 * Sets the seed for the pseudo random number generator. The 256-bit state
+	 * is filled with four consecutive outputs of a SplitMix64 generator
+	 * started at the given seed.
+	 * 
+	 * @param newSeed
+	 *            long : The new initial seed value for the pseudo random number
+	 *            generator
+	 */
+	public void setSeed(long newSeed) {
+
+		long x = newSeed;
+		s0 = splitMix64(x += 0x9e3779b97f4a7c15L);
+		s1 = splitMix64(x += 0x9e3779b97f4a7c15L);
+		s2 = splitMix64(x += 0x9e3779b97f4a7c15L);
+		s3 = splitMix64(x += 0x9e3779b97f4a7c15L);
+
+	}
+
+	/**
+	 * The output function of the SplitMix64 generator.
+	 */
+	private static long splitMix64(long z) {
+
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+
+	}
+
+	/**
+	 * Advances the generator by 2^128 steps.
+	 */
+	public void jump() {
+
+		jump(JUMP);
+
+	}
+
+	/**
+	 * Advances the generator by 2^192 steps.
+	 */
+	public void longJump() {
+
+		jump(LONG_JUMP);
+
+	}
+
+	/**
+	 * Advances the generator by the number of steps encoded by the given jump
+	 * polynomial.
+	 */
+	private void jump(long[] polynomial) {
+
+		long t0 = 0, t1 = 0, t2 = 0, t3 = 0;
+		for (long word : polynomial) {
+			for (int b = 0; b < 64; b++) {
+				if ((word & (1L << b)) != 0) {
+					t0 ^= s0;
+					t1 ^= s1;
+					t2 ^= s2;
+					t3 ^= s3;
+				}
+				next();
+			}
+		}
+		s0 = t0;
+		s1 = t1;
+		s2 = t2;
+		s3 = t3;
+
+	}
+
+	/**
+	 * Returns a new generator in the same state as this one.
+	 * 
+	 * @return JumpableRandomGenerator : A copy of this generator
+	 */
+	public JumpableRandomGenerator copy() {
+
+		Xoshiro256StarStarRandomGenerator copy = new Xoshiro256StarStarRandomGenerator();
+		copy.s0 = s0;
+		copy.s1 = s1;
+		copy.s2 = s2;
+		copy.s3 = s3;
+		return copy;
+
+	}
+
+	/**
+	 * Returns a copy of this generator and advances this generator by 2^128
+	 * steps to the next substream.
+	 * 
+	 * @return JumpableRandomGenerator : The generator of the split substream
+	 */
+	public JumpableRandomGenerator split() {
+
+		JumpableRandomGenerator substream = copy();
+		jump();
+		return substream;
+
+	}
+
+	/**
+	 * Returns the current 256-bit state of the generator.
+	 * 
+	 * @return long[] : The state (four 64-bit values)
+	 */
+	public long[] getState() {
+
+		return new long[] { s0, s1, s2, s3 };
+
+	}
+
+	/**
+	 * Restores a state returned by <code>getState()</code>.
+	 * 
+	 * @param state
+	 *            long[] : The state to restore
+	 */
+	public void setState(long[] state) {
+
+		if (state.length != 4
+				|| (state[0] | state[1] | state[2] | state[3]) == 0) {
+			throw new IllegalArgumentException(
+					"Invalid state of a xoshiro256** generator");
+		}
+		s0 = state[0];
+		s1 = state[1];
+		s2 = state[2];
+		s3 = state[3];
+
+	}
+}
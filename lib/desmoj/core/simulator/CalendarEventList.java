@@ -0,0 +1,663 @@
+package desmoj.core.simulator;
+
+import java.util.Arrays;
+
+import desmoj.core.exception.SimAbortedException;
+import desmoj.core.report.ErrorMessage;
+
+/**
+ * Implementation of the interface <code>EventList</code> as a calendar queue
+ * (R. Brown: "Calendar Queues: A Fast O(1) Priority Queue Implementation for
+ * the Simulation Event Set Problem", Communications of the ACM 31(10), 1988).
+ * Inserting an event-note and retrieving or removing the next event-note take
+ * O(1) amortised time, which makes this event-list suitable for models with
+ * hundreds of thousands of pending events.
+ * <p>
+ * The event-notes are distributed over an array of buckets ("days"), each
+ * covering a span of simulation time of the same width; the bucket of an
+ * event-note is determined by its point of simulation time modulo the length
+ * of a "year" (number of buckets times bucket width). Every bucket keeps its
+ * event-notes in the same order as <code>EventTreeList</code> does, i.e.
+ * ordered by time, concurrent event-notes ordered by descending priority and
+ * event-notes of equal time and priority in the order of their insertion.
+ * The number of buckets and their width are adapted to the number and the
+ * spacing of the pending event-notes whenever the event-list grows or shrinks
+ * by a factor of two.
+ * <p>
+ * Note that iterating the event-list by means of <code>nextNote()</code>,
+ * <code>prevNote()</code> or <code>lastNote()</code> requires a scan of all
+ * buckets and thus takes O(n) time; these methods are intended for reporting
+ * and debugging only. Like all event-lists, this implementation is not
+ * thread-safe.
+ *
+ * @see Experiment#setEventList(Class)
+ * @see EventTreeList
+ * @see EventNote
+ *
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+public class CalendarEventList extends EventList {
+
+	/**
+	 * The minimum number of buckets of the calendar.
+	 */
+	private static final int MIN_BUCKETS = 16;
+
+	/**
+	 * The maximum number of event-note times sampled to estimate the bucket
+	 * width when resizing the calendar.
+	 */
+	private static final int WIDTH_SAMPLE_SIZE = 256;
+
+	/**
+	 * The buckets of the calendar, each an array of event-notes ordered by
+	 * time and priority; only the first <code>_bucketSizes[i]</code> entries
+	 * of bucket <code>i</code> are in use.
+	 */
+	private EventNote[][] _buckets;
+
+	/**
+	 * The number of event-notes in each bucket.
+	 */
+	private int[] _bucketSizes;
+
+	/**
+	 * The span of simulation time (in epsilon) covered by each bucket.
+	 */
+	private long _bucketWidth;
+
+	/**
+	 * The total number of event-notes in the calendar.
+	 */
+	private int _size;
+
+	/**
+	 * The bucket the search for the next event-note starts at.
+	 */
+	private int _currentBucket;
+
+	/**
+	 * The end (exclusive, in epsilon) of the current bucket in the current
+	 * year. No event-note is scheduled before the start of the current bucket,
+	 * i.e. <code>_bucketTop - _bucketWidth</code>.
+	 */
+	private long _bucketTop;
+
+	/**
+	 * The first event-note of the event-list, <code>null</code> if it has to
+	 * be searched for.
+	 */
+	private EventNote _first;
+
+	/**
+	 * Constructs an empty event-list.
+	 */
+	public CalendarEventList() {
+
+		_bucketWidth = 1;
+		allocate(MIN_BUCKETS);
+		_currentBucket = 0;
+		_bucketTop = _bucketWidth;
+	}
+
+	/**
+	 * Returns the first event-note in the event-list. It is the event-note with
+	 * the lowest (nearest) associated point of simulation time of all
+	 * event-notes contained in the event-list. Note that the event-note is not
+	 * removed from the event-list.
+	 *
+	 * @return EventNote : the event-note to be processed next in the order of
+	 *         time. Returns <code>null</code> if the event-list is empty.
+	 */
+	EventNote firstNote() {
+
+		if (_size == 0) {
+			return null;
+		}
+		if (_first == null) {
+			_first = searchFirst();
+		}
+		return _first;
+	}
+
+	/**
+	 * Inserts the new event-note preserving the temporal order of the
+	 * event-notes contained in the event-list. The new note is placed behind
+	 * all event-notes of the same time and higher or equal priority.
+	 *
+	 * @param newNote
+	 *            EventNote : the new note to be inserted in the event-list
+	 *            keeping the temporal order
+	 */
+	void insert(EventNote newNote) {
+
+		addToSchedulables(newNote);
+
+		long time = newNote.getTimeInEpsilon();
+		int priority = newNote.getPriority();
+		int bucket = bucketOf(time);
+
+		// scan backwards from the end of the bucket for the last event-note
+		// scheduled before or concurrently with higher or equal priority
+		EventNote[] notes = _buckets[bucket];
+		int position = _bucketSizes[bucket];
+		while (position > 0) {
+			EventNote previous = notes[position - 1];
+			long previousTime = previous.getTimeInEpsilon();
+			if (previousTime < time
+					|| (previousTime == time && previous.getPriority() >= priority)) {
+				break;
+			}
+			position--;
+		}
+		insertAt(bucket, position, newNote);
+		resizeIfNeeded();
+	}
+
+	/**
+	 * Inserts a new event-note after another event-note specified. Note that
+	 * to keep the temporal order of the event-list, the scheduled time will be
+	 * set to the same time as the referred "afterNote". If the referred note
+	 * is not contained in the event-list, a <code>SimAbortedException</code>
+	 * will be thrown, stopping the simulation.
+	 *
+	 * @param where
+	 *            EventNote : The event-note containing the event after which the
+	 *            new note is supposed to be inserted into the event-list.
+	 * @param newNote
+	 *            EventNote : The new event-note to be inserted after the
+	 *            specified EventNote in the event-list.
+	 * @throws SimAbortedException
+	 *                : if referred EventNote is not contained in the event-list
+	 */
+	void insertAfter(EventNote where, EventNote newNote) {
+
+		int bucket = bucketOf(where.getTimeInEpsilon());
+		int i = indexIn(bucket, where);
+		if (i < 0) {
+			throw notContained(newNote, "insertAfter(EventNote where, EventNote newNote)", "after");
+		}
+		newNote.setTimeInEpsilon(where.getTimeInEpsilon());
+		// synchronize times to keep order
+		addToSchedulables(newNote);
+		insertAt(bucket, i + 1, newNote);
+		resizeIfNeeded();
+	}
+
+	/**
+	 * Inserts the given event-note at the first position in the event-list.
+	 * Note that for consistency the time of the new event-note is set to the
+	 * time of the current first entry, if the time of that entry is earlier.
+	 *
+	 * @param newNote
+	 *            EventNote : The event-note to be inserted at the first position
+	 *            in the event-list.
+	 */
+	void insertAsFirst(EventNote newNote) {
+
+		EventNote first = firstNote();
+		if (first != null && first.getTimeInEpsilon() < newNote.getTimeInEpsilon()) {
+			newNote.setTimeInEpsilon(first.getTimeInEpsilon());
+		}
+
+		// no event-note is scheduled before the new one, so it goes in front
+		// of its bucket
+		insertAt(bucketOf(newNote.getTimeInEpsilon()), 0, newNote);
+		_first = newNote;
+
+		addToSchedulables(newNote);
+		resizeIfNeeded();
+	}
+
+	/**
+	 * Inserts a new event-note before another event-note specified. Note that
+	 * the new note will be scheduled at the time of the referred note. If the
+	 * referred note is not contained in the event-list, a
+	 * <code>SimAbortedException</code> will be thrown.
+	 *
+	 * @param where
+	 *            EventNote : The event-note containing the event before which
+	 *            the newNote is supposed to be inserted into the event-list.
+	 * @param newNote
+	 *            EventNote : The new event-note to be inserted before the
+	 *            specified EventNote in the event-list
+	 * @throws SimAbortedException
+	 *                : if referred EventNote is not contained in the event-list
+	 */
+	void insertBefore(EventNote where, EventNote newNote) {
+
+		int bucket = bucketOf(where.getTimeInEpsilon());
+		int i = indexIn(bucket, where);
+		if (i < 0) {
+			throw notContained(newNote, "insertBefore(EventNote where, EventNote newNote)", "before");
+		}
+		newNote.setTimeInEpsilon(where.getTimeInEpsilon());
+		// synchronize times to keep order
+		addToSchedulables(newNote);
+		insertAt(bucket, i, newNote);
+		if (_first == where) {
+			_first = newNote;
+		}
+		resizeIfNeeded();
+	}
+
+	/**
+	 * Tests if there are any scheduled events contained in the event-list.
+	 *
+	 * @return boolean : True if there are no event-notes contained in the
+	 *         event-list, false otherwise.
+	 */
+	boolean isEmpty() {
+
+		return _size == 0;
+	}
+
+	/**
+	 * Returns the last event-note in the event-list. If the event-list is
+	 * empty, <code>null</code> will be returned. Takes O(number of buckets)
+	 * time.
+	 *
+	 * @return EventNote : the last event-note in the event-list, null if the
+	 *         event-list is empty
+	 */
+	EventNote lastNote() {
+
+		EventNote last = null;
+		for (int bucket = 0; bucket < _buckets.length; bucket++) {
+			if (_bucketSizes[bucket] > 0) {
+				EventNote candidate = _buckets[bucket][_bucketSizes[bucket] - 1];
+				if (last == null || candidate.getTimeInEpsilon() > last.getTimeInEpsilon()) {
+					last = candidate;
+				}
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Returns the next event-note in the event-list relative to the given
+	 * event-note. If the given event-note is not contained in the event-list
+	 * or happens to be the last event-note in the event-list, null will be
+	 * returned. Takes O(n) time.
+	 *
+	 * @return EventNote : The event-note following the given event-note or
+	 *         <code>null</code> if the given event-note was last or not found
+	 * @param origin
+	 *            EventNote : The event-note whose successor is wanted
+	 */
+	EventNote nextNote(EventNote origin) {
+
+		long time = origin.getTimeInEpsilon();
+		int originBucket = bucketOf(time);
+		int i = indexIn(originBucket, origin);
+		if (i < 0) {
+			return null;
+		}
+
+		// the successor is either the next note in the same bucket or the
+		// earliest note scheduled later in any other bucket
+		EventNote next = (i + 1 < _bucketSizes[originBucket]) ? _buckets[originBucket][i + 1] : null;
+		for (int bucket = 0; bucket < _buckets.length; bucket++) {
+			if (bucket == originBucket) {
+				continue;
+			}
+			for (int j = 0; j < _bucketSizes[bucket]; j++) {
+				EventNote candidate = _buckets[bucket][j];
+				long candidateTime = candidate.getTimeInEpsilon();
+				if (candidateTime > time) {
+					if (next == null || candidateTime < next.getTimeInEpsilon()) {
+						next = candidate;
+					}
+					break;
+				}
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Returns the previous event-note in the event-list relative to the given
+	 * event-note. If the given event-note is not contained in the event-list
+	 * or happens to be the first event-note in the event-list, null will be
+	 * returned. Takes O(n) time.
+	 *
+	 * @return EventNote : The event-note preceding the given event-note or
+	 *         <code>null</code> if the given event-note was first or not found
+	 * @param origin
+	 *            EventNote : The event-note whose predecessor is wanted
+	 */
+	EventNote prevNote(EventNote origin) {
+
+		long time = origin.getTimeInEpsilon();
+		int originBucket = bucketOf(time);
+		int i = indexIn(originBucket, origin);
+		if (i < 0) {
+			return null;
+		}
+
+		// the predecessor is either the previous note in the same bucket or
+		// the latest note scheduled earlier in any other bucket
+		EventNote prev = (i > 0) ? _buckets[originBucket][i - 1] : null;
+		for (int bucket = 0; bucket < _buckets.length; bucket++) {
+			if (bucket == originBucket) {
+				continue;
+			}
+			for (int j = _bucketSizes[bucket] - 1; j >= 0; j--) {
+				EventNote candidate = _buckets[bucket][j];
+				long candidateTime = candidate.getTimeInEpsilon();
+				if (candidateTime < time) {
+					if (prev == null || candidateTime > prev.getTimeInEpsilon()) {
+						prev = candidate;
+					}
+					break;
+				}
+			}
+		}
+		return prev;
+	}
+
+	/**
+	 * Removes the given event-note from the event-list. Does nothing if the
+	 * event-note is not contained in the event-list.
+	 *
+	 * @param note
+	 *            EventNote : The event-note to be removed from the event-list
+	 */
+	void remove(EventNote note) {
+
+		int bucket = bucketOf(note.getTimeInEpsilon());
+		int i = indexIn(bucket, note);
+		if (i < 0) {
+			return; // do nothing if it doesn't exist
+		}
+		removeAt(bucket, i);
+		removeFromSchedulables(note);
+		resizeIfNeeded();
+	}
+
+	/**
+	 * Removes the first event-note from the event-list. Does nothing if the
+	 * event-list is already empty.
+	 */
+	void removeFirst() {
+
+		EventNote first = firstNote();
+		if (first != null) {
+			remove(first);
+		}
+	}
+
+	/**
+	 * Returns a string representing the entries of this event-list in a row.
+	 * The resulting string includes all event-notes in ascending order.
+	 */
+	public String toString() {
+
+		StringBuffer textBuffer = new StringBuffer();
+		for (EventNote note = firstNote(); note != null; note = nextNote(note)) {
+			textBuffer.append("[");
+			textBuffer.append(note);
+			textBuffer.append("]");
+		}
+		return textBuffer.toString();
+	}
+
+	/**
+	 * Returns the bucket the given point of simulation time belongs to.
+	 */
+	private int bucketOf(long timeInEpsilon) {
+
+		long day = floorDiv(timeInEpsilon, _bucketWidth);
+		int bucket = (int) (day % _buckets.length);
+		return bucket < 0 ? bucket + _buckets.length : bucket;
+	}
+
+	/**
+	 * Returns the position of the given event-note in the given bucket or -1
+	 * if it is not contained.
+	 */
+	private int indexIn(int bucket, EventNote note) {
+
+		EventNote[] notes = _buckets[bucket];
+		for (int i = 0; i < _bucketSizes[bucket]; i++) {
+			if (notes[i] == note) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Stores the event-note at the given position of the given bucket and
+	 * keeps the search position and the cached first note valid.
+	 */
+	private void insertAt(int bucket, int position, EventNote note) {
+
+		EventNote[] notes = _buckets[bucket];
+		int size = _bucketSizes[bucket];
+		if (size == notes.length) {
+			notes = Arrays.copyOf(notes, Math.max(4, size * 2));
+			_buckets[bucket] = notes;
+		}
+		System.arraycopy(notes, position, notes, position + 1, size - position);
+		notes[position] = note;
+		_bucketSizes[bucket] = size + 1;
+		_size++;
+
+		long time = note.getTimeInEpsilon();
+		if (time < _bucketTop - _bucketWidth) {
+			// scheduled before the current bucket: restart the search there
+			moveTo(time);
+		}
+		if (_first != null && position == 0
+				&& time <= _first.getTimeInEpsilon()) {
+			// in front of the old first note, which may be in the same bucket
+			_first = note;
+		}
+	}
+
+	/**
+	 * Removes the event-note at the given position of the given bucket.
+	 */
+	private void removeAt(int bucket, int position) {
+
+		EventNote[] notes = _buckets[bucket];
+		if (notes[position] == _first) {
+			_first = null;
+		}
+		int size = _bucketSizes[bucket] - 1;
+		System.arraycopy(notes, position + 1, notes, position, size - position);
+		notes[size] = null;
+		_bucketSizes[bucket] = size;
+		_size--;
+	}
+
+	/**
+	 * Searches the calendar for the first event-note, starting at the current
+	 * bucket and year. Falls back to a direct search over all buckets if no
+	 * event-note is found within one year.
+	 */
+	private EventNote searchFirst() {
+
+		int bucket = _currentBucket;
+		long top = _bucketTop;
+		for (int day = 0; day < _buckets.length; day++) {
+			if (_bucketSizes[bucket] > 0
+					&& _buckets[bucket][0].getTimeInEpsilon() < top) {
+				_currentBucket = bucket;
+				_bucketTop = top;
+				return _buckets[bucket][0];
+			}
+			bucket = (bucket + 1 == _buckets.length) ? 0 : bucket + 1;
+			top += _bucketWidth;
+		}
+
+		// no event-note within a year: take the earliest of all buckets
+		EventNote first = null;
+		for (bucket = 0; bucket < _buckets.length; bucket++) {
+			if (_bucketSizes[bucket] > 0
+					&& (first == null || _buckets[bucket][0].getTimeInEpsilon() < first
+							.getTimeInEpsilon())) {
+				first = _buckets[bucket][0];
+			}
+		}
+		moveTo(first.getTimeInEpsilon());
+		return first;
+	}
+
+	/**
+	 * Sets the search position to the bucket of the given point of time.
+	 */
+	private void moveTo(long timeInEpsilon) {
+
+		_currentBucket = bucketOf(timeInEpsilon);
+		_bucketTop = (floorDiv(timeInEpsilon, _bucketWidth) + 1) * _bucketWidth;
+	}
+
+	/**
+	 * Doubles or halves the number of buckets if the event-list has grown or
+	 * shrunk accordingly, re-estimating the bucket width.
+	 */
+	private void resizeIfNeeded() {
+
+		if (_size > 2 * _buckets.length) {
+			resize(2 * _buckets.length);
+		} else if (_size < _buckets.length / 2 && _buckets.length > MIN_BUCKETS) {
+			resize(_buckets.length / 2);
+		}
+	}
+
+	/**
+	 * Redistributes all event-notes into the given number of buckets, whose
+	 * width is chosen to hold about three event-notes in every bucket of the
+	 * current year. Event-notes of equal time stay in their relative order.
+	 */
+	private void resize(int bucketCount) {
+
+		EventNote[][] oldBuckets = _buckets;
+		int[] oldSizes = _bucketSizes;
+		EventNote first = _first;
+
+		_bucketWidth = estimateWidth();
+		allocate(bucketCount);
+		_size = 0;
+		_first = null;
+
+		for (int bucket = 0; bucket < oldBuckets.length; bucket++) {
+			for (int i = 0; i < oldSizes[bucket]; i++) {
+				// event-notes of equal time come from the same old bucket in
+				// order, so appending behind all notes scheduled not later
+				// keeps their order
+				EventNote note = oldBuckets[bucket][i];
+				long time = note.getTimeInEpsilon();
+				int newBucket = bucketOf(time);
+				EventNote[] notes = _buckets[newBucket];
+				int position = _bucketSizes[newBucket];
+				while (position > 0 && notes[position - 1].getTimeInEpsilon() > time) {
+					position--;
+				}
+				insertAt(newBucket, position, note);
+			}
+		}
+
+		_first = first;
+		if (first != null) {
+			moveTo(first.getTimeInEpsilon());
+		} else if (_size > 0) {
+			_first = searchFirst();
+		}
+	}
+
+	/**
+	 * Creates the given number of empty buckets.
+	 */
+	private void allocate(int bucketCount) {
+
+		_buckets = new EventNote[bucketCount][];
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			_buckets[bucket] = new EventNote[4];
+		}
+		_bucketSizes = new int[bucketCount];
+		_currentBucket = 0;
+		_bucketTop = Long.MIN_VALUE + _bucketWidth; // search position is
+													// unknown
+	}
+
+	/**
+	 * Estimates the bucket width from the spacing of the pending event-notes,
+	 * using a sample of their times. To be robust against outliers (i.e. a
+	 * single far future event) only the central 80 percent of the sample are
+	 * taken into account.
+	 */
+	private long estimateWidth() {
+
+		if (_size < 2) {
+			return _bucketWidth;
+		}
+
+		int stride = Math.max(1, _size / WIDTH_SAMPLE_SIZE);
+		long[] sample = new long[Math.min(_size, WIDTH_SAMPLE_SIZE)];
+		int sampled = 0, seen = 0;
+		for (int bucket = 0; bucket < _buckets.length && sampled < sample.length; bucket++) {
+			for (int i = 0; i < _bucketSizes[bucket] && sampled < sample.length; i++) {
+				if (seen++ % stride == 0) {
+					sample[sampled++] = _buckets[bucket][i].getTimeInEpsilon();
+				}
+			}
+		}
+		Arrays.sort(sample, 0, sampled);
+
+		int low = sampled / 10;
+		int high = sampled - 1 - sampled / 10;
+		double span = sample[high] - sample[low];
+		double notesInSpan = (double) _size * (high - low) / sampled;
+		long width = (long) (3.0 * span / Math.max(1.0, notesInSpan));
+		return Math.max(1, width);
+	}
+
+	/**
+	 * Builds the exception thrown if an event-note is to be inserted relative
+	 * to an event-note not contained in the event-list.
+	 */
+	private SimAbortedException notContained(EventNote newNote, String method, String relation) {
+
+		Model mBuffer = null; // buffer current model
+		if (newNote.getEntity1() != null) {
+			mBuffer = newNote.getEntity1().getModel();
+		}
+		if (newNote.getEvent() != null) {
+			mBuffer = newNote.getEvent().getModel();
+		}
+		return new SimAbortedException(new ErrorMessage(mBuffer,
+				"Can not insert new event-note " + relation + " given EventNote! "
+						+ "Simulation aborted",
+				"Internal DESMO-J class : CalendarEventList Method : " + method,
+				"The event-note to insert the new note " + relation
+						+ " is not contained in the calendar event list.",
+				"This is a fatal error. Contact DESMOJ support", newNote.getTime()));
+	}
+
+	/**
+	 * Integer division rounding towards negative infinity.
+	 */
+	private static long floorDiv(long dividend, long divisor) {
+
+		long quotient = dividend / divisor;
+		if ((dividend % divisor != 0) && ((dividend < 0) != (divisor < 0))) {
+			quotient--;
+		}
+		return quotient;
+	}
+}
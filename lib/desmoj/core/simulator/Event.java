@@ -157,6 +157,81 @@ public abstract class Event<E extends Entity> extends EventAbstract {
 
 	}
 
+	/**
+	 * Schedules this event to act on the given Entity at the specified point in
+	 * simulation time, given in the unit of epsilon. No time objects are
+	 * created to schedule the event. Note that scheduling at the present time
+	 * does not preempt the current SimProcess; the event is inserted behind
+	 * all events already scheduled for the same time and priority.
+	 * 
+	 * @param who
+	 *            E : The Entity this event happens to
+	 * @param timeInEpsilon
+	 *            long : The point in simulation time this event is scheduled
+	 *            to happen, expressed in epsilon
+	 * @see TimeOperations#toEpsilon(double, java.util.concurrent.TimeUnit)
+	 */
+	public void scheduleAtEpsilon(E who, long timeInEpsilon) {
+
+		if ((who == null)) {
+			sendWarning("Can't schedule Event!", "Event : " + getName()
+					+ " Method: scheduleAtEpsilon(Entity who, long timeInEpsilon)",
+					"The Entity given as parameter is a null reference.",
+					"Be sure to have a valid Entity reference for this event to "
+							+ "be scheduled with.");
+			return; // no proper parameter
+		}
+
+		if (isScheduled()) {
+			sendWarning("Can't schedule Event! Command ignored.", "Event : "
+					+ getName()
+					+ " Method: scheduleAtEpsilon(Entity who, long timeInEpsilon)",
+					"The event to be scheduled is already scheduled.",
+					"Use method events only once, do not use them multiple "
+							+ "times.");
+			return; // was already scheduled
+		}
+
+		if (!isModelCompatible(who)) {
+			sendWarning("Can't schedule Event! Command ignored", "Entity : "
+					+ getName()
+					+ " Method: scheduleAtEpsilon(Entity who, long timeInEpsilon)",
+					"The Entity to be scheduled with this event is not "
+							+ "modelcompatible.",
+					"Make sure to use compatible model components only.");
+			return; // is not compatible
+		}
+
+		// generate trace
+		this.generateTraceForScheduling(who, null, null, timeInEpsilon);
+
+		// schedule Event
+		getModel().getExperiment().getScheduler().scheduleAtEpsilon(who, null,
+				null, this, timeInEpsilon);
+
+		if (currentlySendDebugNotes()) {
+			sendDebugNote("schedules on EventList<br>"
+					+ getModel().getExperiment().getScheduler().toString());
+		}
+
+	}
+
+	/**
+	 * Schedules this event to act on the given Entity after the given offset
+	 * to the current simulation time, given in the unit of epsilon. No time
+	 * objects are created to schedule the event.
+	 * 
+	 * @param who
+	 *            E : The Entity this event happens to
+	 * @param dtInEpsilon
+	 *            long : The offset to the current simulation time this Event
+	 *            is to happen, expressed in epsilon
+	 * @see #scheduleAtEpsilon(Entity, long)
+	 */
+	public void scheduleInEpsilon(E who, long dtInEpsilon) {
+		scheduleAtEpsilon(who, presentTime().getTimeInEpsilon() + dtInEpsilon);
+	}
+
 	/**
 	 * Schedules this event to act on the given Entity at the specified point in
 	 * simulation time. The point of time is given as an offset to the current
@@ -384,7 +459,7 @@ public abstract class Event<E extends Entity> extends EventAbstract {
 		}
 		
         // generate trace
-        this.generateTraceForScheduling(who, null, null, after, null, after.getEventNotes().get(after.getEventNotes().size()-1).getTime(), null);
+        this.generateTraceForScheduling(who, null, null, after, null, after.getLastEventNote().getTime(), null);
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleAfter(after, who,
@@ -483,7 +558,7 @@ public abstract class Event<E extends Entity> extends EventAbstract {
 		}
 
         // generate trace
-        this.generateTraceForScheduling(who, null, null, null, before, before.getEventNotes().get(0).getTime(), null);
+        this.generateTraceForScheduling(who, null, null, null, before, before.getFirstEventNote().getTime(), null);
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleBefore(before, who,
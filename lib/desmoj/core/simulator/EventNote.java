@@ -60,9 +60,23 @@ public class EventNote implements Comparable<EventNote>
 	/**
 	 * The point of simulation time associated to an event and an entity. Must
 	 * never be <code>null</code> since changes in the state of a model always
-	 * happen to a certain discrete point of time.
+	 * happen to a certain discrete point of time. If the time has been set in
+	 * epsilon, this TimeInstant is created on demand by <code>getTime()</code>.
 	 */
 	private TimeInstant _myTimeInstant; // time that the event is supposed to happen
+
+	/**
+	 * The point of simulation time associated to this event-note in the unit
+	 * of epsilon, used by the event-lists to compare event-notes without
+	 * creating TimeInstant objects.
+	 */
+	private long _myTimeInEpsilon;
+
+	/**
+	 * Flag indicating if a point of simulation time is associated to this
+	 * event-note.
+	 */
+	private boolean _hasTime;
 	
 	/**
      * The priority associated to this EventNote.
@@ -78,6 +92,51 @@ public class EventNote implements Comparable<EventNote>
      * the same instant.
      */
     private boolean _isConnected; // flag for connection to predecessor
+
+    /**
+     * The position of this event-note in the heap of a
+     * <code>HeapEventList</code>, -1 if this event-note is not contained in
+     * such an event-list.
+     */
+    private int _heapIndex = -1; // position in HeapEventList
+
+    /**
+     * Slot of the first entity in the links of this event-note.
+     */
+    static final int ENTITY1_SLOT = 0;
+
+    /**
+     * Slot of the second entity in the links of this event-note.
+     */
+    static final int ENTITY2_SLOT = 1;
+
+    /**
+     * Slot of the third entity in the links of this event-note.
+     */
+    static final int ENTITY3_SLOT = 2;
+
+    /**
+     * Slot of the event in the links of this event-note.
+     */
+    static final int EVENT_SLOT = 3;
+
+    /**
+     * The links of this event-note to its neighbours in the schedules of the
+     * associated entities and the event: the previous and the next
+     * event-note of the Schedulable in each slot. The links are plain fields
+     * of the event-note, so neither list nodes nor link arrays have to be
+     * allocated when scheduling or dispatching.
+     */
+    private EventNote _prevOfEntity1, _nextOfEntity1;
+    private EventNote _prevOfEntity2, _nextOfEntity2;
+    private EventNote _prevOfEntity3, _nextOfEntity3;
+    private EventNote _prevOfEvent, _nextOfEvent;
+
+    /**
+     * Flag indicating that this event-note has been returned to an
+     * <code>EventNotePool</code> and must not be used until handed out again.
+     */
+    private boolean _pooled; // flag for being stored in a pool
     
 	/**
 	 * Event notes can only be created if all relevant data can be supplied at
@@ -105,7 +164,7 @@ public class EventNote implements Comparable<EventNote>
 		_myEntity2 = null;
 		_myEntity3 = null;
 		_myEvent = what;
-		_myTimeInstant = when;
+		setTime(when);
 		_myPriority = howImportant;
 			
 		if (what != null)
@@ -142,7 +201,7 @@ public class EventNote implements Comparable<EventNote>
 		_myEntity2 = who2;
 		_myEntity3 = null;
 		_myEvent = what;
-		_myTimeInstant = when;
+		setTime(when);
 	    _myPriority = howImportant;
 		
 		if (what != null)
@@ -182,7 +241,7 @@ public class EventNote implements Comparable<EventNote>
 		_myEntity2 = who2;
 		_myEntity3 = who3;
 		_myEvent = what;
-		_myTimeInstant = when;
+		setTime(when);
 	    _myPriority = howImportant;
 		
 		if (what != null)
@@ -202,17 +261,17 @@ public class EventNote implements Comparable<EventNote>
 
 		if (getNumberOfEntities()<=1)
 		{
-			evn =  new EventNote(_myEntity1, _myEvent, _myTimeInstant, _myPriority);
+			evn =  new EventNote(_myEntity1, _myEvent, getTime(), _myPriority);
 			evn._isConnected = this.isConnected();
 		}
 		else if (getNumberOfEntities()==2)
 		{
-			evn = new EventNote(_myEntity1, _myEntity2, _myEvent, _myTimeInstant, _myPriority);
+			evn = new EventNote(_myEntity1, _myEntity2, _myEvent, getTime(), _myPriority);
 			evn._isConnected = this.isConnected();
 		}
 		else if (getNumberOfEntities()==3)
 		{
-			evn =  new EventNote(_myEntity1, _myEntity2, _myEntity3, _myEvent, _myTimeInstant, _myPriority);
+			evn =  new EventNote(_myEntity1, _myEntity2, _myEntity3, _myEvent, getTime(), _myPriority);
 			evn._isConnected = this.isConnected();
 		}
 		{
@@ -255,7 +314,7 @@ public class EventNote implements Comparable<EventNote>
                (_myEntity2 == null ?     983 : _myEntity2.hashCode()) ^ 
                (_myEntity3 == null ?   33637 : _myEntity3.hashCode()) ^ 
                (_myEvent   == null ? 7288583 : _myEvent.hashCode()) ^ 
-                                         _myTimeInstant.hashCode();
+                                         getTime().hashCode();
     }
 	
 	/**
@@ -274,21 +333,20 @@ public class EventNote implements Comparable<EventNote>
 		{
 			return 0; //TODO?
 		}
-		if ((note.getTime() == null) && this.getTime() == null)
+		if (!note._hasTime && !this._hasTime)
 		{
 			return 0; //TODO?
 		}
-		else if (note == null | note.getTime() == null)
+		else if (!note._hasTime)
 		{
 			return -1; //TODO?
 		}
-		else if (this.getTime() == null)
+		else if (!this._hasTime)
 		{
 			return +1; //TODO?
 		}
-		int time_comparison = this.getTime().compareTo(note.getTime());
-		if (time_comparison != 0) 
-		    return time_comparison;
+		if (this._myTimeInEpsilon != note._myTimeInEpsilon) 
+		    return this._myTimeInEpsilon < note._myTimeInEpsilon ? -1 : 1;
 		else
 			return -((Integer)this._myPriority).compareTo(note._myPriority);
 		    //return -Integer.compare(this._myPriority, note._myPriority);
@@ -376,9 +434,40 @@ public class EventNote implements Comparable<EventNote>
 	public TimeInstant getTime() 
 	{
 
+		if (_myTimeInstant == null && _hasTime) {
+			_myTimeInstant = new TimeInstant(_myTimeInEpsilon, TimeOperations
+					.getEpsilon());
+		}
 		return _myTimeInstant;
 
 	}
+
+	/**
+	 * Returns the point of time associated with this event-note in the unit
+	 * of epsilon. This is a package private method for the event-lists which
+	 * compare event-notes without creating TimeInstant objects. The result is
+	 * undefined if no point of time is associated with this event-note.
+	 * 
+	 * @return long : Point of time in simulation associated with this
+	 *         EventNote, expressed in epsilon
+	 */
+	long getTimeInEpsilon() {
+
+		return _myTimeInEpsilon;
+
+	}
+
+	/**
+	 * Tests if a point of time is associated with this event-note.
+	 * 
+	 * @return boolean : <code>true</code> if this event-note has a point of
+	 *         time, <code>false</code> otherwise
+	 */
+	boolean hasTime() {
+
+		return _hasTime;
+
+	}
 	
 	/**
      * Returns the priority of this event-note.
@@ -460,6 +549,26 @@ public class EventNote implements Comparable<EventNote>
 	void setTime(TimeInstant time) {
 
 		_myTimeInstant = time;
+		_hasTime = time != null;
+		_myTimeInEpsilon = _hasTime ? time.getTimeInEpsilon() : 0L;
+
+	}
+
+	/**
+	 * Sets the point of time of this event-note in the unit of epsilon. The
+	 * corresponding TimeInstant is only created if requested via
+	 * <code>getTime()</code>. This is a package private method for internal
+	 * framework use only.
+	 * 
+	 * @param timeInEpsilon
+	 *            long : The new point of time for this event-note, expressed
+	 *            in epsilon
+	 */
+	void setTimeInEpsilon(long timeInEpsilon) {
+
+		_myTimeInstant = null;
+		_hasTime = true;
+		_myTimeInEpsilon = timeInEpsilon;
 
 	}
     
@@ -499,6 +608,206 @@ public class EventNote implements Comparable<EventNote>
         this._isConnected = isConnected;
     }
 
+    /**
+     * Returns the position of this event-note in the heap of the
+     * <code>HeapEventList</code> containing it. This is a package visibility
+     * method for internal framework use only.
+     * 
+     * @return int : The heap position or -1 if this event-note is not
+     *         contained in a <code>HeapEventList</code>
+     */
+    int getHeapIndex() {
+        return _heapIndex;
+    }
+
+    /**
+     * Sets the position of this event-note in the heap of a
+     * <code>HeapEventList</code>. This is a package visibility method for
+     * internal framework use only.
+     * 
+     * @param heapIndex
+     *            int : The heap position or -1 if this event-note has been
+     *            removed from the <code>HeapEventList</code>
+     */
+    void setHeapIndex(int heapIndex) {
+        this._heapIndex = heapIndex;
+    }
+
+    /**
+     * Re-initializes this event-note with the given data, as if it had been
+     * newly constructed. Used by <code>EventNotePool</code> to hand out a
+     * recycled event-note. This is a package visibility method for internal
+     * framework use only.
+     * 
+     * @param who1
+     *            Entity : The first entity or <code>null</code>
+     * @param who2
+     *            Entity : The second entity or <code>null</code>
+     * @param who3
+     *            Entity : The third entity or <code>null</code>
+     * @param what
+     *            EventAbstract : The event or <code>null</code>
+     * @param when
+     *            TimeInstant : The point of time this event-note is to be
+     *            processed
+     * @param howImportant
+     *            int : The scheduling priority of this event note
+     */
+    void reset(Entity who1, Entity who2, Entity who3, EventAbstract what, TimeInstant when, int howImportant) {
+
+        _myEntity1 = who1;
+        _myEntity2 = who2;
+        _myEntity3 = who3;
+        _myEvent = what;
+        setTime(when);
+        _myPriority = howImportant;
+        _isConnected = false;
+        _pooled = false;
+
+        if (what != null)
+            what.addEventNote(this);
+    }
+
+    /**
+     * Tests if this event-note is currently stored in an
+     * <code>EventNotePool</code>. This is a package visibility method for
+     * internal framework use only.
+     * 
+     * @return boolean : <code>true</code> if this event-note is pooled
+     */
+    boolean isPooled() {
+        return _pooled;
+    }
+
+    /**
+     * Marks this event-note as stored in (<code>true</code>) or handed out by
+     * an <code>EventNotePool</code>. This is a package visibility method for
+     * internal framework use only.
+     * 
+     * @param pooled
+     *            boolean : <code>true</code> if this event-note is pooled
+     */
+    void setPooled(boolean pooled) {
+        _pooled = pooled;
+    }
+
+    /**
+     * Returns the event-note preceding this one in the schedule of the
+     * Schedulable in the given slot. This is a package visibility method for
+     * internal framework use only.
+     * 
+     * @param slot
+     *            int : The slot of the Schedulable, e.g.
+     *            <code>ENTITY1_SLOT</code>
+     * @return EventNote : The previous event-note or <code>null</code>
+     */
+    EventNote getPrevInSchedule(int slot) {
+        switch (slot) {
+        case ENTITY1_SLOT:
+            return _prevOfEntity1;
+        case ENTITY2_SLOT:
+            return _prevOfEntity2;
+        case ENTITY3_SLOT:
+            return _prevOfEntity3;
+        default:
+            return _prevOfEvent;
+        }
+    }
+
+    /**
+     * Returns the event-note following this one in the schedule of the
+     * Schedulable in the given slot. This is a package visibility method for
+     * internal framework use only.
+     * 
+     * @param slot
+     *            int : The slot of the Schedulable, e.g.
+     *            <code>ENTITY1_SLOT</code>
+     * @return EventNote : The next event-note or <code>null</code>
+     */
+    EventNote getNextInSchedule(int slot) {
+        switch (slot) {
+        case ENTITY1_SLOT:
+            return _nextOfEntity1;
+        case ENTITY2_SLOT:
+            return _nextOfEntity2;
+        case ENTITY3_SLOT:
+            return _nextOfEntity3;
+        default:
+            return _nextOfEvent;
+        }
+    }
+
+    /**
+     * Sets the event-note preceding this one in the schedule of the
+     * Schedulable in the given slot. This is a package visibility method for
+     * internal framework use only.
+     * 
+     * @param slot
+     *            int : The slot of the Schedulable
+     * @param note
+     *            EventNote : The previous event-note or <code>null</code>
+     */
+    void setPrevInSchedule(int slot, EventNote note) {
+        switch (slot) {
+        case ENTITY1_SLOT:
+            _prevOfEntity1 = note;
+            break;
+        case ENTITY2_SLOT:
+            _prevOfEntity2 = note;
+            break;
+        case ENTITY3_SLOT:
+            _prevOfEntity3 = note;
+            break;
+        default:
+            _prevOfEvent = note;
+        }
+    }
+
+    /**
+     * Sets the event-note following this one in the schedule of the
+     * Schedulable in the given slot. This is a package visibility method for
+     * internal framework use only.
+     * 
+     * @param slot
+     *            int : The slot of the Schedulable
+     * @param note
+     *            EventNote : The next event-note or <code>null</code>
+     */
+    void setNextInSchedule(int slot, EventNote note) {
+        switch (slot) {
+        case ENTITY1_SLOT:
+            _nextOfEntity1 = note;
+            break;
+        case ENTITY2_SLOT:
+            _nextOfEntity2 = note;
+            break;
+        case ENTITY3_SLOT:
+            _nextOfEntity3 = note;
+            break;
+        default:
+            _nextOfEvent = note;
+        }
+    }
+
+    /**
+     * Returns the slot the given Schedulable is associated with this
+     * event-note in. If the Schedulable is associated in several slots, the
+     * first one is returned. This is a package visibility method for internal
+     * framework use only.
+     * 
+     * @param who
+     *            Schedulable : An entity or event
+     * @return int : The slot of the Schedulable or -1 if it is not associated
+     *         with this event-note
+     */
+    int slotOf(Schedulable who) {
+        if (who == _myEntity1) return ENTITY1_SLOT;
+        if (who == _myEntity2) return ENTITY2_SLOT;
+        if (who == _myEntity3) return ENTITY3_SLOT;
+        if (who == _myEvent) return EVENT_SLOT;
+        return -1;
+    }
+
     /**
 	 * Returns a string representing the elements bundled in this event-note. It
 	 * calls the <code>toString()</code> methods of every element putting each
@@ -530,7 +839,7 @@ public class EventNote implements Comparable<EventNote>
 			EntityString = "En:" + _myEntity1 + "," + _myEntity2 + "," + _myEntity3 + " ";
 		}
 
-		return (EntityString + "Ev:" + _myEvent + " t:" + _myTimeInstant);
+		return (EntityString + "Ev:" + _myEvent + " t:" + getTime());
 
 	}
 
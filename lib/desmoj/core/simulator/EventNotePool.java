@@ -0,0 +1,311 @@
+package desmoj.core.simulator;
+
+/**
+ * A pool of event-notes owned by the <code>Scheduler</code>. Event-notes
+ * processed by the scheduler are returned to the pool and handed out again
+ * when the next event is scheduled, so a long simulation run does not create
+ * millions of short-lived event-notes.
+ * <p>
+ * Recycling is off by default and can be switched on using
+ * <code>Experiment.setEventNotePooling(boolean)</code>. Only event-notes
+ * that have been dispatched by the scheduler are recycled; event-notes
+ * removed by cancelling or rescheduling a Schedulable are left to the garbage
+ * collector, as references to them may still be held. An event-note is only
+ * taken back if it is neither contained in an event-list nor associated to
+ * any entity or event, and never twice.
+ * <p>
+ * The counters of this pool are maintained even if recycling is switched
+ * off, so they show how many event-notes a simulation run allocates. With
+ * recycling enabled, the number of allocated event-notes stops growing once
+ * the pool has reached the number of concurrently scheduled events.
+ *
+ * @see Experiment#setEventNotePooling(boolean)
+ * @see Scheduler#getEventNotePool()
+ *
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+public class EventNotePool {
+
+	/**
+	 * The maximum number of idle event-notes kept by default.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * The maximum number of idle event-notes kept.
+	 */
+	private final int _capacity;
+
+	/**
+	 * The idle event-notes; only the first <code>_idleCount</code> entries
+	 * are in use. Allocated when recycling is switched on, so a scheduler
+	 * which never recycles event-notes does not pay for it.
+	 */
+	private EventNote[] _idle;
+
+	/**
+	 * The number of idle event-notes.
+	 */
+	private int _idleCount;
+
+	/**
+	 * Flag indicating if event-notes are recycled.
+	 */
+	private boolean _enabled;
+
+	/**
+	 * The number of event-notes newly allocated by this pool.
+	 */
+	private long _allocated;
+
+	/**
+	 * The number of event-notes handed out again after being recycled.
+	 */
+	private long _reused;
+
+	/**
+	 * The number of event-notes taken back by this pool.
+	 */
+	private long _released;
+
+	/**
+	 * The number of event-notes offered to this pool but rejected, as they
+	 * were still in use or already pooled.
+	 */
+	private long _rejected;
+
+	/**
+	 * Constructs a pool keeping up to <code>DEFAULT_CAPACITY</code> idle
+	 * event-notes. Recycling is switched off.
+	 */
+	public EventNotePool() {
+
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a pool keeping up to the given number of idle event-notes.
+	 * Recycling is switched off; the storage for the idle event-notes is
+	 * allocated when it is switched on.
+	 *
+	 * @param capacity
+	 *            int : The maximum number of idle event-notes kept
+	 */
+	public EventNotePool(int capacity) {
+
+		_capacity = Math.max(0, capacity);
+		_idle = null;
+		_idleCount = 0;
+		_enabled = false;
+	}
+
+	/**
+	 * Returns an event-note carrying the given data, recycling an idle
+	 * event-note if available.
+	 *
+	 * @param who1
+	 *            Entity : The first entity or <code>null</code>
+	 * @param who2
+	 *            Entity : The second entity or <code>null</code>
+	 * @param who3
+	 *            Entity : The third entity or <code>null</code>
+	 * @param what
+	 *            EventAbstract : The event or <code>null</code>
+	 * @param when
+	 *            TimeInstant : The point of time the event-note is to be
+	 *            processed
+	 * @param howImportant
+	 *            int : The scheduling priority of the event-note
+	 * @return EventNote : The event-note
+	 */
+	EventNote obtain(Entity who1, Entity who2, Entity who3, EventAbstract what, TimeInstant when,
+			int howImportant) {
+
+		if (_idleCount > 0) {
+			EventNote note = _idle[--_idleCount];
+			_idle[_idleCount] = null;
+			note.reset(who1, who2, who3, what, when, howImportant);
+			_reused++;
+			return note;
+		}
+		_allocated++;
+		return new EventNote(who1, who2, who3, what, when, howImportant);
+	}
+
+	/**
+	 * Returns an event-note carrying the given data with its point of time
+	 * given in epsilon, recycling an idle event-note if available. No
+	 * TimeInstant is created for the event-note.
+	 *
+	 * @param who1
+	 *            Entity : The first entity or <code>null</code>
+	 * @param who2
+	 *            Entity : The second entity or <code>null</code>
+	 * @param who3
+	 *            Entity : The third entity or <code>null</code>
+	 * @param what
+	 *            EventAbstract : The event or <code>null</code>
+	 * @param timeInEpsilon
+	 *            long : The point of time the event-note is to be processed,
+	 *            expressed in epsilon
+	 * @param howImportant
+	 *            int : The scheduling priority of the event-note
+	 * @return EventNote : The event-note
+	 */
+	EventNote obtain(Entity who1, Entity who2, Entity who3, EventAbstract what,
+			long timeInEpsilon, int howImportant) {
+
+		EventNote note = obtain(who1, who2, who3, what, null, howImportant);
+		note.setTimeInEpsilon(timeInEpsilon);
+		return note;
+	}
+
+	/**
+	 * Takes back an event-note that has been processed. The event-note is
+	 * rejected if recycling is switched off, if it is still contained in an
+	 * event-list or associated to an entity or event, if it has already been
+	 * returned or if the pool is full.
+	 *
+	 * @param note
+	 *            EventNote : The event-note no longer used
+	 */
+	void release(EventNote note) {
+
+		if (!_enabled) {
+			return;
+		}
+		if (note.isPooled() || isInUse(note) || _idleCount == _idle.length) {
+			_rejected++;
+			return;
+		}
+		note.setPooled(true);
+		note.setTime(null);
+		_idle[_idleCount++] = note;
+		_released++;
+	}
+
+	/**
+	 * Tests if the given event-note is still contained in an event-list or
+	 * associated to any of its entities or its event.
+	 */
+	private boolean isInUse(EventNote note) {
+
+		if (note.getHeapIndex() >= 0) {
+			return true;
+		}
+		if (note.getEntity1() != null && note.getEntity1().hasEventNote(note)) {
+			return true;
+		}
+		if (note.getEntity2() != null && note.getEntity2().hasEventNote(note)) {
+			return true;
+		}
+		if (note.getEntity3() != null && note.getEntity3().hasEventNote(note)) {
+			return true;
+		}
+		return note.getEvent() != null && note.getEvent().hasEventNote(note);
+	}
+
+	/**
+	 * Tests if event-notes are recycled.
+	 *
+	 * @return boolean : <code>true</code> if recycling is switched on
+	 */
+	public boolean isEnabled() {
+
+		return _enabled;
+	}
+
+	/**
+	 * Switches recycling of event-notes on or off. Switching it on allocates
+	 * the storage for the idle event-notes, switching it off discards all
+	 * idle event-notes together with their storage.
+	 *
+	 * @param enabled
+	 *            boolean : <code>true</code> to recycle event-notes
+	 */
+	public void setEnabled(boolean enabled) {
+
+		_enabled = enabled;
+		if (enabled) {
+			if (_idle == null) {
+				_idle = new EventNote[_capacity];
+			}
+		} else {
+			_idle = null;
+			_idleCount = 0;
+		}
+	}
+
+	/**
+	 * Returns the number of event-notes newly allocated.
+	 *
+	 * @return long : The number of allocated event-notes
+	 */
+	public long getAllocatedCount() {
+
+		return _allocated;
+	}
+
+	/**
+	 * Returns the number of event-notes handed out again after recycling.
+	 *
+	 * @return long : The number of reused event-notes
+	 */
+	public long getReusedCount() {
+
+		return _reused;
+	}
+
+	/**
+	 * Returns the number of event-notes taken back for recycling.
+	 *
+	 * @return long : The number of released event-notes
+	 */
+	public long getReleasedCount() {
+
+		return _released;
+	}
+
+	/**
+	 * Returns the number of event-notes rejected for recycling, as they were
+	 * still in use, already pooled or the pool was full.
+	 *
+	 * @return long : The number of rejected event-notes
+	 */
+	public long getRejectedCount() {
+
+		return _rejected;
+	}
+
+	/**
+	 * Returns the number of idle event-notes currently held.
+	 *
+	 * @return int : The number of idle event-notes
+	 */
+	public int getIdleCount() {
+
+		return _idleCount;
+	}
+
+	/**
+	 * Returns a string describing the counters of this pool.
+	 */
+	public String toString() {
+
+		return "EventNotePool[enabled=" + _enabled + ", allocated=" + _allocated + ", reused="
+				+ _reused + ", released=" + _released + ", rejected=" + _rejected + ", idle="
+				+ _idleCount + "]";
+	}
+}
@@ -173,6 +173,86 @@ public abstract class EventOf2Entities<E extends Entity, F extends Entity> exten
 
 	}
 
+	/**
+	 * Schedules this event to act on the given entities at the specified
+	 * point in simulation time, given in the unit of epsilon. No time objects
+	 * are created to schedule the event. Note that scheduling at the present
+	 * time does not preempt the current SimProcess; the event is inserted
+	 * behind all events already scheduled for the same time and priority.
+	 * 
+	 * @param who1
+	 *            E : The first entity this event happens to
+	 * @param who2
+	 *            F : The second entity this event happens to
+	 * @param timeInEpsilon
+	 *            long : The point in simulation time this event is scheduled
+	 *            to happen, expressed in epsilon
+	 * @see TimeOperations#toEpsilon(double, java.util.concurrent.TimeUnit)
+	 */
+	public void scheduleAtEpsilon(E who1, F who2, long timeInEpsilon) {
+
+		if ((who1 == null) || (who2 == null)) {
+			sendWarning("Can't schedule Event!", "Event : " + getName()
+					+ " Method: scheduleAtEpsilon(E who1, F who2, long timeInEpsilon)",
+					"An entity given as parameter is a null reference.",
+					"Be sure to have valid Entity references for this event to "
+							+ "be scheduled with.");
+			return; // no proper parameter
+		}
+
+		if (isScheduled()) {
+			sendWarning("Can't schedule Event! Command ignored.", "Event : "
+					+ getName()
+					+ " Method: scheduleAtEpsilon(E who1, F who2, long timeInEpsilon)",
+					"The event to be scheduled is already scheduled.",
+					"Use method events only once, do not use them multiple "
+							+ "times.");
+			return; // was already scheduled
+		}
+
+		if (!isModelCompatible(who1) || !isModelCompatible(who2)) {
+			sendWarning("Can't schedule Event! Command ignored", "Entity : "
+					+ getName()
+					+ " Method: scheduleAtEpsilon(E who1, F who2, long timeInEpsilon)",
+					"An entity to be scheduled with this event is not "
+							+ "modelcompatible.",
+					"Make sure to use compatible model components only.");
+			return; // is not compatible
+		}
+
+		// generate trace
+		this.generateTraceForScheduling(who1, who2, null, timeInEpsilon);
+
+		// schedule Event
+		getModel().getExperiment().getScheduler().scheduleAtEpsilon(who1,
+				who2, null, this, timeInEpsilon);
+
+		if (currentlySendDebugNotes()) {
+			sendDebugNote("schedules on EventList<br>"
+					+ getModel().getExperiment().getScheduler().toString());
+		}
+
+	}
+
+	/**
+	 * Schedules this event to act on the given entities after the given
+	 * offset to the current simulation time, given in the unit of epsilon. No
+	 * time objects are created to schedule the event.
+	 * 
+	 * @param who1
+	 *            E : The first entity this event happens to
+	 * @param who2
+	 *            F : The second entity this event happens to
+	 * @param dtInEpsilon
+	 *            long : The offset to the current simulation time this Event
+	 *            is to happen, expressed in epsilon
+	 * @see #scheduleAtEpsilon(Entity, Entity, long)
+	 */
+	public void scheduleInEpsilon(E who1, F who2, long dtInEpsilon) {
+		scheduleAtEpsilon(who1, who2, presentTime().getTimeInEpsilon()
+				+ dtInEpsilon);
+	}
+
 	/**
 	 * Schedules this event to act the given entities at the specified point in
 	 * simulation time. The point of time is given as an offset to the current
@@ -428,7 +508,7 @@ public abstract class EventOf2Entities<E extends Entity, F extends Entity> exten
 		}
 
         // generate trace
-        this.generateTraceForScheduling(who1, who2, null, after, null, after.getEventNotes().get(after.getEventNotes().size()-1).getTime(), null);
+        this.generateTraceForScheduling(who1, who2, null, after, null, after.getLastEventNote().getTime(), null);
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleAfter(after, who1, who2,
@@ -533,7 +613,7 @@ public abstract class EventOf2Entities<E extends Entity, F extends Entity> exten
 		}
 
         // generate trace
-        this.generateTraceForScheduling(who1, who2, null, null, before, before.getEventNotes().get(0).getTime(), null);
+        this.generateTraceForScheduling(who1, who2, null, null, before, before.getFirstEventNote().getTime(), null);
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleBefore(before, who1, who2,
@@ -124,7 +124,7 @@ public class EventTreeList extends EventList {
 			int right = eTreeList.size() - 1; // right border of search
 												// partition
 			int index = 0; // current position in tree list
-			TimeInstant refTime = newNote.getTime();
+			long refTime = newNote.getTimeInEpsilon();
 			long refPrio = newNote.getPriority();
 			// shortcut for call to newNote
 
@@ -132,20 +132,20 @@ public class EventTreeList extends EventList {
 				index = (left + right) / 2; // center on searchable partition
 				// check if EventNote at index has smaller or equal time
 				
-				if (TimeInstant.isBefore(((EventNote) eTreeList
-						.get(index)).getTime(), refTime) ||
-						(TimeInstant.isEqual(((EventNote) eTreeList
-		                        .get(index)).getTime(), refTime) &&
+				if (((EventNote) eTreeList
+						.get(index)).getTimeInEpsilon() < refTime ||
+						(((EventNote) eTreeList
+		                        .get(index)).getTimeInEpsilon() == refTime &&
 		                        ((EventNote) eTreeList
 		                                .get(index)).getPriority() >= refPrio)) {
 					if (index < (eTreeList.size() - 1)) {
 						// is there a note to the right
-						if (TimeInstant.isAfter(((EventNote) eTreeList
-								.get(index + 1)).getTime(), refTime) || 
-								(TimeInstant.isEqual(((EventNote) eTreeList
-		                                .get(index + 1)).getTime(), refTime) &&	
+						if (((EventNote) eTreeList
+								.get(index + 1)).getTimeInEpsilon() > refTime || 
+								(((EventNote) eTreeList
+		                                .get(index + 1)).getTimeInEpsilon() == refTime &&	
 		                                ((EventNote) eTreeList
-		                                        .get(index)).getPriority() < refPrio)						        
+		                                        .get(index + 1)).getPriority() < refPrio)						        
 						        ) {
 							// if note to the right is larger
 							eTreeList.add(index + 1, newNote);
@@ -162,10 +162,10 @@ public class EventTreeList extends EventList {
 					}
 				} else { // EventNote at index has larger time
 					if (index > 0) { // is there a note left of the index?
-						if (TimeInstant.isBefore(((EventNote) eTreeList
-								.get(index - 1)).getTime(), refTime) ||
-								(TimeInstant.isEqual(((EventNote) eTreeList
-		                                .get(index - 1)).getTime(), refTime)
+						if (((EventNote) eTreeList
+								.get(index - 1)).getTimeInEpsilon() < refTime ||
+								(((EventNote) eTreeList
+		                                .get(index - 1)).getTimeInEpsilon() == refTime
 								&&
 			                    ((EventNote) eTreeList
                                         .get(index - 1)).getPriority() >= refPrio)
@@ -257,7 +257,7 @@ public class EventTreeList extends EventList {
 							"This is a fatal error. Contact DESMOJ support",
 							newNote.getTime()));
 		} else { // if where is contained, put newNote at next position
-			newNote.setTime(where.getTime());
+			newNote.setTimeInEpsilon(where.getTimeInEpsilon());
 			// synchronize times to keep order
 			eTreeList.add(i + 1, newNote);
 			// everything fine, exit...
@@ -278,9 +278,9 @@ public class EventTreeList extends EventList {
 	void insertAsFirst(EventNote newNote) {
 
         if (!isEmpty()) { // if notes in EventList, ensure time is not later than second node
-	       TimeInstant next = ((EventNote) eTreeList.get(0)).getTime();
-	       if (TimeInstant.isBefore(next, newNote.getTime())) {
-	           newNote.setTime(next);
+	       long next = ((EventNote) eTreeList.get(0)).getTimeInEpsilon();
+	       if (next < newNote.getTimeInEpsilon()) {
+	           newNote.setTimeInEpsilon(next);
 	       }
 	    }
 
@@ -377,7 +377,7 @@ public class EventTreeList extends EventList {
 							"This is a fatal error. Contact DESMOJ support",
 							newNote.getTime()));
 		} else {
-			newNote.setTime(where.getTime());
+			newNote.setTimeInEpsilon(where.getTimeInEpsilon());
 			// synchronize times to keep order
 			eTreeList.add(i, newNote);
 			// insert newN. & push afterN. one up
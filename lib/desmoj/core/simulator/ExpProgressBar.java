@@ -89,7 +89,7 @@ public class ExpProgressBar extends JFrame {
 		_timer = new Timer(HALF_A_SECOND, new ActionListener() {
 			public void actionPerformed(ActionEvent evt) {
 				long crntTime = _myExperiment.getSimClock().getTime().getTimeInEpsilon();
-		        long start = TimeOperations.getStartTime().getTimeInEpsilon();
+		        long start = _myExperiment.getTimeBase().getStartTime().getTimeInEpsilon();
 				long stop = _myExperiment.getStopTime().getTimeInEpsilon();
 		        int progress = (int) (100.0D * (crntTime - start) / (stop - start));
 				_progressBar.setValue(progress);
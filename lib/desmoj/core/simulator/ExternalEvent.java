@@ -203,6 +203,54 @@ public abstract class ExternalEvent extends EventAbstract
 		}
 	}
 
+	/**
+	 * Schedules this external event to make the desired changes to the
+	 * experiment or model at the specified point in simulation time, given in
+	 * the unit of epsilon. No time objects are created to schedule the event.
+	 * 
+	 * @param timeInEpsilon
+	 *            long : The point in simulation time this external event is
+	 *            scheduled to happen, expressed in epsilon
+	 * @see TimeOperations#toEpsilon(double, java.util.concurrent.TimeUnit)
+	 */
+	public void scheduleAtEpsilon(long timeInEpsilon) {
+		if (isScheduled()) {
+			sendWarning("Can't schedule external event! Command ignored.",
+					"ExternalEvent : " + getName()
+							+ " Method: scheduleAtEpsilon(long timeInEpsilon)",
+					"The external event to be scheduled is already scheduled.",
+					"Use external events only once, do not reuse them "
+							+ "multiple times.");
+			return; // was already scheduled
+		}
+
+		// generate trace
+		this.generateTraceForScheduling(null, null, null, timeInEpsilon);
+
+		// schedule Event
+		getModel().getExperiment().getScheduler().scheduleAtEpsilon(null,
+				null, null, this, timeInEpsilon);
+
+		if (currentlySendDebugNotes()) {
+			sendDebugNote("schedules on EventList<br>"
+					+ getModel().getExperiment().getScheduler().toString());
+		}
+	}
+
+	/**
+	 * Schedules this external event to make the desired changes to the
+	 * experiment or model after the given offset to the current simulation
+	 * time, given in the unit of epsilon.
+	 * 
+	 * @param dtInEpsilon
+	 *            long : The offset to the current simulation time this
+	 *            external event is to happen, expressed in epsilon
+	 * @see #scheduleAtEpsilon(long)
+	 */
+	public void scheduleInEpsilon(long dtInEpsilon) {
+		scheduleAtEpsilon(presentTime().getTimeInEpsilon() + dtInEpsilon);
+	}
+
 	/**
 	 * @deprecated Replaced by schedule(TimeSpan dt).Schedules this external
 	 *             Event to make the desired changes to the experiment or model
@@ -271,7 +319,7 @@ public abstract class ExternalEvent extends EventAbstract
 		}
 
         // generate trace
-        this.generateTraceForScheduling(null, null, null, after, null, after.getEventNotes().get(after.getEventNotes().size()-1).getTime(), null);
+        this.generateTraceForScheduling(null, null, null, after, null, after.getLastEventNote().getTime(), null);
         
         // schedule Event
 		getModel().getExperiment().getScheduler().scheduleAfter(after, null,
@@ -334,7 +382,7 @@ public abstract class ExternalEvent extends EventAbstract
 		}
 
         // generate trace
-        this.generateTraceForScheduling(null, null, null, null, before, before.getEventNotes().get(0).getTime(), null);
+        this.generateTraceForScheduling(null, null, null, null, before, before.getFirstEventNote().getTime(), null);
         
         // schedule Event
         getModel().getExperiment().getScheduler().scheduleBefore(before, null,
@@ -234,7 +234,7 @@ public class ExternalEventStop extends ExternalEvent {
 		if (currentlySendTraceNotes()) {
 			sendTraceNote("external event '" + getName()
 					+ "' scheduled after '" + after.getName() + "' at "
-					+ after.getEventNotes().get(after.getEventNotes().size()-1).getTime().toString());
+					+ after.getLastEventNote().getTime().toString());
 		}
 
 		getModel().getExperiment().getScheduler().scheduleAfter(after, null,
@@ -299,7 +299,7 @@ public class ExternalEventStop extends ExternalEvent {
 		if (currentlySendTraceNotes()) {
 			sendTraceNote("external event '" + getName()
 					+ "' scheduled before '" + before.getName() + "' at "
-					+ before.getEventNotes().get(0).getTime().toString());
+					+ before.getFirstEventNote().getTime().toString());
 		}
 
 		getModel().getExperiment().getScheduler().scheduleBefore(before, null,
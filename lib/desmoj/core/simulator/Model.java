@@ -1,10 +1,13 @@
 package desmoj.core.simulator;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import org.apache.commons.collections.map.ReferenceMap;
 
+import desmoj.core.exception.SimAbortedException;
+import desmoj.core.report.ErrorMessage;
 import desmoj.core.report.ReportManager;
 import desmoj.core.report.Reporter;
 
@@ -287,6 +290,249 @@ public abstract class Model extends Reportable {
 
         }
     }
+
+    /**
+     * Override this method to restore the state of the model to the state
+     * right after <code>init()</code> so that the experiment can run another
+     * replication without a new model being constructed. Clear the contents of
+     * queues, counters and other structures changed during a run, but keep the
+     * structures themselves. Random number streams of the model which are not
+     * registered distributions should draw new seeds from the experiment's
+     * <code>DistributionManager</code> in the same order as in
+     * <code>init()</code>. This method is called by the experiment's
+     * <code>reset(long seed)</code> method after the registered
+     * distributions have been reseeded and before
+     * <code>doInitialSchedules()</code>. The default implementation does
+     * nothing, so models not overriding it can not be reset reliably.
+     */
+    public void resetState() {
+
+    }
+
+    /**
+     * Calls the <code>resetState()</code> method of all registered
+     * submodels of the current model. Subsequently calls the
+     * <code>doSubmodelResetStates()</code> method of all registered submodels
+     * of every submodel.
+     */
+    void doSubmodelResetStates() {
+
+        if (!this.hasSubModels())
+            return; // no submodels registered here
+        else {
+
+            for (Model m : _subModels) { // loop submodels
+                m.resetState(); // reset the submodel
+                m.doSubmodelResetStates(); // reset potential submodels of the submodel
+            }
+
+        }
+    }
+
+    /**
+     * Override this method to draw new seeds for random number streams of the
+     * model which are not registered distributions from the experiment's
+     * <code>DistributionManager</code>. Called by the experiment's
+     * <code>reseed(long seed)</code> method after the registered
+     * distributions have been reseeded. The default implementation does
+     * nothing.
+     */
+    public void reseed() {
+
+    }
+
+    /**
+     * Calls the <code>reseed()</code> method of all registered submodels of
+     * the current model and of their submodels.
+     */
+    void doSubmodelReseeds() {
+
+        for (Model m : _subModels) { // loop submodels
+            m.reseed();
+            m.doSubmodelReseeds();
+        }
+    }
+
+    /**
+     * Tells if this model can be saved and restored by the experiment's
+     * <code>snapshot(String fileName)</code> and
+     * <code>restore(String fileName)</code> methods. Override this method to
+     * return <code>true</code> together with
+     * <code>writeSnapshotState</code>, <code>readSnapshotState</code>,
+     * <code>writeSnapshotReference</code> and
+     * <code>readSnapshotReference</code>. The default implementation returns
+     * <code>false</code>, so the experiment ignores snapshot and restore
+     * commands with a warning.
+     * 
+     * @return boolean : Is <code>true</code> if the model implements the
+     *         snapshot methods, <code>false</code> otherwise
+     */
+    public boolean isSnapshotSupported() {
+
+        return false;
+    }
+
+    /**
+     * Override this method to write the state of the model to a snapshot of
+     * the experiment: the entities currently alive with their attributes, the
+     * contents of queues and any other structure changed during a run which
+     * is not a registered reportable (distributions, queues and other
+     * reportables of this model and its submodels save their statistics and
+     * random number streams themselves). The state must be written in a form
+     * <code>readSnapshotState(SnapshotReader in)</code> can rebuild it from
+     * into a freshly initialized model. Called by the experiment's
+     * <code>snapshot(String fileName)</code> method if
+     * <code>isSnapshotSupported()</code> returns <code>true</code>. The
+     * default implementation aborts the simulation.
+     * 
+     * @param out
+     *            SnapshotWriter : The snapshot being written
+     */
+    public void writeSnapshotState(SnapshotWriter out) {
+
+        throw snapshotNotImplemented("void writeSnapshotState(SnapshotWriter out)");
+    }
+
+    /**
+     * Override this method to restore the state written by
+     * <code>writeSnapshotState(SnapshotWriter out)</code>. Called by the
+     * experiment's <code>restore(String fileName)</code> method after
+     * <code>resetState()</code> (if the experiment has been run before) and
+     * before the statistics of the reportables and the scheduled events are
+     * restored, so entities recreated here can be referred to by the events.
+     * The default implementation aborts the simulation.
+     * 
+     * @param in
+     *            SnapshotReader : The snapshot being read
+     */
+    public void readSnapshotState(SnapshotReader in) {
+
+        throw snapshotNotImplemented("void readSnapshotState(SnapshotReader in)");
+    }
+
+    /**
+     * Override this method to write a reference to an entity or an event of
+     * the model which is scheduled on the event-list, e.g. the kind of the
+     * event and the number of the entity. Called once per scheduled entity
+     * and event when the experiment writes its event-list to a snapshot; an
+     * event scheduled more than once is written more than once. The default
+     * implementation aborts the simulation.
+     * 
+     * @param out
+     *            SnapshotWriter : The snapshot being written
+     * @param what
+     *            Schedulable : The scheduled entity or event
+     */
+    public void writeSnapshotReference(SnapshotWriter out, Schedulable what) {
+
+        throw snapshotNotImplemented("void writeSnapshotReference(SnapshotWriter out, Schedulable what)");
+    }
+
+    /**
+     * Override this method to resolve a reference written by
+     * <code>writeSnapshotReference(SnapshotWriter out, Schedulable what)</code>
+     * into an entity of the restored model or a (new) event. The default
+     * implementation aborts the simulation.
+     * 
+     * @param in
+     *            SnapshotReader : The snapshot being read
+     * @return Schedulable : The entity or event referred to
+     */
+    public Schedulable readSnapshotReference(SnapshotReader in) {
+
+        throw snapshotNotImplemented("Schedulable readSnapshotReference(SnapshotReader in)");
+    }
+
+    /**
+     * Creates the exception aborting the simulation when a snapshot method
+     * of a model is called which has not been overridden.
+     * 
+     * @param method
+     *            java.lang.String : The called method
+     * @return SimAbortedException : The exception to throw
+     */
+    private SimAbortedException snapshotNotImplemented(String method) {
+
+        return new SimAbortedException(new ErrorMessage(this,
+                "Can not save or restore a snapshot! Simulation aborted.",
+                "Model: " + getName() + " Method: " + method,
+                "The model does not implement the snapshot methods.",
+                "Override isSnapshotSupported(), writeSnapshotState, readSnapshotState, "
+                        + "writeSnapshotReference and readSnapshotReference together.",
+                presentTime()));
+    }
+
+    /**
+     * Returns the first reportable of this model or of its submodels whose
+     * state can not be written to a snapshot.
+     * 
+     * @return Reportable : The reportable or <code>null</code> if all
+     *         reportables support snapshots
+     */
+    Reportable getReportableWithoutSnapshot() {
+
+        for (Reportable r : _reportables) {
+            if (!r.canWriteSnapshot()) {
+                return r;
+            }
+        }
+        for (Model m : _subModels) {
+            Reportable r = m.getReportableWithoutSnapshot();
+            if (r != null) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the statistics of all reportables of this model and of its
+     * submodels to a snapshot. Each reportable is preceded by its name which
+     * is checked when the snapshot is restored.
+     * 
+     * @param out
+     *            SnapshotWriter : The snapshot being written
+     */
+    void writeReportableSnapshots(SnapshotWriter out) {
+
+        out.writeInt(_reportables.size());
+        for (Reportable r : _reportables) {
+            out.writeString(r.getName());
+            r.writeSnapshot(out);
+        }
+        for (Model m : _subModels) {
+            m.writeReportableSnapshots(out);
+        }
+    }
+
+    /**
+     * Restores the statistics written by
+     * <code>writeReportableSnapshots(SnapshotWriter out)</code>.
+     * 
+     * @param in
+     *            SnapshotReader : The snapshot being read
+     * @throws IOException
+     *             if the reportables of the snapshot do not match the
+     *             reportables of this model
+     */
+    void readReportableSnapshots(SnapshotReader in) throws IOException {
+
+        if (in.readInt() != _reportables.size()) {
+            throw new IOException("Snapshot does not match the reportables of model '"
+                    + getName() + "'");
+        }
+        for (Reportable r : _reportables) {
+            String name = in.readString();
+            if (!name.equals(r.getName())) {
+                throw new IOException("Snapshot contains reportable '" + name
+                        + "' where '" + r.getName() + "' was expected");
+            }
+            r.readSnapshot(in);
+        }
+        for (Model m : _subModels) {
+            m.readReportableSnapshots(in);
+        }
+    }
 	
     /**
      * Returns the entity to the belonging identifier.
@@ -460,6 +460,58 @@ public abstract class QueueBased extends desmoj.core.simulator.Reportable implem
 
 	}
 
+	/**
+	 * Writes the queue statistics to a snapshot of the experiment. The
+	 * entities in the queue are saved by the model.
+	 * 
+	 * @param out
+	 *            SnapshotWriter : The snapshot being written
+	 */
+	@Override
+	protected void writeSnapshot(SnapshotWriter out) {
+
+		super.writeSnapshot(out);
+		out.writeInt(_currentLength);
+		out.writeInt(_minimumLength);
+		out.writeInt(_maximumLength);
+		out.writeLong(_zeros);
+		out.writeDouble(_wSumLength);
+		out.writeDouble(_wSumSquareLength);
+		out.writeTimeInstant(_lastAcc);
+		out.writeTimeInstant(_minimumLengthAt);
+		out.writeTimeInstant(_maximumLengthAt);
+		out.writeTimeSpan(_maximumWaitTime);
+		out.writeTimeInstant(_maximumWaitTimeAt);
+		out.writeTimeSpan(_sumWaitTime);
+		out.writeDouble(_sumSquareWaitTime);
+	}
+
+	/**
+	 * Restores the queue statistics written by
+	 * <code>writeSnapshot(SnapshotWriter out)</code>.
+	 * 
+	 * @param in
+	 *            SnapshotReader : The snapshot being read
+	 */
+	@Override
+	protected void readSnapshot(SnapshotReader in) {
+
+		super.readSnapshot(in);
+		_currentLength = in.readInt();
+		_minimumLength = in.readInt();
+		_maximumLength = in.readInt();
+		_zeros = in.readLong();
+		_wSumLength = in.readDouble();
+		_wSumSquareLength = in.readDouble();
+		_lastAcc = in.readTimeInstant();
+		_minimumLengthAt = in.readTimeInstant();
+		_maximumLengthAt = in.readTimeInstant();
+		_maximumWaitTime = in.readTimeSpan();
+		_maximumWaitTimeAt = in.readTimeInstant();
+		_sumWaitTime = in.readTimeSpan();
+		_sumSquareWaitTime = in.readDouble();
+	}
+
 	/**
 	 * Method switches on warnings issued from the underlying queue implementation if parameter given is <code>true</code>. Warnings are suppressed if
 	 * <code>false</code> is given. This method is used for internal debugging only.
@@ -271,6 +271,46 @@ public abstract class Reportable extends ModelComponent {
         _lastReset = presentTime(); // register the reset time
     }
 
+    /**
+     * Tells if the state of this reportable can be written to a snapshot of
+     * the experiment. Subclasses whose state can only be saved under some
+     * condition override this method.
+     * 
+     * @return boolean : Is <code>true</code> if the reportable can be saved
+     */
+    protected boolean canWriteSnapshot() {
+
+        return true;
+    }
+
+    /**
+     * Writes the statistical state of this reportable to a snapshot of the
+     * experiment. Subclasses holding further state override this method (and
+     * <code>readSnapshot(SnapshotReader in)</code>) and call the overridden
+     * method first.
+     * 
+     * @param out
+     *            SnapshotWriter : The snapshot being written
+     */
+    protected void writeSnapshot(SnapshotWriter out) {
+
+        out.writeLong(_observations);
+        out.writeTimeInstant(_lastReset);
+    }
+
+    /**
+     * Restores the statistical state of this reportable written by
+     * <code>writeSnapshot(SnapshotWriter out)</code>.
+     * 
+     * @param in
+     *            SnapshotReader : The snapshot being read
+     */
+    protected void readSnapshot(SnapshotReader in) {
+
+        _observations = in.readLong();
+        _lastReset = in.readTimeInstant();
+    }
+
     /**
      * Shows the point in simulation time when the last reset of this reportable
      * was made.
@@ -1,5 +1,6 @@
 package desmoj.core.simulator;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -147,6 +148,12 @@ public class Scheduler extends NamedObject {
 	 */
 	private java.util.concurrent.BlockingQueue<RealTimeEventWrapper> _realTimeEventQueue;
 
+	/**
+	 * The pool providing the event-notes for scheduling and taking them back
+	 * once they have been processed.
+	 */
+	private EventNotePool _notePool;
+
 	/**
 	 * Constructs a scheduler with given name and the event-list (i.e. inheritor
 	 * of <code>desmoj.core.simulator.EventList</code>) to use.
@@ -169,6 +176,7 @@ public class Scheduler extends NamedObject {
 		_lock = new ReentrantLock();
 		_waitSynchCondition = _lock.newCondition();
 		_realTimeEventQueue = new LinkedBlockingQueue<RealTimeEventWrapper>();
+		_notePool = new EventNotePool();
 	}
 
 	/**
@@ -309,6 +317,16 @@ public class Scheduler extends NamedObject {
 		return this._randomizingConcurrentEvents;
 	}
 
+	/**
+	 * Returns the pool providing the event-notes of this scheduler. Its
+	 * counters show how many event-notes have been allocated and recycled.
+	 * 
+	 * @return EventNotePool : The event-note pool of this scheduler
+	 */
+	public EventNotePool getEventNotePool() {
+		return this._notePool;
+	}
+
 	/**
 	 * Preempts the currently running SimProcess. Method is called whenenver
 	 * another Entity or SimProcess is scheduled with <code>TimeSpan.ZERO</code>
@@ -334,7 +352,7 @@ public class Scheduler extends NamedObject {
 
 		preemptNote.setTime(presentTime());
 
-		EventNote currentNote = new EventNote(_currentProcess, null, presentTime(), Integer.MAX_VALUE);
+		EventNote currentNote = _notePool.obtain(_currentProcess, null, null, null, presentTime(), Integer.MAX_VALUE);
 
 		evList.insertAsFirst(currentNote); // schedule currentProcess..
 		evList.insertAsFirst(preemptNote);
@@ -477,6 +495,10 @@ public class Scheduler extends NamedObject {
 					} finally {
 						this._lock.unlock();
 					}
+					// the wait may end before the next event-note is due (e.g.
+					// signalled by an external event which has already been
+					// taken from the queue), so check everything again
+					continue;
 				} else {
 					this._lock.unlock();
 				}
@@ -563,8 +585,10 @@ public class Scheduler extends NamedObject {
 		if (_currentSchedulable == null)
 			return false;
 
-		// clear time value and discard EventNote
+		// clear time value and discard EventNote (recycling it if pooling
+		// is switched on)
 		_currentNote.setTime(null);
+		_notePool.release(_currentNote);
 		_currentNote = null;
 
 		// determine if event-oriented or process-oriented
@@ -983,7 +1007,7 @@ public class Scheduler extends NamedObject {
 
         // all parameters checked, now remove the Schedulable's EventNote
         // first...
-        EventNote note = who.getEventNotes().get(0);
+        EventNote note = who.getFirstEventNote();
         evList.remove(note);
         note.setTime(time);
 
@@ -1009,6 +1033,55 @@ public class Scheduler extends NamedObject {
 
     }
 
+	/**
+	 * Re-schedules the given Schedulable to the point in simulation time given
+	 * in the unit of epsilon, without creating a time object. As with
+	 * <code>scheduleAtEpsilon()</code>, the event-note is inserted behind all
+	 * event-notes with the same time and priority and no preemption takes
+	 * place.
+	 * 
+	 * @param who
+	 *            Schedulable : The Schedulable to be re-scheduled
+	 * @param timeInEpsilon
+	 *            long : The point in simulation time for the event to happen,
+	 *            expressed in epsilon
+	 */
+	protected void reScheduleAtEpsilon(Schedulable who, long timeInEpsilon) {
+
+		if (who == null || !who.isScheduled()) {
+			myExperiment.sendWarning("Can't reschedule Schedulable at given "
+					+ "time! Command ignored.", "Scheduler : " + getName()
+					+ " Method: reScheduleAtEpsilon(Schedulable who, "
+					+ "long timeInEpsilon)",
+					"The Schedulable given is a null reference or not "
+							+ "scheduled, thus can not be rescheduled.",
+					"To reschedule a Schedulable, it must already be scheduled. "
+							+ "You can check that by calling the Schedulable's "
+							+ "isScheduled() method");
+			return;
+		}
+
+		if (timeInEpsilon < presentTime().getTimeInEpsilon()) {
+			myExperiment.sendWarning("Can't reschedule Schedulable at given "
+					+ "time! Command ignored.", "Scheduler : " + getName()
+					+ " Method: reScheduleAtEpsilon(Schedulable who, "
+					+ "long timeInEpsilon)",
+					"The instant given is in the past.",
+					"To reschedule a Schedulable, use a time no earlier than "
+							+ "the present time. The present time can be "
+							+ "obtained using the presentTime() method");
+			return;
+			// I can't be rescheduled, time has already passed.
+		}
+
+		// all parameters checked, now move the Schedulable's EventNote
+		EventNote note = who.getFirstEventNote();
+		evList.remove(note);
+		note.setTimeInEpsilon(timeInEpsilon);
+		evList.insert(note);
+
+	}
+
 	/**
 	 * Schedules the event to happen after a specified time span. Checks that only
 	 * legal combinations of valid parameters are scheduled.
@@ -1120,7 +1193,7 @@ public class Scheduler extends NamedObject {
             priority = what.getSchedulingPriority();
         } 
 
-		EventNote note = new EventNote(who, what, time, priority);
+		EventNote note = _notePool.obtain(who, null, null, what, time, priority);
 
 		if (dt == TimeSpan.ZERO) { // preempting schedule for processes
 			if (_currentProcess == null) { // currently Event -> no preemption
@@ -1240,7 +1313,7 @@ public class Scheduler extends NamedObject {
 		TimeInstant time = TimeOperations.add(presentTime(), dt);
 		// set time for being scheduled
 	
-		EventNote note = new EventNote(who1, who2, what, time, what.getSchedulingPriority());
+		EventNote note = _notePool.obtain(who1, who2, null, what, time, what.getSchedulingPriority());
 	
 		if (dt == TimeSpan.ZERO) { // preempting schedule for processes
 			if (_currentProcess == null) { // currently Event -> no preemption
@@ -1384,7 +1457,7 @@ public class Scheduler extends NamedObject {
 		TimeInstant time = TimeOperations.add(presentTime(), dt);
 		// set time for being scheduled
 	
-		EventNote note = new EventNote(who1, who2, who3, what, time, what.getSchedulingPriority());
+		EventNote note = _notePool.obtain(who1, who2, who3, what, time, what.getSchedulingPriority());
 	
 		if (dt == TimeSpan.ZERO) { // preempting schedule for processes
 			if (_currentProcess == null) { // currently Event -> no preemption
@@ -1527,7 +1600,7 @@ public class Scheduler extends NamedObject {
             priority = what.getSchedulingPriority();
         }            
 
-		EventNote note = new EventNote(who, what, when, priority);
+		EventNote note = _notePool.obtain(who, null, null, what, when, priority);
 
 		if (when == presentTime()) { // preempting schedule for processes
 			if (_currentProcess == null) { // currently Event -> no preemption
@@ -1662,7 +1735,7 @@ public class Scheduler extends NamedObject {
 	        // I can't be scheduled, TimeInstant has already passed.
 	    }
 	
-		EventNote note = new EventNote(who1, who2, what, when, what.getSchedulingPriority());
+		EventNote note = _notePool.obtain(who1, who2, null, what, when, what.getSchedulingPriority());
 	
 		if (when == presentTime()) { // preempting schedule for processes
 			if (_currentProcess == null) { // currently Event -> no preemption
@@ -1820,7 +1893,7 @@ public class Scheduler extends NamedObject {
 	        // I can't be scheduled, TimeInstant has already passed.
 	    }
 	
-		EventNote note = new EventNote(who1, who2, who3, what, when, what.getSchedulingPriority());
+		EventNote note = _notePool.obtain(who1, who2, who3, what, when, what.getSchedulingPriority());
 	
 		if (when == presentTime()) { // preempting schedule for processes
 			if (_currentProcess == null) { // currently Event -> no preemption
@@ -1840,6 +1913,63 @@ public class Scheduler extends NamedObject {
 	
 	}
 
+	/**
+	 * Schedules the given event with up to three entities to happen at the
+	 * point in simulation time given in the unit of epsilon. Unlike the
+	 * schedule methods taking a TimeInstant, no time object is created; the
+	 * event-lists compare the raw time of the event-note. The event-note is
+	 * always inserted behind all event-notes with the same time and priority,
+	 * i.e. scheduling at the present time does not preempt the current
+	 * SimProcess. Use <code>schedule(who, what, presentTime())</code> if this
+	 * is required.
+	 * 
+	 * @param who1
+	 *            Entity : The first entity to be scheduled or <code>null</code>
+	 *            for external events
+	 * @param who2
+	 *            Entity : The second entity to be scheduled or
+	 *            <code>null</code>
+	 * @param who3
+	 *            Entity : The third entity to be scheduled or
+	 *            <code>null</code>
+	 * @param what
+	 *            EventAbstract : The event to be scheduled
+	 * @param timeInEpsilon
+	 *            long : The point in simulation time for the event to happen,
+	 *            expressed in epsilon
+	 */
+	protected void scheduleAtEpsilon(Entity who1, Entity who2, Entity who3,
+			EventAbstract what, long timeInEpsilon) {
+
+		if (what == null) {
+			myExperiment.sendWarning("Can't schedule Event! "
+					+ "Command ignored.", "Scheduler : " + getName()
+					+ " Method: scheduleAtEpsilon(Entity who1, Entity who2, "
+					+ "Entity who3, EventAbstract what, long timeInEpsilon)",
+					"The Event reference passed is a null reference.",
+					"Only events may be scheduled at a time given in epsilon.");
+			return; // Event needed
+		}
+
+		if (timeInEpsilon < presentTime().getTimeInEpsilon()) {
+			myExperiment.sendWarning("Can't schedule Event at given time! "
+					+ "Command ignored.", "Scheduler : " + getName()
+					+ " Method: scheduleAtEpsilon(Entity who1, Entity who2, "
+					+ "Entity who3, EventAbstract what, long timeInEpsilon)",
+					"The instant given is in the past.",
+					"To schedule an Event, use a time no earlier than the "
+							+ "present time. The present time can be obtained "
+							+ "using the presentTime() method.");
+			return;
+			// I can't be scheduled, time has already passed.
+		}
+
+		// all parameters checked, now schedule Event
+		evList.insert(_notePool.obtain(who1, who2, who3, what, timeInEpsilon,
+				what.getSchedulingPriority()));
+
+	}
+
 	/**
 	 * Schedules the given Entity and Event to happen straight after the given
 	 * Schedulable is set to be activated. Note that the siulation time for the
@@ -1952,12 +2082,12 @@ public class Scheduler extends NamedObject {
 
 		if (after != _currentSchedulable) {
 			// all parameters checked, now go on and schedule
-			EventNote afterNote = after.getEventNotes().get(after.getEventNotes().size()-1);
-			evList.insertAfter(afterNote, new EventNote(who, what, afterNote
+			EventNote afterNote = after.getLastEventNote();
+			evList.insertAfter(afterNote, _notePool.obtain(who, null, null, what, afterNote
 					.getTime(), afterNote.getPriority()));
 			// sets the time equivalent to the Schedulable's
 		} else {
-			evList.insertAsFirst(new EventNote(who, what, presentTime(), Integer.MAX_VALUE));
+			evList.insertAsFirst(_notePool.obtain(who, null, null, what, presentTime(), Integer.MAX_VALUE));
 		}
 
 	}
@@ -2067,12 +2197,12 @@ public class Scheduler extends NamedObject {
 	
 		if (after != _currentSchedulable) {
 			// all parameters checked, now go on and schedule
-		    EventNote afterNote = after.getEventNotes().get(after.getEventNotes().size()-1);
-			evList.insertAfter(afterNote, new EventNote(who1, who2, what, afterNote
+		    EventNote afterNote = after.getLastEventNote();
+			evList.insertAfter(afterNote, _notePool.obtain(who1, who2, null, what, afterNote
 					.getTime(), afterNote.getPriority()));
 			// sets the time equivalent to the Schedulable's
 		} else {
-			evList.insertAsFirst(new EventNote(who1, who2, what, presentTime(), Integer.MAX_VALUE));
+			evList.insertAsFirst(_notePool.obtain(who1, who2, null, what, presentTime(), Integer.MAX_VALUE));
 		}
 	
 	}
@@ -2204,12 +2334,12 @@ public class Scheduler extends NamedObject {
 	
 		if (after != _currentSchedulable) {
 			// all parameters checked, now go on and schedule
-		    EventNote afterNote = after.getEventNotes().get(after.getEventNotes().size()-1);
-			evList.insertAfter(afterNote, new EventNote(who1, who2, who3, what, afterNote
+		    EventNote afterNote = after.getLastEventNote();
+			evList.insertAfter(afterNote, _notePool.obtain(who1, who2, who3, what, afterNote
 					.getTime(), afterNote.getPriority()));
 			// sets the time equivalent to the Schedulable's
 		} else {
-			evList.insertAsFirst(new EventNote(who1, who2, who3, what, presentTime(), Integer.MAX_VALUE));
+			evList.insertAsFirst(_notePool.obtain(who1, who2, who3, what, presentTime(), Integer.MAX_VALUE));
 		}
 	
 	}
@@ -2319,8 +2449,8 @@ public class Scheduler extends NamedObject {
 		}
 
 		// all parameters checked, now go on and schedule
-		EventNote beforeNote = before.getEventNotes().get(0);
-		evList.insertBefore(beforeNote, new EventNote(who, what, beforeNote
+		EventNote beforeNote = before.getFirstEventNote();
+		evList.insertBefore(beforeNote, _notePool.obtain(who, null, null, what, beforeNote
 				.getTime(), beforeNote.getPriority()));
 		// sets the time equivalent to the Schedulable's
 	}
@@ -2431,8 +2561,8 @@ public class Scheduler extends NamedObject {
 		}	
 	
 		// all parameters checked, now go on and schedule
-	    EventNote beforeNote = before.getEventNotes().get(0);
-		evList.insertBefore(beforeNote, new EventNote(who1, who2, what, beforeNote
+	    EventNote beforeNote = before.getFirstEventNote();
+		evList.insertBefore(beforeNote, _notePool.obtain(who1, who2, null, what, beforeNote
 				.getTime(), beforeNote.getPriority()));
 		// sets the time equivalent to the Schedulable's
 	}
@@ -2563,8 +2693,8 @@ public class Scheduler extends NamedObject {
 		}
 	
 		// all parameters checked, now go on and schedule
-        EventNote beforeNote = before.getEventNotes().get(0);
-		evList.insertBefore(beforeNote, new EventNote(who1, who2, who3, what, beforeNote
+        EventNote beforeNote = before.getFirstEventNote();
+		evList.insertBefore(beforeNote, _notePool.obtain(who1, who2, who3, what, beforeNote
 				.getTime(), beforeNote.getPriority()));
 		// sets the time equivalent to the Schedulable's
 	}
@@ -2633,6 +2763,161 @@ public class Scheduler extends NamedObject {
 		this.evList = newList;
 	}
 
+	/**
+	 * Replaces the event-list used by this scheduler. All event-notes
+	 * currently scheduled are moved to the new event-list in the order of
+	 * their execution, so event-notes of equal time and priority keep their
+	 * relative order. Note that switching the randomizing of concurrent
+	 * events afterwards replaces the event-list by an
+	 * <code>EventTreeList</code> again.
+	 * 
+	 * @param newList
+	 *            EventList : The new (empty) event-list
+	 */
+	protected void setEventList(EventList newList) {
+
+		EventNote note = this.evList.firstNote();
+		while (note != null) {
+			this.evList.removeFirst();
+			newList.insert(note);
+			note = this.evList.firstNote();
+		}
+		this.evList = newList;
+	}
+
+	/**
+	 * Resets the scheduler to the given start time so that the experiment can
+	 * run again. All event-notes still scheduled are removed from the
+	 * event-list and detached from their entities and events (and recycled if
+	 * event-note pooling is switched on); pending real-time events are
+	 * discarded. The event-list itself, the event-note pool and the simulation
+	 * clock are kept.
+	 * 
+	 * @param initTime
+	 *            TimeInstant : The new start time of the simulation clock
+	 */
+	void reset(TimeInstant initTime) {
+
+		EventNote note = this.evList.firstNote();
+		while (note != null) {
+			this.evList.removeFirst();
+			if (note.getEntity1() != null)
+				note.getEntity1().removeEventNote(note);
+			if (note.getEntity2() != null)
+				note.getEntity2().removeEventNote(note);
+			if (note.getEntity3() != null)
+				note.getEntity3().removeEventNote(note);
+			if (note.getEvent() != null)
+				note.getEvent().removeEventNote(note);
+			note.setTime(null);
+			_notePool.release(note);
+			note = this.evList.firstNote();
+		}
+		_realTimeEventQueue.clear();
+
+		_currentNote = null;
+		_currentEntity1 = null;
+		_currentEntity2 = null;
+		_currentEntity3 = null;
+		_currentProcess = null;
+		_currentEvent = null;
+		_currentModel = null;
+		_currentSchedulable = null;
+
+		clock.setInitTime(initTime);
+		simulationFinished = false;
+		_timeReset = true;
+	}
+
+	/**
+	 * Writes the event-notes of the event-list in their order of processing
+	 * to a snapshot. The entities and events of the notes are written by the
+	 * model as references. The experiment's own external events (stopping,
+	 * tracing, debugging and resetting) are left out, they are scheduled by
+	 * the restoring experiment itself.
+	 * 
+	 * @param out
+	 *            SnapshotWriter : The snapshot being written
+	 * @param model
+	 *            Model : The model writing the references
+	 */
+	void writeSnapshot(SnapshotWriter out, Model model) {
+
+		List<EventNote> notes = new ArrayList<EventNote>();
+		for (EventNote note = evList.firstNote(); note != null; note = evList.nextNote(note)) {
+			if (!isExperimentEvent(note.getEvent()))
+				notes.add(note);
+		}
+		out.writeInt(notes.size());
+		for (EventNote note : notes) {
+			out.writeLong(note.getTimeInEpsilon());
+			out.writeInt(note.getPriority());
+			writeSnapshotReference(out, model, note.getEvent());
+			writeSnapshotReference(out, model, note.getEntity1());
+			writeSnapshotReference(out, model, note.getEntity2());
+			writeSnapshotReference(out, model, note.getEntity3());
+		}
+	}
+
+	/**
+	 * Restores the event-notes written by
+	 * <code>writeSnapshot(SnapshotWriter out, Model model)</code>. The notes
+	 * are inserted in their order of processing, so notes with equal time and
+	 * priority keep their order (unless the event-list randomizes it).
+	 * 
+	 * @param in
+	 *            SnapshotReader : The snapshot being read
+	 * @param model
+	 *            Model : The model resolving the references
+	 */
+	void readSnapshot(SnapshotReader in, Model model) {
+
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			long timeInEpsilon = in.readLong();
+			int priority = in.readInt();
+			EventAbstract what = (EventAbstract) readSnapshotReference(in, model);
+			Entity who1 = (Entity) readSnapshotReference(in, model);
+			Entity who2 = (Entity) readSnapshotReference(in, model);
+			Entity who3 = (Entity) readSnapshotReference(in, model);
+			evList.insert(_notePool.obtain(who1, who2, who3, what, timeInEpsilon, priority));
+		}
+	}
+
+	/**
+	 * Writes a presence flag and, if present, the model's reference to the
+	 * given entity or event.
+	 */
+	private static void writeSnapshotReference(SnapshotWriter out, Model model, Schedulable what) {
+
+		out.writeBoolean(what != null);
+		if (what != null)
+			model.writeSnapshotReference(out, what);
+	}
+
+	/**
+	 * Reads a reference written by <code>writeSnapshotReference()</code>.
+	 */
+	private static Schedulable readSnapshotReference(SnapshotReader in, Model model) {
+
+		return in.readBoolean() ? model.readSnapshotReference(in) : null;
+	}
+
+	/**
+	 * Tests if the given event is one of the experiment's own external events
+	 * which are not part of a model's snapshot.
+	 */
+	private static boolean isExperimentEvent(EventAbstract what) {
+
+		return what instanceof ExternalEventStop
+				|| what instanceof ExternalEventTraceOn
+				|| what instanceof ExternalEventTraceOff
+				|| what instanceof ExternalEventDebugOn
+				|| what instanceof ExternalEventDebugOff
+				|| what instanceof ExternalEventTimedTrace
+				|| what instanceof ExternalEventReset;
+	}
+
 	/**
 	 * Returns the status of the current simulation. Clients should not need to
 	 * use this method explicitly. This method is polled by each thread when it
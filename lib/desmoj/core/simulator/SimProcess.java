@@ -2044,7 +2044,7 @@ public abstract class SimProcess extends Entity {
 	synchronized void start() {
 	    
         // set up simthread
-        _myThread = new SimThread(getModel().getExperiment().getThreadGroup(), this);
+        _myThread = getModel().getExperiment().newSimThread(this);
 
 		// setting this flag shows that the simthread is now ready to take over
 		// control from the scheduler's thread
@@ -0,0 +1,286 @@
+package desmoj.core.simulator;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Collects the state of a simulation in a compact binary form (primitive
+ * values and arrays of primitive values, without Java serialization) and
+ * writes it to a snapshot file. Used by <code>Experiment.snapshot(String)</code>
+ * and passed to the models' and reportables' <code>writeSnapshot</code>
+ * methods; the values have to be read back by a <code>SnapshotReader</code>
+ * in the same order.
+ * 
+ * @see desmoj.core.simulator.SnapshotReader
+ * @see desmoj.core.simulator.Experiment#snapshot(String)
+ * 
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+public class SnapshotWriter {
+
+	/**
+	 * Marks a missing time value.
+	 */
+	static final long NO_TIME = Long.MIN_VALUE;
+
+	static final Charset CHARSET = Charset.forName("UTF-8");
+
+	/**
+	 * The buffer collecting the snapshot, grown on demand.
+	 */
+	private ByteBuffer _buffer;
+
+	/**
+	 * Creates an empty snapshot writer.
+	 * 
+	 * @param capacity
+	 *            int : The initial capacity of the buffer in bytes
+	 */
+	public SnapshotWriter(int capacity) {
+
+		_buffer = ByteBuffer.allocate(Math.max(64, capacity));
+	}
+
+	public void writeBoolean(boolean value) {
+
+		ensureRemaining(1);
+		_buffer.put(value ? (byte) 1 : (byte) 0);
+	}
+
+	public void writeByte(byte value) {
+
+		ensureRemaining(1);
+		_buffer.put(value);
+	}
+
+	public void writeInt(int value) {
+
+		ensureRemaining(4);
+		_buffer.putInt(value);
+	}
+
+	public void writeLong(long value) {
+
+		ensureRemaining(8);
+		_buffer.putLong(value);
+	}
+
+	public void writeDouble(double value) {
+
+		ensureRemaining(8);
+		_buffer.putDouble(value);
+	}
+
+	/**
+	 * Writes a string (or <code>null</code>) as UTF-8 bytes preceded by their
+	 * number.
+	 * 
+	 * @param value
+	 *            java.lang.String : The string to write
+	 */
+	public void writeString(String value) {
+
+		if (value == null) {
+			writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(CHARSET);
+		writeInt(bytes.length);
+		ensureRemaining(bytes.length);
+		_buffer.put(bytes);
+	}
+
+	/**
+	 * Writes a point in simulation time (or <code>null</code>) in units of
+	 * epsilon.
+	 * 
+	 * @param value
+	 *            TimeInstant : The point in simulation time to write
+	 */
+	public void writeTimeInstant(TimeInstant value) {
+
+		writeLong(value == null ? NO_TIME : value.getTimeInEpsilon());
+	}
+
+	/**
+	 * Writes a span of simulation time (or <code>null</code>) in units of
+	 * epsilon.
+	 * 
+	 * @param value
+	 *            TimeSpan : The span of simulation time to write
+	 */
+	public void writeTimeSpan(TimeSpan value) {
+
+		writeLong(value == null ? NO_TIME : value.getTimeInEpsilon());
+	}
+
+	/**
+	 * Writes the first <code>length</code> elements of the array preceded by
+	 * their number.
+	 * 
+	 * @param values
+	 *            byte[] : The array
+	 * @param length
+	 *            int : The number of elements to write
+	 */
+	public void writeBytes(byte[] values, int length) {
+
+		writeInt(length);
+		ensureRemaining(length);
+		_buffer.put(values, 0, length);
+	}
+
+	/**
+	 * Writes the first <code>length</code> elements of the array preceded by
+	 * their number.
+	 * 
+	 * @param values
+	 *            short[] : The array
+	 * @param length
+	 *            int : The number of elements to write
+	 */
+	public void writeShorts(short[] values, int length) {
+
+		writeInt(length);
+		ensureRemaining(2 * length);
+		_buffer.asShortBuffer().put(values, 0, length);
+		advance(2 * length);
+	}
+
+	/**
+	 * Writes the first <code>length</code> elements of the array preceded by
+	 * their number.
+	 * 
+	 * @param values
+	 *            int[] : The array
+	 * @param length
+	 *            int : The number of elements to write
+	 */
+	public void writeInts(int[] values, int length) {
+
+		writeInt(length);
+		ensureRemaining(4 * length);
+		_buffer.asIntBuffer().put(values, 0, length);
+		advance(4 * length);
+	}
+
+	/**
+	 * Writes the first <code>length</code> elements of the array preceded by
+	 * their number.
+	 * 
+	 * @param values
+	 *            long[] : The array
+	 * @param length
+	 *            int : The number of elements to write
+	 */
+	public void writeLongs(long[] values, int length) {
+
+		writeInt(length);
+		ensureRemaining(8 * length);
+		_buffer.asLongBuffer().put(values, 0, length);
+		advance(8 * length);
+	}
+
+	/**
+	 * Writes the first <code>length</code> elements of the array preceded by
+	 * their number.
+	 * 
+	 * @param values
+	 *            double[] : The array
+	 * @param length
+	 *            int : The number of elements to write
+	 */
+	public void writeDoubles(double[] values, int length) {
+
+		writeInt(length);
+		ensureRemaining(8 * length);
+		_buffer.asDoubleBuffer().put(values, 0, length);
+		advance(8 * length);
+	}
+
+	/**
+	 * Returns the number of bytes written so far.
+	 * 
+	 * @return int : The size of the snapshot in bytes
+	 */
+	public int size() {
+
+		return _buffer.position();
+	}
+
+	/**
+	 * Returns the collected snapshot as a read-only buffer sharing the
+	 * writer's contents (without copying them).
+	 * 
+	 * @return java.nio.ByteBuffer : The snapshot, positioned at its beginning
+	 */
+	ByteBuffer toBuffer() {
+
+		ByteBuffer contents = _buffer.asReadOnlyBuffer();
+		((Buffer) contents).flip();
+		return contents;
+	}
+
+	/**
+	 * Writes the collected snapshot to the given file, replacing its contents.
+	 * 
+	 * @param fileName
+	 *            java.lang.String : The name of the snapshot file
+	 * @throws java.io.IOException
+	 *             if the file can not be written
+	 */
+	void writeTo(String fileName) throws IOException {
+
+		RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+		try {
+			FileChannel channel = file.getChannel();
+			channel.truncate(0);
+			ByteBuffer contents = _buffer.duplicate();
+			((Buffer) contents).flip();
+			while (contents.hasRemaining()) {
+				channel.write(contents);
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Moves the position of the buffer past values written through a view
+	 * buffer (through <code>Buffer</code> to stay compatible with Java 7).
+	 */
+	private void advance(int bytes) {
+
+		((Buffer) _buffer).position(_buffer.position() + bytes);
+	}
+
+	/**
+	 * Grows the buffer if less than the given number of bytes remain.
+	 */
+	private void ensureRemaining(int bytes) {
+
+		if (_buffer.remaining() < bytes) {
+			int capacity = Math.max(_buffer.capacity() * 2, _buffer.position() + bytes);
+			ByteBuffer grown = ByteBuffer.allocate(capacity);
+			((Buffer) _buffer).flip();
+			grown.put(_buffer);
+			_buffer = grown;
+		}
+	}
+}
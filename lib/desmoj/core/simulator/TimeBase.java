@@ -0,0 +1,182 @@
+package desmoj.core.simulator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time base of an experiment, i.e. the granularity of simulation time
+ * (epsilon), the reference time unit, the point in simulation time the
+ * experiment has started and the formatter used to print time values.
+ * <p>
+ * Each <code>Experiment</code> owns its own time base which is bound to the
+ * threads executing the experiment (the thread that set up and runs the
+ * experiment as well as the simthreads of its sim-processes). All
+ * <code>TimeInstant</code> and <code>TimeSpan</code> conversions performed
+ * in such a thread are resolved against that time base by
+ * <code>TimeOperations</code>, so experiments running concurrently on
+ * separate threads neither share nor lock any time settings. Threads not
+ * bound to any experiment use a global default time base.
+ *
+ * @see TimeOperations
+ * @see Experiment#getTimeBase()
+ *
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ *
+ *         Licensed under the Apache License, Version 2.0 (the "License"); you
+ *         may not use this file except in compliance with the License. You may
+ *         obtain a copy of the License at
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *         implied. See the License for the specific language governing
+ *         permissions and limitations under the License.
+ *
+ */
+public final class TimeBase {
+
+	/**
+	 * The granularity of simulation time.
+	 */
+	private TimeUnit _epsilon;
+
+	/**
+	 * The reference time unit specifying what is meant by the simulation time
+	 * step of 1 in statements without an explicit declaration of a time unit
+	 * like in <code>new TimeSpan(5)</code>.
+	 */
+	private TimeUnit _referenceUnit;
+
+	/**
+	 * The point in simulation time when the experiment has started.
+	 */
+	private TimeInstant _startTime;
+
+	/**
+	 * The TimeFormatter to use for printing TimeInstants and TimeSpans.
+	 */
+	private TimeFormatter _timeFormatter;
+
+	/**
+	 * Constructs a time base with the given granularity and reference unit.
+	 * If the reference unit has a finer granularity than epsilon, both units
+	 * are swapped. If no formatter is given, a
+	 * <code>SingleUnitTimeFormatter</code> using the reference unit and four
+	 * floating point digits is used.
+	 *
+	 * @param epsilon
+	 *            java.util.concurrent.TimeUnit: The granularity of simulation
+	 *            time.
+	 * @param referenceUnit
+	 *            java.util.concurrent.TimeUnit : In statements without an
+	 *            explicit declaration of a TimeUnit the reference unit is used.
+	 * @param formatter
+	 *            desmoj.core.simulator.TimeFormatter: Defines how time values
+	 *            will be formatted, may be <code>null</code>.
+	 */
+	public TimeBase(TimeUnit epsilon, TimeUnit referenceUnit,
+			TimeFormatter formatter) {
+
+		if (referenceUnit.compareTo(epsilon) < 0) {
+			TimeUnit buffer = referenceUnit;
+			referenceUnit = epsilon;
+			epsilon = buffer;
+		}
+		_epsilon = epsilon;
+		_referenceUnit = referenceUnit;
+		_timeFormatter = formatter != null ? formatter
+				: createDefaultTimeFormatter();
+	}
+
+	/**
+	 * Returns the granularity of simulation time.
+	 *
+	 * @return TimeUnit : The granularity of simulation time
+	 */
+	public TimeUnit getEpsilon() {
+		return _epsilon;
+	}
+
+	/**
+	 * Returns the reference time unit.
+	 *
+	 * @return TimeUnit : The reference time unit
+	 */
+	public TimeUnit getReferenceUnit() {
+		return _referenceUnit;
+	}
+
+	/**
+	 * Returns the TimeInstant when the experiment has started, or
+	 * <code>null</code> if it has not been started yet.
+	 *
+	 * @return TimeInstant : The point in simulation time the experiment has
+	 *         started.
+	 */
+	public TimeInstant getStartTime() {
+		return _startTime;
+	}
+
+	/**
+	 * Returns the time formatter of this time base.
+	 *
+	 * @return TimeFormatter : The formatter for time values
+	 */
+	public TimeFormatter getTimeFormatter() {
+		return _timeFormatter;
+	}
+
+	/**
+	 * Sets the granularity of simulation time. This is a package private
+	 * method for internal framework use only.
+	 *
+	 * @param epsilon
+	 *            TimeUnit : The granularity of simulation time
+	 */
+	void setEpsilon(TimeUnit epsilon) {
+		_epsilon = epsilon;
+	}
+
+	/**
+	 * Sets the reference time unit. This is a package private method for
+	 * internal framework use only.
+	 *
+	 * @param referenceUnit
+	 *            TimeUnit : The reference time unit
+	 */
+	void setReferenceUnit(TimeUnit referenceUnit) {
+		_referenceUnit = referenceUnit;
+	}
+
+	/**
+	 * Sets the point in simulation time the experiment has started. This is a
+	 * package private method for internal framework use only.
+	 *
+	 * @param startTime
+	 *            TimeInstant : The start time of the experiment
+	 */
+	void setStartTime(TimeInstant startTime) {
+		_startTime = startTime;
+	}
+
+	/**
+	 * Sets the time formatter. This is a package private method for internal
+	 * framework use only.
+	 *
+	 * @param formatter
+	 *            TimeFormatter : The formatter for time values
+	 */
+	void setTimeFormatter(TimeFormatter formatter) {
+		_timeFormatter = formatter;
+	}
+
+	/**
+	 * Creates a <code>SingleUnitTimeFormatter</code>, using the reference
+	 * unit and epsilon of this time base and four floating point digits.
+	 *
+	 * @return TimeFormatter : A new default formatter for this time base
+	 */
+	TimeFormatter createDefaultTimeFormatter() {
+		return new SingleUnitTimeFormatter(_referenceUnit, _epsilon, 4, false);
+	}
+}
@@ -0,0 +1,124 @@
+package desmoj.core.simulator;
+
+import desmoj.core.statistic.ValueListener;
+import desmoj.core.statistic.ValueSupplier;
+
+/**
+ * A ModelCondition which is not polled by the experiment after every event.
+ * Instead, the condition declares the sources its outcome depends on (any
+ * <code>ValueSupplier</code>, e.g. a <code>Count</code>) and is re-evaluated
+ * only when one of them notifies a change. Model code not backed by a value
+ * supplier may also call <code>changed()</code> directly
+ * whenever a value the condition depends on has been modified.
+ * <p>
+ * Once passed to <code>Experiment.stop(ModelCondition stopCond)</code>, the
+ * condition stops the experiment as soon as a re-evaluation returns
+ * <code>true</code>. The experiment finishes processing the current event
+ * and then stops, exactly as it would when polling the condition. Note that a
+ * condition which is already met when the experiment starts is not detected
+ * until one of its sources changes.
+ * <p>
+ * Plain <code>ModelCondition</code>s are still polled after every event.
+ *
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+public abstract class TriggeredCondition extends ModelCondition implements ValueListener {
+
+    /**
+     * The experiment to stop once the condition is met, <code>null</code> as
+     * long as the condition has not been passed to
+     * <code>Experiment.stop(ModelCondition stopCond)</code>.
+     */
+    private Experiment _experiment = null;
+
+    /**
+     * Constructs a TriggeredCondition with the given name and parameters for
+     * trace files.
+     *
+     * @param owner
+     *            Model : The main model this condition is associated to
+     * @param name
+     *            java.lang.String : The name of this condition
+     * @param showInTrace
+     *            boolean : Flag for showing this condition in trace-files.
+     * @param args
+     *            Object... : Arguments to pass to the condition (can be omitted)
+     */
+    public TriggeredCondition(Model owner, String name, boolean showInTrace, Object... args) {
+
+        super(owner, name, showInTrace, args);
+    }
+
+    /**
+     * Declares a source the outcome of this condition depends on. The
+     * condition is re-evaluated each time the source reports a change via
+     * <code>notifyStatistics(Object arg)</code>.
+     *
+     * @param source
+     *            ValueSupplier : The value supplier the condition depends on
+     */
+    public void dependsOn(ValueSupplier source) {
+
+        source.addValueListener(this);
+    }
+
+    /**
+     * Called by the value suppliers the condition depends on, re-evaluates
+     * the condition.
+     *
+     * @param source
+     *            ValueSupplier : The source which has changed
+     */
+    public void valueChanged(ValueSupplier source) {
+
+        changed();
+    }
+
+    /**
+     * Re-evaluates the condition and stops the experiment it has been
+     * registered with if the condition is met. Call this method whenever a
+     * value the condition depends on has changed.
+     */
+    public void changed() {
+
+        if (_experiment != null && _experiment.isRunning() && check()) {
+            _experiment.setStatus(Experiment.STOPPED);
+        }
+    }
+
+    /**
+     * Returns whether this condition is currently registered to stop an
+     * experiment.
+     *
+     * @return boolean : Is <code>true</code> if the condition will stop an
+     *         experiment once met
+     */
+    public boolean isArmed() {
+
+        return _experiment != null;
+    }
+
+    /**
+     * Registers the experiment to stop once the condition is met
+     * (<code>null</code> to disarm the condition).
+     *
+     * @param experiment
+     *            Experiment : The experiment to stop
+     */
+    void arm(Experiment experiment) {
+
+        _experiment = experiment;
+    }
+}
@@ -0,0 +1,39 @@
+package desmoj.core.statistic;
+
+/**
+ * A listener notified whenever a <code>ValueSupplier</code> reports a change
+ * of its value via <code>notifyStatistics(Object arg)</code>. Unlike the
+ * <code>java.util.Observer</code> attached to a <code>ValueSupplier</code>
+ * by the statistic objects, a listener receives no value and is not
+ * serialised through <code>java.util.Observable</code>; it is meant for
+ * simulation infrastructure reacting to changes, e.g. a
+ * <code>TriggeredCondition</code> re-evaluated only when a value it depends
+ * on has changed.
+ * 
+ * @see desmoj.core.statistic.ValueSupplier#addValueListener(ValueListener)
+ * @see desmoj.core.simulator.TriggeredCondition
+ * 
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ * 
+ *         Licensed under the Apache License, Version 2.0 (the "License"); you
+ *         may not use this file except in compliance with the License. You may
+ *         obtain a copy of the License at
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ *         implied. See the License for the specific language governing
+ *         permissions and limitations under the License.
+ * 
+ */
+public interface ValueListener {
+
+	/**
+	 * Called each time the given source has reported a change of its value.
+	 * 
+	 * @param source
+	 *            ValueSupplier : The value supplier which has changed
+	 */
+	public void valueChanged(ValueSupplier source);
+}
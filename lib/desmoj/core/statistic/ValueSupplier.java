@@ -51,6 +51,12 @@ public abstract class ValueSupplier extends java.util.Observable {
 	 */
 	private String _myName;
 
+	/**
+	 * The listeners notified of changes, <code>null</code> as long as no
+	 * listener has been added.
+	 */
+	private java.util.List<ValueListener> _valueListeners = null;
+
 	/**
 	 * Constructs a simple valuesupplier by giving it a name.
 	 */
@@ -102,6 +108,43 @@ public abstract class ValueSupplier extends java.util.Observable {
 		setChanged(); // call the method from the Observable
 
 		notifyObservers(arg); // call the method from the Observable
+
+		if (_valueListeners != null) {
+			for (int i = 0; i < _valueListeners.size(); i++) {
+				_valueListeners.get(i).valueChanged(this);
+			}
+		}
+	}
+
+	/**
+	 * Adds a listener notified each time this ValueSupplier reports a change
+	 * via <code>notifyStatistics(Object arg)</code>, after its observers.
+	 * 
+	 * @param listener
+	 *            ValueListener : The listener to add
+	 */
+	public void addValueListener(ValueListener listener) {
+
+		if (_valueListeners == null) {
+			_valueListeners = new java.util.ArrayList<ValueListener>();
+		}
+		if (!_valueListeners.contains(listener)) {
+			_valueListeners.add(listener);
+		}
+	}
+
+	/**
+	 * Removes a listener added by <code>addValueListener(ValueListener
+	 * listener)</code>.
+	 * 
+	 * @param listener
+	 *            ValueListener : The listener to remove
+	 */
+	public void removeValueListener(ValueListener listener) {
+
+		if (_valueListeners != null) {
+			_valueListeners.remove(listener);
+		}
 	}
 
 	/**
@@ -3,10 +3,11 @@
  */
 package biathlon;
 
-import biathlon.event.BiathleteEvent;
+import biathlon.checkpoint.Checkpoint;
 import desmoj.core.simulator.Model;
-import java.util.Collections;
-import java.util.LinkedList;
+import desmoj.core.simulator.SnapshotReader;
+import desmoj.core.simulator.SnapshotWriter;
+import desmoj.core.simulator.TimeSpan;
 
 /**
  * Klasa reprezentująca poszczególnych zawodników.
@@ -15,52 +16,37 @@ import java.util.LinkedList;
  * @see biathlon.core.StaggeredEntity
  */
 public class Biathlete extends biathlon.core.StaggeredEntity {
-    
-    protected LinkedList<LinkedList<Boolean>> shots;
-    protected int currentShootingSessionMisses = 0;
-    protected int currentLap = 1;
-
     /**
-     * @see biathlon.core.StaggeredEntity 
+     * liczba bitów przeznaczonych na jedną serię strzałów w masce pudeł
+     * (maksymalna liczba strzałów w serii) oraz maksymalna liczba serii.
      */
-    public Biathlete(Model owner, String name, boolean showInTrace) {
-        super(owner, name, showInTrace);
-        shots = new LinkedList();
-    }
+    public static final int SHOTS_PER_SESSION_LIMIT = 8;
+    public static final int SHOOTING_SESSION_LIMIT = Long.SIZE / SHOTS_PER_SESSION_LIMIT;
+    protected static final long SESSION_MASK = (1L << SHOTS_PER_SESSION_LIMIT) - 1;
 
     /**
-     * Dodaje event na obecnym okrążeniu.
-     * @param event reprezentuje event, którego czas musiał zostać zamrożony dla chwili wystąpienia, np. oddanie strzału 
+     * maska pudeł: seria s zajmuje bity [8s, 8s + 8), ustawiony bit oznacza niecelny strzał.
      */
-    public void addEvent(BiathleteEvent event) {
-        eventsByLap.get(currentLap - 1).add(event);
-    }
+    protected long misses = 0;
+    protected int missCount = 0;
+    protected int shootingSessionCount = 0;
+    protected int currentShootingSessionShots = 0;
+    protected int currentLap = 1;
 
     /**
-     * Generuje trace dla zawodnika z przebiegu całego wyścigu.
-     * Przed wywołaniem tej metody należy wywołać analogiczną metodę
-     * dla punktów pomiaru czasu i strzelnicy (ustalenie pozycji i straty do lidera
-     * na danym punkcie).
+     * ostatni minięty punkt pomiaru czasu i okrążenie, na którym to nastąpiło.
      */
-    @Override
-    public void generateTrace() {
-        LinkedList<BiathleteEvent> events;
+    protected Checkpoint lastCheckpoint;
+    protected int lastCheckpointLap;
 
-        for (int i = 0; i < Biathlon.LAPS; i++) {
-            events = eventsByLap.get(i);
-            Collections.sort(events);
-            trace.startSection("Lap " + (i + 1));
-            trace.startTable("Position", "Description", "Time", "Lost");
-        
-            for (BiathleteEvent event : events) {
-                trace.insertRow(event.getRank(), event.getMessage(), event.getBiathleteTime(), event.getLost());
-            }
-
-            trace.closeTable();
-            trace.closeSection();
-        }
-
-        trace.close();
+    /**
+     * Tworzy zawodnika i rejestruje go w magazynie zdarzeń modelu; identyfikatorem
+     * zawodnika jest kolejność startu (od 0).
+     * @see biathlon.core.StaggeredEntity 
+     */
+    public Biathlete(Model owner, String name, boolean showInTrace) {
+        super(owner, name, showInTrace);
+        id = ((Biathlon)owner).getEvents().addBiathlete(this, presentTime().getTimeInEpsilon());
     }
 
     /**
@@ -73,47 +59,168 @@ public class Biathlete extends biathlon.core.StaggeredEntity {
     public Integer getCurrentLap() {
         return currentLap;
     }
-    
+
     /**
-     * Rozpoczyna nową serię strzałów.
+     * Zapamiętuje minięcie punktu pomiaru czasu na bieżącym okrążeniu.
+     * @param checkpoint punkt pomiaru czasu
      */
-    public void beginShootingSession() {
-        shots.add(new LinkedList());
-        currentShootingSessionMisses = 0;
+    public void passCheckpoint(Checkpoint checkpoint) {
+        lastCheckpoint = checkpoint;
+        lastCheckpointLap = currentLap;
+    }
+
+    public Checkpoint getLastCheckpoint() {
+        return lastCheckpoint;
     }
 
     /**
-     * @return lista list true/false oznaczająca, czy zawodnik trafił w kolejnych strzałach w kolejnych seriach
+     * @return bieżąca pozycja zawodnika na ostatnio minionym punkcie pomiaru czasu
+     * lub 0, jeśli nie minął jeszcze żadnego
      */
-    public LinkedList<LinkedList<Boolean>> getShotResults() {
-        return shots;
+    public int getCurrentRank() {
+        return lastCheckpoint == null ? 0 : lastCheckpoint.getRank(this, lastCheckpointLap);
     }
 
     /**
-     * 
-     * @return lista true/false oznaczająca, czy zawodnik trafił w kolejnych strzałach obecnej / ostatniej serii strzałów
+     * @return bieżąca strata zawodnika do lidera na ostatnio minionym punkcie pomiaru czasu
+     * lub null, jeśli nie minął jeszcze żadnego
+     */
+    public TimeSpan getCurrentLost() {
+        return lastCheckpoint == null ? null : lastCheckpoint.getLost(this, lastCheckpointLap);
+    }
+    
+    /**
+     * Rozpoczyna nową serię strzałów.
      */
-    public LinkedList<Boolean> getCurrentShootingSession() {
-        return shots.getLast();
+    public void beginShootingSession() {
+        if (shootingSessionCount == SHOOTING_SESSION_LIMIT) {
+            throw new IllegalStateException("At most " + SHOOTING_SESSION_LIMIT + " shooting sessions are supported");
+        }
+        shootingSessionCount++;
+        currentShootingSessionShots = 0;
     }
 
     /**
-     * Zapisuje rezultat danego strzału.
+     * Zapisuje rezultat danego strzału w bieżącej serii.
      * 
      * @param hit true (trafienie), false (pudło)
+     * @throws IllegalStateException jeśli nie rozpoczęto żadnej serii lub w bieżącej serii
+     *         oddano już SHOTS_PER_SESSION_LIMIT strzałów
      */
     public void saveShotResult(boolean hit) {
-        getCurrentShootingSession().add(hit);
+        if (shootingSessionCount == 0) {
+            throw new IllegalStateException("No shooting session has begun");
+        }
+        if (currentShootingSessionShots == SHOTS_PER_SESSION_LIMIT) {
+            throw new IllegalStateException("At most " + SHOTS_PER_SESSION_LIMIT + " shots per shooting session are supported");
+        }
         if (!hit) {
-            currentShootingSessionMisses++;
+            misses |= 1L << ((shootingSessionCount - 1) * SHOTS_PER_SESSION_LIMIT + currentShootingSessionShots);
+            missCount++;
         }
+        currentShootingSessionShots++;
+    }
+
+    /**
+     * @return maska pudeł we wszystkich seriach (seria s zajmuje bity [8s, 8s + 8), ustawiony bit oznacza pudło)
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @param session numer serii (od 0)
+     * @param shot numer strzału w serii (od 0)
+     * @return true, jeśli strzał był celny (strzały jeszcze nie oddane uznawane są za celne)
+     */
+    public boolean isHit(int session, int shot) {
+        return (misses & (1L << (session * SHOTS_PER_SESSION_LIMIT + shot))) == 0;
+    }
+
+    /**
+     * @return liczba rozpoczętych serii strzałów
+     */
+    public int getShootingSessionCount() {
+        return shootingSessionCount;
+    }
+
+    /**
+     * @return liczba strzałów oddanych w obecnej / ostatniej serii
+     */
+    public int getCurrentShootingSessionShots() {
+        return currentShootingSessionShots;
+    }
+
+    /**
+     * @param session numer serii (od 0)
+     * @return ilość niecelnych strzałów w podanej serii
+     */
+    public int countShootingSessionMisses(int session) {
+        return Long.bitCount((misses >>> (session * SHOTS_PER_SESSION_LIMIT)) & SESSION_MASK);
     }
 
     /**
      * 
-     * @return ilość niecelnych strzałów w obecnej / ostatniej serii 
+     * @return ilość niecelnych strzałów w obecnej / ostatniej serii (0 przed pierwszą serią)
      */
     public int countCurrentShootingSessionMisses() {
-        return currentShootingSessionMisses;
+        if (shootingSessionCount == 0) {
+            // przesunięcie o ujemną liczbę bitów odczytałoby bity innej serii
+            return 0;
+        }
+        return countShootingSessionMisses(shootingSessionCount - 1);
+    }
+
+    /**
+     * @return ilość niecelnych strzałów we wszystkich seriach (liczba kar)
+     */
+    public int countMisses() {
+        return missCount;
+    }
+
+    /**
+     * Zapisuje stan zawodnika (strzelanie, okrążenie, ostatni punkt pomiaru czasu) do migawki eksperymentu.
+     *
+     * @param out migawka
+     * @see biathlon.Biathlon#writeSnapshotState(SnapshotWriter)
+     */
+    public void writeSnapshot(SnapshotWriter out) {
+        out.writeLong(misses);
+        out.writeInt(missCount);
+        out.writeInt(shootingSessionCount);
+        out.writeInt(currentShootingSessionShots);
+        out.writeInt(currentLap);
+        out.writeInt(lastCheckpoint == null ? -1 : lastCheckpoint.getId());
+        out.writeInt(lastCheckpointLap);
+        out.writeTimeSpan(creationDelay);
+    }
+
+    /**
+     * Odtwarza stan zawodnika zapisany metodą writeSnapshot().
+     *
+     * @param in migawka
+     */
+    public void readSnapshot(SnapshotReader in) {
+        misses = in.readLong();
+        missCount = in.readInt();
+        shootingSessionCount = in.readInt();
+        currentShootingSessionShots = in.readInt();
+        currentLap = in.readInt();
+        int checkpoint = in.readInt();
+        lastCheckpoint = checkpoint < 0 ? null : (Checkpoint)((Biathlon)getModel()).getEvents().getPlaceById(checkpoint);
+        lastCheckpointLap = in.readInt();
+        creationDelay = in.readTimeSpan();
+    }
+
+    /**
+     * Opis niecelnych strzałów w formacie wyników, np. "3 (1+0+2+0)".
+     * @return liczba pudeł łącznie i w kolejnych seriach
+     */
+    public String describeMisses() {
+        StringBuilder description = new StringBuilder().append(missCount).append(" (");
+        for (int session = 0; session < shootingSessionCount; session++) {
+            description.append(session > 0 ? "+" : "").append(countShootingSessionMisses(session));
+        }
+        return description.append(')').toString();
     }
 }
@@ -0,0 +1,318 @@
+package biathlon;
+
+import desmoj.core.report.FileOutput;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Indywidualne parametry zawodników: szybkość biegu, skuteczność strzelania w pozycji leżącej
+ * i stojącej, czas oddania strzału oraz zmęczenie na kolejnych okrążeniach.
+ * Parametry są przechowywane kolumnowo (jedna tablica typu prostego na parametr, indeksowana
+ * numerem startowym od 0), więc nawet tysiące zawodników zajmują kilka tablic, a losowanie
+ * (biathlon.BiathleteSampler) nie tworzy osobnego obiektu rozkładu DESMO-J dla każdego zawodnika.
+ *
+ * Plik parametrów to CSV z nagłówkiem, po jednym wierszu na zawodnika (w kolejności startu):
+ * {@code
+ *      biathlete;legMean;legStdDev;proneHit;standingHit;shotMin;shotMax;fatiguePerLap
+ *      1;183000;11000;0.9;0.8;2000;6000;0.01
+ * }
+ * Czasy podawane są w milisekundach. Zmęczenie to względny przyrost średniego czasu biegu
+ * między punktami pomiaru czasu na każdym kolejnym okrążeniu (0.01 = 1% na okrążenie).
+ * Pozycję strzelecką kolejnych serii określa konfiguracja biegu (biathlon.RaceConfiguration#isProne(int)).
+ *
+ * @author Artur Hebda
+ * @see biathlon.BiathleteSampler
+ */
+public class BiathleteParameters {
+    public static final char SEPARATOR = ';';
+    public static final String HEADER = "biathlete;legMean;legStdDev;proneHit;standingHit;shotMin;shotMax;fatiguePerLap";
+    protected static final int COLUMNS = 8;
+
+    /**
+     * wartość średnia i odchylenie standardowe czasu biegu między punktami pomiaru czasu
+     * na pierwszym okrążeniu.
+     */
+    protected final double[] legMeanInMilliSeconds;
+    protected final double[] legStdDevInMilliSeconds;
+
+    /**
+     * prawdopodobieństwo trafienia w pozycji leżącej i stojącej.
+     */
+    protected final double[] proneHitProbability;
+    protected final double[] standingHitProbability;
+
+    /**
+     * wartości graniczne czasu oddania strzału.
+     */
+    protected final double[] shotMinTimeInMilliSeconds;
+    protected final double[] shotMaxTimeInMilliSeconds;
+
+    protected final double[] fatiguePerLap;
+
+    /**
+     * Tworzy tabelę zawodników o jednakowych parametrach modelu biathlon.Biathlon
+     * (bez zmęczenia i bez rozróżnienia pozycji strzeleckiej).
+     *
+     * @param biathleteCount liczba zawodników
+     */
+    public BiathleteParameters(int biathleteCount) {
+        if (biathleteCount < 1) {
+            throw new IllegalArgumentException("At least one biathlete is required");
+        }
+        legMeanInMilliSeconds = filled(biathleteCount, Biathlon.CHECKPOINT_ARRIVAL_MEAN_IN_MILLISECONDS);
+        legStdDevInMilliSeconds = filled(biathleteCount, Biathlon.CHECKPOINT_ARRIVAL_STD_DEV_IN_MILLISECONDS);
+        proneHitProbability = filled(biathleteCount, Biathlon.HIT_PROBABILITY);
+        standingHitProbability = filled(biathleteCount, Biathlon.HIT_PROBABILITY);
+        shotMinTimeInMilliSeconds = filled(biathleteCount, Biathlon.SHOT_MIN_TIME_IN_MILLISECONDS);
+        shotMaxTimeInMilliSeconds = filled(biathleteCount, Biathlon.SHOT_MAX_TIME_IN_MILLISECONDS);
+        fatiguePerLap = new double[biathleteCount];
+    }
+
+    /**
+     * Ustawia parametry zawodnika.
+     *
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param legMean średni czas biegu między punktami pomiaru czasu na pierwszym okrążeniu [ms]
+     * @param legStdDev odchylenie standardowe czasu biegu między punktami pomiaru czasu [ms]
+     * @param proneHit prawdopodobieństwo trafienia w pozycji leżącej
+     * @param standingHit prawdopodobieństwo trafienia w pozycji stojącej
+     * @param shotMin minimalny czas oddania strzału [ms]
+     * @param shotMax maksymalny czas oddania strzału [ms]
+     * @param fatigue względny przyrost średniego czasu biegu na każdym kolejnym okrążeniu
+     */
+    public void set(int biathlete, double legMean, double legStdDev, double proneHit, double standingHit,
+                    double shotMin, double shotMax, double fatigue) {
+        if (!(legMean > 0) || !(legStdDev >= 0)) {
+            throw new IllegalArgumentException("Biathlete " + (biathlete + 1) + ": leg time mean must be positive and its standard deviation non-negative");
+        }
+        if (!(proneHit >= 0 && proneHit <= 1) || !(standingHit >= 0 && standingHit <= 1)) {
+            throw new IllegalArgumentException("Biathlete " + (biathlete + 1) + ": hit probabilities must be within [0, 1]");
+        }
+        if (!(shotMin >= 0) || !(shotMin <= shotMax)) {
+            throw new IllegalArgumentException("Biathlete " + (biathlete + 1) + ": shot time bounds must satisfy 0 <= min <= max");
+        }
+        if (!(fatigue > -1)) {
+            throw new IllegalArgumentException("Biathlete " + (biathlete + 1) + ": fatigue per lap must be greater than -1");
+        }
+        legMeanInMilliSeconds[biathlete] = legMean;
+        legStdDevInMilliSeconds[biathlete] = legStdDev;
+        proneHitProbability[biathlete] = proneHit;
+        standingHitProbability[biathlete] = standingHit;
+        shotMinTimeInMilliSeconds[biathlete] = shotMin;
+        shotMaxTimeInMilliSeconds[biathlete] = shotMax;
+        fatiguePerLap[biathlete] = fatigue;
+    }
+
+    /**
+     * Wczytuje parametry zawodników z pliku CSV (format w opisie klasy).
+     *
+     * @param fileName ścieżka do pliku
+     * @return tabela parametrów z tyloma zawodnikami, ile wierszy zawiera plik
+     * @throws IllegalArgumentException jeśli wiersz jest niepoprawny lub zawodnicy nie są numerowani kolejno od 1
+     */
+    public static BiathleteParameters read(String fileName) throws IOException {
+        double[][] rows = new double[64][];
+        int count = 0;
+        BufferedReader in = new BufferedReader(new FileReader(fileName));
+        try {
+            String line = in.readLine(); // nagłówek
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, rows.length * 2);
+                }
+                rows[count] = parse(line, count + 1);
+                count++;
+            }
+        }
+        finally {
+            in.close();
+        }
+
+        BiathleteParameters parameters = new BiathleteParameters(count);
+        for (int i = 0; i < count; i++) {
+            double[] row = rows[i];
+            parameters.set(i, row[1], row[2], row[3], row[4], row[5], row[6], row[7]);
+        }
+        return parameters;
+    }
+
+    /**
+     * @param line wiersz pliku parametrów
+     * @param biathleteNumber oczekiwany numer startowy (od 1)
+     * @return wartości kolejnych kolumn
+     */
+    protected static double[] parse(String line, int biathleteNumber) {
+        String[] fields = line.split(String.valueOf(SEPARATOR));
+        if (fields.length != COLUMNS) {
+            throw new IllegalArgumentException("Malformed biathlete parameters line: " + line);
+        }
+        double[] row = new double[COLUMNS];
+        try {
+            for (int i = 0; i < COLUMNS; i++) {
+                row[i] = Double.parseDouble(fields[i].trim());
+            }
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed biathlete parameters line: " + line, e);
+        }
+        if (row[0] != biathleteNumber) {
+            throw new IllegalArgumentException("Expected parameters of biathlete " + biathleteNumber + ": " + line);
+        }
+        return row;
+    }
+
+    /**
+     * Zapisuje parametry zawodników do pliku CSV (format w opisie klasy).
+     *
+     * @param fileName ścieżka do pliku
+     */
+    public void write(String fileName) {
+        FileOutput out = new FileOutput();
+        out.open(fileName);
+        out.writeln(HEADER);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < getBiathleteCount(); i++) {
+            line.setLength(0);
+            line.append(i + 1).append(SEPARATOR)
+                .append(legMeanInMilliSeconds[i]).append(SEPARATOR)
+                .append(legStdDevInMilliSeconds[i]).append(SEPARATOR)
+                .append(proneHitProbability[i]).append(SEPARATOR)
+                .append(standingHitProbability[i]).append(SEPARATOR)
+                .append(shotMinTimeInMilliSeconds[i]).append(SEPARATOR)
+                .append(shotMaxTimeInMilliSeconds[i]).append(SEPARATOR)
+                .append(fatiguePerLap[i]);
+            out.writeln(line.toString());
+        }
+        out.close();
+    }
+
+    public int getBiathleteCount() {
+        return legMeanInMilliSeconds.length;
+    }
+
+    /**
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param lap okrążenie (od 1)
+     * @return średni czas biegu między punktami pomiaru czasu na danym okrążeniu (z uwzględnieniem zmęczenia)
+     */
+    public double getLegMeanInMilliSeconds(int biathlete, int lap) {
+        return legMeanInMilliSeconds[biathlete] * (1 + fatiguePerLap[biathlete] * (lap - 1));
+    }
+
+    public double getLegStdDevInMilliSeconds(int biathlete) {
+        return legStdDevInMilliSeconds[biathlete];
+    }
+
+    /**
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param prone czy strzał oddawany jest w pozycji leżącej
+     * @return prawdopodobieństwo trafienia
+     */
+    public double getHitProbability(int biathlete, boolean prone) {
+        return prone ? proneHitProbability[biathlete] : standingHitProbability[biathlete];
+    }
+
+    public double getShotMinTimeInMilliSeconds(int biathlete) {
+        return shotMinTimeInMilliSeconds[biathlete];
+    }
+
+    public double getShotMaxTimeInMilliSeconds(int biathlete) {
+        return shotMaxTimeInMilliSeconds[biathlete];
+    }
+
+    public double getFatiguePerLap(int biathlete) {
+        return fatiguePerLap[biathlete];
+    }
+
+    /**
+     * Tworzy tabelę wybranych zawodników (np. startujących w biegu pościgowym w kolejności startu).
+     *
+     * @param biathletes numery zawodników tej tabeli (od 0), w kolejności nowej numeracji
+     * @return nowa tabela, w której zawodnik i ma parametry zawodnika biathletes[i]
+     */
+    public BiathleteParameters select(int[] biathletes) {
+        BiathleteParameters selected = new BiathleteParameters(biathletes.length);
+        for (int i = 0; i < biathletes.length; i++) {
+            int biathlete = biathletes[i];
+            selected.legMeanInMilliSeconds[i] = legMeanInMilliSeconds[biathlete];
+            selected.legStdDevInMilliSeconds[i] = legStdDevInMilliSeconds[biathlete];
+            selected.proneHitProbability[i] = proneHitProbability[biathlete];
+            selected.standingHitProbability[i] = standingHitProbability[biathlete];
+            selected.shotMinTimeInMilliSeconds[i] = shotMinTimeInMilliSeconds[biathlete];
+            selected.shotMaxTimeInMilliSeconds[i] = shotMaxTimeInMilliSeconds[biathlete];
+            selected.fatiguePerLap[i] = fatiguePerLap[biathlete];
+        }
+        return selected;
+    }
+
+    /**
+     * Tworzy kopię tabeli ze zmienionymi prawdopodobieństwami trafienia jednego zawodnika
+     * (np. do symulacji wariantów "co by było, gdyby" - biathlon.replication.RaceFork).
+     * Pozostałe parametry są kopiowane bez zmian, a ta tabela nie jest modyfikowana.
+     *
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param proneHit prawdopodobieństwo trafienia w pozycji leżącej
+     * @param standingHit prawdopodobieństwo trafienia w pozycji stojącej
+     * @return nowa tabela parametrów
+     */
+    public BiathleteParameters withHitProbabilities(int biathlete, double proneHit, double standingHit) {
+        int[] all = new int[getBiathleteCount()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        BiathleteParameters changed = select(all);
+        changed.set(biathlete, legMeanInMilliSeconds[biathlete], legStdDevInMilliSeconds[biathlete], proneHit, standingHit,
+                shotMinTimeInMilliSeconds[biathlete], shotMaxTimeInMilliSeconds[biathlete], fatiguePerLap[biathlete]);
+        return changed;
+    }
+
+    /**
+     * Tworzy tabelę losowo zróżnicowanych zawodników (np. do symulacji dużych biegów lub całego sezonu).
+     * Średnie i rozrzut parametrów odpowiadają modelowi biathlon.Biathlon.
+     *
+     * @param biathleteCount liczba zawodników
+     * @param seed ziarno generatora
+     */
+    public static BiathleteParameters random(int biathleteCount, long seed) {
+        Random random = new Random(seed);
+        BiathleteParameters parameters = new BiathleteParameters(biathleteCount);
+        for (int i = 0; i < biathleteCount; i++) {
+            double shotMin = Biathlon.SHOT_MIN_TIME_IN_MILLISECONDS * (0.8 + 0.4 * random.nextDouble());
+            parameters.set(i,
+                    Biathlon.CHECKPOINT_ARRIVAL_MEAN_IN_MILLISECONDS + 6000 * random.nextGaussian(),
+                    Biathlon.CHECKPOINT_ARRIVAL_STD_DEV_IN_MILLISECONDS * (0.5 + random.nextDouble()),
+                    Math.min(1, 0.75 + 0.2 * random.nextDouble()),
+                    Math.min(1, 0.65 + 0.25 * random.nextDouble()),
+                    shotMin,
+                    shotMin + (Biathlon.SHOT_MAX_TIME_IN_MILLISECONDS - Biathlon.SHOT_MIN_TIME_IN_MILLISECONDS) * (0.6 + 0.8 * random.nextDouble()),
+                    0.02 * random.nextDouble());
+        }
+        return parameters;
+    }
+
+    /**
+     * Generuje plik parametrów losowo zróżnicowanych zawodników (zob. random(int, long)).
+     *
+     * @param args [plik] [liczba zawodników] [ziarno]
+     */
+    public static void main(String[] args) {
+        String fileName = args.length > 0 ? args[0] : "biathletes.csv";
+        int biathleteCount = args.length > 1 ? Integer.parseInt(args[1]) : RaceConfiguration.DEFAULT_BIATHLETE_COUNT;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 979;
+
+        random(biathleteCount, seed).write(fileName);
+        System.out.println(biathleteCount + " biathletes written to " + fileName);
+    }
+
+    protected static double[] filled(int length, double value) {
+        double[] values = new double[length];
+        Arrays.fill(values, value);
+        return values;
+    }
+}
@@ -0,0 +1,218 @@
+package biathlon;
+
+import desmoj.core.dist.StatefulRandomGenerator;
+import desmoj.core.dist.UniformRandomGenerator;
+import desmoj.core.dist.Xoshiro256StarStarRandomGenerator;
+import desmoj.core.simulator.SnapshotReader;
+import desmoj.core.simulator.SnapshotWriter;
+import java.util.Arrays;
+
+/**
+ * Losowanie czasów biegu, czasów oddania strzałów i rezultatów strzałów według indywidualnych
+ * parametrów zawodników (biathlon.BiathleteParameters).
+ * Parametry rozkładów są odczytywane z tablic przy każdym losowaniu - zamiast tworzenia (i rejestrowania
+ * w raporcie) trzech obiektów rozkładów DESMO-J dla każdego zawodnika.
+ *
+ * Każdy zawodnik ma trzy własne podstrumienie liczb pseudolosowych (czasy biegu, czasy strzałów, rezultaty
+ * strzałów), więc jego wyniki nie zależą od kolejności zdarzeń w biegu ani od losowań pozostałych
+ * zawodników. Dzięki temu warianty biegu różniące się parametrami jednego zawodnika (np. gałęzie
+ * biathlon.replication.RaceFork) są porównywane na wspólnych liczbach losowych. Podstrumienie są generatorami
+ * xoshiro256** (desmoj.core.dist.Xoshiro256StarStarRandomGenerator), których stany są kolejnymi wartościami
+ * generatora SplitMix64 startującego z klucza - ziarna (setSeed()) lub wartości pobranej z generatora
+ * (setRandomGenerator()). Wyznaczenie ich skokami (jump()) kosztowałoby ok. 1 µs na podstrumień
+ * przy każdej replikacji, czyli więcej niż samo losowanie biegu metodą bezpośrednią.
+ *
+ * Obiekt nie jest bezpieczny wątkowo - każdy model lub wątek powinien używać własnej instancji.
+ *
+ * @author Artur Hebda
+ * @see biathlon.Biathlon#getCheckpointArrivalDelayInEpsilon(Biathlete, int)
+ * @see biathlon.replication.DirectSampler
+ */
+public class BiathleteSampler {
+    /**
+     * rodzaje losowań zawodnika - numery jego podstrumieni.
+     */
+    protected static final int LEG_TIME = 0;
+    protected static final int SHOT_TIME = 1;
+    protected static final int SHOT_RESULT = 2;
+    protected static final int STREAMS_PER_BIATHLETE = 3;
+
+    /**
+     * przyrost generatora SplitMix64 (jak w desmoj.core.dist.Xoshiro256StarStarRandomGenerator#setSeed(long),
+     * który pobiera z niego cztery kolejne wartości).
+     */
+    protected static final long SPLIT_MIX_64_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * zakres klucza podstrumieni pobieranego z generatora (53 bity wartości nextDouble()).
+     */
+    protected static final double KEY_RANGE = 0x1p53;
+
+    protected final BiathleteParameters parameters;
+
+    /**
+     * podstrumienie zawodników: streams[numer zawodnika * STREAMS_PER_BIATHLETE + rodzaj losowania].
+     */
+    protected final Xoshiro256StarStarRandomGenerator[] streams;
+
+    /**
+     * druga wartość wyznaczona metodą biegunową Marsaglii, czekająca na wykorzystanie
+     * w kolejnym losowaniu czasu biegu zawodnika (jak w desmoj.core.dist.ContDistNormal).
+     */
+    protected final boolean[] haveNextGaussian;
+    protected final double[] nextGaussian;
+
+    /**
+     * @param parameters parametry zawodników
+     * @param seed ziarno podstrumieni zawodników
+     */
+    public BiathleteSampler(BiathleteParameters parameters, long seed) {
+        this.parameters = parameters;
+        int biathleteCount = parameters.getBiathleteCount();
+        this.streams = new Xoshiro256StarStarRandomGenerator[biathleteCount * STREAMS_PER_BIATHLETE];
+        for (int i = 0; i < streams.length; i++) {
+            streams[i] = new Xoshiro256StarStarRandomGenerator();
+        }
+        this.haveNextGaussian = new boolean[biathleteCount];
+        this.nextGaussian = new double[biathleteCount];
+        setSeed(seed);
+    }
+
+    /**
+     * @param parameters parametry zawodników
+     * @param randomGenerator generator, z którego pobierany jest klucz podstrumieni zawodników
+     * (np. strumień replikacji - desmoj.core.dist.DistributionManager#nextStream())
+     */
+    public BiathleteSampler(BiathleteParameters parameters, StatefulRandomGenerator randomGenerator) {
+        this(parameters, 0);
+        setRandomGenerator(randomGenerator);
+    }
+
+    /**
+     * Ustawia podstrumienie zawodników na początek wyznaczony ziarnem (np. na początku kolejnej replikacji).
+     * To samo ziarno daje zawsze te same wyniki.
+     *
+     * @param seed ziarno (klucz podstrumieni)
+     */
+    public void setSeed(long seed) {
+        for (int i = 0; i < streams.length; i++) {
+            // Xoshiro256StarStarRandomGenerator#setSeed(long) pobiera wartości ziarno + gamma, ..., ziarno + 4 * gamma
+            streams[i].setSeed(seed + 4L * i * SPLIT_MIX_64_GAMMA);
+        }
+        Arrays.fill(haveNextGaussian, false);
+    }
+
+    /**
+     * Ustawia podstrumienie zawodników na początek wyznaczony kluczem pobranym z generatora
+     * (np. kolejnym strumieniem replikacji). Generator nie jest przechowywany.
+     *
+     * @param randomGenerator generator
+     */
+    public void setRandomGenerator(UniformRandomGenerator randomGenerator) {
+        setSeed((long)(randomGenerator.nextDouble() * KEY_RANGE));
+    }
+
+    /**
+     * Zapisuje stany podstrumieni (wraz z oczekującymi wartościami rozkładu normalnego) do migawki eksperymentu.
+     *
+     * @param out migawka
+     * @see desmoj.core.simulator.Experiment#snapshot(String)
+     */
+    public void writeSnapshot(SnapshotWriter out) {
+        out.writeInt(streams.length);
+        for (Xoshiro256StarStarRandomGenerator stream : streams) {
+            long[] state = stream.getState();
+            out.writeLongs(state, state.length);
+        }
+        for (boolean have : haveNextGaussian) {
+            out.writeBoolean(have);
+        }
+        out.writeDoubles(nextGaussian, nextGaussian.length);
+    }
+
+    /**
+     * Odtwarza stany podstrumieni zapisane metodą writeSnapshot().
+     *
+     * @param in migawka
+     */
+    public void readSnapshot(SnapshotReader in) {
+        if (in.readInt() != streams.length) {
+            throw new IllegalStateException("Snapshot and sampler differ in the number of biathletes");
+        }
+        for (Xoshiro256StarStarRandomGenerator stream : streams) {
+            stream.setState(in.readLongs());
+        }
+        for (int i = 0; i < haveNextGaussian.length; i++) {
+            haveNextGaussian[i] = in.readBoolean();
+        }
+        System.arraycopy(in.readDoubles(), 0, nextGaussian, 0, nextGaussian.length);
+    }
+
+    /**
+     * Czas biegu ma rozkład normalny obcięty do wartości nieujemnych: ujemne wartości są losowane
+     * ponownie (jak w desmoj.core.dist.ContDistNormal z włączoną opcją nonNegative), więc duże
+     * odchylenie standardowe z pliku parametrów nie prowadzi do planowania zdarzeń w przeszłości.
+     * Średnia jest zawsze dodatnia (BiathleteParameters#set), więc ponowne losowanie kończy się
+     * z prawdopodobieństwem większym niż 1/2 w każdej próbie.
+     *
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param lap okrążenie (od 1), na którym odbywa się bieg
+     * @return czas biegu do następnego punktu pomiaru czasu w milisekundach (nieujemny)
+     */
+    public double sampleLegTimeInMilliSeconds(int biathlete, int lap) {
+        double stdDev = parameters.getLegStdDevInMilliSeconds(biathlete);
+        double mean = parameters.getLegMeanInMilliSeconds(biathlete, lap);
+        double legTime;
+        do {
+            legTime = nextGaussian(biathlete) * stdDev + mean;
+        } while (legTime < 0);
+        return legTime;
+    }
+
+    /**
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @return czas przygotowania i oddania strzału w milisekundach
+     */
+    public double sampleShotTimeInMilliSeconds(int biathlete) {
+        double min = parameters.getShotMinTimeInMilliSeconds(biathlete);
+        return min + (parameters.getShotMaxTimeInMilliSeconds(biathlete) - min)
+                * streams[biathlete * STREAMS_PER_BIATHLETE + SHOT_TIME].nextDouble();
+    }
+
+    /**
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param prone czy strzał oddawany jest w pozycji leżącej
+     * @return true (trafienie), false (pudło)
+     */
+    public boolean sampleShotResult(int biathlete, boolean prone) {
+        return streams[biathlete * STREAMS_PER_BIATHLETE + SHOT_RESULT].nextDouble()
+                < parameters.getHitProbability(biathlete, prone);
+    }
+
+    /**
+     * Standardowy rozkład normalny z podstrumienia czasów biegu zawodnika - metoda biegunowa Marsaglii.
+     *
+     * @param biathlete numer startowy zawodnika (od 0)
+     */
+    protected double nextGaussian(int biathlete) {
+        if (haveNextGaussian[biathlete]) {
+            haveNextGaussian[biathlete] = false;
+            return nextGaussian[biathlete];
+        }
+        Xoshiro256StarStarRandomGenerator stream = streams[biathlete * STREAMS_PER_BIATHLETE + LEG_TIME];
+        double v1, v2, s;
+        do {
+            v1 = 2 * stream.nextDouble() - 1;
+            v2 = 2 * stream.nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = Math.sqrt(-2 * Math.log(s) / s);
+        nextGaussian[biathlete] = v2 * multiplier;
+        haveNextGaussian[biathlete] = true;
+        return v1 * multiplier;
+    }
+
+    public BiathleteParameters getParameters() {
+        return parameters;
+    }
+}
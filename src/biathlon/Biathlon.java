@@ -1,16 +1,28 @@
 package biathlon;
 
 import biathlon.checkpoint.Checkpoint;
+import biathlon.checkpoint.StartFinish;
+import biathlon.event.BiathleteArrivalAtCheckpoint;
+import biathlon.event.BiathleteEventStore;
+import biathlon.event.BiathleteFinishRace;
 import biathlon.event.BiathleteGenerator;
+import biathlon.event.BiathleteShot;
+import biathlon.report.RaceTraceOutput;
+import biathlon.report.RaceTraceReport;
 import desmoj.core.dist.BoolDistBernoulli;
 import desmoj.core.dist.ContDistNormal;
 import desmoj.core.dist.ContDistUniform;
 import desmoj.core.simulator.Experiment;
 import desmoj.core.simulator.Model;
 import desmoj.core.simulator.Queue;
+import desmoj.core.simulator.Schedulable;
+import desmoj.core.simulator.SnapshotReader;
+import desmoj.core.simulator.SnapshotWriter;
 import desmoj.core.simulator.TimeInstant;
 import desmoj.core.simulator.TimeOperations;
 import desmoj.core.simulator.TimeSpan;
+import desmoj.core.statistic.ValueSupplier;
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -21,22 +33,26 @@ import java.util.concurrent.TimeUnit;
  */
 public class Biathlon extends Model {
     /**
-     * dla jak długiego przedziału czasu generować trace.
+     * konfiguracja biegu (liczba zawodników, okrążeń, kary itp.).
      */
-    public static int DURATION_IN_MINUTES = 80;
-
-    public static int BIATHLETE_COUNT = 30;
-    public static int LAPS = 4;
+    protected final RaceConfiguration configuration;
 
     /**
-     * długość kary za "pudło" na strzelnicy.
+     * liczba punktów pomiaru czasu na okrążeniu i liczba strzałów w serii.
      */
-    public static int MISS_PENALTY_IN_SECONDS = 60;
+    public static final int CHECKPOINTS_PER_LAP = 5;
+    public static final int SHOTS_PER_SESSION = 5;
 
     /**
-     * odstęp czasowy między startem kolejnych zawodników.
+     * parametry rozkładów: prawdopodobieństwo trafienia, wartość średnia i odchylenie standardowe
+     * czasu biegu między punktami pomiaru czasu oraz wartości graniczne czasu oddania strzału.
+     * Dobrane empirycznie na podstawie wyników zawodów z Canmore (15 lutego 2012).
      */
-    public static int STAGGERING_IN_SECONDS = 30;
+    public static final double HIT_PROBABILITY = 0.8;
+    public static final double CHECKPOINT_ARRIVAL_MEAN_IN_MILLISECONDS = 185000;
+    public static final double CHECKPOINT_ARRIVAL_STD_DEV_IN_MILLISECONDS = 12000;
+    public static final double SHOT_MIN_TIME_IN_MILLISECONDS = 2000;
+    public static final double SHOT_MAX_TIME_IN_MILLISECONDS = 7000;
 
     protected Queue<Biathlete> biathletes;
     protected ShootingArea shootingArea;
@@ -62,6 +78,19 @@ public class Biathlon extends Model {
      */
     protected ContDistUniform shotTimeInMilliSeconds;
 
+    /**
+     * indywidualne parametry zawodników lub null, jeśli wszyscy losują z powyższych, wspólnych rozkładów.
+     * Zawodnicy są wówczas losowani jednym samplerem (bez osobnych rozkładów DESMO-J dla każdego z nich).
+     */
+    protected final BiathleteParameters parameters;
+    protected BiathleteSampler sampler;
+
+    /**
+     * czasy startu kolejnych zawodników (np. straty ze sprintu w biegu pościgowym)
+     * lub null, jeśli zawodnicy startują co configuration.getStaggeringInSeconds().
+     */
+    protected double[] startTimesInMilliSeconds;
+
     /**
      * liczba zawodników, którzy ukończyli zawody.
      * Używana pośrednio w warunku zatrzymania symulacji.
@@ -69,25 +98,99 @@ public class Biathlon extends Model {
     protected int finishCount = 0;
 
     /**
+     * powiadamia obserwatorów (warunek zatrzymania symulacji) o dotarciu do mety kolejnego zawodnika.
+     */
+    protected final ValueSupplier finishes = new ValueSupplier("Finishes") {
+        @Override
+        public double value() {
+            return finishCount;
+        }
+    };
+
+    /**
+     * czy generować trace biegu (a na jego podstawie pliki HTML) w metodzie generateTraces().
+     * Wyłączane w trybie replikacji, gdzie interesują nas jedynie wyniki końcowe.
+     */
+    protected boolean tracing = true;
+
+    /**
+     * plik, do którego zapisywany jest trace biegu.
+     */
+    protected String raceTraceFileName = RaceTraceOutput.DEFAULT_FILE_NAME;
+
+    /**
+     * zdarzenia biegu (przybycia do punktów pomiaru czasu, strzały, start i meta wszystkich zawodników).
+     */
+    protected BiathleteEventStore events;
+
+    /**
+     * numer startowy, który otrzyma kolejny wygenerowany zawodnik.
+     */
+    protected int nextBiathleteNumber = 1;
+
+    /**
+     * rodzaje referencji do zawodników, miejsc i zdarzeń zapisywanych w migawce eksperymentu.
+     */
+    protected static final byte SNAPSHOT_BIATHLETE = 0;
+    protected static final byte SNAPSHOT_PLACE = 1;
+    protected static final byte SNAPSHOT_GENERATOR = 2;
+    protected static final byte SNAPSHOT_ARRIVAL = 3;
+    protected static final byte SNAPSHOT_SHOT = 4;
+    protected static final byte SNAPSHOT_FINISH = 5;
+
+    /**
+     * Tworzy model z domyślną konfiguracją biegu.
      * @see desmoj.core.simulator.Model
      */
     public Biathlon(Model owner, String modelName, boolean showInReport, boolean showInTrace) {
+        this(owner, modelName, showInReport, showInTrace, new RaceConfiguration());
+    }
+
+    /**
+     * @param configuration konfiguracja biegu
+     * @see desmoj.core.simulator.Model
+     */
+    public Biathlon(Model owner, String modelName, boolean showInReport, boolean showInTrace, RaceConfiguration configuration) {
+        this(owner, modelName, showInReport, showInTrace, configuration, null);
+    }
+
+    /**
+     * @param configuration konfiguracja biegu
+     * @param parameters indywidualne parametry zawodników (co najmniej tylu, ilu startuje w biegu)
+     * lub null, by wszyscy zawodnicy losowali ze wspólnych rozkładów
+     * @see desmoj.core.simulator.Model
+     */
+    public Biathlon(Model owner, String modelName, boolean showInReport, boolean showInTrace,
+                    RaceConfiguration configuration, BiathleteParameters parameters) {
         super(owner, modelName, showInReport, showInTrace);
+        if (parameters != null && parameters.getBiathleteCount() < configuration.getBiathleteCount()) {
+            throw new IllegalArgumentException("Parameters of " + configuration.getBiathleteCount() + " biathletes are required");
+        }
+        this.configuration = configuration;
+        this.parameters = parameters;
     }
 
     /**
      * Główna metoda, gdzie wszystko bierze swój początek.
      * Tworzy obiekty, przeprowadza symulacje, generuje trace'y, taka alfa i omega :)
      * 
-     * @param args ignorowane.
+     * @param args [plik parametrów zawodników] - bez niego startuje 30 zawodników o jednakowych parametrach.
      */
-    public static void main(String[] args) {
-        Biathlon model = new Biathlon(null, "Biathlon", true, true);
+    public static void main(String[] args) throws IOException {
+        Biathlon model;
+        if (args.length > 0) {
+            BiathleteParameters parameters = BiathleteParameters.read(args[0]);
+            model = new Biathlon(null, "Biathlon", true, true,
+                    new RaceConfiguration().withBiathleteCount(parameters.getBiathleteCount()), parameters);
+        }
+        else {
+            model = new Biathlon(null, "Biathlon", true, true);
+        }
         Experiment experiment = new Experiment("Individual Race");
         model.connectToExperiment(experiment);
 
         experiment.setShowProgressBar(true);
-        TimeInstant stopTime = new TimeInstant(DURATION_IN_MINUTES, TimeUnit.MINUTES);
+        TimeInstant stopTime = new TimeInstant(model.getConfiguration().getDurationInMinutes(), TimeUnit.MINUTES);
         experiment.tracePeriod(new TimeInstant(0), stopTime);
 
         /* warunek zatrzymania symulacji */
@@ -133,12 +236,20 @@ public class Biathlon extends Model {
      */
     @Override
     public void init() {
+        this.events = new BiathleteEventStore(configuration.getBiathleteCount() * estimatedEventsPerBiathlete(), TimeOperations.getEpsilon());
         this.shootingArea = new ShootingArea(this, "ShootingArea", true);
         this.checkpoints = new Queue(this, "Checkpoints", true, true);
         this.biathletes = new Queue(this, "Biathletes", true, true);
-        this.shotDistStream = new BoolDistBernoulli(this, "shotDistStream", 0.8, true, true); // prawdopodobieństwo trafienia
-        this.checkpointArrivalTimeInMilliSeconds = new ContDistNormal(this, "checkpointArrivalTimeInMilliSeconds", 185000, 12000, true, true); // wartość średnia i odchylenie standardowe rozkładu
-        this.shotTimeInMilliSeconds = new ContDistUniform(this, "shotTimeInMilliSeconds", 2000, 7000, true, true); // wartości graniczne rozkładu
+        this.shotDistStream = new BoolDistBernoulli(this, "shotDistStream", HIT_PROBABILITY, true, true);
+        // czasy biegu między punktami pomiaru czasu są proporcjonalne do długości okrążenia
+        double legTimeFactor = configuration.getLegTimeFactor();
+        this.checkpointArrivalTimeInMilliSeconds = new ContDistNormal(this, "checkpointArrivalTimeInMilliSeconds",
+                CHECKPOINT_ARRIVAL_MEAN_IN_MILLISECONDS * legTimeFactor, CHECKPOINT_ARRIVAL_STD_DEV_IN_MILLISECONDS * legTimeFactor, true, true);
+        this.shotTimeInMilliSeconds = new ContDistUniform(this, "shotTimeInMilliSeconds",
+                SHOT_MIN_TIME_IN_MILLISECONDS, SHOT_MAX_TIME_IN_MILLISECONDS, true, true);
+        if (parameters != null) {
+            this.sampler = new BiathleteSampler(parameters, getExperiment().getDistributionManager().nextStream());
+        }
         
         biathlon.checkpoint.BeforeShootingArea beforeShootingArea = new biathlon.checkpoint.BeforeShootingArea(this, "Checkpoint before Shooting Area", true);
         beforeShootingArea.setShootingArea(shootingArea);
@@ -155,18 +266,163 @@ public class Biathlon extends Model {
     }
 
     /**
-     * Wygenerowanie trace'ów dla punktów pomiaru czasu, strzelnicy i zawodników.
-     * Ważne jest, by na końcu generować dla zawodników, gdyż generowanie trace'ów
-     * dla punktów pomiaru czasu pozwala ustalić, na której pozycji był zawodnik
-     * na danym punkcie pomiaru czasu.
+     * Przywraca stan modelu sprzed rozpoczęcia biegu, by ten sam eksperyment i model mogły
+     * przeprowadzić kolejną replikację (desmoj.core.simulator.Experiment#reset(long)).
+     * Kolejki, punkty pomiaru czasu, rozkłady i magazyn zdarzeń nie są tworzone od nowa - jedynie czyszczone.
      */
-    public void generateTraces() {
+    @Override
+    public void resetState() {
+        events.clear();
+        biathletes.removeAll();
         for (Checkpoint checkpoint : checkpoints) {
-            checkpoint.generateTrace();
+            checkpoint.clearStandings();
+        }
+        finishCount = 0;
+        nextBiathleteNumber = 1;
+        if (sampler != null) {
+            // generator tworzony po ziarnach (strumieniach) rozkładów, tak jak w init()
+            sampler.setRandomGenerator(getExperiment().getDistributionManager().nextStream());
+        }
+    }
+
+    /**
+     * Losuje nowy klucz podstrumieni samplera zawodników (desmoj.core.simulator.Experiment#reseed(long)),
+     * np. by gałęzie biegu odtworzone z tej samej migawki potoczyły się różnie.
+     */
+    @Override
+    public void reseed() {
+        if (sampler != null) {
+            sampler.setRandomGenerator(getExperiment().getDistributionManager().nextStream());
+        }
+    }
+
+    /**
+     * Model biegu obsługuje migawki eksperymentu (desmoj.core.simulator.Experiment#snapshot(String)).
+     */
+    @Override
+    public boolean isSnapshotSupported() {
+        return true;
+    }
+
+    /**
+     * Zapisuje stan biegu do migawki eksperymentu (desmoj.core.simulator.Experiment#snapshot(String)):
+     * liczniki, stan zawodników, magazyn zdarzeń, klasyfikacje na żywo i generator samplera.
+     * Statystyki kolejek i stany rozkładów zapisuje eksperyment.
+     */
+    @Override
+    public void writeSnapshotState(SnapshotWriter out) {
+        out.writeInt(finishCount);
+        out.writeInt(nextBiathleteNumber);
+        out.writeInt(events.getBiathleteCount());
+        for (int id = 0; id < events.getBiathleteCount(); id++) {
+            events.getBiathleteById(id).writeSnapshot(out);
+        }
+        events.writeSnapshot(out);
+        for (Checkpoint checkpoint : checkpoints) {
+            checkpoint.writeStandings(out);
+        }
+        out.writeBoolean(sampler != null);
+        if (sampler != null) {
+            sampler.writeSnapshot(out);
+        }
+    }
+
+    /**
+     * Odtwarza stan biegu zapisany metodą writeSnapshotState() w nowo zainicjowanym modelu
+     * (lub modelu wyczyszczonym przez resetState()). Zawodnicy są tworzeni od nowa w kolejności startu.
+     */
+    @Override
+    public void readSnapshotState(SnapshotReader in) {
+        finishCount = in.readInt();
+        nextBiathleteNumber = in.readInt();
+        events.clear();
+        biathletes.removeAll();
+        int biathleteCount = in.readInt();
+        for (int id = 0; id < biathleteCount; id++) {
+            Biathlete biathlete = new Biathlete(this, "Biathlete: " + (id + 1), true);
+            biathlete.readSnapshot(in);
+            biathletes.insert(biathlete);
+        }
+        events.readSnapshot(in);
+        for (Checkpoint checkpoint : checkpoints) {
+            checkpoint.readStandings(in);
+        }
+        if (in.readBoolean() != (sampler != null)) {
+            throw new IllegalStateException("Snapshot and model differ in individual biathlete parameters");
+        }
+        if (sampler != null) {
+            sampler.readSnapshot(in);
+        }
+    }
+
+    /**
+     * Zapisuje referencję do zawodnika lub miejsca (identyfikator w magazynie zdarzeń)
+     * albo rodzaj zaplanowanego zdarzenia.
+     */
+    @Override
+    public void writeSnapshotReference(SnapshotWriter out, Schedulable what) {
+        if (what instanceof Biathlete) {
+            out.writeByte(SNAPSHOT_BIATHLETE);
+            out.writeInt(((Biathlete)what).getId());
+        }
+        else if (what instanceof biathlon.core.Entity) {
+            out.writeByte(SNAPSHOT_PLACE);
+            out.writeInt(((biathlon.core.Entity)what).getId());
+        }
+        else if (what instanceof BiathleteGenerator) {
+            out.writeByte(SNAPSHOT_GENERATOR);
+        }
+        else if (what instanceof BiathleteArrivalAtCheckpoint) {
+            out.writeByte(SNAPSHOT_ARRIVAL);
+        }
+        else if (what instanceof BiathleteShot) {
+            out.writeByte(SNAPSHOT_SHOT);
+        }
+        else if (what instanceof BiathleteFinishRace) {
+            out.writeByte(SNAPSHOT_FINISH);
+        }
+        else {
+            throw new IllegalArgumentException("Can not write a snapshot of " + what);
+        }
+    }
+
+    /**
+     * Odtwarza zawodnika, miejsce lub (nowe) zdarzenie zapisane metodą writeSnapshotReference().
+     */
+    @Override
+    public Schedulable readSnapshotReference(SnapshotReader in) {
+        byte kind = in.readByte();
+        switch (kind) {
+            case SNAPSHOT_BIATHLETE: return events.getBiathleteById(in.readInt());
+            case SNAPSHOT_PLACE: return events.getPlaceById(in.readInt());
+            case SNAPSHOT_GENERATOR: return new BiathleteGenerator(this, "BiathleteGenerator", true);
+            case SNAPSHOT_ARRIVAL: return new BiathleteArrivalAtCheckpoint(this, "BiathletAtCheckpointArrivalEvent", true);
+            case SNAPSHOT_SHOT: return new BiathleteShot(this, "BiathleteShotEvent", true);
+            case SNAPSHOT_FINISH: return new BiathleteFinishRace(this, "BiathleteFinishRaceEvent", true);
+            default: throw new IllegalArgumentException("Unknown snapshot reference " + kind);
         }
-        shootingArea.generateTrace();
-        for (Biathlete biathlete : biathletes) {
-            biathlete.generateTrace();
+    }
+
+    /**
+     * Zapisuje trace biegu ze zdarzeń zapamiętanych przez zawodników i generuje na jego podstawie
+     * trace'y HTML dla punktów pomiaru czasu, strzelnicy i zawodników oraz wyniki końcowe.
+     * Do tego momentu symulacja nie tworzy żadnych plików.
+     * Pojedyncze trace'y można wygenerować później z pliku trace'a przy użyciu biathlon.report.RaceTraceReport.
+     */
+    public void generateTraces() {
+        if (!tracing) {
+            return;
+        }
+        RaceTraceOutput raceTrace = new RaceTraceOutput(raceTraceFileName);
+        raceTrace.record(events);
+        raceTrace.close();
+        try {
+            RaceTraceReport.read(raceTraceFileName).generateAll();
+        }
+        catch (IOException e) {
+            System.out.println("IOException thrown : " + e);
+            System.out.println("description: Can't read race trace " + raceTraceFileName);
+            System.out.println("The HTML traces will not be generated.");
         }
     }
     
@@ -179,6 +435,19 @@ public class Biathlon extends Model {
         return shotDistStream.sample();
     }
 
+    /**
+     * Losowanie rezultatu strzału zawodnika w bieżącej serii.
+     * 
+     * @param biathlete strzelający zawodnik
+     * @return true (trafiono), false (pudło)
+     */
+    public boolean getShotResult(Biathlete biathlete) {
+        if (sampler == null) {
+            return shotDistStream.sample();
+        }
+        return sampler.sampleShotResult(biathlete.getId(), configuration.isProne(biathlete.getShootingSessionCount() - 1));
+    }
+
     /**
      * Losowanie czasu przybycia do następnego punktu pomiaru czasu.
      * 
@@ -197,13 +466,90 @@ public class Biathlon extends Model {
         return advanceTime(shotTimeInMilliSeconds.sample(), TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Losowanie czasu dotarcia do następnego punktu pomiaru czasu, bez tworzenia obiektów czasu.
+     * 
+     * @return opóźnienie przybycia do następnego punktu pomiaru czasu w jednostkach epsilon.
+     */
+    public long getCheckpointArrivalDelayInEpsilon() {
+        return TimeOperations.toEpsilon(checkpointArrivalTimeInMilliSeconds.sample(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Losowanie czasu dotarcia zawodnika do następnego punktu pomiaru czasu, bez tworzenia obiektów czasu.
+     * 
+     * @param biathlete zawodnik
+     * @param lap okrążenie (od 1), na którym leży odcinek do następnego punktu pomiaru czasu
+     * @return opóźnienie przybycia do następnego punktu pomiaru czasu w jednostkach epsilon.
+     */
+    public long getCheckpointArrivalDelayInEpsilon(Biathlete biathlete, int lap) {
+        if (sampler == null) {
+            return getCheckpointArrivalDelayInEpsilon();
+        }
+        return TimeOperations.toEpsilon(sampler.sampleLegTimeInMilliSeconds(biathlete.getId(), lap) * configuration.getLegTimeFactor(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Losowanie długości trwania przygotowania i oddawania strzału, bez tworzenia obiektów czasu.
+     * 
+     * @return opóźnienie oddania strzału w jednostkach epsilon.
+     */
+    public long getShotDelayInEpsilon() {
+        return TimeOperations.toEpsilon(shotTimeInMilliSeconds.sample(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Losowanie długości trwania przygotowania i oddawania strzału przez zawodnika, bez tworzenia obiektów czasu.
+     * 
+     * @param biathlete strzelający zawodnik
+     * @return opóźnienie oddania strzału w jednostkach epsilon.
+     */
+    public long getShotDelayInEpsilon(Biathlete biathlete) {
+        if (sampler == null) {
+            return getShotDelayInEpsilon();
+        }
+        return TimeOperations.toEpsilon(sampler.sampleShotTimeInMilliSeconds(biathlete.getId()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Zwraca pozycje, na których zawodnicy ukończyli bieg.
+     * Zawodnicy są identyfikowani kolejnością startu (pozycją w kolejce biatlonistów).
+     * 
+     * @return tablica indeksowana numerem startowym (od 0), zawierająca miejsce na mecie (od 1).
+     * Zawodnicy, którzy nie ukończyli biegu, mają miejsce 0.
+     */
+    public int[] getFinishingPositions() {
+        return events.getFinishingPositions();
+    }
+
+    /**
+     * Zapisuje zdarzenie zawodnika w bieżącej chwili symulacji, na jego bieżącym okrążeniu.
+     * 
+     * @param kind rodzaj zdarzenia (stała z biathlon.event.BiathleteEventStore)
+     * @param biathlete zawodnik
+     * @param place identyfikator miejsca zdarzenia lub -1 (zdarzenie bez miejsca, np. start)
+     * @return indeks zdarzenia w magazynie zdarzeń
+     */
+    public int storeEvent(byte kind, Biathlete biathlete, int place) {
+        return events.add(kind, biathlete.getId(), place, biathlete.getCurrentLap(), presentTime().getTimeInEpsilon());
+    }
+
+    /**
+     * Szacowana liczba zdarzeń jednego zawodnika: start, przybycia do punktów pomiaru czasu
+     * i strzały na każdym okrążeniu.
+     */
+    protected int estimatedEventsPerBiathlete() {
+        return 1 + configuration.getLaps() * (CHECKPOINTS_PER_LAP + SHOTS_PER_SESSION);
+    }
+
     /**
      * Sprawdzenie, czy wszyscy zawodnicy dotarli do mety
      * 
      * @return true (wszyscy ukończyli) 
      */
     public boolean haveAllBiathletesFinished() {
-        return finishCount == BIATHLETE_COUNT;
+        return finishCount == configuration.getBiathleteCount();
     }
 
     /**
@@ -211,6 +557,23 @@ public class Biathlon extends Model {
      */
     public void incrementFinishCount() {
         finishCount++;
+        finishes.notifyStatistics(null);
+    }
+
+    /**
+     * @return źródło powiadomień o dotarciu do mety kolejnych zawodników
+     */
+    public ValueSupplier getFinishes() {
+        return finishes;
+    }
+
+    /**
+     * Przydziela numer startowy kolejnemu zawodnikowi.
+     * 
+     * @return numer startowy (od 1), unikalny w obrębie modelu
+     */
+    public int nextBiathleteNumber() {
+        return nextBiathleteNumber++;
     }
 
     /**
@@ -221,14 +584,40 @@ public class Biathlon extends Model {
      */
     protected void generateBiathletes() {
         BiathleteGenerator biathleteGenerator;
-        for (int i = 0; i < BIATHLETE_COUNT; i++) {
+        for (int i = 0; i < configuration.getBiathleteCount(); i++) {
             biathleteGenerator = new BiathleteGenerator(this, "BiathleteGenerator", true);
             // tworzenie biatlonistow jest rownoznaczne z ich startem do wyscigu
             // nalezy wiec uwzglednic opoznienia na starcie
-            biathleteGenerator.schedule(advanceTime(i * STAGGERING_IN_SECONDS, TimeUnit.SECONDS));
+            if (startTimesInMilliSeconds != null) {
+                biathleteGenerator.schedule(advanceTime(startTimesInMilliSeconds[i], TimeUnit.MILLISECONDS));
+            }
+            else {
+                biathleteGenerator.schedule(advanceTime(i * configuration.getStaggeringInSeconds(), TimeUnit.SECONDS));
+            }
         }
     }
 
+    /**
+     * Ustawia czasy startu zawodników zamiast stałego odstępu (np. straty ze sprintu w biegu pościgowym).
+     * Zawodnicy otrzymują numery startowe w kolejności startu, więc czasy muszą być niemalejące.
+     * Musi zostać wywołane przed rozpoczęciem eksperymentu.
+     * 
+     * @param startTimesInMilliSeconds czasy startu kolejnych zawodników lub null (stały odstęp)
+     */
+    public void setStartTimesInMilliSeconds(double[] startTimesInMilliSeconds) {
+        if (startTimesInMilliSeconds != null) {
+            if (startTimesInMilliSeconds.length != configuration.getBiathleteCount()) {
+                throw new IllegalArgumentException("Start times of " + configuration.getBiathleteCount() + " biathletes are required");
+            }
+            for (int i = 1; i < startTimesInMilliSeconds.length; i++) {
+                if (!(startTimesInMilliSeconds[i] >= startTimesInMilliSeconds[i - 1])) {
+                    throw new IllegalArgumentException("Start times must be non-decreasing");
+                }
+            }
+        }
+        this.startTimesInMilliSeconds = startTimesInMilliSeconds;
+    }
+
     /**
      * Zwraca bezwględny czas symulacji, który będzie po upływie podanego opóźnienia od teraz.
      * @param delay opóźnienie
@@ -252,6 +641,21 @@ public class Biathlon extends Model {
         return advanceTime(new TimeSpan(delay, unit));
     }
  
+    public BiathleteEventStore getEvents() {
+        return events;
+    }
+
+    public RaceConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return indywidualne parametry zawodników lub null (wspólne rozkłady)
+     */
+    public BiathleteParameters getParameters() {
+        return parameters;
+    }
+
     public Queue<Checkpoint> getCheckpoints() {
         return checkpoints;
     }
@@ -264,6 +668,39 @@ public class Biathlon extends Model {
         return shootingArea;
     }
 
+    /**
+     * @return linia startu/mety (zgodnie z konwencją ostatni punkt pomiaru czasu na okrążeniu)
+     */
+    public StartFinish getStartFinish() {
+        return (StartFinish)checkpoints.last();
+    }
+
+    public boolean isTracing() {
+        return tracing;
+    }
+
+    /**
+     * Włącza lub wyłącza generowanie trace'a biegu.
+     * 
+     * @param tracing false, by nie tworzyć żadnych plików (np. w trybie replikacji)
+     */
+    public void setTracing(boolean tracing) {
+        this.tracing = tracing;
+    }
+
+    public String getRaceTraceFileName() {
+        return raceTraceFileName;
+    }
+
+    /**
+     * Ustawia plik, do którego zapisywany jest trace biegu.
+     * 
+     * @param fileName ścieżka do pliku
+     */
+    public void setRaceTraceFileName(String fileName) {
+        this.raceTraceFileName = fileName;
+    }
+
     /**
      * Dodaje punkt pomiarowy do kolejki.
      * 
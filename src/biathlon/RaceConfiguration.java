@@ -0,0 +1,255 @@
+package biathlon;
+
+/**
+ * Niezmienna konfiguracja pojedynczego biegu.
+ * Każdy model (biathlon.Biathlon) posiada własną konfigurację, a zdarzenia i punkty
+ * pomiaru czasu odczytują ją poprzez model, do którego należą. Dzięki temu
+ * wiele biegów o różnych parametrach może być symulowanych równocześnie w jednej JVM.
+ * Konfiguracje typowych formatów biegów Pucharu Świata tworzą metody individual(), sprint() i pursuit().
+ *
+ * @author Artur Hebda
+ * @see biathlon.Biathlon#getConfiguration()
+ */
+public final class RaceConfiguration {
+    public static final int DEFAULT_DURATION_IN_MINUTES = 80;
+    public static final int DEFAULT_BIATHLETE_COUNT = 30;
+    public static final int DEFAULT_LAPS = 4;
+    public static final int DEFAULT_MISS_PENALTY_IN_SECONDS = 60;
+    public static final int DEFAULT_STAGGERING_IN_SECONDS = 30;
+    public static final int DEFAULT_LAP_LENGTH_IN_METERS = 5000;
+
+    /**
+     * oznaczenia pozycji strzeleckich w opisie kolejnych serii strzałów.
+     */
+    public static final char PRONE = 'P';
+    public static final char STANDING = 'S';
+
+    /**
+     * kara za "pudło" w sprincie i biegu pościgowym - czas pokonania pętli karnej (150 m).
+     */
+    public static final int PENALTY_LOOP_IN_SECONDS = 25;
+
+    /**
+     * dla jak długiego przedziału czasu generować trace.
+     */
+    private final int durationInMinutes;
+
+    private final int biathleteCount;
+    private final int laps;
+
+    /**
+     * długość kary za "pudło" na strzelnicy.
+     */
+    private final int missPenaltyInSeconds;
+
+    /**
+     * odstęp czasowy między startem kolejnych zawodników.
+     */
+    private final int staggeringInSeconds;
+
+    /**
+     * długość okrążenia - czasy biegu między punktami pomiaru czasu są skalowane względem
+     * okrążenia biegu indywidualnego (DEFAULT_LAP_LENGTH_IN_METERS).
+     */
+    private final int lapLengthInMeters;
+
+    /**
+     * pozycje kolejnych serii strzałów (PRONE / STANDING), np. "PSPS".
+     * Serie odbywają się na pierwszych okrążeniach, na pozostałych zawodnicy omijają strzelnicę.
+     */
+    private final String shootingPositions;
+
+    /**
+     * Konfiguracja biegu indywidualnego z Canmore (wartości domyślne).
+     */
+    public RaceConfiguration() {
+        this(DEFAULT_DURATION_IN_MINUTES, DEFAULT_BIATHLETE_COUNT, DEFAULT_LAPS,
+             DEFAULT_MISS_PENALTY_IN_SECONDS, DEFAULT_STAGGERING_IN_SECONDS);
+    }
+
+    /**
+     * Konfiguracja z okrążeniami długości biegu indywidualnego i seriami strzałów na każdym okrążeniu
+     * (na przemian w pozycji leżącej i stojącej).
+     *
+     * @param durationInMinutes dla jak długiego przedziału czasu generować trace
+     * @param biathleteCount liczba startujących zawodników
+     * @param laps liczba okrążeń
+     * @param missPenaltyInSeconds długość kary za "pudło" na strzelnicy
+     * @param staggeringInSeconds odstęp czasowy między startem kolejnych zawodników
+     */
+    public RaceConfiguration(int durationInMinutes, int biathleteCount, int laps,
+                             int missPenaltyInSeconds, int staggeringInSeconds) {
+        this(durationInMinutes, biathleteCount, laps, missPenaltyInSeconds, staggeringInSeconds,
+             DEFAULT_LAP_LENGTH_IN_METERS, alternatingPositions(laps));
+    }
+
+    /**
+     * @param durationInMinutes dla jak długiego przedziału czasu generować trace
+     * @param biathleteCount liczba startujących zawodników
+     * @param laps liczba okrążeń
+     * @param missPenaltyInSeconds długość kary za "pudło" na strzelnicy
+     * @param staggeringInSeconds odstęp czasowy między startem kolejnych zawodników
+     * @param lapLengthInMeters długość okrążenia
+     * @param shootingPositions pozycje kolejnych serii strzałów (PRONE / STANDING), nie więcej niż okrążeń
+     *        i niż Biathlete.SHOOTING_SESSION_LIMIT
+     */
+    public RaceConfiguration(int durationInMinutes, int biathleteCount, int laps,
+                             int missPenaltyInSeconds, int staggeringInSeconds,
+                             int lapLengthInMeters, String shootingPositions) {
+        if (biathleteCount < 1 || laps < 1) {
+            throw new IllegalArgumentException("At least one biathlete and one lap are required");
+        }
+        if (lapLengthInMeters < 1) {
+            throw new IllegalArgumentException("Lap length must be positive");
+        }
+        if (shootingPositions.length() > laps) {
+            throw new IllegalArgumentException("At most one shooting session per lap is supported");
+        }
+        if (shootingPositions.length() > Biathlete.SHOOTING_SESSION_LIMIT) {
+            throw new IllegalArgumentException("At most " + Biathlete.SHOOTING_SESSION_LIMIT + " shooting sessions are supported");
+        }
+        for (int i = 0; i < shootingPositions.length(); i++) {
+            if (shootingPositions.charAt(i) != PRONE && shootingPositions.charAt(i) != STANDING) {
+                throw new IllegalArgumentException("Shooting positions must be " + PRONE + " or " + STANDING + ": " + shootingPositions);
+            }
+        }
+        this.durationInMinutes = durationInMinutes;
+        this.biathleteCount = biathleteCount;
+        this.laps = laps;
+        this.missPenaltyInSeconds = missPenaltyInSeconds;
+        this.staggeringInSeconds = staggeringInSeconds;
+        this.lapLengthInMeters = lapLengthInMeters;
+        this.shootingPositions = shootingPositions;
+    }
+
+    /**
+     * Bieg indywidualny - konfiguracja domyślna (4 okrążenia po 5 km, 4 serie, minuta kary za "pudło").
+     */
+    public static RaceConfiguration individual() {
+        return new RaceConfiguration();
+    }
+
+    /**
+     * Sprint - 10 km: 3 okrążenia, 2 serie strzałów (leżąc, stojąc), pętla karna za "pudło",
+     * start co 30 sekund.
+     */
+    public static RaceConfiguration sprint() {
+        return new RaceConfiguration(60, DEFAULT_BIATHLETE_COUNT, 3, PENALTY_LOOP_IN_SECONDS,
+                DEFAULT_STAGGERING_IN_SECONDS, 3333, "PS");
+    }
+
+    /**
+     * Bieg pościgowy - 12.5 km: 5 okrążeń, 4 serie strzałów (dwie leżąc, dwie stojąc), pętla karna za "pudło".
+     * Zawodnicy startują ze stratami z poprzedzającego sprintu, więc odstęp startowy nie jest stały
+     * (zob. biathlon.Biathlon#setStartTimesInMilliSeconds(double[])).
+     */
+    public static RaceConfiguration pursuit() {
+        return new RaceConfiguration(60, DEFAULT_BIATHLETE_COUNT, 5, PENALTY_LOOP_IN_SECONDS,
+                0, 2500, "PPSS");
+    }
+
+    /**
+     * @return pozycje serii strzałów na przemian leżąc i stojąc, po jednej na okrążenie
+     */
+    protected static String alternatingPositions(int laps) {
+        StringBuilder positions = new StringBuilder(laps);
+        for (int i = 0; i < laps; i++) {
+            positions.append(i % 2 == 0 ? PRONE : STANDING);
+        }
+        return positions.toString();
+    }
+
+    public int getDurationInMinutes() {
+        return durationInMinutes;
+    }
+
+    public int getBiathleteCount() {
+        return biathleteCount;
+    }
+
+    public int getLaps() {
+        return laps;
+    }
+
+    public int getMissPenaltyInSeconds() {
+        return missPenaltyInSeconds;
+    }
+
+    public int getStaggeringInSeconds() {
+        return staggeringInSeconds;
+    }
+
+    public int getLapLengthInMeters() {
+        return lapLengthInMeters;
+    }
+
+    /**
+     * @return mnożnik czasu biegu między punktami pomiaru czasu względem okrążenia biegu indywidualnego
+     */
+    public double getLegTimeFactor() {
+        return (double)lapLengthInMeters / DEFAULT_LAP_LENGTH_IN_METERS;
+    }
+
+    public String getShootingPositions() {
+        return shootingPositions;
+    }
+
+    /**
+     * @return liczba serii strzałów (odbywają się na pierwszych okrążeniach)
+     */
+    public int getShootingSessions() {
+        return shootingPositions.length();
+    }
+
+    /**
+     * @param session numer serii (od 0)
+     * @return true, jeśli seria jest oddawana w pozycji leżącej
+     */
+    public boolean isProne(int session) {
+        return shootingPositions.charAt(session) == PRONE;
+    }
+
+    /**
+     * @param biathleteCount nowa liczba zawodników
+     * @return kopia konfiguracji z podaną liczbą zawodników
+     */
+    public RaceConfiguration withBiathleteCount(int biathleteCount) {
+        return new RaceConfiguration(durationInMinutes, biathleteCount, laps, missPenaltyInSeconds, staggeringInSeconds,
+                                     lapLengthInMeters, shootingPositions);
+    }
+
+    /**
+     * @param laps nowa liczba okrążeń
+     * @return kopia konfiguracji z podaną liczbą okrążeń i seriami strzałów na każdym z nich
+     * (na przemian w pozycji leżącej i stojącej)
+     */
+    public RaceConfiguration withLaps(int laps) {
+        return new RaceConfiguration(durationInMinutes, biathleteCount, laps, missPenaltyInSeconds, staggeringInSeconds,
+                                     lapLengthInMeters, alternatingPositions(laps));
+    }
+
+    /**
+     * @param missPenaltyInSeconds nowa długość kary za "pudło"
+     * @return kopia konfiguracji z podaną karą
+     */
+    public RaceConfiguration withMissPenaltyInSeconds(int missPenaltyInSeconds) {
+        return new RaceConfiguration(durationInMinutes, biathleteCount, laps, missPenaltyInSeconds, staggeringInSeconds,
+                                     lapLengthInMeters, shootingPositions);
+    }
+
+    /**
+     * @param staggeringInSeconds nowy odstęp między startami
+     * @return kopia konfiguracji z podanym odstępem
+     */
+    public RaceConfiguration withStaggeringInSeconds(int staggeringInSeconds) {
+        return new RaceConfiguration(durationInMinutes, biathleteCount, laps, missPenaltyInSeconds, staggeringInSeconds,
+                                     lapLengthInMeters, shootingPositions);
+    }
+
+    @Override
+    public String toString() {
+        return biathleteCount + " biathletes, " + laps + " laps of " + lapLengthInMeters + "m, " +
+               "shooting " + shootingPositions + ", " +
+               missPenaltyInSeconds + "s miss penalty, " + staggeringInSeconds + "s staggering";
+    }
+}
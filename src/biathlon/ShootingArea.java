@@ -2,9 +2,8 @@ package biathlon;
 
 import biathlon.checkpoint.AfterShootingArea;
 import biathlon.checkpoint.Checkpoint;
-import biathlon.event.BiathleteEvent;
+import biathlon.event.BiathleteEventStore;
 import desmoj.core.simulator.Model;
-import java.util.LinkedList;
 
 /**
  * Klasa reprezentująca strzelnicę jako obiekt na trasie.
@@ -13,49 +12,27 @@ import java.util.LinkedList;
  * @see biathlon.core.Entity
  */
 public class ShootingArea extends biathlon.core.Entity {
+    /**
+     * opisy zdarzeń oddania celnego i niecelnego strzału.
+     */
+    public static final String HIT_MESSAGE = " shots on target ";
+    public static final String MISS_MESSAGE = " shots and misses ";
+
     protected AfterShootingArea afterCheckpoint;
 
     public ShootingArea(Model owner, String name, boolean showInTrace) {
         super(owner, name, showInTrace);
+        id = ((Biathlon)owner).getEvents().addPlace(this);
     }
 
     /**
-     * Zapisuje informację o oddanym strzale i dodaje event do zawodnika.
+     * Zapisuje w magazynie zdarzeń informację o oddanym strzale.
      * @param biathlete zawodnik
-     * @param message opis uwzględniający, czy udało się trafić
-     */
-    public void storeShot(Biathlete biathlete, String message) {
-        BiathleteEvent shot = new BiathleteEvent(biathlete, message);
-        eventsByLap.get(biathlete.getCurrentLap() - 1).add(shot);
-        biathlete.addEvent(shot);
-    }
-
-    /**
-     * Generuje trace dla strzelnicy.
+     * @param hit true (trafienie), false (pudło)
      */
-    @Override
-    public void generateTrace() {
-        LinkedList<BiathleteEvent> events;
-        BiathleteEvent event;
-
-        for (int i = 0; i < Biathlon.LAPS; i++) {
-            events = eventsByLap.get(i);
-            trace.startSection("Lap " + (i + 1));
-            trace.startTable("Name", "Result", "Biathlete Time", "Simulation Time");
-        
-            for (int j = 0; j < events.size(); j++) {
-                event = events.get(j);
-                trace.insertRow(event.getBiathlete(),
-                                event.getMessage(),
-                                event.getBiathleteTime(),
-                                event.getSimulationTime());
-            }
-
-            trace.closeTable();
-            trace.closeSection();
-        }
-
-        trace.close();
+    public void storeShot(Biathlete biathlete, boolean hit) {
+        Biathlon model = (Biathlon)getModel();
+        model.storeEvent(hit ? BiathleteEventStore.HIT : BiathleteEventStore.MISS, biathlete, id);
     }
 
     /**
@@ -0,0 +1,65 @@
+package biathlon;
+
+import desmoj.core.simulator.ModelCondition;
+
+/**
+ * Warunek zatrzymania symulacji w chwili, gdy pierwszy zawodnik rozpocznie podaną serię strzałów
+ * (np. by w tym momencie rozgałęzić bieg - biathlon.replication.RaceFork).
+ * Warunek jest sprawdzany po każdym zdarzeniu.
+ *
+ * @author Artur Hebda
+ * @see biathlon.StopCondition
+ */
+public class ShootingStageCondition extends ModelCondition {
+    private Biathlon race;
+
+    /**
+     * numer serii strzałów (od 1).
+     */
+    private int stage;
+
+    /**
+     * zawodnik, który jako pierwszy rozpoczął serię, lub null.
+     */
+    private Biathlete biathlete;
+
+    /**
+     * @param stage numer serii strzałów (od 1)
+     */
+    public ShootingStageCondition(Biathlon race, String name, boolean showInTrace, int stage, Object... args) {
+        super(race, name, showInTrace, args);
+        if (stage < 1 || stage > race.getConfiguration().getShootingSessions()) {
+            throw new IllegalArgumentException("Shooting stage must be within 1.." + race.getConfiguration().getShootingSessions());
+        }
+        this.race = race;
+        this.stage = stage;
+    }
+
+    /**
+     * @return true (któryś z zawodników rozpoczął serię strzałów)
+     */
+    @Override
+    public boolean check() {
+        if (biathlete != null) {
+            return true;
+        }
+        for (Biathlete candidate : race.getBiathletes()) {
+            if (candidate.getShootingSessionCount() >= stage) {
+                biathlete = candidate;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return zawodnik, który jako pierwszy rozpoczął serię, lub null, jeśli warunek nie został spełniony
+     */
+    public Biathlete getBiathlete() {
+        return biathlete;
+    }
+
+    public int getStage() {
+        return stage;
+    }
+}
@@ -1,20 +1,23 @@
 package biathlon;
 
-import desmoj.core.simulator.ModelCondition;
+import desmoj.core.simulator.TriggeredCondition;
 
 /**
  * Klasa odpowiedzialna za warunek zakończenia symulacji.
  * Warunkiem jest dotarcie przez wszystkich zawodników do mety.
+ * Warunek nie jest sprawdzany po każdym zdarzeniu - jest przeliczany tylko wtedy,
+ * gdy kolejny zawodnik dotrze do mety (biathlon.Biathlon#getFinishes()).
  * 
  * @author Artur Hebda
- * @see desmoj.core.simulator.ModelCondition
+ * @see desmoj.core.simulator.TriggeredCondition
  */
-public class StopCondition extends ModelCondition {
+public class StopCondition extends TriggeredCondition {
     private Biathlon race;
 
     public StopCondition(Biathlon race, String name, boolean showInTrace, Object... args) {
         super(race, name, showInTrace, args);
         this.race = race;
+        dependsOn(race.getFinishes());
     }
 
     /**
@@ -0,0 +1,85 @@
+package biathlon.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pojedynczy benchmark uruchamiany przez biathlon.benchmark.BenchmarkRunner.
+ * Każde wywołanie run() to jedna iteracja wykonująca pewną liczbę operacji;
+ * wynikiem jest średni czas jednej operacji.
+ *
+ * @author Artur Hebda
+ */
+public abstract class Benchmark {
+    protected final String name;
+    protected final Map<String, String> params = new LinkedHashMap<String, String>();
+
+    /**
+     * jednostka czasu, w której podawany jest wynik (czas na operację).
+     */
+    protected TimeUnit scoreUnit = TimeUnit.NANOSECONDS;
+
+    /**
+     * wartość, do której benchmarki dopisują wyniki obliczeń, by JIT ich nie pominął.
+     */
+    protected static volatile double sink;
+
+    /**
+     * @param name nazwa benchmarku, np. "eventList.reschedule"
+     */
+    public Benchmark(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Dopisuje parametr benchmarku (pojawia się w wynikach).
+     *
+     * @param key nazwa parametru
+     * @param value wartość parametru
+     * @return ten benchmark
+     */
+    public Benchmark param(String key, Object value) {
+        params.put(key, String.valueOf(value));
+        return this;
+    }
+
+    /**
+     * Przygotowanie benchmarku, wywoływane raz przed pierwszą iteracją.
+     */
+    public void setUp() {
+    }
+
+    /**
+     * Wykonuje jedną iterację benchmarku.
+     *
+     * @return liczba operacji wykonanych w tej iteracji
+     */
+    public abstract long run();
+
+    /**
+     * Sprzątanie po benchmarku, wywoływane raz po ostatniej iteracji.
+     */
+    public void tearDown() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public TimeUnit getScoreUnit() {
+        return scoreUnit;
+    }
+
+    /**
+     * @return nazwa wraz z parametrami, np. "race{athletes=30, tracing=false}"
+     */
+    @Override
+    public String toString() {
+        return name + params;
+    }
+}
@@ -0,0 +1,262 @@
+package biathlon.benchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.distribution.TDistributionImpl;
+
+/**
+ * Uruchamia benchmarki jądra DESMO-J i modelu biathlonu, wypisuje wyniki
+ * na standardowe wyjście i zapisuje je w formacie JSON (układ pól jak w JMH:
+ * benchmark, mode, params, primaryMetric), by porównywać kolejne wersje.
+ *
+ * {@code
+ *      java biathlon.benchmark.BenchmarkRunner benchmark.json race 2 5
+ * }
+ *
+ * @author Artur Hebda
+ */
+public class BenchmarkRunner {
+    public static final int DEFAULT_WARMUP_ITERATIONS = 3;
+    public static final int DEFAULT_MEASUREMENT_ITERATIONS = 5;
+
+    protected int warmupIterations;
+    protected int measurementIterations;
+    protected List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+    protected List<Result> results = new ArrayList<Result>();
+
+    /**
+     * @param warmupIterations liczba iteracji rozgrzewających (nie wliczanych do wyniku)
+     * @param measurementIterations liczba iteracji pomiarowych
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations) {
+        this.warmupIterations = Math.max(0, warmupIterations);
+        this.measurementIterations = Math.max(1, measurementIterations);
+    }
+
+    /**
+     * Dodaje benchmarki, których nazwa wraz z parametrami zawiera podany filtr.
+     *
+     * @param candidates benchmarki do dodania
+     * @param filter fragment nazwy lub null (wszystkie)
+     */
+    public void addAll(List<Benchmark> candidates, String filter) {
+        for (Benchmark benchmark : candidates) {
+            if (filter == null || benchmark.toString().contains(filter)) {
+                benchmarks.add(benchmark);
+            }
+        }
+    }
+
+    /**
+     * Uruchamia wszystkie dodane benchmarki po kolei.
+     *
+     * @return wyniki w kolejności uruchomienia
+     */
+    public List<Result> run() {
+        for (Benchmark benchmark : benchmarks) {
+            Result result = run(benchmark);
+            results.add(result);
+            System.out.println(String.format("%-60s %14.3f +- %10.3f %s", benchmark,
+                    result.getScore(), result.getScoreError(), result.getScoreUnitName()));
+        }
+        return results;
+    }
+
+    /**
+     * Przeprowadza rozgrzewkę i pomiary pojedynczego benchmarku.
+     *
+     * @param benchmark benchmark
+     * @return wynik benchmarku
+     */
+    protected Result run(Benchmark benchmark) {
+        benchmark.setUp();
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                benchmark.run();
+            }
+            double[] scores = new double[measurementIterations];
+            double nanosPerUnit = benchmark.getScoreUnit().toNanos(1);
+            for (int i = 0; i < measurementIterations; i++) {
+                long startedAt = System.nanoTime();
+                long operations = benchmark.run();
+                long elapsed = System.nanoTime() - startedAt;
+                scores[i] = elapsed / nanosPerUnit / Math.max(1, operations);
+            }
+            return new Result(benchmark, scores);
+        }
+        finally {
+            benchmark.tearDown();
+        }
+    }
+
+    /**
+     * Zapisuje wyniki w formacie JSON.
+     *
+     * @param out strumień wyjściowy
+     */
+    public void writeJson(Writer out) {
+        PrintWriter writer = new PrintWriter(out);
+        writer.println("[");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            writer.println("    {");
+            writer.println("        \"benchmark\" : " + quote(result.benchmark.getName()) + ",");
+            writer.println("        \"mode\" : \"avgt\",");
+            writer.println("        \"warmupIterations\" : " + warmupIterations + ",");
+            writer.println("        \"measurementIterations\" : " + measurementIterations + ",");
+            writer.println("        \"params\" : {");
+            int param = 0;
+            for (Map.Entry<String, String> entry : result.benchmark.getParams().entrySet()) {
+                writer.println("            " + quote(entry.getKey()) + " : " + quote(entry.getValue())
+                        + (++param < result.benchmark.getParams().size() ? "," : ""));
+            }
+            writer.println("        },");
+            writer.println("        \"primaryMetric\" : {");
+            writer.println("            \"score\" : " + number(result.getScore()) + ",");
+            writer.println("            \"scoreError\" : " + number(result.getScoreError()) + ",");
+            writer.println("            \"scoreConfidence\" : [ " + number(result.getScore() - result.getScoreError())
+                    + ", " + number(result.getScore() + result.getScoreError()) + " ],");
+            writer.println("            \"scoreUnit\" : " + quote(result.getScoreUnitName()) + ",");
+            StringBuilder rawData = new StringBuilder();
+            for (int j = 0; j < result.scores.length; j++) {
+                rawData.append(j > 0 ? ", " : "").append(number(result.scores[j]));
+            }
+            writer.println("            \"rawData\" : [ [ " + rawData + " ] ]");
+            writer.println("        }");
+            writer.println("    }" + (i < results.size() - 1 ? "," : ""));
+        }
+        writer.println("]");
+        writer.flush();
+    }
+
+    /**
+     * Liczba w formacie JSON; wartości nieskończone i NaN zapisywane jak w JMH, jako tekst.
+     */
+    protected static String number(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? quote(String.valueOf(value)) : String.valueOf(value);
+    }
+
+    protected static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Wszystkie benchmarki: jądro DESMO-J, rozkłady i statystyki oraz pełne biegi.
+     */
+    public static List<Benchmark> allBenchmarks() {
+        List<Benchmark> all = new ArrayList<Benchmark>();
+        all.addAll(KernelBenchmarks.create());
+        all.addAll(StatisticsBenchmarks.create());
+        all.addAll(RaceBenchmarks.create());
+        return all;
+    }
+
+    /**
+     * @param args [plik JSON] [filtr nazw] [iteracje rozgrzewki] [iteracje pomiaru]
+     */
+    public static void main(String[] args) throws IOException {
+        String output = args.length > 0 ? args[0] : "benchmark.json";
+        String filter = args.length > 1 && !args[1].isEmpty() ? args[1] : null;
+        int warmup = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_WARMUP_ITERATIONS;
+        int measurement = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MEASUREMENT_ITERATIONS;
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, measurement);
+        runner.addAll(allBenchmarks(), filter);
+        runner.run();
+
+        Writer out = new OutputStreamWriter(new FileOutputStream(output), "UTF-8");
+        try {
+            runner.writeJson(out);
+        }
+        finally {
+            out.close();
+        }
+        System.out.println("Results written to " + output);
+    }
+
+    /**
+     * Wynik benchmarku: czasy jednej operacji w kolejnych iteracjach pomiarowych.
+     */
+    public static class Result {
+        /**
+         * poziom ufności przedziału scoreError (jak w JMH).
+         */
+        public static final double CONFIDENCE = 0.999;
+
+        protected final Benchmark benchmark;
+        protected final double[] scores;
+
+        public Result(Benchmark benchmark, double[] scores) {
+            this.benchmark = benchmark;
+            this.scores = scores;
+        }
+
+        /**
+         * @return średni czas operacji
+         */
+        public double getScore() {
+            double sum = 0;
+            for (double score : scores) {
+                sum += score;
+            }
+            return sum / scores.length;
+        }
+
+        /**
+         * Połowa szerokości przedziału ufności średniego czasu operacji na poziomie CONFIDENCE,
+         * liczona jak scoreError w JMH: kwantyl rozkładu t-Studenta o (n - 1) stopniach swobody
+         * razy odchylenie standardowe podzielone przez pierwiastek z liczby iteracji n.
+         *
+         * @return połowa szerokości przedziału ufności (NaN dla mniej niż dwóch iteracji)
+         */
+        public double getScoreError() {
+            if (scores.length < 2) {
+                return Double.NaN;
+            }
+            try {
+                double quantile = new TDistributionImpl(scores.length - 1)
+                        .inverseCumulativeProbability(1 - (1 - CONFIDENCE) / 2);
+                return quantile * getScoreStdDev() / Math.sqrt(scores.length);
+            }
+            catch (MathException e) {
+                throw new IllegalStateException("Student's t quantile can not be computed", e);
+            }
+        }
+
+        /**
+         * @return odchylenie standardowe czasu operacji między iteracjami (NaN dla mniej niż dwóch iteracji)
+         */
+        public double getScoreStdDev() {
+            if (scores.length < 2) {
+                return Double.NaN;
+            }
+            double mean = getScore();
+            double squares = 0;
+            for (double score : scores) {
+                squares += (score - mean) * (score - mean);
+            }
+            return Math.sqrt(squares / (scores.length - 1));
+        }
+
+        /**
+         * @return jednostka wyniku, np. "ns/op"
+         */
+        public String getScoreUnitName() {
+            TimeUnit unit = benchmark.getScoreUnit();
+            switch (unit) {
+                case NANOSECONDS: return "ns/op";
+                case MICROSECONDS: return "us/op";
+                case MILLISECONDS: return "ms/op";
+                default: return "s/op";
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package biathlon.benchmark;
+
+import desmoj.core.dist.LinearCongruentialRandomGenerator;
+import desmoj.core.dist.MersenneTwisterRandomGenerator;
+import desmoj.core.dist.UniformRandomGenerator;
+import desmoj.core.dist.Xoshiro256StarStarRandomGenerator;
+import desmoj.core.simulator.CalendarEventList;
+import desmoj.core.simulator.EventList;
+import desmoj.core.simulator.EventTreeList;
+import desmoj.core.simulator.Experiment;
+import desmoj.core.simulator.ExternalEvent;
+import desmoj.core.simulator.HeapEventList;
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.ModelCondition;
+import desmoj.core.simulator.TriggeredCondition;
+import desmoj.core.statistic.ValueSupplier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarki jądra DESMO-J:
+ * - przeniesienie zdarzenia w liście zdarzeń (usunięcie i wstawienie) przy 1e2-1e6 oczekujących zdarzeniach,
+ * - koszt obsłużenia jednego zdarzenia przez scheduler (Scheduler.processNextEventNote),
+ * - narzut warunku zatrzymania sprawdzanego po każdym zdarzeniu i warunku przeliczanego tylko przy zmianie,
+ * - koszt losowania jednej liczby przez generatory liczb pseudolosowych.
+ *
+ * @author Artur Hebda
+ */
+public class KernelBenchmarks {
+    /**
+     * minimalny czas trwania jednej iteracji przenoszenia zdarzeń; liczba przeniesień jest
+     * podwajana aż do jego osiągnięcia, bo koszt jednego przeniesienia zależy od listy zdarzeń
+     * o rzędy wielkości (EventTreeList wyszukuje usuwany event-note liniowo).
+     */
+    protected static final long ITERATION_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * liczba zdarzeń obsługiwanych przez scheduler w jednej iteracji.
+     */
+    protected static final int DISPATCHES = 1000000;
+
+    /**
+     * zakres czasów zdarzeń (w jednostkach epsilon), z którego losowane są terminy.
+     */
+    protected static final long HORIZON_IN_EPSILON = 1000000000000L;
+
+    /**
+     * liczba uczestników w benchmarku scheduler.stopCondition; co DISPATCHES / COMPETITORS zdarzeń
+     * jeden z nich kończy (odpowiednik zawodnika docierającego do mety).
+     */
+    protected static final int COMPETITORS = 1000;
+
+    /**
+     * liczba liczb pseudolosowych losowanych w jednej iteracji benchmarku randomGenerator.nextDouble.
+     */
+    protected static final int DRAWS = 10000000;
+
+    /**
+     * sposoby zatrzymania symulacji w benchmarku scheduler.stopCondition.
+     */
+    public static final String NO_CONDITION = "none";
+    public static final String POLLED_CONDITION = "polled";
+    public static final String TRIGGERED_CONDITION = "triggered";
+
+    /**
+     * Wszystkie benchmarki jądra.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        Class<?>[] eventLists = { EventTreeList.class, CalendarEventList.class, HeapEventList.class };
+        for (Class<?> eventList : eventLists) {
+            for (int pendingNotes = 100; pendingNotes <= 1000000; pendingNotes *= 10) {
+                benchmarks.add(eventListReschedule((Class<? extends EventList>)eventList, pendingNotes));
+            }
+        }
+        benchmarks.add(dispatch(false));
+        benchmarks.add(dispatch(true));
+        for (String stopCondition : new String[] { NO_CONDITION, POLLED_CONDITION, TRIGGERED_CONDITION }) {
+            benchmarks.add(stopCondition(stopCondition));
+        }
+        Class<?>[] randomGenerators = { LinearCongruentialRandomGenerator.class,
+                MersenneTwisterRandomGenerator.class, Xoshiro256StarStarRandomGenerator.class };
+        for (Class<?> randomGenerator : randomGenerators) {
+            benchmarks.add(nextDouble((Class<? extends UniformRandomGenerator>)randomGenerator));
+        }
+        return benchmarks;
+    }
+
+    /**
+     * Przenosi losowo wybrane z oczekujących zdarzeń na losowy termin, tj. usuwa je z listy
+     * zdarzeń i wstawia ponownie; liczba oczekujących zdarzeń pozostaje stała.
+     *
+     * @param eventList klasa listy zdarzeń
+     * @param pendingNotes liczba oczekujących zdarzeń
+     */
+    public static Benchmark eventListReschedule(final Class<? extends EventList> eventList, final int pendingNotes) {
+        return new Benchmark("eventList.reschedule") {
+            protected Experiment experiment;
+            protected NoOpEvent[] events;
+            protected Random random;
+
+            @Override
+            public void setUp() {
+                experiment = createExperiment();
+                experiment.setEventList(eventList);
+                EmptyModel model = new EmptyModel();
+                model.connectToExperiment(experiment);
+
+                random = new Random(979);
+                events = new NoOpEvent[pendingNotes];
+                for (int i = 0; i < pendingNotes; i++) {
+                    events[i] = new NoOpEvent(model);
+                    events[i].scheduleAtEpsilon(nextTime());
+                }
+            }
+
+            @Override
+            public long run() {
+                long startedAt = System.nanoTime();
+                long reschedules = 0;
+                for (int batch = 1; System.nanoTime() - startedAt < ITERATION_NANOS; batch *= 2) {
+                    for (int i = 0; i < batch; i++) {
+                        events[random.nextInt(pendingNotes)].reScheduleAtEpsilon(nextTime());
+                    }
+                    reschedules += batch;
+                }
+                return reschedules;
+            }
+
+            @Override
+            public void tearDown() {
+                experiment = null;
+                events = null;
+            }
+
+            protected long nextTime() {
+                return (long)(random.nextDouble() * HORIZON_IN_EPSILON);
+            }
+        }.param("eventList", eventList.getSimpleName()).param("pendingNotes", pendingNotes);
+    }
+
+    /**
+     * Przeprowadza symulację, w której jedno zdarzenie zewnętrzne planuje się ponownie
+     * DISPATCHES razy; mierzy czas obsłużenia jednego zdarzenia przez scheduler.
+     *
+     * @param pooling czy scheduler ponownie wykorzystuje obsłużone event-note'y
+     */
+    public static Benchmark dispatch(final boolean pooling) {
+        return new Benchmark("scheduler.dispatch") {
+            @Override
+            public long run() {
+                Experiment experiment = createExperiment();
+                experiment.setEventNotePooling(pooling);
+                EmptyModel model = new EmptyModel();
+                model.connectToExperiment(experiment);
+
+                new ChainEvent(model, DISPATCHES).scheduleAtEpsilon(0);
+                experiment.start();
+                experiment.finish();
+                return DISPATCHES;
+            }
+        }.param("eventNotePooling", pooling);
+    }
+
+    /**
+     * Przeprowadza symulację DISPATCHES zdarzeń zakończoną warunkiem zatrzymania "wszyscy uczestnicy
+     * skończyli", który przegląda stan wszystkich uczestników; mierzy czas obsłużenia jednego zdarzenia.
+     * Warunek sprawdzany po każdym zdarzeniu (ModelCondition) dokłada koszt przeglądania do każdego
+     * zdarzenia, warunek przeliczany tylko po ukończeniu przez kolejnego uczestnika (TriggeredCondition) - nie.
+     *
+     * @param stopCondition NO_CONDITION (zdarzenia kończą się same), POLLED_CONDITION lub TRIGGERED_CONDITION
+     */
+    public static Benchmark stopCondition(final String stopCondition) {
+        if (!NO_CONDITION.equals(stopCondition) && !POLLED_CONDITION.equals(stopCondition)
+                && !TRIGGERED_CONDITION.equals(stopCondition)) {
+            throw new IllegalArgumentException("Unknown stop condition: " + stopCondition);
+        }
+        return new Benchmark("scheduler.stopCondition") {
+            @Override
+            public long run() {
+                Experiment experiment = createExperiment();
+                EmptyModel model = new EmptyModel();
+                model.connectToExperiment(experiment);
+
+                final FinishEvent event = new FinishEvent(model, NO_CONDITION.equals(stopCondition) ? DISPATCHES : Integer.MAX_VALUE);
+                if (POLLED_CONDITION.equals(stopCondition)) {
+                    experiment.stop(new ModelCondition(model, "All Finished", false) {
+                        @Override
+                        public boolean check() {
+                            return event.haveAllFinished();
+                        }
+                    });
+                }
+                else if (TRIGGERED_CONDITION.equals(stopCondition)) {
+                    TriggeredCondition condition = new TriggeredCondition(model, "All Finished", false) {
+                        @Override
+                        public boolean check() {
+                            return event.haveAllFinished();
+                        }
+                    };
+                    condition.dependsOn(event.getFinishes());
+                    experiment.stop(condition);
+                }
+
+                event.scheduleAtEpsilon(0);
+                experiment.start();
+                experiment.finish();
+                return DISPATCHES;
+            }
+        }.param("stopCondition", stopCondition);
+    }
+
+    /**
+     * Losuje DRAWS liczb pseudolosowych z przedziału [0, 1); mierzy czas losowania jednej liczby.
+     *
+     * @param randomGenerator klasa generatora (z konstruktorem bezparametrowym)
+     */
+    public static Benchmark nextDouble(final Class<? extends UniformRandomGenerator> randomGenerator) {
+        return new Benchmark("randomGenerator.nextDouble") {
+            protected UniformRandomGenerator generator;
+
+            @Override
+            public void setUp() {
+                try {
+                    generator = randomGenerator.getDeclaredConstructor().newInstance();
+                }
+                catch (ReflectiveOperationException e) {
+                    throw new IllegalArgumentException("Can not create " + randomGenerator.getName(), e);
+                }
+                generator.setSeed(979);
+            }
+
+            @Override
+            public long run() {
+                double sum = 0;
+                for (int i = 0; i < DRAWS; i++) {
+                    sum += generator.nextDouble();
+                }
+                sink = sum;
+                return DRAWS;
+            }
+        }.param("randomGenerator", randomGenerator.getSimpleName());
+    }
+
+    /**
+     * Tworzy eksperyment bez plików wynikowych i komunikatów na konsoli.
+     */
+    public static Experiment createExperiment() {
+        Experiment experiment = new Experiment("Benchmark", false);
+        experiment.setSilent(true);
+        experiment.setShowProgressBar(false);
+        return experiment;
+    }
+
+    /**
+     * Model bez encji i zdarzeń początkowych; benchmarki planują zdarzenia samodzielnie.
+     */
+    public static class EmptyModel extends Model {
+        public EmptyModel() {
+            super(null, "Benchmark Model", false, false);
+        }
+
+        @Override
+        public String description() {
+            return "Model without entities used by benchmarks.";
+        }
+
+        @Override
+        public void doInitialSchedules() {
+        }
+
+        @Override
+        public void init() {
+        }
+    }
+
+    /**
+     * Zdarzenie, które nic nie robi.
+     */
+    protected static class NoOpEvent extends ExternalEvent {
+        public NoOpEvent(Model owner) {
+            super(owner, "NoOpEvent", false);
+        }
+
+        @Override
+        public void eventRoutine() {
+        }
+    }
+
+    /**
+     * Zdarzenie planujące się ponownie po jednej jednostce epsilon, dopóki nie wykona się zadaną liczbę razy.
+     */
+    protected static class ChainEvent extends ExternalEvent {
+        protected int remaining;
+
+        public ChainEvent(Model owner, int count) {
+            super(owner, "ChainEvent", false);
+            this.remaining = count;
+        }
+
+        @Override
+        public void eventRoutine() {
+            if (--remaining > 0) {
+                scheduleInEpsilon(1);
+            }
+        }
+    }
+
+    /**
+     * Zdarzenie planujące się ponownie po jednej jednostce epsilon, dopóki nie wykona się zadaną liczbę razy;
+     * co DISPATCHES / COMPETITORS wykonań kolejny uczestnik kończy, a obserwatorzy licznika są powiadamiani.
+     */
+    protected static class FinishEvent extends ExternalEvent {
+        protected final int limit;
+        protected int dispatched = 0;
+        protected final boolean[] finished = new boolean[COMPETITORS];
+        protected int finishCount = 0;
+        protected final ValueSupplier finishes = new ValueSupplier("Finishes") {
+            @Override
+            public double value() {
+                return finishCount;
+            }
+        };
+
+        public FinishEvent(Model owner, int limit) {
+            super(owner, "FinishEvent", false);
+            this.limit = limit;
+        }
+
+        @Override
+        public void eventRoutine() {
+            if (++dispatched % (DISPATCHES / COMPETITORS) == 0 && finishCount < COMPETITORS) {
+                finished[finishCount++] = true;
+                finishes.notifyStatistics(null);
+            }
+            if (dispatched < limit) {
+                scheduleInEpsilon(1);
+            }
+        }
+
+        /**
+         * @return true (wszyscy uczestnicy skończyli)
+         */
+        public boolean haveAllFinished() {
+            int count = 0;
+            for (boolean competitorFinished : finished) {
+                if (competitorFinished) {
+                    count++;
+                }
+            }
+            return count == COMPETITORS;
+        }
+
+        public ValueSupplier getFinishes() {
+            return finishes;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package biathlon.benchmark;
+
+import biathlon.Biathlon;
+import biathlon.RaceConfiguration;
+import biathlon.StopCondition;
+import desmoj.core.simulator.Experiment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarki pełnego biegu biathlonowego dla 30, 1 000 i 100 000 zawodników,
+ * z zapisem trace'a biegu (traces/race.csv i wygenerowane z niego pliki HTML) i bez,
+ * oraz serii krótkich replikacji z nowym eksperymentem i modelem dla każdej replikacji
+ * lub jednym eksperymentem przywracanym do stanu początkowego (Experiment.reset).
+ *
+ * @author Artur Hebda
+ */
+public class RaceBenchmarks {
+    public static final int[] BIATHLETE_COUNTS = { 30, 1000, 100000 };
+
+    /**
+     * liczba replikacji w jednej iteracji benchmarku race.replications.
+     */
+    protected static final int REPLICATIONS = 500;
+
+    /**
+     * Wszystkie benchmarki biegu.
+     */
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        for (boolean tracing : new boolean[] { false, true }) {
+            for (int biathletes : BIATHLETE_COUNTS) {
+                benchmarks.add(race(biathletes, tracing));
+            }
+        }
+        for (int biathletes : new int[] { 1, 30 }) {
+            for (boolean reset : new boolean[] { false, true }) {
+                benchmarks.add(replications(biathletes, reset));
+            }
+        }
+        return benchmarks;
+    }
+
+    /**
+     * Przeprowadza jeden bieg z podaną liczbą zawodników; wynik w milisekundach na bieg.
+     *
+     * @param biathletes liczba zawodników
+     * @param tracing czy generować trace'y
+     */
+    public static Benchmark race(int biathletes, final boolean tracing) {
+        final RaceConfiguration configuration = new RaceConfiguration().withBiathleteCount(biathletes);
+        Benchmark benchmark = new Benchmark("race") {
+            @Override
+            public long run() {
+                Experiment experiment = KernelBenchmarks.createExperiment();
+                Biathlon model = new Biathlon(null, "Biathlon", false, false, configuration);
+                model.setTracing(tracing);
+                model.connectToExperiment(experiment);
+                experiment.stop(new StopCondition(model, "Stop Condition", false));
+
+                experiment.start();
+                experiment.finish();
+                if (tracing) {
+                    model.generateTraces();
+                }
+                return 1;
+            }
+        };
+        benchmark.scoreUnit = TimeUnit.MILLISECONDS;
+        return benchmark.param("biathletes", biathletes).param("tracing", tracing);
+    }
+
+    /**
+     * Przeprowadza REPLICATIONS replikacji biegu bez trace'ów; wynik w mikrosekundach na replikację.
+     *
+     * @param biathletes liczba zawodników
+     * @param reset czy przywracać jeden eksperyment i model do stanu początkowego zamiast tworzenia nowych
+     */
+    public static Benchmark replications(int biathletes, final boolean reset) {
+        final RaceConfiguration configuration = new RaceConfiguration().withBiathleteCount(biathletes);
+        Benchmark benchmark = new Benchmark("race.replications") {
+            @Override
+            public long run() {
+                Experiment experiment = null;
+                for (int i = 0; i < REPLICATIONS; i++) {
+                    if (experiment == null || !reset) {
+                        if (experiment != null) {
+                            experiment.finish();
+                        }
+                        experiment = KernelBenchmarks.createExperiment();
+                        experiment.setSeedGenerator(i);
+                        Biathlon model = new Biathlon(null, "Biathlon", false, false, configuration);
+                        model.setTracing(false);
+                        model.connectToExperiment(experiment);
+                        experiment.stop(new StopCondition(model, "Stop Condition", false));
+                    }
+                    else {
+                        experiment.reset(i);
+                    }
+                    experiment.start();
+                }
+                experiment.finish();
+                return REPLICATIONS;
+            }
+        };
+        benchmark.scoreUnit = TimeUnit.MICROSECONDS;
+        return benchmark.param("biathletes", biathletes).param("reset", reset);
+    }
+}
@@ -0,0 +1,172 @@
+package biathlon.benchmark;
+
+import desmoj.core.simulator.Experiment;
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.SimProcess;
+import desmoj.core.simulator.SimThread;
+import desmoj.core.simulator.TimeInstant;
+import desmoj.core.simulator.TimeSpan;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Porównuje wątki procesów symulacyjnych (desmoj.core.simulator.SimThread)
+ * w trybie wątków platformowych i wirtualnych:
+ * - średni czas przekazania sterowania między schedulerem a procesem (jedno hold()),
+ * - maksymalną liczbę jednocześnie żyjących procesów (podwajana aż do limitu lub błędu).
+ *
+ * {@code
+ *      java biathlon.benchmark.SimThreadBenchmark PLATFORM 100 1000 16384 64
+ * }
+ *
+ * @author Artur Hebda
+ */
+public class SimThreadBenchmark {
+    /**
+     * liczba procesów, od której zaczyna się szukanie maksymalnej liczby żyjących procesów.
+     */
+    protected static final int INITIAL_PROCESSES = 256;
+
+    protected SimThread.Mode mode;
+    protected long stackSize;
+
+    /**
+     * @param mode rodzaj wątków procesów
+     * @param stackSize rozmiar stosu wątków platformowych w bajtach (0 - domyślny)
+     */
+    public SimThreadBenchmark(SimThread.Mode mode, long stackSize) {
+        this.mode = mode;
+        this.stackSize = stackSize;
+    }
+
+    /**
+     * Uruchamia model, w którym podana liczba procesów wykonuje podaną liczbę hold().
+     *
+     * @param processes liczba procesów
+     * @param holds liczba hold() każdego procesu
+     * @return czas trwania symulacji w nanosekundach
+     */
+    public long run(int processes, int holds) {
+        Experiment experiment = new Experiment("SimThread Benchmark", false);
+        experiment.setSilent(true);
+        experiment.setShowProgressBar(false);
+        experiment.setSimThreadMode(mode);
+        experiment.setSimThreadStackSize(stackSize);
+
+        HoldingModel model = new HoldingModel(processes, holds);
+        model.connectToExperiment(experiment);
+        experiment.stop(new TimeInstant(holds + 1, TimeUnit.SECONDS));
+
+        long startedAt = System.nanoTime();
+        experiment.start();
+        long elapsed = System.nanoTime() - startedAt;
+        experiment.finish();
+        return elapsed;
+    }
+
+    /**
+     * Mierzy średni czas jednego hold(), tj. dwóch przekazań sterowania.
+     *
+     * @param processes liczba procesów
+     * @param holds liczba hold() każdego procesu
+     * @return średni czas jednego hold() w nanosekundach
+     */
+    public double measureHoldLatency(int processes, int holds) {
+        run(processes, holds); // rozgrzewka
+        return (double)run(processes, holds) / ((long)processes * holds);
+    }
+
+    /**
+     * Podwaja liczbę procesów żyjących jednocześnie aż do limitu albo do pierwszego błędu
+     * (np. braku pamięci na wątki natywne).
+     *
+     * @param limit górny limit liczby procesów
+     * @return największa liczba procesów, dla której symulacja się powiodła
+     */
+    public int findMaxLiveProcesses(int limit) {
+        int succeeded = 0;
+        for (int processes = INITIAL_PROCESSES; processes <= limit; processes *= 2) {
+            try {
+                run(processes, 1);
+                succeeded = processes;
+            }
+            catch (Throwable error) {
+                System.out.println(String.format("%d processes failed: %s", processes, error));
+                break;
+            }
+        }
+        return succeeded;
+    }
+
+    /**
+     * @param args [PLATFORM|VIRTUAL] [liczba procesów] [liczba hold()] [limit procesów] [stos w KB]
+     */
+    public static void main(String[] args) {
+        SimThread.Mode mode = args.length > 0 ? SimThread.Mode.valueOf(args[0]) : SimThread.Mode.PLATFORM;
+        int processes = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int holds = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int limit = args.length > 3 ? Integer.parseInt(args[3]) : 16384;
+        long stackSize = args.length > 4 ? Long.parseLong(args[4]) * 1024 : 0;
+
+        if (mode == SimThread.Mode.VIRTUAL && !SimThread.isVirtualSupported()) {
+            System.out.println("Virtual threads are not supported by this Java runtime, using platform threads.");
+            mode = SimThread.Mode.PLATFORM;
+        }
+
+        SimThreadBenchmark benchmark = new SimThreadBenchmark(mode, stackSize);
+        System.out.println(String.format("%s threads: %.0f ns per hold (%d processes x %d holds)",
+                mode, benchmark.measureHoldLatency(processes, holds), processes, holds));
+        System.out.println(String.format("%s threads: %d live processes (limit %d)",
+                mode, benchmark.findMaxLiveProcesses(limit), limit));
+        System.exit(0);
+    }
+
+    /**
+     * Model, w którym wszystkie procesy startują jednocześnie i co sekundę wykonują hold().
+     */
+    protected static class HoldingModel extends Model {
+        protected int processes;
+        protected int holds;
+
+        public HoldingModel(int processes, int holds) {
+            super(null, "Holding Model", false, false);
+            this.processes = processes;
+            this.holds = holds;
+        }
+
+        @Override
+        public String description() {
+            return "Processes holding for one second repeatedly.";
+        }
+
+        @Override
+        public void doInitialSchedules() {
+            for (int i = 0; i < processes; i++) {
+                new HoldingProcess(this, holds).activate();
+            }
+        }
+
+        @Override
+        public void init() {
+        }
+    }
+
+    /**
+     * Proces wykonujący podaną liczbę hold() po jednej sekundzie.
+     */
+    protected static class HoldingProcess extends SimProcess {
+        protected int holds;
+
+        public HoldingProcess(Model owner, int holds) {
+            super(owner, "Holding Process", false);
+            this.holds = holds;
+        }
+
+        @Override
+        public void lifeCycle() {
+            TimeSpan second = new TimeSpan(1, TimeUnit.SECONDS);
+            for (int i = 0; i < holds; i++) {
+                hold(second);
+            }
+        }
+    }
+}
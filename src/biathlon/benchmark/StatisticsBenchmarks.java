@@ -0,0 +1,180 @@
+package biathlon.benchmark;
+
+import desmoj.core.dist.BoolDistBernoulli;
+import desmoj.core.dist.ContDistNormal;
+import desmoj.core.dist.ContDistUniform;
+import desmoj.core.simulator.Experiment;
+import desmoj.core.statistic.Histogram;
+import desmoj.core.statistic.Tally;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarki losowania z rozkładów używanych przez model biathlonu
+ * (ContDistNormal, ContDistUniform, BoolDistBernoulli) oraz aktualizacji statystyk (Tally, Histogram).
+ *
+ * @author Artur Hebda
+ */
+public class StatisticsBenchmarks {
+    /**
+     * liczba operacji w jednej iteracji.
+     */
+    protected static final int OPERATIONS = 1000000;
+
+    /**
+     * Wszystkie benchmarki rozkładów i statystyk.
+     */
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        benchmarks.add(contDistNormal());
+        benchmarks.add(contDistUniform());
+        benchmarks.add(boolDistBernoulli());
+        benchmarks.add(tally());
+        benchmarks.add(histogram());
+        return benchmarks;
+    }
+
+    /**
+     * Losowanie czasu dotarcia do punktu pomiaru (parametry jak w modelu).
+     */
+    public static Benchmark contDistNormal() {
+        return new ModelBenchmark("dist.sample") {
+            protected ContDistNormal dist;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                dist = new ContDistNormal(model, "Normal", 185000, 12000, false, false);
+            }
+
+            @Override
+            public long run() {
+                double sum = 0;
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sum += dist.sample();
+                }
+                sink = sum;
+                return OPERATIONS;
+            }
+        }.param("distribution", "ContDistNormal");
+    }
+
+    /**
+     * Losowanie czasu oddania strzału (parametry jak w modelu).
+     */
+    public static Benchmark contDistUniform() {
+        return new ModelBenchmark("dist.sample") {
+            protected ContDistUniform dist;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                dist = new ContDistUniform(model, "Uniform", 2000, 7000, false, false);
+            }
+
+            @Override
+            public long run() {
+                double sum = 0;
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sum += dist.sample();
+                }
+                sink = sum;
+                return OPERATIONS;
+            }
+        }.param("distribution", "ContDistUniform");
+    }
+
+    /**
+     * Losowanie rezultatu strzału.
+     */
+    public static Benchmark boolDistBernoulli() {
+        return new ModelBenchmark("dist.sample") {
+            protected BoolDistBernoulli dist;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                dist = new BoolDistBernoulli(model, "Bernoulli", 0.8, false, false);
+            }
+
+            @Override
+            public long run() {
+                int hits = 0;
+                for (int i = 0; i < OPERATIONS; i++) {
+                    if (dist.sample()) {
+                        hits++;
+                    }
+                }
+                sink = hits;
+                return OPERATIONS;
+            }
+        }.param("distribution", "BoolDistBernoulli");
+    }
+
+    public static Benchmark tally() {
+        return new ModelBenchmark("statistic.update") {
+            protected Tally tally;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                tally = new Tally(model, "Tally", false, false);
+            }
+
+            @Override
+            public long run() {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    tally.update(i % 1000);
+                }
+                sink = tally.getMean();
+                return OPERATIONS;
+            }
+        }.param("statistic", "Tally");
+    }
+
+    public static Benchmark histogram() {
+        return new ModelBenchmark("statistic.update") {
+            protected Histogram histogram;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                histogram = new Histogram(model, "Histogram", 0, 1000, 50, false, false);
+            }
+
+            @Override
+            public long run() {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    histogram.update(i % 1000);
+                }
+                sink = histogram.getMean();
+                return OPERATIONS;
+            }
+        }.param("statistic", "Histogram");
+    }
+
+    /**
+     * Benchmark potrzebujący modelu połączonego z eksperymentem (rozkłady i statystyki są komponentami modelu).
+     */
+    protected abstract static class ModelBenchmark extends Benchmark {
+        protected Experiment experiment;
+        protected KernelBenchmarks.EmptyModel model;
+
+        public ModelBenchmark(String name) {
+            super(name);
+        }
+
+        @Override
+        public void setUp() {
+            experiment = KernelBenchmarks.createExperiment();
+            model = new KernelBenchmarks.EmptyModel();
+            model.connectToExperiment(experiment);
+        }
+
+        @Override
+        public void tearDown() {
+            experiment = null;
+            model = null;
+        }
+    }
+}
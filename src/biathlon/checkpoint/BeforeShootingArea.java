@@ -18,6 +18,7 @@ public class BeforeShootingArea extends ShootingArea {
     /**
      * Gdy zawodnik dotrze do punktu tuż przed strzelnicą, zacznie strzelać.
      * W związku z tym jest rozpoczynana nowa seria strzałów i schedule'owany event pierwszego strzału.
+     * Jeśli zawodnik oddał już wszystkie serie przewidziane w konfiguracji biegu, omija strzelnicę.
      * 
      * @param biathlete zawodnik, który dotarł do tego punktu pomiaru
      * @see biathlon.event.BiathleteShot
@@ -25,10 +26,16 @@ public class BeforeShootingArea extends ShootingArea {
     @Override
     public void biathleteArrived(Biathlete biathlete) {
         storeBiathleteArrival(biathlete);
-        biathlete.beginShootingSession();
 
+        // po ostatniej serii (np. na ostatnim okrążeniu sprintu) zawodnik omija strzelnicę
         Biathlon model = (Biathlon)getModel();
+        if (biathlete.getShootingSessionCount() >= model.getConfiguration().getShootingSessions()) {
+            Checkpoint.scheduleArrival(getShootingArea().getAfterCheckpoint(), biathlete, 0L);
+            return;
+        }
+        biathlete.beginShootingSession();
+
         BiathleteShot biathleteShot = new BiathleteShot(getModel(), "BiathleteShotEvent", true);
-        biathleteShot.schedule(biathlete, getShootingArea(), model.getShotTime());
+        biathleteShot.scheduleInEpsilon(biathlete, getShootingArea(), model.getShotDelayInEpsilon(biathlete));
     }
 }
@@ -4,13 +4,13 @@ import biathlon.Biathlete;
 import biathlon.Biathlon;
 import biathlon.core.Entity;
 import biathlon.event.BiathleteArrivalAtCheckpoint;
-import biathlon.event.BiathleteEvent;
+import biathlon.event.BiathleteEventStore;
 import desmoj.core.simulator.Model;
+import desmoj.core.simulator.SnapshotReader;
+import desmoj.core.simulator.SnapshotWriter;
 import desmoj.core.simulator.TimeInstant;
 import desmoj.core.simulator.TimeOperations;
 import desmoj.core.simulator.TimeSpan;
-import java.util.Collections;
-import java.util.LinkedList;
 
 /**
  * Klasa odpowiedzialna za punkty pomiaru czasu.
@@ -21,44 +21,21 @@ import java.util.LinkedList;
 public class Checkpoint extends Entity {
     protected Checkpoint nextCheckpoint;
 
+    /**
+     * klasyfikacja na żywo dla każdego okrążenia (indeks 0 odpowiada pierwszemu okrążeniu).
+     */
+    protected Standings[] standingsByLap;
+
     public Checkpoint(Model owner, String name, boolean showInTrace) {
         super(owner, name, showInTrace);
-    }
+        Biathlon model = (Biathlon)owner;
+        id = model.getEvents().addPlace(this);
 
-    /**
-     * Generowanie trace'a dla punktu pomiaru czasu.
-     * Wymaga posortowania zawodników według czasu ich przybycia, dlatego tę metodę
-     * dla wszystkich checkpointów należy wywołać przed analogiczną metodą z klasy biathlon.Biathlete.
-     */
-    @Override
-    public void generateTrace() {
-        LinkedList<BiathleteEvent> events;
-        BiathleteEvent event;
-        TimeInstant firstEventAt;
-
-        for (int i = 0; i < Biathlon.LAPS; i++) {
-            events = eventsByLap.get(i);
-            Collections.sort(events);
-            trace.startSection("Lap " + (i + 1));
-            trace.startTable("Position", "Name", "Time", "Lost");
-        
-            if (events.size() > 0) {
-                firstEventAt = events.getFirst().getBiathleteTime();
-                for (int j = 0; j < events.size(); j++) {
-                    event = events.get(j);
-                    event.setRank(new Integer(j + 1));
-                    event.setLost(TimeOperations.diff(firstEventAt, event.getBiathleteTime()));
-                    trace.insertRow(event.getRank(),
-                                    event.getBiathlete(),
-                                    event.getBiathleteTime(),
-                                    event.getLost());
-                }
-            }
-            trace.closeTable();
-            trace.closeSection();
+        int laps = model.getConfiguration().getLaps();
+        standingsByLap = new Standings[laps];
+        for (int lap = 0; lap < laps; lap++) {
+            standingsByLap[lap] = new Standings(model.getConfiguration().getBiathleteCount());
         }
-
-        trace.close();
     }
 
     /**
@@ -72,7 +49,7 @@ public class Checkpoint extends Entity {
 
     /**
      * Obsługuje sytuację, gdy zawodnik przybędzie do tego punktu pomiaru.
-     * Stworzy BiathleteEvent, który doda do listy zdarzeń zawodnika i punktu pomiaru czasu,
+     * Zapisze zdarzenie przybycia w magazynie zdarzeń,
      * a także zadba o dotarcie zawodnika do kolejnego punktu pomiaru czasu.
      * 
      * @param biathlete zawodnik przybywający do punktu pomiaru
@@ -83,14 +60,87 @@ public class Checkpoint extends Entity {
     }
 
     /**
-     * Tworzy BiathleteEvent i dodaje go do listy zdarzeń zawodnika i punktu pomiaru czasu.
+     * Zapisuje przybycie zawodnika do punktu pomiaru w magazynie zdarzeń.
      * 
      * @param biathlete zawodnik przybywający do punktu pomiaru
      */
     protected void storeBiathleteArrival(Biathlete biathlete) {
-        BiathleteEvent arrival = new BiathleteEvent(biathlete, "arrives at " + this);
-        biathlete.addEvent(arrival);
-        eventsByLap.get(biathlete.getCurrentLap() - 1).add(arrival);
+        Biathlon model = (Biathlon)getModel();
+        rankArrival(biathlete, model.storeEvent(BiathleteEventStore.ARRIVAL, biathlete, id));
+    }
+
+    /**
+     * Klasyfikuje zawodnika w chwili przybycia do punktu pomiaru (na jego bieżącym okrążeniu)
+     * i zapisuje jego pozycję na żywo oraz stratę do lidera przy zdarzeniu przybycia.
+     * 
+     * @param biathlete zawodnik przybywający do punktu pomiaru
+     * @param index indeks zdarzenia przybycia w magazynie zdarzeń
+     * @return pozycja zawodnika w chwili przybycia
+     */
+    protected int rankArrival(Biathlete biathlete, int index) {
+        BiathleteEventStore events = ((Biathlon)getModel()).getEvents();
+        Standings standings = getStandings(biathlete.getCurrentLap());
+        int rank = standings.insert(biathlete.getId(), events.getBiathleteTime(index));
+        events.setRank(index, rank, standings.getLost(biathlete.getId()));
+        biathlete.passCheckpoint(this);
+        return rank;
+    }
+
+    /**
+     * Czyści klasyfikacje na wszystkich okrążeniach (przed kolejną replikacją biegu).
+     */
+    public void clearStandings() {
+        for (Standings standings : standingsByLap) {
+            standings.clear();
+        }
+    }
+
+    /**
+     * Zapisuje klasyfikacje na wszystkich okrążeniach do migawki eksperymentu.
+     *
+     * @param out migawka
+     */
+    public void writeStandings(SnapshotWriter out) {
+        for (Standings standings : standingsByLap) {
+            standings.writeSnapshot(out);
+        }
+    }
+
+    /**
+     * Odtwarza klasyfikacje zapisane metodą writeStandings().
+     *
+     * @param in migawka
+     */
+    public void readStandings(SnapshotReader in) {
+        for (Standings standings : standingsByLap) {
+            standings.readSnapshot(in);
+        }
+    }
+
+    /**
+     * @param lap okrążenie (od 1)
+     * @return bieżąca klasyfikacja na tym punkcie pomiaru na danym okrążeniu
+     */
+    public Standings getStandings(int lap) {
+        return standingsByLap[lap - 1];
+    }
+
+    /**
+     * @param biathlete zawodnik
+     * @param lap okrążenie (od 1)
+     * @return bieżąca pozycja zawodnika na tym punkcie pomiaru lub 0, jeśli jeszcze go nie minął
+     */
+    public int getRank(Biathlete biathlete, int lap) {
+        return getStandings(lap).getRank(biathlete.getId());
+    }
+
+    /**
+     * @param biathlete zawodnik, który minął już ten punkt pomiaru na danym okrążeniu
+     * @param lap okrążenie (od 1)
+     * @return bieżąca strata zawodnika do lidera na tym punkcie pomiaru
+     */
+    public TimeSpan getLost(Biathlete biathlete, int lap) {
+        return new TimeSpan(getStandings(lap).getLost(biathlete.getId()), TimeOperations.getEpsilon());
     }
 
     /**
@@ -100,7 +150,15 @@ public class Checkpoint extends Entity {
      */
     public void scheduleNextCheckpoint(Biathlete biathlete) {
         Biathlon model = (Biathlon)getModel();
-        Checkpoint.scheduleArrival(nextCheckpoint, biathlete, model.getCheckpointArrivalTime());
+        Checkpoint.scheduleArrival(nextCheckpoint, biathlete, model.getCheckpointArrivalDelayInEpsilon(biathlete, getNextLegLap(biathlete)));
+    }
+
+    /**
+     * @param biathlete zawodnik opuszczający ten punkt pomiaru
+     * @return okrążenie (od 1), na którym leży odcinek do następnego punktu pomiaru czasu
+     */
+    protected int getNextLegLap(Biathlete biathlete) {
+        return biathlete.getCurrentLap();
     }
 
     /**
@@ -116,6 +174,19 @@ public class Checkpoint extends Entity {
         scheduleArrival(checkpoint, biathlete, TimeOperations.add(now, delay));
     }
 
+    /**
+     * Dopisuje do harmonogramu zdarzenie pojawienia się przy podanym punkcie pomiarowym, 
+     * z uwzględnieniem opóźnienia czasu podanego w jednostkach epsilon (bez tworzenia obiektów czasu).
+     * 
+     * @param checkpoint zadany punkt pomiaru
+     * @param biathlete zawodnik
+     * @param delayInEpsilon opóźnienie w jednostkach epsilon
+     */
+    public static void scheduleArrival(Checkpoint checkpoint, Biathlete biathlete, long delayInEpsilon) {
+        BiathleteArrivalAtCheckpoint arrivalAtCheckpoint = new BiathleteArrivalAtCheckpoint(checkpoint.getModel(), "BiathletAtCheckpointArrivalEvent", true);
+        arrivalAtCheckpoint.scheduleInEpsilon(biathlete, checkpoint, delayInEpsilon);
+    }
+
     /**
      * Dopisuje do harmonogramu zdarzenie pojawienia się przy podanym punkcie pomiarowym, 
      * z podaniem konkretnego czasu przybycia.
@@ -0,0 +1,317 @@
+package biathlon.checkpoint;
+
+import desmoj.core.simulator.SnapshotReader;
+import desmoj.core.simulator.SnapshotWriter;
+import java.util.Arrays;
+
+/**
+ * Klasyfikacja na żywo na punkcie pomiaru czasu (na jednym okrążeniu).
+ * Zawodnicy są uporządkowani według czasu w ich układzie odniesienia (czasu biegu),
+ * a przy równych czasach - według identyfikatora zawodnika.
+ * Klasyfikacja jest drzewem statystyk pozycyjnych (treap z rozmiarami poddrzew) zapisanym
+ * w tablicach typów prostych, więc wstawienie zawodnika i wyznaczenie jego pozycji
+ * kosztują O(log n) i nie tworzą obiektów; lider i jego czas dostępni są w O(1).
+ *
+ * @author Artur Hebda
+ * @see biathlon.checkpoint.Checkpoint#getStandings(int)
+ */
+public class Standings {
+    protected static final int NIL = -1;
+    protected static final int INITIAL_SEED = 0x2545F491;
+
+    protected int size = 0;
+    protected int root = NIL;
+    protected int leader = NIL;
+
+    /**
+     * węzły drzewa: klucz (czas, zawodnik), dzieci, rozmiar poddrzewa i priorytet.
+     */
+    protected long[] times;
+    protected int[] biathletes;
+    protected int[] left, right, subtreeSizes, priorities;
+
+    /**
+     * węzeł zawodnika, indeksowany identyfikatorem zawodnika; NIL, jeśli zawodnik jeszcze nie dotarł.
+     */
+    protected int[] nodeByBiathlete;
+
+    /**
+     * stan generatora priorytetów (xorshift), stały dla powtarzalności.
+     */
+    protected int seed = INITIAL_SEED;
+
+    /**
+     * @param capacity spodziewana liczba zawodników
+     */
+    public Standings(int capacity) {
+        capacity = Math.max(16, capacity);
+        times = new long[capacity];
+        biathletes = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        subtreeSizes = new int[capacity];
+        priorities = new int[capacity];
+        nodeByBiathlete = new int[capacity];
+        Arrays.fill(nodeByBiathlete, NIL);
+    }
+
+    /**
+     * Dodaje zawodnika do klasyfikacji.
+     * @param biathlete identyfikator zawodnika
+     * @param time czas biegu zawodnika (w jednostkach epsilon)
+     * @return pozycja zawodnika w chwili dotarcia (od 1)
+     */
+    public int insert(int biathlete, long time) {
+        if (biathlete < nodeByBiathlete.length && nodeByBiathlete[biathlete] != NIL) {
+            throw new IllegalArgumentException("Biathlete " + biathlete + " is already ranked");
+        }
+        if (size == times.length) {
+            grow(size * 2);
+        }
+        if (biathlete >= nodeByBiathlete.length) {
+            int length = nodeByBiathlete.length;
+            nodeByBiathlete = Arrays.copyOf(nodeByBiathlete, Math.max(biathlete + 1, length * 2));
+            Arrays.fill(nodeByBiathlete, length, nodeByBiathlete.length, NIL);
+        }
+
+        int node = size++;
+        times[node] = time;
+        biathletes[node] = biathlete;
+        left[node] = NIL;
+        right[node] = NIL;
+        subtreeSizes[node] = 1;
+        priorities[node] = nextPriority();
+        nodeByBiathlete[biathlete] = node;
+
+        root = insertNode(root, node);
+        if (leader == NIL || less(node, leader)) {
+            leader = node;
+        }
+        return countLess(time, biathlete) + 1;
+    }
+
+    protected int insertNode(int node, int inserted) {
+        if (node == NIL) {
+            return inserted;
+        }
+        if (less(inserted, node)) {
+            left[node] = insertNode(left[node], inserted);
+            update(node);
+            if (priorities[left[node]] > priorities[node]) {
+                node = rotateRight(node);
+            }
+        }
+        else {
+            right[node] = insertNode(right[node], inserted);
+            update(node);
+            if (priorities[right[node]] > priorities[node]) {
+                node = rotateLeft(node);
+            }
+        }
+        return node;
+    }
+
+    protected int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    protected int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    protected void update(int node) {
+        subtreeSizes[node] = 1 + sizeOf(left[node]) + sizeOf(right[node]);
+    }
+
+    protected int sizeOf(int node) {
+        return node == NIL ? 0 : subtreeSizes[node];
+    }
+
+    protected boolean less(int a, int b) {
+        return times[a] < times[b] || (times[a] == times[b] && biathletes[a] < biathletes[b]);
+    }
+
+    /**
+     * Liczba zawodników sklasyfikowanych przed podanym kluczem.
+     */
+    protected int countLess(long time, int biathlete) {
+        int count = 0;
+        int node = root;
+        while (node != NIL) {
+            if (times[node] < time || (times[node] == time && biathletes[node] < biathlete)) {
+                count += sizeOf(left[node]) + 1;
+                node = right[node];
+            }
+            else {
+                node = left[node];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Usuwa wszystkich zawodników z klasyfikacji (np. przed kolejną replikacją), zachowując
+     * zaalokowane tablice.
+     */
+    public void clear() {
+        Arrays.fill(nodeByBiathlete, NIL);
+        size = 0;
+        root = NIL;
+        leader = NIL;
+        seed = INITIAL_SEED;
+    }
+
+    /**
+     * Zapisuje klasyfikację do migawki eksperymentu.
+     *
+     * @param out migawka
+     * @see biathlon.Biathlon#writeSnapshotState(SnapshotWriter)
+     */
+    public void writeSnapshot(SnapshotWriter out) {
+        out.writeInt(root);
+        out.writeInt(leader);
+        out.writeInt(seed);
+        out.writeLongs(times, size);
+        out.writeInts(biathletes, size);
+        out.writeInts(left, size);
+        out.writeInts(right, size);
+        out.writeInts(subtreeSizes, size);
+        out.writeInts(priorities, size);
+        out.writeInts(nodeByBiathlete, nodeByBiathlete.length);
+    }
+
+    /**
+     * Odtwarza klasyfikację zapisaną metodą writeSnapshot().
+     *
+     * @param in migawka
+     */
+    public void readSnapshot(SnapshotReader in) {
+        root = in.readInt();
+        leader = in.readInt();
+        seed = in.readInt();
+        long[] nodeTimes = in.readLongs();
+        size = nodeTimes.length;
+        int capacity = Math.max(times.length, size);
+        times = Arrays.copyOf(nodeTimes, capacity);
+        biathletes = Arrays.copyOf(in.readInts(), capacity);
+        left = Arrays.copyOf(in.readInts(), capacity);
+        right = Arrays.copyOf(in.readInts(), capacity);
+        subtreeSizes = Arrays.copyOf(in.readInts(), capacity);
+        priorities = Arrays.copyOf(in.readInts(), capacity);
+        nodeByBiathlete = in.readInts();
+    }
+
+    protected int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    protected void grow(int capacity) {
+        times = Arrays.copyOf(times, capacity);
+        biathletes = Arrays.copyOf(biathletes, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        subtreeSizes = Arrays.copyOf(subtreeSizes, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+    }
+
+    /**
+     * @param biathlete identyfikator zawodnika
+     * @return czy zawodnik dotarł już do punktu pomiaru czasu
+     */
+    public boolean contains(int biathlete) {
+        return biathlete < nodeByBiathlete.length && nodeByBiathlete[biathlete] != NIL;
+    }
+
+    /**
+     * Bieżąca pozycja zawodnika (może się pogorszyć, gdy później startujący zawodnicy uzyskają lepszy czas).
+     * @param biathlete identyfikator zawodnika
+     * @return pozycja (od 1) lub 0, jeśli zawodnik jeszcze nie dotarł
+     */
+    public int getRank(int biathlete) {
+        if (!contains(biathlete)) {
+            return 0;
+        }
+        return countLess(times[nodeByBiathlete[biathlete]], biathlete) + 1;
+    }
+
+    /**
+     * @param biathlete identyfikator zawodnika
+     * @return czas biegu zawodnika na punkcie (w jednostkach epsilon)
+     */
+    public long getTime(int biathlete) {
+        if (!contains(biathlete)) {
+            throw new IllegalArgumentException("Biathlete " + biathlete + " is not ranked");
+        }
+        return times[nodeByBiathlete[biathlete]];
+    }
+
+    /**
+     * @param biathlete identyfikator zawodnika
+     * @return bieżąca strata zawodnika do lidera (w jednostkach epsilon)
+     */
+    public long getLost(int biathlete) {
+        return getTime(biathlete) - getLeaderTime();
+    }
+
+    /**
+     * @param rank pozycja (od 1)
+     * @return identyfikator zawodnika zajmującego daną pozycję
+     */
+    public int getBiathleteAt(int rank) {
+        if (rank < 1 || rank > size) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of 1.." + size);
+        }
+        int node = root;
+        int remaining = rank;
+        while (true) {
+            int leftSize = sizeOf(left[node]);
+            if (remaining <= leftSize) {
+                node = left[node];
+            }
+            else if (remaining == leftSize + 1) {
+                return biathletes[node];
+            }
+            else {
+                remaining -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * @return identyfikator lidera lub -1, jeśli nikt jeszcze nie dotarł
+     */
+    public int getLeader() {
+        return leader == NIL ? -1 : biathletes[leader];
+    }
+
+    /**
+     * @return czas biegu lidera (w jednostkach epsilon)
+     */
+    public long getLeaderTime() {
+        if (leader == NIL) {
+            throw new IllegalStateException("No biathlete has arrived yet");
+        }
+        return times[leader];
+    }
+
+    /**
+     * @return liczba zawodników, którzy dotarli do punktu
+     */
+    public int size() {
+        return size;
+    }
+}
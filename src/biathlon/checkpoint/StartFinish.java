@@ -3,10 +3,9 @@ package biathlon.checkpoint;
 import biathlon.Biathlete;
 import biathlon.Biathlon;
 import biathlon.event.BiathleteEvent;
+import biathlon.event.BiathleteEventStore;
 import biathlon.event.BiathleteFinishRace;
 import desmoj.core.simulator.Model;
-import desmoj.core.simulator.TimeInstant;
-import desmoj.core.simulator.TimeOperations;
 import java.util.Collections;
 import java.util.LinkedList;
 
@@ -23,10 +22,9 @@ public class StartFinish extends Checkpoint {
 
     /**
      * Obsługa przybycia zawodnika do linii startu/mety.
-     * Jeśli był na ostatnim okrążeniu, to kończy się dla niego bieg. Jest tworzony
-     * event i dodawany do zawodnika i do linii startu/mety.
+     * Jeśli był na ostatnim okrążeniu, to kończy się dla niego bieg. Ukończenie biegu
+     * jest zapisywane w magazynie zdarzeń, a zawodnik od razu otrzymuje pozycję w klasyfikacji na żywo.
      * Jest schedule'owany dodatkowo event BiathleteFinishRaceEvent.
-     * Jeśli wszyscy zawodnicy dotarli do mety, jest generowany dodatkowy trace - Final Results.
      * 
      * Jeśli to nie było ostatnie okrążenie, to zawodnik biegnie dalej - jest schedule'owane dotarcie
      * do następnego punktu pomiaru czasu.
@@ -34,16 +32,12 @@ public class StartFinish extends Checkpoint {
      */
     @Override
     public void biathleteArrived(Biathlete biathlete) {
-        if (biathlete.getCurrentLap() >= Biathlon.LAPS) {
-            BiathleteEvent finish = new BiathleteEvent(biathlete, "finishes the race");
-            biathlete.addEvent(finish);
-            eventsByLap.getLast().add(finish);
+        Biathlon model = (Biathlon)getModel();
+        if (biathlete.getCurrentLap() >= model.getConfiguration().getLaps()) {
+            rankArrival(biathlete, model.storeEvent(BiathleteEventStore.FINISH, biathlete, id));
 
             BiathleteFinishRace biathleteFinishRace = new BiathleteFinishRace(getModel(), "BiathleteFinishRaceEvent", true);
             biathleteFinishRace.schedule(biathlete, presentTime());
-            if (eventsByLap.getLast().size() == Biathlon.BIATHLETE_COUNT) {
-                generateFinalTrace();
-            }
         }
         else {
             super.biathleteArrived(biathlete);
@@ -52,44 +46,29 @@ public class StartFinish extends Checkpoint {
     }
 
     /**
-     * Generowanie dodatkowego trace'a zawierającego ostateczne wyniki biegu.
-     * Uwzględnia liczbę niecelnych strzałów na każdym okrążeniu.
+     * Odcinek za linią startu/mety należy już do następnego okrążenia
+     * (zawodnik rozpoczyna je dopiero po zaplanowaniu przybycia do kolejnego punktu pomiaru).
      */
-    public void generateFinalTrace() {
-        biathlon.report.HTMLFileOutput html = new biathlon.report.HTMLFileOutput(this, "Final Results", "final_results");
-        html.startSection("Results");
-        html.startTable("Position", "Name", "Missed Shots", "Time", "Lost");
-        LinkedList<BiathleteEvent> events = eventsByLap.getLast();
+    @Override
+    protected int getNextLegLap(Biathlete biathlete) {
+        return biathlete.getCurrentLap() + 1;
+    }
 
-        Collections.sort(events);
-        TimeInstant firstEventAt = events.getFirst().getBiathleteTime();
-        BiathleteEvent event;
+    /**
+     * Zwraca zdarzenia ukończenia biegu posortowane według czasu zawodników.
+     * Obiekty zdarzeń są tworzone z magazynu zdarzeń przy każdym wywołaniu.
+     * 
+     * @return lista zdarzeń ukończenia biegu (pierwszy element to zwycięzca)
+     */
+    public LinkedList<BiathleteEvent> getResults() {
+        BiathleteEventStore events = ((Biathlon)getModel()).getEvents();
+        LinkedList<BiathleteEvent> results = new LinkedList<BiathleteEvent>();
         for (int i = 0; i < events.size(); i++) {
-            event = events.get(i);
-            StringBuilder missedShots = new StringBuilder(" (");
-            int missedShotCount = 0;
-            int missedShotOnLapCount = 0;
-            for (LinkedList<Boolean> shotsOnLap : event.getBiathlete().getShotResults()) {
-                missedShotOnLapCount = 0;
-                for (Boolean shot : shotsOnLap) {
-                    if (! shot) {
-                        missedShotOnLapCount++;
-                    }
-                }
-                missedShots.append(missedShotOnLapCount).append("+");
-                missedShotCount += missedShotOnLapCount;
+            if (events.getKind(i) == BiathleteEventStore.FINISH) {
+                results.add(events.get(i));
             }
-            missedShots.insert(0, missedShotCount);
-            missedShots.setCharAt(missedShots.length() - 1, ')'); // zamien zbedny '+' na ')'
-            html.insertRow(new Integer(i + 1),
-                           event.getBiathlete(),
-                           missedShots,
-                           event.getBiathleteTime(),
-                           TimeOperations.diff(firstEventAt, event.getBiathleteTime()));
         }
-
-        html.closeTable();
-        html.closeSection();
-        html.close();
+        Collections.sort(results);
+        return results;
     }
 }
@@ -3,42 +3,38 @@
  */
 package biathlon.core;
 
-import biathlon.Biathlon;
-import biathlon.event.BiathleteEvent;
 import desmoj.core.simulator.Model;
 import desmoj.core.simulator.TimeInstant;
-import java.util.LinkedList;
 
 /**
  * Podstawowa klasa, reprezentująca encję.
- * Przechowuje zdarzenia pogrupowane według okrążeń, na których wystąpiły.
- * Posiada osobny trace.
+ * Zdarzenia związane z encją są przechowywane w magazynie zdarzeń modelu (biathlon.event.BiathleteEventStore),
+ * w którym encja jest identyfikowana liczbą całkowitą.
+ * Trace'y nie są tworzone w trakcie symulacji - zdarzenia są zapisywane
+ * do wspólnego trace'a biegu (biathlon.report.RaceTraceOutput) dopiero przy generowaniu raportu.
  * 
  * @author Artur Hebda
  * @see desmoj.core.simulator.Entity
  */
 public class Entity extends desmoj.core.simulator.Entity {
     protected String name;
-    protected LinkedList<LinkedList<BiathleteEvent>> eventsByLap;
-    protected biathlon.report.HTMLFileOutput trace;
+
+    /**
+     * identyfikator encji w magazynie zdarzeń (zawodnika lub miejsca, w zależności od klasy).
+     * -1, jeśli encja nie została zarejestrowana.
+     */
+    protected int id = -1;
 
     public Entity(Model owner, String name, boolean showInTrace) {
         super(owner, name, showInTrace);
         this.name = name;
-
-        eventsByLap = new LinkedList();
-        for (int i = 0; i < Biathlon.LAPS; i++) {
-            eventsByLap.add(new LinkedList());
-        }
-        trace = new biathlon.report.HTMLFileOutput(this, "Trace for " + this);
     }
 
     /**
-     * Metoda, która w tej klasie tylko zamyka otwarty w konstruktorze trace.
-     * W klasach dziedziczących ta metoda powinna służyć do generowania całego trace'a i jego zamykania!
+     * @return identyfikator encji w magazynie zdarzeń modelu
      */
-    public void generateTrace() {
-        trace.close();
+    public int getId() {
+        return id;
     }
 
     @Override
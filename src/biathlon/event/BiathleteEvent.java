@@ -1,6 +1,7 @@
 package biathlon.event;
 
 import biathlon.Biathlete;
+import biathlon.core.Entity;
 import desmoj.core.simulator.TimeInstant;
 import desmoj.core.simulator.TimeSpan;
 import java.util.concurrent.TimeUnit;
@@ -8,51 +9,58 @@ import java.util.concurrent.TimeUnit;
 /**
  * Klasa reprezentująca "zamrożone" zdarzenie związane z biatlonistą.
  * Gdy na trasie wydarzy się coś ciekawego (dotarcie do punktu pomiaru czasu,
- * oddanie strzału na strzelnicy), warto to zapamiętać, by np. potem uwzględnić w trace.
- * Jest to prosta klasa, która przechowuje "zamrożony" czas eventu opisanego przez <tt>message</tt>
- * w układzie związanym z symulacją (czas symulacji), jak i w układzie związanym z zawodnikiem
- * (czas, który upłynął od startu tego zawodnika do wyścigu).
- * Zawiera również "zamrożoną" pozycję zawodnika w stawce i jego ewentualną stratę do lidera.
+ * oddanie strzału na strzelnicy), zdarzenie jest zapisywane w biathlon.event.BiathleteEventStore.
+ * Obiekty tej klasy są tworzone z magazynu dopiero na potrzeby raportów i przechowują czas
+ * eventu opisanego przez <tt>message</tt> w układzie związanym z symulacją (czas symulacji),
+ * jak i w układzie związanym z zawodnikiem (czas, który upłynął od startu tego zawodnika do wyścigu).
+ * Zawierają również pozycję zawodnika w stawce i jego ewentualną stratę do lidera,
+ * okrążenie, na którym wystąpiło zdarzenie, oraz miejsce zdarzenia.
  * 
  * @author Artur Hebda
+ * @see biathlon.event.BiathleteEventStore
  */
-public class BiathleteEvent implements Comparable {
+public class BiathleteEvent implements Comparable<BiathleteEvent> {
     protected Biathlete biathlete;
+    protected Entity place;
     protected TimeInstant biathleteTime, simulationTime;
+    protected int lap;
     protected Integer rank;
     protected TimeSpan lost;
     protected String message;
 
-    public BiathleteEvent(Biathlete biathlete) {
-        storeCurrentTimes(biathlete);
-        this.biathlete = biathlete;
-    }
-
-    public BiathleteEvent(Biathlete biathlete, String message) {
-        storeCurrentTimes(biathlete);
-        this.message = message;
-        this.biathlete = biathlete;
+    /**
+     * Odczytuje zdarzenie z magazynu zdarzeń.
+     * @param store magazyn zdarzeń
+     * @param index indeks zdarzenia w magazynie
+     */
+    public BiathleteEvent(BiathleteEventStore store, int index) {
+        TimeUnit epsilon = store.getEpsilon();
+        this.biathlete = store.getBiathlete(index);
+        this.place = store.getPlace(index);
+        this.biathleteTime = new TimeInstant(store.getBiathleteTime(index), epsilon);
+        this.simulationTime = new TimeInstant(store.getSimulationTime(index), epsilon);
+        this.lap = store.getLap(index);
+        this.message = store.getMessage(index);
+        if (store.getRank(index) != BiathleteEventStore.NO_RANK) {
+            this.rank = store.getRank(index);
+            this.lost = new TimeSpan(store.getLost(index), epsilon);
+        }
     }
 
     /**
-     * "Zamraża" aktualny czas w układzie symulacji i biatlonisty.
-     * workaround braku możliwości skopiowania obiektu TimeInstant.
+     * Okrążenie zawodnika w chwili zdarzenia.
+     * @return numer okrążenia (od 1)
      */
-    protected final void storeCurrentTimes(Biathlete biathlete) {
-        biathleteTime = new TimeInstant(biathlete.lifeTime().getTimeAsDouble(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
-        simulationTime = new TimeInstant(biathlete.presentTime().getTimeAsDouble(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+    public int getLap() {
+        return lap;
     }
 
     /**
-     * "Zamraża" aktualną pozycję zawodnika.
-     * Jeśli zawodnik jest liderem, można od razu ustawić zerową stratę do lidera.
-     * @param rank pozycja zawodnika (np. na punkcie pomiaru czasu)
+     * Miejsce zdarzenia; dla zdarzeń bez miejsca (np. start) jest nim sam zawodnik.
+     * @return encja, która zapisała zdarzenie
      */
-    public void setRank(int rank) {
-        this.rank = rank;
-        if (this.rank == 1) {
-            this.lost = TimeSpan.ZERO;
-        }
+    public Entity getPlace() {
+        return place;
     }
 
     /**
@@ -63,14 +71,6 @@ public class BiathleteEvent implements Comparable {
         return rank;
     }
 
-    /**
-     * "Zamraża" aktualną stratę zawodnika do lidera.
-     * @param lost strata do lidera
-     */
-    public void setLost(TimeSpan lost) {
-        this.lost = lost;
-    }
-
     /**
      * Zwraca stratę lidera w czasie tego zdarzenia.
      * @return strata do lidera
@@ -109,13 +109,12 @@ public class BiathleteEvent implements Comparable {
 
     /**
      * Event jest mniejszy, gdy jego czas w układzie biatlonisty jest mniejszy.
-     * @param o inny event klasy BiathleteEvent
+     * @param other inny event
      * @return wynik porównania
      * @see Comparable
      */
     @Override
-    public int compareTo(Object o) {
-        BiathleteEvent other = (BiathleteEvent)o;
+    public int compareTo(BiathleteEvent other) {
         return biathleteTime.compareTo(other.getBiathleteTime());
     }
 }
@@ -0,0 +1,422 @@
+package biathlon.event;
+
+import biathlon.Biathlete;
+import biathlon.ShootingArea;
+import biathlon.core.Entity;
+import desmoj.core.simulator.SnapshotReader;
+import desmoj.core.simulator.SnapshotWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kolumnowy magazyn zdarzeń biegu.
+ * Zamiast tworzyć obiekt BiathleteEvent dla każdego przybycia do punktu pomiaru czasu i każdego strzału,
+ * zapisuje zdarzenie jako wiersz w rosnących tablicach typów prostych: czas symulacji (w jednostkach epsilon),
+ * identyfikator zawodnika, identyfikator miejsca, rodzaj zdarzenia, okrążenie, pozycję i stratę do lidera.
+ * Zdarzenia są dopisywane w kolejności czasu symulacji, a obiekty BiathleteEvent
+ * tworzone są dopiero na potrzeby raportów (metoda get()).
+ *
+ * Czas zdarzenia w układzie zawodnika nie jest przechowywany - wynika z czasu symulacji
+ * i czasu startu zawodnika.
+ *
+ * @author Artur Hebda
+ * @see biathlon.event.BiathleteEvent
+ */
+public class BiathleteEventStore {
+    /**
+     * rodzaje zdarzeń.
+     */
+    public static final byte START = 0;
+    public static final byte ARRIVAL = 1;
+    public static final byte HIT = 2;
+    public static final byte MISS = 3;
+    public static final byte FINISH = 4;
+
+    /**
+     * opisy startu i ukończenia biegu.
+     */
+    public static final String START_MESSAGE = "starts the race";
+    public static final String FINISH_MESSAGE = "finishes the race";
+
+    /**
+     * oznaczenie braku pozycji (zdarzenie poza punktem pomiaru czasu).
+     */
+    public static final int NO_RANK = 0;
+
+    /**
+     * jednostka, w której zapisywane są czasy.
+     */
+    protected final TimeUnit epsilon;
+
+    protected int size = 0;
+    protected long[] times;
+    protected int[] biathletes;
+    protected int[] places;
+    protected byte[] kinds;
+    protected short[] laps;
+    protected int[] ranks;
+    protected long[] losts;
+
+    /**
+     * czas startu zawodników (w jednostkach epsilon), indeksowany identyfikatorem zawodnika.
+     */
+    protected long[] startTimes = new long[16];
+    protected final List<Biathlete> biathleteEntities = new ArrayList<Biathlete>();
+    protected final List<Entity> placeEntities = new ArrayList<Entity>();
+
+    /**
+     * liczba okrążeń; wyznaczana w metodzie rank().
+     */
+    protected int lapCount;
+
+    /**
+     * @param capacity początkowa liczba zdarzeń, dla których rezerwowane jest miejsce
+     * @param epsilon jednostka epsilon eksperymentu (jednostka zapisywanych czasów)
+     */
+    public BiathleteEventStore(int capacity, TimeUnit epsilon) {
+        this.epsilon = epsilon;
+        capacity = Math.max(16, capacity);
+        times = new long[capacity];
+        biathletes = new int[capacity];
+        places = new int[capacity];
+        kinds = new byte[capacity];
+        laps = new short[capacity];
+        ranks = new int[capacity];
+        losts = new long[capacity];
+    }
+
+    /**
+     * Rejestruje zawodnika.
+     * @param biathlete zawodnik
+     * @param startTime czas startu w jednostkach epsilon
+     * @return identyfikator zawodnika (kolejne liczby od 0)
+     */
+    public int addBiathlete(Biathlete biathlete, long startTime) {
+        int id = biathleteEntities.size();
+        if (id == startTimes.length) {
+            startTimes = Arrays.copyOf(startTimes, id * 2);
+        }
+        startTimes[id] = startTime;
+        biathleteEntities.add(biathlete);
+        return id;
+    }
+
+    /**
+     * Usuwa wszystkie zdarzenia i zarejestrowanych zawodników (przed kolejną replikacją biegu),
+     * zachowując miejsca zdarzeń i zaalokowane tablice.
+     */
+    public void clear() {
+        size = 0;
+        biathleteEntities.clear();
+        lapCount = 0;
+    }
+
+    /**
+     * Zapisuje zdarzenia i czasy startu zawodników do migawki eksperymentu.
+     * Zawodnicy i miejsca nie są zapisywane - odtwarza je model.
+     *
+     * @param out migawka
+     * @see biathlon.Biathlon#writeSnapshotState(SnapshotWriter)
+     */
+    public void writeSnapshot(SnapshotWriter out) {
+        out.writeLongs(times, size);
+        out.writeInts(biathletes, size);
+        out.writeInts(places, size);
+        out.writeBytes(kinds, size);
+        out.writeShorts(laps, size);
+        out.writeInts(ranks, size);
+        out.writeLongs(losts, size);
+        out.writeLongs(startTimes, biathleteEntities.size());
+        out.writeInt(lapCount);
+    }
+
+    /**
+     * Odtwarza zdarzenia zapisane metodą writeSnapshot().
+     * Zawodnicy muszą zostać wcześniej zarejestrowani (addBiathlete()) w tej samej kolejności.
+     *
+     * @param in migawka
+     */
+    public void readSnapshot(SnapshotReader in) {
+        long[] eventTimes = in.readLongs();
+        size = eventTimes.length;
+        int capacity = Math.max(times.length, size);
+        times = Arrays.copyOf(eventTimes, capacity);
+        biathletes = Arrays.copyOf(in.readInts(), capacity);
+        places = Arrays.copyOf(in.readInts(), capacity);
+        kinds = Arrays.copyOf(in.readBytes(), capacity);
+        laps = Arrays.copyOf(in.readShorts(), capacity);
+        ranks = Arrays.copyOf(in.readInts(), capacity);
+        losts = Arrays.copyOf(in.readLongs(), capacity);
+        long[] biathleteStartTimes = in.readLongs();
+        if (biathleteStartTimes.length != biathleteEntities.size()) {
+            throw new IllegalStateException(biathleteStartTimes.length + " biathletes are required, "
+                    + biathleteEntities.size() + " are registered");
+        }
+        System.arraycopy(biathleteStartTimes, 0, startTimes, 0, biathleteStartTimes.length);
+        lapCount = in.readInt();
+    }
+
+    /**
+     * Rejestruje miejsce zdarzeń (punkt pomiaru czasu lub strzelnicę).
+     * @param place miejsce
+     * @return identyfikator miejsca (kolejne liczby od 0)
+     */
+    public int addPlace(Entity place) {
+        placeEntities.add(place);
+        return placeEntities.size() - 1;
+    }
+
+    /**
+     * Dopisuje zdarzenie.
+     * @param kind rodzaj zdarzenia
+     * @param biathlete identyfikator zawodnika
+     * @param place identyfikator miejsca lub -1 (zdarzenie bez miejsca, np. start)
+     * @param lap okrążenie (od 1)
+     * @param time czas symulacji w jednostkach epsilon
+     * @return indeks zdarzenia
+     */
+    public int add(byte kind, int biathlete, int place, int lap, long time) {
+        if (size == times.length) {
+            grow();
+        }
+        times[size] = time;
+        biathletes[size] = biathlete;
+        places[size] = place;
+        kinds[size] = kind;
+        laps[size] = (short)lap;
+        ranks[size] = NO_RANK;
+        losts[size] = 0;
+        return size++;
+    }
+
+    protected void grow() {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        biathletes = Arrays.copyOf(biathletes, capacity);
+        places = Arrays.copyOf(places, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        laps = Arrays.copyOf(laps, capacity);
+        ranks = Arrays.copyOf(ranks, capacity);
+        losts = Arrays.copyOf(losts, capacity);
+    }
+
+    /**
+     * Zapisuje pozycję zdarzenia, np. pozycję na żywo w chwili przybycia do punktu pomiaru czasu.
+     * @param index indeks zdarzenia
+     * @param rank pozycja (od 1)
+     * @param lost strata do lidera w jednostkach epsilon
+     * @see biathlon.checkpoint.Standings
+     */
+    public void setRank(int index, int rank, long lost) {
+        ranks[index] = rank;
+        losts[index] = lost;
+    }
+
+    /**
+     * Ustala ostateczne pozycje przy każdym przybyciu do punktu pomiaru czasu (także na metę),
+     * osobno dla każdego miejsca i okrążenia, według czasu w układzie zawodnika.
+     * Zastępuje pozycje zapisane na żywo (zawodnicy startujący później mogli wyprzedzić
+     * wcześniej sklasyfikowanych). Zawodnicy z identycznym czasem otrzymują tę samą pozycję.
+     */
+    public void rank() {
+        lapCount = 0;
+        for (int i = 0; i < size; i++) {
+            lapCount = Math.max(lapCount, laps[i]);
+        }
+        int groupCount = placeEntities.size() * (lapCount + 1);
+
+        // sortowanie kubełkowe według grupy (miejsce, okrążenie), następnie czasy w obrębie grupy
+        int[] offsets = new int[groupCount + 1];
+        for (int i = 0; i < size; i++) {
+            if (isRanked(i)) {
+                offsets[group(i) + 1]++;
+            }
+        }
+        for (int g = 0; g < groupCount; g++) {
+            offsets[g + 1] += offsets[g];
+        }
+        long[] sortedTimes = new long[offsets[groupCount]];
+        int[] fill = Arrays.copyOf(offsets, groupCount);
+        for (int i = 0; i < size; i++) {
+            if (isRanked(i)) {
+                sortedTimes[fill[group(i)]++] = getBiathleteTime(i);
+            }
+        }
+
+        long[] leaderTimes = new long[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            Arrays.sort(sortedTimes, offsets[g], offsets[g + 1]);
+            if (offsets[g] < offsets[g + 1]) {
+                leaderTimes[g] = sortedTimes[offsets[g]];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (isRanked(i)) {
+                int g = group(i);
+                ranks[i] = lowerBound(sortedTimes, offsets[g], offsets[g + 1], getBiathleteTime(i)) - offsets[g] + 1;
+                losts[i] = getBiathleteTime(i) - leaderTimes[g];
+            }
+        }
+    }
+
+    /**
+     * Zwraca pozycje, na których zawodnicy ukończyli bieg, bez tworzenia obiektów zdarzeń.
+     * 
+     * @return tablica indeksowana identyfikatorem zawodnika, zawierająca miejsce na mecie (od 1).
+     * Zawodnicy, którzy nie ukończyli biegu, mają miejsce 0.
+     */
+    public int[] getFinishingPositions() {
+        int finishCount = 0;
+        long[] finishTimes = new long[biathleteEntities.size()];
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == FINISH) {
+                finishTimes[finishCount++] = getBiathleteTime(i);
+            }
+        }
+        Arrays.sort(finishTimes, 0, finishCount);
+
+        int[] positions = new int[biathleteEntities.size()];
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == FINISH) {
+                positions[biathletes[i]] = lowerBound(finishTimes, 0, finishCount, getBiathleteTime(i)) + 1;
+            }
+        }
+        return positions;
+    }
+
+    protected boolean isRanked(int index) {
+        return kinds[index] == ARRIVAL || kinds[index] == FINISH;
+    }
+
+    protected int group(int index) {
+        return places[index] * (lapCount + 1) + laps[index];
+    }
+
+    protected static int lowerBound(long[] values, int from, int to, long value) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (values[middle] < value) {
+                from = middle + 1;
+            }
+            else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Tworzy obiekt zdarzenia na potrzeby raportu.
+     * @param index indeks zdarzenia
+     * @return zdarzenie
+     */
+    public BiathleteEvent get(int index) {
+        return new BiathleteEvent(this, index);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte getKind(int index) {
+        return kinds[index];
+    }
+
+    public int getBiathleteId(int index) {
+        return biathletes[index];
+    }
+
+    public Biathlete getBiathlete(int index) {
+        return biathleteEntities.get(biathletes[index]);
+    }
+
+    /**
+     * @return miejsce zdarzenia; dla zdarzeń bez miejsca (np. start) sam zawodnik
+     */
+    public Entity getPlace(int index) {
+        return places[index] < 0 ? getBiathlete(index) : placeEntities.get(places[index]);
+    }
+
+    public int getLap(int index) {
+        return laps[index];
+    }
+
+    /**
+     * @return czas symulacji w jednostkach epsilon
+     */
+    public long getSimulationTime(int index) {
+        return times[index];
+    }
+
+    /**
+     * @return czas, który upłynął od startu zawodnika, w jednostkach epsilon
+     */
+    public long getBiathleteTime(int index) {
+        return times[index] - startTimes[biathletes[index]];
+    }
+
+    /**
+     * @return pozycja (na żywo lub ostateczna, zob. rank()) lub NO_RANK
+     */
+    public int getRank(int index) {
+        return ranks[index];
+    }
+
+    /**
+     * @return strata do lidera w jednostkach epsilon; ma sens tylko, gdy pozycja została ustalona
+     */
+    public long getLost(int index) {
+        return losts[index];
+    }
+
+    /**
+     * Opis zdarzenia (tworzony dopiero na potrzeby raportu).
+     * @param index indeks zdarzenia
+     * @return opis
+     */
+    public String getMessage(int index) {
+        switch (kinds[index]) {
+            case START: return START_MESSAGE;
+            case ARRIVAL: return "arrives at " + getPlace(index);
+            case HIT: return ShootingArea.HIT_MESSAGE;
+            case MISS: return ShootingArea.MISS_MESSAGE;
+            case FINISH: return FINISH_MESSAGE;
+            default: return null;
+        }
+    }
+
+    public TimeUnit getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * Zamienia czas zapisany w jednostkach epsilon na milisekundy.
+     * @param time czas w jednostkach epsilon
+     * @return czas w milisekundach
+     */
+    public double toMillis(long time) {
+        long epsilonsPerMillisecond = epsilon.convert(1, TimeUnit.MILLISECONDS);
+        if (epsilonsPerMillisecond > 0) {
+            return time / (double)epsilonsPerMillisecond;
+        }
+        return TimeUnit.MILLISECONDS.convert(time, epsilon);
+    }
+
+    public int getBiathleteCount() {
+        return biathleteEntities.size();
+    }
+
+    public Biathlete getBiathleteById(int id) {
+        return biathleteEntities.get(id);
+    }
+
+    /**
+     * @param id identyfikator miejsca
+     * @return miejsce zdarzeń (punkt pomiaru czasu lub strzelnica)
+     */
+    public Entity getPlaceById(int id) {
+        return placeEntities.get(id);
+    }
+}
@@ -12,8 +12,6 @@ import desmoj.core.simulator.Model;
  * @author Artur Hebda
  */
 public class BiathleteGenerator extends ExternalEvent {
-    public static Integer number = 1;
-
     public BiathleteGenerator(Model owner, String name, boolean showInTrace) {
         super(owner, name, showInTrace);
     }
@@ -29,15 +27,13 @@ public class BiathleteGenerator extends ExternalEvent {
         Biathlon model = (Biathlon)getModel();
 
         // stworz zawodnika
-        Biathlete biathlete = new Biathlete(model, "Biathlete: " + number, true);
-        number++;
-
-        biathlete.addEvent(new BiathleteEvent(biathlete, "starts the race"));
+        Biathlete biathlete = new Biathlete(model, "Biathlete: " + model.nextBiathleteNumber(), true);
+        model.storeEvent(BiathleteEventStore.START, biathlete, -1);
 
         // dodaj do kolejki
         model.getBiathletes().insert(biathlete);
         
         // zaschedule'uj event do nastepnego punktu pomiaru czasu
-        Checkpoint.scheduleArrival(model.getCheckpoints().first(), biathlete, model.getCheckpointArrivalTime());
+        Checkpoint.scheduleArrival(model.getCheckpoints().first(), biathlete, model.getCheckpointArrivalDelayInEpsilon(biathlete, biathlete.getCurrentLap()));
     }
 }
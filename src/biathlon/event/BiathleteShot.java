@@ -6,7 +6,7 @@ import biathlon.ShootingArea;
 import biathlon.checkpoint.Checkpoint;
 import desmoj.core.simulator.EventOf2Entities;
 import desmoj.core.simulator.Model;
-import desmoj.core.simulator.TimeSpan;
+import desmoj.core.simulator.TimeOperations;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -32,23 +32,20 @@ public class BiathleteShot extends EventOf2Entities<Biathlete, ShootingArea> {
     public void eventRoutine(Biathlete biathlete, ShootingArea shootingArea) {
         Biathlon model = (Biathlon)getModel();
 
-        String message;
-        boolean hit = model.getShotResult();
+        boolean hit = model.getShotResult(biathlete);
 
         biathlete.saveShotResult(hit);
-        if (hit) { message = " shots on target "; }
-        else { message = " shots and misses "; }
-        shootingArea.storeShot(biathlete, message);
+        shootingArea.storeShot(biathlete, hit);
  
         // jesli nie oddal 5 strzalow w serii, powtorz strzelanie
-        if (biathlete.getCurrentShootingSession().size() < 5) {
+        if (biathlete.getCurrentShootingSessionShots() < Biathlon.SHOTS_PER_SESSION) {
             BiathleteShot biathleteShot = new BiathleteShot(model, "BiathleteShotEvent", true);
-            biathleteShot.schedule(biathlete, shootingArea, model.getShotTime());
+            biathleteShot.scheduleInEpsilon(biathlete, shootingArea, model.getShotDelayInEpsilon(biathlete));
         }
         // w przeciwnym razie dolicz ewentualne kary i odwiedz checkpoint zaraz za strzelnica
         else {
             int missCount = biathlete.countCurrentShootingSessionMisses();
-            Checkpoint.scheduleArrival(shootingArea.getAfterCheckpoint(), biathlete, new TimeSpan(missCount * Biathlon.MISS_PENALTY_IN_SECONDS, TimeUnit.SECONDS));
+            Checkpoint.scheduleArrival(shootingArea.getAfterCheckpoint(), biathlete, TimeOperations.toEpsilon(missCount * model.getConfiguration().getMissPenaltyInSeconds(), TimeUnit.SECONDS));
         }
     }
 }
\ No newline at end of file
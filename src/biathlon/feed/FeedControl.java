@@ -0,0 +1,37 @@
+package biathlon.feed;
+
+import desmoj.core.simulator.ExternalEvent;
+import desmoj.core.simulator.Model;
+
+/**
+ * Zdarzenia sterujące odtwarzaniem zapisu pomiaru czasu:
+ * - początek (w chwili 0) - harmonogram zsynchronizował czas symulacji z czasem rzeczywistym,
+ *   więc wątek odtwarzający może zacząć wstrzykiwać międzyczasy,
+ * - koniec - zapis się skończył (lub upłynął maksymalny czas odtwarzania) i symulacja jest zatrzymywana.
+ *
+ * @author Artur Hebda
+ * @see biathlon.feed.SplitFeedModel
+ */
+public class FeedControl extends ExternalEvent {
+    protected final boolean start;
+
+    /**
+     * @param start true - zdarzenie początku odtwarzania, false - zdarzenie końca
+     * @see desmoj.core.simulator.ExternalEvent
+     */
+    public FeedControl(Model owner, String name, boolean showInTrace, boolean start) {
+        super(owner, name, showInTrace);
+        this.start = start;
+    }
+
+    @Override
+    public void eventRoutine() {
+        SplitFeedModel model = (SplitFeedModel)getModel();
+        if (start) {
+            model.feedStarted();
+        }
+        else {
+            model.feedEnded();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package biathlon.feed;
+
+import desmoj.core.simulator.ExternalEvent;
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.RealTimeEventWrapper;
+
+/**
+ * Zdarzenie 'nadejście międzyczasu' - zdarzenie z zapisu pomiaru czasu wstrzykiwane do działającej
+ * symulacji przez wątek odtwarzający (biathlon.feed.SplitFeedPlayer), ścieżką czasu rzeczywistego
+ * harmonogramu (desmoj.core.simulator.RealTimeEventWrapper).
+ * Obiekty zdarzeń (wraz z opakowaniem czasu rzeczywistego) pochodzą z puli modelu i wracają do niej
+ * po obsłużeniu, więc odtwarzanie nie tworzy obiektów dla kolejnych międzyczasów.
+ *
+ * @author Artur Hebda
+ * @see biathlon.feed.SplitFeedModel#acquireArrival()
+ */
+public class SplitArrival extends ExternalEvent {
+    protected final SplitFeedReader.Split split = new SplitFeedReader.Split();
+    protected final RealTimeEventWrapper wrapper;
+
+    /**
+     * chwila wstrzyknięcia zdarzenia (System.nanoTime()).
+     */
+    protected long injectedAt;
+
+    public SplitArrival(Model owner, String name, boolean showInTrace) {
+        super(owner, name, showInTrace);
+        wrapper = new RealTimeEventWrapper(this, 0);
+    }
+
+    /**
+     * Wstrzykuje międzyczas do symulacji w bieżącej chwili czasu rzeczywistego.
+     * Może być wywołane z dowolnego wątku.
+     *
+     * @param split międzyczas (kopiowany)
+     */
+    public void inject(SplitFeedReader.Split split) {
+        this.split.set(split);
+        injectedAt = System.nanoTime();
+        wrapper.setNanos(injectedAt);
+        wrapper.realTimeSchedule();
+    }
+
+    /**
+     * Wywoływane podczas zajścia zdarzenia. Przekazuje międzyczas modelowi.
+     */
+    @Override
+    public void eventRoutine() {
+        ((SplitFeedModel)getModel()).splitArrived(this);
+    }
+
+    public SplitFeedReader.Split getSplit() {
+        return split;
+    }
+
+    public long getInjectedAt() {
+        return injectedAt;
+    }
+}
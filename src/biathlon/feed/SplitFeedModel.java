@@ -0,0 +1,178 @@
+package biathlon.feed;
+
+import biathlon.RaceConfiguration;
+import biathlon.forecast.RaceState;
+import desmoj.core.simulator.Model;
+import desmoj.core.simulator.RealTimeEventWrapper;
+import desmoj.core.simulator.TimeInstant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model odtwarzania zapisu pomiaru czasu: międzyczasy nadchodzą jako zdarzenia zewnętrzne
+ * (biathlon.feed.SplitArrival) wstrzykiwane w czasie rzeczywistym przez wątek odtwarzający
+ * i aktualizują stan biegu (biathlon.forecast.RaceState), np. na potrzeby prognozy wyników.
+ *
+ * Liczba zdarzeń oczekujących na obsłużenie jest ograniczona wielkością puli zdarzeń -
+ * gdy symulacja nie nadąża, wątek odtwarzający czeka na zwolnienie zdarzenia (back-pressure).
+ * Do zakończenia odtwarzania symulacja jest podtrzymywana zdarzeniem końca zaplanowanym
+ * na FEED_HORIZON_IN_DAYS - w przeciwnym razie harmonogram zakończyłby ją przy pustej liście zdarzeń.
+ * Horyzont jest odległy, bo przy dużym przyspieszeniu nawet doba symulacji trwa ułamek sekundy.
+ *
+ * @author Artur Hebda
+ * @see biathlon.feed.SplitFeedPlayer
+ */
+public class SplitFeedModel extends Model {
+    /**
+     * maksymalny czas (symulacji) odtwarzania zapisu.
+     */
+    public static final int FEED_HORIZON_IN_DAYS = 3650;
+
+    /**
+     * co ile milisekund wątek czekający na wolne zdarzenie sprawdza, czy odtwarzanie się nie zakończyło.
+     */
+    protected static final long ACQUIRE_POLL_IN_MILLISECONDS = 10;
+
+    protected final RaceConfiguration configuration;
+
+    /**
+     * liczba zdarzeń w puli (maksymalna liczba międzyczasów oczekujących na obsłużenie).
+     */
+    protected final int capacity;
+
+    protected RaceState state;
+    protected BlockingQueue<SplitArrival> freeArrivals;
+    protected FeedControl feedEnd;
+    protected final CountDownLatch started = new CountDownLatch(1);
+    protected volatile boolean ended = false;
+
+    /**
+     * statystyki: liczba obsłużonych międzyczasów oraz opóźnienie obsłużenia względem wstrzyknięcia.
+     */
+    protected long splitCount = 0;
+    protected long totalLagNanos = 0;
+    protected long maxLagNanos = 0;
+
+    /**
+     * @param configuration konfiguracja odtwarzanego biegu
+     * @param capacity maksymalna liczba międzyczasów oczekujących na obsłużenie
+     * @see desmoj.core.simulator.Model
+     */
+    public SplitFeedModel(Model owner, String modelName, boolean showInReport, boolean showInTrace,
+                          RaceConfiguration configuration, int capacity) {
+        super(owner, modelName, showInReport, showInTrace);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.configuration = configuration;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String description() {
+        return "Odtwarzanie zapisu pomiaru czasu biegu w czasie rzeczywistym (z przyspieszeniem).";
+    }
+
+    @Override
+    public void init() {
+        state = new RaceState(configuration);
+        freeArrivals = new ArrayBlockingQueue<SplitArrival>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            freeArrivals.add(new SplitArrival(this, "SplitArrival", false));
+        }
+        feedEnd = new FeedControl(this, "FeedEnd", false, false);
+    }
+
+    @Override
+    public void doInitialSchedules() {
+        new FeedControl(this, "FeedStart", false, true).schedule(new TimeInstant(0));
+        new FeedControl(this, "FeedHorizon", false, false).schedule(new TimeInstant(FEED_HORIZON_IN_DAYS, TimeUnit.DAYS));
+    }
+
+    /**
+     * Pobiera wolne zdarzenie z puli; czeka, jeśli wszystkie oczekują na obsłużenie.
+     *
+     * @return zdarzenie gotowe do wstrzyknięcia (SplitArrival#inject) lub null,
+     * jeśli odtwarzanie zostało już zakończone
+     */
+    public SplitArrival acquireArrival() throws InterruptedException {
+        SplitArrival arrival;
+        while ((arrival = freeArrivals.poll(ACQUIRE_POLL_IN_MILLISECONDS, TimeUnit.MILLISECONDS)) == null) {
+            if (ended) {
+                return null;
+            }
+        }
+        return arrival;
+    }
+
+    /**
+     * Obsługa międzyczasu - aktualizacja stanu biegu i zwrot zdarzenia do puli.
+     *
+     * @param arrival zdarzenie międzyczasu
+     */
+    protected void splitArrived(SplitArrival arrival) {
+        state.update(arrival.getSplit());
+
+        long lag = System.nanoTime() - arrival.getInjectedAt();
+        splitCount++;
+        totalLagNanos += lag;
+        maxLagNanos = Math.max(maxLagNanos, lag);
+
+        freeArrivals.add(arrival);
+    }
+
+    /**
+     * Wywoływane w chwili 0, po zsynchronizowaniu czasu symulacji z czasem rzeczywistym.
+     */
+    protected void feedStarted() {
+        started.countDown();
+    }
+
+    /**
+     * Czeka, aż symulacja zacznie przyjmować zdarzenia czasu rzeczywistego.
+     */
+    public void awaitStart() throws InterruptedException {
+        started.await();
+    }
+
+    /**
+     * Informuje symulację o końcu zapisu (z dowolnego wątku) - zostanie zatrzymana
+     * po obsłużeniu wcześniej wstrzykniętych międzyczasów.
+     */
+    public void endFeed() {
+        new RealTimeEventWrapper(feedEnd, System.nanoTime()).realTimeSchedule();
+    }
+
+    protected void feedEnded() {
+        ended = true;
+        getExperiment().stop();
+    }
+
+    /**
+     * @return czy odtwarzanie zostało zakończone (koniec zapisu lub upływ horyzontu)
+     */
+    public boolean isEnded() {
+        return ended;
+    }
+
+    public RaceState getState() {
+        return state;
+    }
+
+    public long getSplitCount() {
+        return splitCount;
+    }
+
+    /**
+     * @return średnie opóźnienie obsłużenia międzyczasu względem jego wstrzyknięcia, w nanosekundach
+     */
+    public double getMeanLagNanos() {
+        return splitCount == 0 ? 0.0 : (double)totalLagNanos / splitCount;
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+}
@@ -0,0 +1,143 @@
+package biathlon.feed;
+
+import biathlon.RaceConfiguration;
+import biathlon.report.RaceTraceOutput;
+import desmoj.core.simulator.Experiment;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wątek odtwarzający zapis pomiaru czasu: czyta kolejne międzyczasy (biathlon.feed.SplitFeedReader)
+ * i wstrzykuje je do działającej symulacji (biathlon.feed.SplitFeedModel) w chwili czasu rzeczywistego
+ * odpowiadającej ich czasowi symulacji podzielonemu przez przyspieszenie.
+ * To samo przyspieszenie musi być ustawione w eksperymencie (Experiment#setExecutionSpeedRate(double)),
+ * by harmonogram przeliczał czas rzeczywisty na czas symulacji w tej samej skali.
+ * Jeśli symulacja nie nadąża, wątek czeka na zwolnienie zdarzenia z puli modelu;
+ * kończy pracę, gdy odtwarzanie zostanie zakończone po stronie symulacji.
+ *
+ * {@code
+ *      experiment.setExecutionSpeedRate(100);
+ *      Thread player = new Thread(new SplitFeedPlayer(model, "traces/race.csv", 100));
+ *      player.start();
+ *      experiment.start();
+ * }
+ *
+ * @author Artur Hebda
+ */
+public class SplitFeedPlayer implements Runnable {
+    protected final SplitFeedModel model;
+    protected final String fileName;
+    protected final double speedUp;
+
+    protected volatile long injectedCount = 0;
+    protected volatile IOException failure;
+
+    /**
+     * @param model model, do którego wstrzykiwane są międzyczasy
+     * @param fileName plik z zapisem pomiaru czasu (w formacie biathlon.report.RaceTraceOutput)
+     * @param speedUp przyspieszenie odtwarzania względem czasu rzeczywistego
+     */
+    public SplitFeedPlayer(SplitFeedModel model, String fileName, double speedUp) {
+        if (!(speedUp > 0) || Double.isInfinite(speedUp)) {
+            throw new IllegalArgumentException("Speed-up must be positive and finite");
+        }
+        this.model = model;
+        this.fileName = fileName;
+        this.speedUp = speedUp;
+    }
+
+    @Override
+    public void run() {
+        SplitFeedReader reader = null;
+        try {
+            model.awaitStart();
+            reader = new SplitFeedReader(fileName);
+            SplitFeedReader.Split split = new SplitFeedReader.Split();
+            long startedAt = System.nanoTime();
+            while (!model.isEnded() && reader.next(split)) {
+                long due = startedAt + (long)(split.getSimulationTime() * 1e6 / speedUp);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                SplitArrival arrival = model.acquireArrival();
+                if (arrival == null) {
+                    break;
+                }
+                arrival.inject(split);
+                injectedCount++;
+            }
+        }
+        catch (IOException e) {
+            failure = e;
+            System.out.println("IOException thrown : " + e);
+            System.out.println("description: Can't read split feed " + fileName);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                }
+                catch (IOException e) {
+                    System.out.println("IOException thrown : " + e);
+                }
+            }
+            model.endFeed();
+        }
+    }
+
+    public long getInjectedCount() {
+        return injectedCount;
+    }
+
+    /**
+     * @return błąd odczytu zapisu lub null
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Odtwarza zapis pomiaru czasu z przyspieszeniem i wypisuje liczbę obsłużonych międzyczasów,
+     * czas odtwarzania oraz opóźnienie ich obsłużenia.
+     *
+     * @param args [plik] [przyspieszenie] [wielkość puli zdarzeń]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String fileName = args.length > 0 ? args[0] : RaceTraceOutput.DEFAULT_FILE_NAME;
+        double speedUp = args.length > 1 ? Double.parseDouble(args[1]) : 100;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        Experiment experiment = new Experiment("Split Feed Replay", false);
+        experiment.setSilent(true);
+        experiment.setShowProgressBar(false);
+        experiment.setExecutionSpeedRate(speedUp);
+
+        SplitFeedModel model = new SplitFeedModel(null, "Split Feed", false, false, new RaceConfiguration(), capacity);
+        model.connectToExperiment(experiment);
+
+        SplitFeedPlayer player = new SplitFeedPlayer(model, fileName, speedUp);
+        Thread thread = new Thread(player, "SplitFeedPlayer");
+        long startedAt = System.nanoTime();
+        thread.start();
+        experiment.start();
+        experiment.finish();
+        thread.join();
+        double elapsed = (System.nanoTime() - startedAt) / 1e9;
+
+        int finished = 0;
+        for (int i = 0; i < model.getState().getBiathleteCount(); i++) {
+            if (model.getState().isFinished(i)) {
+                finished++;
+            }
+        }
+        System.out.println(String.format("%d of %d splits processed in %.2f s (speed-up %.0fx, %.1f simulated minutes)",
+                model.getSplitCount(), player.getInjectedCount(), elapsed, speedUp,
+                model.getState().getSimulationTime() / 60000));
+        System.out.println(String.format("lag: mean %.3f ms, max %.3f ms; %d biathletes finished",
+                model.getMeanLagNanos() / 1e6, model.getMaxLagNanos() / 1e6, finished));
+    }
+}
@@ -0,0 +1,393 @@
+/**
+ * Odtwarzanie zapisów pomiaru czasu (międzyczasów) jako zdarzeń zewnętrznych symulacji.
+ */
+package biathlon.feed;
+
+import biathlon.Biathlete;
+import biathlon.ShootingArea;
+import biathlon.checkpoint.AfterShootingArea;
+import biathlon.checkpoint.BeforeShootingArea;
+import biathlon.checkpoint.Checkpoint;
+import biathlon.checkpoint.StartFinish;
+import biathlon.event.BiathleteEventStore;
+import biathlon.forecast.RaceState;
+import biathlon.report.RaceTraceOutput;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Strumieniowy odczyt zapisu pomiaru czasu w formacie trace'a biegu (biathlon.report.RaceTraceOutput).
+ * Plik jest czytany kanałem NIO do jednego bufora, a pola wiersza są rozpoznawane bezpośrednio
+ * w bajtach - bez tworzenia obiektów String dla wierszy i pól. Kolejne zdarzenia trafiają
+ * do jednego, wielokrotnie używanego obiektu Split.
+ *
+ * {@code
+ *      SplitFeedReader reader = new SplitFeedReader("traces/race.csv");
+ *      SplitFeedReader.Split split = new SplitFeedReader.Split();
+ *      while (reader.next(split)) {
+ *          state.update(split);
+ *      }
+ *      reader.close();
+ * }
+ *
+ * @author Artur Hebda
+ */
+public class SplitFeedReader implements Closeable {
+    protected static final int BUFFER_SIZE = 1 << 16;
+    protected static final int FIELDS = 7;
+    protected static final int LAP = 0, SIMULATION_TIME = 1, BIATHLETE_TIME = 2, PLACE_CLASS = 3, BIATHLETE = 5, MESSAGE = 6;
+
+    protected static final byte[] BIATHLETE_CLASS = bytes(Biathlete.class.getName());
+    protected static final byte[] SHOOTING_AREA_CLASS = bytes(ShootingArea.class.getName());
+    protected static final byte[] CHECKPOINT_CLASS = bytes(Checkpoint.class.getName());
+    protected static final byte[] BEFORE_SHOOTING_AREA_CLASS = bytes(BeforeShootingArea.class.getName());
+    protected static final byte[] AFTER_SHOOTING_AREA_CLASS = bytes(AfterShootingArea.class.getName());
+    protected static final byte[] START_FINISH_CLASS = bytes(StartFinish.class.getName());
+    protected static final byte[] MISS_MESSAGE = bytes(ShootingArea.MISS_MESSAGE);
+    protected static final byte[] FINISH_MESSAGE = bytes(BiathleteEventStore.FINISH_MESSAGE);
+
+    /**
+     * dokładne potęgi dziesięciu (do 10^22 reprezentowalne bez błędu w typie double).
+     */
+    protected static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    protected final String fileName;
+    protected final FileChannel channel;
+    protected final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * bieżący wiersz i granice jego pól.
+     */
+    protected byte[] line = new byte[256];
+    protected int lineLength;
+    protected final int[] fieldStarts = new int[FIELDS];
+    protected final int[] fieldEnds = new int[FIELDS];
+
+    /**
+     * ostatnio minięty punkt pomiaru czasu każdego zawodnika - pozwala odróżnić punkty
+     * tej samej klasy (punkt 1 i punkt 4).
+     */
+    protected int[] positions = new int[16];
+
+    /**
+     * Otwiera plik i pomija wiersz nagłówka.
+     * @param fileName ścieżka do pliku
+     */
+    public SplitFeedReader(String fileName) throws IOException {
+        this.fileName = fileName;
+        this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        buffer.flip();
+        Arrays.fill(positions, RaceState.STARTING);
+        readLine();
+    }
+
+    /**
+     * Odczytuje kolejne zdarzenie.
+     *
+     * @param split obiekt, do którego zostanie zapisane zdarzenie
+     * @return false, jeśli plik się skończył
+     */
+    public boolean next(Split split) throws IOException {
+        while (readLine()) {
+            if (lineLength > 0) {
+                parse(split);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wczytuje kolejny wiersz (bez znaku końca wiersza) do tablicy line.
+     * @return false, jeśli plik się skończył
+     */
+    protected boolean readLine() throws IOException {
+        lineLength = 0;
+        while (true) {
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                        lineLength--;
+                    }
+                    return true;
+                }
+                if (lineLength == line.length) {
+                    line = Arrays.copyOf(line, lineLength * 2);
+                }
+                line[lineLength++] = b;
+            }
+            buffer.clear();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                return lineLength > 0;
+            }
+        }
+    }
+
+    protected void parse(Split split) {
+        int field = 0;
+        boolean quoted = false;
+        fieldStarts[0] = 0;
+        for (int i = 0; i < lineLength; i++) {
+            if (line[i] == '"') {
+                quoted = !quoted;
+            }
+            else if (line[i] == RaceTraceOutput.SEPARATOR && !quoted) {
+                if (field == FIELDS - 1) {
+                    throw malformed();
+                }
+                fieldEnds[field++] = i;
+                fieldStarts[field] = i + 1;
+            }
+        }
+        if (field != FIELDS - 1) {
+            throw malformed();
+        }
+        fieldEnds[field] = lineLength;
+
+        int biathlete = parseBiathlete();
+        if (biathlete >= positions.length) {
+            int length = positions.length;
+            positions = Arrays.copyOf(positions, Math.max(biathlete + 1, length * 2));
+            Arrays.fill(positions, length, positions.length, RaceState.STARTING);
+        }
+
+        byte kind;
+        int position;
+        if (fieldEquals(PLACE_CLASS, SHOOTING_AREA_CLASS)) {
+            kind = fieldEquals(MESSAGE, MISS_MESSAGE) ? BiathleteEventStore.MISS : BiathleteEventStore.HIT;
+            position = RaceState.BEFORE_SHOOTING_AREA;
+        }
+        else if (fieldEquals(PLACE_CLASS, CHECKPOINT_CLASS)) {
+            kind = BiathleteEventStore.ARRIVAL;
+            position = positions[biathlete] == RaceState.STARTING || positions[biathlete] == RaceState.START_FINISH
+                    ? RaceState.CHECKPOINT_1 : RaceState.CHECKPOINT_4;
+        }
+        else if (fieldEquals(PLACE_CLASS, BEFORE_SHOOTING_AREA_CLASS)) {
+            kind = BiathleteEventStore.ARRIVAL;
+            position = RaceState.BEFORE_SHOOTING_AREA;
+        }
+        else if (fieldEquals(PLACE_CLASS, AFTER_SHOOTING_AREA_CLASS)) {
+            kind = BiathleteEventStore.ARRIVAL;
+            position = RaceState.AFTER_SHOOTING_AREA;
+        }
+        else if (fieldEquals(PLACE_CLASS, START_FINISH_CLASS)) {
+            kind = fieldEquals(MESSAGE, FINISH_MESSAGE) ? BiathleteEventStore.FINISH : BiathleteEventStore.ARRIVAL;
+            position = RaceState.START_FINISH;
+        }
+        else if (fieldEquals(PLACE_CLASS, BIATHLETE_CLASS)) {
+            kind = BiathleteEventStore.START;
+            position = RaceState.STARTING;
+        }
+        else {
+            throw malformed();
+        }
+        positions[biathlete] = position;
+
+        split.kind = kind;
+        split.biathlete = biathlete;
+        split.lap = (int)parseNumber(LAP);
+        split.position = position;
+        split.simulationTime = parseNumber(SIMULATION_TIME);
+        split.biathleteTime = parseNumber(BIATHLETE_TIME);
+    }
+
+    /**
+     * @return numer startowy (od 0) z nazwy zawodnika "Biathlete: numer startowy"
+     */
+    protected int parseBiathlete() {
+        int end = fieldEnds[BIATHLETE];
+        while (end > fieldStarts[BIATHLETE] && (line[end - 1] < '0' || line[end - 1] > '9')) {
+            end--;
+        }
+        int start = end;
+        while (start > fieldStarts[BIATHLETE] && line[start - 1] >= '0' && line[start - 1] <= '9') {
+            start--;
+        }
+        if (start == end) {
+            throw malformed();
+        }
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            number = number * 10 + (line[i] - '0');
+        }
+        return number - 1;
+    }
+
+    /**
+     * Odczytuje liczbę w postaci zwracanej przez Double.toString() (także z wykładnikiem "E").
+     */
+    protected double parseNumber(int field) {
+        int i = fieldStarts[field], end = fieldEnds[field];
+        boolean negative = i < end && line[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0, digits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = line[i];
+            if (b >= '0' && b <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits += mantissa > 0 ? 1 : 0;
+                    exponent -= fraction ? 1 : 0;
+                }
+                else if (!fraction) {
+                    exponent++;
+                }
+            }
+            else if (b == '.' && !fraction) {
+                fraction = true;
+            }
+            else if (b == 'E' || b == 'e') {
+                exponent += (int)parseExponent(i + 1, end);
+                break;
+            }
+            else {
+                throw malformed();
+            }
+        }
+        double value = mantissa;
+        while (exponent > 0) {
+            int step = Math.min(exponent, POWERS_OF_TEN.length - 1);
+            value *= POWERS_OF_TEN[step];
+            exponent -= step;
+        }
+        while (exponent < 0) {
+            int step = Math.min(-exponent, POWERS_OF_TEN.length - 1);
+            value /= POWERS_OF_TEN[step];
+            exponent += step;
+        }
+        return negative ? -value : value;
+    }
+
+    protected long parseExponent(int i, int end) {
+        boolean negative = i < end && line[i] == '-';
+        if (negative || (i < end && line[i] == '+')) {
+            i++;
+        }
+        long exponent = 0;
+        for (; i < end; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                throw malformed();
+            }
+            exponent = exponent * 10 + (line[i] - '0');
+        }
+        return negative ? -exponent : exponent;
+    }
+
+    /**
+     * Porównuje pole (bez otaczających cudzysłowów) z podanymi bajtami.
+     */
+    protected boolean fieldEquals(int field, byte[] expected) {
+        int start = fieldStarts[field], end = fieldEnds[field];
+        if (end - start >= 2 && line[start] == '"' && line[end - 1] == '"') {
+            start++;
+            end--;
+        }
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (line[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected IllegalArgumentException malformed() {
+        return new IllegalArgumentException("Malformed split line in " + fileName + ": "
+                + new String(line, 0, lineLength, Charset.forName("UTF-8")));
+    }
+
+    protected static byte[] bytes(String value) {
+        return value.getBytes(Charset.forName("UTF-8"));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Pojedyncze zdarzenie pomiaru czasu: start, przybycie do punktu pomiaru czasu, strzał lub meta.
+     * Obiekt jest wielokrotnie wypełniany przez SplitFeedReader#next(Split).
+     */
+    public static class Split {
+        protected byte kind;
+        protected int biathlete;
+        protected int lap;
+        protected int position;
+        protected double simulationTime;
+        protected double biathleteTime;
+
+        /**
+         * Kopiuje zdarzenie.
+         * @param other zdarzenie źródłowe
+         */
+        public void set(Split other) {
+            kind = other.kind;
+            biathlete = other.biathlete;
+            lap = other.lap;
+            position = other.position;
+            simulationTime = other.simulationTime;
+            biathleteTime = other.biathleteTime;
+        }
+
+        /**
+         * @return rodzaj zdarzenia (stała z biathlon.event.BiathleteEventStore)
+         */
+        public byte getKind() {
+            return kind;
+        }
+
+        /**
+         * @return numer startowy zawodnika (od 0)
+         */
+        public int getBiathlete() {
+            return biathlete;
+        }
+
+        public int getLap() {
+            return lap;
+        }
+
+        /**
+         * @return punkt pomiaru czasu na okrążeniu (zob. biathlon.forecast.RaceState)
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * @return czas symulacji w milisekundach
+         */
+        public double getSimulationTime() {
+            return simulationTime;
+        }
+
+        /**
+         * @return czas, który upłynął od startu zawodnika, w milisekundach
+         */
+        public double getBiathleteTime() {
+            return biathleteTime;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package biathlon.forecast;
+
+import biathlon.RaceConfiguration;
+import biathlon.feed.SplitFeedReader;
+import biathlon.replication.DirectSampler;
+import biathlon.replication.ReplicationResults;
+import biathlon.report.RaceTraceOutput;
+import desmoj.core.dist.DistributionManager;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prognoza wyników trwającego biegu (prawdopodobieństwa zwycięstwa i podium)
+ * na podstawie stanu biegu w chwili t (biathlon.forecast.RaceState).
+ * Każda prognoza losuje wielokrotnie jedynie pozostałą część biegu, równolegle na wątkach puli.
+ * Pula wątków i samplery (po jednym na zadanie) są tworzone raz i wykorzystywane
+ * przy kolejnych prognozach, więc kolejne międzyczasy nie płacą za ich rozgrzanie.
+ * Ponieważ samplery i generator ziaren są współdzielone, prognozy jednego obiektu są wykonywane
+ * kolejno - równoczesne wywołania forecast() z wielu wątków czekają na siebie nawzajem
+ * (do równoległych, niezależnych prognoz należy użyć osobnych obiektów Forecaster).
+ *
+ * Zawodnicy biegu indywidualnego na siebie nie wpływają, dlatego pozostała część biegu
+ * jest losowana bezpośrednio (biathlon.replication.DirectSampler), bez symulacji zdarzeniowej.
+ * Pozostała część biegu jest losowana pod warunkiem czasu, który upłynął od ostatniego
+ * zdarzenia zawodnika do chwili t - zawodnik, który spóźnia się na kolejny punkt,
+ * nie jest traktowany tak, jakby właśnie minął poprzedni.
+ *
+ * {@code
+ *      Forecaster forecaster = new Forecaster(configuration, 4, 979);
+ *      state.update(split);
+ *      ReplicationResults forecast = forecaster.forecast(state, 10000);
+ *      forecast.getWinProbability(0);
+ *      ...
+ *      forecaster.close();
+ * }
+ *
+ * @author Artur Hebda
+ */
+public class Forecaster {
+    protected final RaceConfiguration configuration;
+    protected final ExecutorService pool;
+
+    /**
+     * samplery kolejnych zadań - zadanie i zawsze korzysta z samplera i.
+     */
+    protected final DirectSampler[] samplers;
+
+    /**
+     * generator ziaren replikacji (kolejne prognozy korzystają z kolejnych ziaren).
+     */
+    protected final DistributionManager seedGenerator;
+
+    /**
+     * @param configuration konfiguracja biegu
+     * @param threads liczba wątków puli
+     * @param seed ziarno generatora ziaren replikacji
+     */
+    public Forecaster(RaceConfiguration configuration, int threads, long seed) {
+        this.configuration = configuration;
+        threads = Math.max(1, threads);
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.samplers = new DirectSampler[threads];
+        for (int i = 0; i < threads; i++) {
+            samplers[i] = new DirectSampler(configuration);
+        }
+        this.seedGenerator = new DistributionManager("Forecast", seed);
+    }
+
+    /**
+     * Prognozuje wyniki biegu. Stan nie może być zmieniany w trakcie prognozy.
+     * Wywołania są synchronizowane, bo wszystkie korzystają z tych samych samplerów i generatora ziaren.
+     *
+     * @param state stan biegu w chwili t
+     * @param replications liczba losowań pozostałej części biegu
+     * @return rozkład miejsc na mecie wraz z czasem trwania obliczeń
+     */
+    public synchronized ReplicationResults forecast(final RaceState state, int replications) throws InterruptedException, ExecutionException {
+        final long[] seeds = new long[replications];
+        for (int i = 0; i < replications; i++) {
+            seeds[i] = seedGenerator.nextSeed();
+        }
+
+        long startedAt = System.nanoTime();
+        ReplicationResults results = new ReplicationResults(configuration.getBiathleteCount());
+        int taskCount = Math.min(replications, samplers.length);
+        List<Future<ReplicationResults>> futures = new ArrayList<Future<ReplicationResults>>(taskCount);
+        for (int task = 0; task < taskCount; task++) {
+            final DirectSampler sampler = samplers[task];
+            final int from = (int)((long)replications * task / taskCount);
+            final int to = (int)((long)replications * (task + 1) / taskCount);
+            futures.add(pool.submit(new Callable<ReplicationResults>() {
+                @Override
+                public ReplicationResults call() {
+                    ReplicationResults partial = new ReplicationResults(configuration.getBiathleteCount());
+                    for (int i = from; i < to; i++) {
+                        partial.add(sampler.sample(state, seeds[i]));
+                    }
+                    return partial;
+                }
+            }));
+        }
+        for (Future<ReplicationResults> future : futures) {
+            results.merge(future.get());
+        }
+        results.setElapsedNanos(System.nanoTime() - startedAt);
+        return results;
+    }
+
+    /**
+     * Zamyka pulę wątków.
+     */
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Odtwarza zapis pomiaru czasu (plik w formacie biathlon.report.RaceTraceOutput) i po każdym
+     * przybyciu zawodnika na linię startu/mety prognozuje wyniki, wypisując trzech faworytów
+     * oraz czas obliczeń.
+     *
+     * @param args [plik] [liczba replikacji] [liczba wątków] [ziarno]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        String fileName = args.length > 0 ? args[0] : RaceTraceOutput.DEFAULT_FILE_NAME;
+        int replications = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 979;
+
+        RaceConfiguration configuration = new RaceConfiguration();
+        RaceState state = new RaceState(configuration);
+        Forecaster forecaster = new Forecaster(configuration, threads, seed);
+        SplitFeedReader reader = new SplitFeedReader(fileName);
+        SplitFeedReader.Split split = new SplitFeedReader.Split();
+        try {
+            while (reader.next(split)) {
+                state.update(split);
+                if (split.getPosition() == RaceState.START_FINISH) {
+                    print(split, forecaster.forecast(state, replications));
+                }
+            }
+        }
+        finally {
+            reader.close();
+            forecaster.close();
+        }
+    }
+
+    /**
+     * Wypisuje (co najwyżej) trzech zawodników z największym prawdopodobieństwem zwycięstwa,
+     * pomijając zawodników, którzy nie wygrali w żadnej replikacji.
+     */
+    protected static void print(SplitFeedReader.Split split, ReplicationResults forecast) {
+        int[] favourites = {-1, -1, -1};
+        for (int i = 0; i < forecast.getBiathleteCount(); i++) {
+            if (forecast.getWinProbability(i) <= 0) {
+                continue;
+            }
+            for (int j = 0; j < favourites.length; j++) {
+                if (favourites[j] < 0 || forecast.getWinProbability(i) > forecast.getWinProbability(favourites[j])) {
+                    System.arraycopy(favourites, j, favourites, j + 1, favourites.length - j - 1);
+                    favourites[j] = i;
+                    break;
+                }
+            }
+        }
+
+        StringBuilder line = new StringBuilder(String.format("Biathlete: %d lap %d:", split.getBiathlete() + 1, split.getLap()));
+        for (int favourite : favourites) {
+            if (favourite < 0) {
+                break;
+            }
+            line.append(String.format(" | %d win %.3f podium %.3f", favourite + 1,
+                    forecast.getWinProbability(favourite), forecast.getPodiumProbability(favourite)));
+        }
+        line.append(String.format(" (%.1f ms)", forecast.getElapsedNanos() / 1e6));
+        System.out.println(line);
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Prognozowanie wyników trwającego biegu na podstawie dotychczasowych międzyczasów.
+ */
+package biathlon.forecast;
+
+import biathlon.Biathlon;
+import biathlon.RaceConfiguration;
+import biathlon.event.BiathleteEventStore;
+import biathlon.feed.SplitFeedReader;
+import java.util.Arrays;
+
+/**
+ * Stan trwającego biegu w chwili t: dla każdego zawodnika okrążenie, ostatni minięty
+ * punkt pomiaru czasu, czas biegu i czas symulacji jego ostatniego zdarzenia oraz strzały
+ * oddane w bieżącej serii. Chwila t to czas symulacji ostatniego zdarzenia w biegu. Stan jest aktualizowany kolejnymi zdarzeniami z pomiaru czasu
+ * (zob. biathlon.feed.SplitFeedReader), a na jego podstawie
+ * losowana jest pozostała część biegu (zob. biathlon.replication.DirectSampler).
+ *
+ * Położenie na okrążeniu to indeks ostatnio minionego punktu pomiaru czasu, zgodnie z kolejnością
+ * w modelu biathlon.Biathlon: 0 - punkt 1, 1 - przed strzelnicą, 2 - za strzelnicą, 3 - punkt 4,
+ * 4 - linia startu/mety.
+ *
+ * @author Artur Hebda
+ * @see biathlon.forecast.Forecaster
+ */
+public class RaceState {
+    /**
+     * położenie zawodnika, który jeszcze nie minął żadnego punktu pomiaru czasu (także przed startem).
+     */
+    public static final int STARTING = -1;
+    public static final int CHECKPOINT_1 = 0;
+    public static final int BEFORE_SHOOTING_AREA = 1;
+    public static final int AFTER_SHOOTING_AREA = 2;
+    public static final int CHECKPOINT_4 = 3;
+    public static final int START_FINISH = Biathlon.CHECKPOINTS_PER_LAP - 1;
+
+    protected final RaceConfiguration configuration;
+
+    /**
+     * stan zawodników indeksowany numerem startowym (od 0).
+     */
+    protected final int[] laps;
+    protected final int[] positions;
+    protected final int[] sessionShots;
+    protected final int[] sessionMisses;
+    protected final double[] times;
+    protected final boolean[] finished;
+
+    /**
+     * czas symulacji ostatniego zdarzenia zawodnika (także startu) w milisekundach;
+     * NaN, jeśli nie jest znany.
+     */
+    protected final double[] eventTimes;
+
+    /**
+     * czas symulacji ostatniego zdarzenia w milisekundach.
+     */
+    protected double simulationTime = 0;
+
+    /**
+     * @param configuration konfiguracja biegu
+     */
+    public RaceState(RaceConfiguration configuration) {
+        this.configuration = configuration;
+        int count = configuration.getBiathleteCount();
+        laps = new int[count];
+        positions = new int[count];
+        sessionShots = new int[count];
+        sessionMisses = new int[count];
+        times = new double[count];
+        finished = new boolean[count];
+        eventTimes = new double[count];
+        reset();
+    }
+
+    /**
+     * Przywraca stan sprzed startu biegu.
+     */
+    public void reset() {
+        Arrays.fill(laps, 1);
+        Arrays.fill(positions, STARTING);
+        Arrays.fill(sessionShots, 0);
+        Arrays.fill(sessionMisses, 0);
+        Arrays.fill(times, 0);
+        Arrays.fill(finished, false);
+        Arrays.fill(eventTimes, Double.NaN);
+        simulationTime = 0;
+    }
+
+    /**
+     * Zapisuje minięcie punktu pomiaru czasu.
+     *
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param lap okrążenie (od 1)
+     * @param position położenie na okrążeniu (indeks punktu pomiaru czasu)
+     * @param time czas biegu zawodnika w milisekundach
+     */
+    public void arrive(int biathlete, int lap, int position, double time) {
+        if (position < CHECKPOINT_1 || position > START_FINISH || lap < 1 || lap > configuration.getLaps()) {
+            throw new IllegalArgumentException("Invalid split: lap " + lap + ", checkpoint " + position);
+        }
+        laps[biathlete] = lap;
+        positions[biathlete] = position;
+        times[biathlete] = time;
+        if (position == BEFORE_SHOOTING_AREA || position == AFTER_SHOOTING_AREA) {
+            sessionShots[biathlete] = 0;
+            sessionMisses[biathlete] = 0;
+        }
+        finished[biathlete] = position == START_FINISH && lap == configuration.getLaps();
+    }
+
+    /**
+     * Zapisuje strzał oddany w bieżącej serii.
+     *
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param hit true (trafienie), false (pudło)
+     * @param time czas biegu zawodnika w milisekundach
+     */
+    public void shoot(int biathlete, boolean hit, double time) {
+        if (positions[biathlete] != BEFORE_SHOOTING_AREA || sessionShots[biathlete] == Biathlon.SHOTS_PER_SESSION) {
+            throw new IllegalArgumentException("Biathlete " + (biathlete + 1) + " is not shooting");
+        }
+        sessionShots[biathlete]++;
+        if (!hit) {
+            sessionMisses[biathlete]++;
+        }
+        times[biathlete] = time;
+    }
+
+    /**
+     * Aktualizuje stan zdarzeniem z zapisu pomiaru czasu. Start zawodnika zmienia jedynie
+     * czas symulacji jego ostatniego zdarzenia.
+     *
+     * @param split zdarzenie
+     */
+    public void update(SplitFeedReader.Split split) {
+        simulationTime = Math.max(simulationTime, split.getSimulationTime());
+        eventTimes[split.getBiathlete()] = split.getSimulationTime();
+        switch (split.getKind()) {
+            case BiathleteEventStore.ARRIVAL:
+            case BiathleteEventStore.FINISH:
+                arrive(split.getBiathlete(), split.getLap(), split.getPosition(), split.getBiathleteTime());
+                break;
+            case BiathleteEventStore.HIT:
+                shoot(split.getBiathlete(), true, split.getBiathleteTime());
+                break;
+            case BiathleteEventStore.MISS:
+                shoot(split.getBiathlete(), false, split.getBiathleteTime());
+                break;
+            default:
+                break;
+        }
+    }
+
+    public RaceConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public int getBiathleteCount() {
+        return laps.length;
+    }
+
+    public int getLap(int biathlete) {
+        return laps[biathlete];
+    }
+
+    public int getPosition(int biathlete) {
+        return positions[biathlete];
+    }
+
+    public int getSessionShots(int biathlete) {
+        return sessionShots[biathlete];
+    }
+
+    public int getSessionMisses(int biathlete) {
+        return sessionMisses[biathlete];
+    }
+
+    /**
+     * @return czas biegu zawodnika w chwili jego ostatniego zdarzenia, w milisekundach
+     */
+    public double getTime(int biathlete) {
+        return times[biathlete];
+    }
+
+    /**
+     * Czas, który upłynął od ostatniego zdarzenia zawodnika do chwili t - zawodnik nie dotarł
+     * w tym czasie do kolejnego punktu pomiaru czasu ani nie oddał kolejnego strzału.
+     * Znany tylko dla zdarzeń przekazanych metodą update().
+     *
+     * @return czas w milisekundach (0, jeśli czas ostatniego zdarzenia zawodnika nie jest znany)
+     */
+    public double getElapsedTime(int biathlete) {
+        return Double.isNaN(eventTimes[biathlete]) ? 0 : Math.max(0, simulationTime - eventTimes[biathlete]);
+    }
+
+    public boolean isFinished(int biathlete) {
+        return finished[biathlete];
+    }
+
+    /**
+     * @return czas symulacji (czas od startu pierwszego zawodnika) ostatniego zdarzenia, w milisekundach
+     */
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+}
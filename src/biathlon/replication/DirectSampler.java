@@ -0,0 +1,299 @@
+package biathlon.replication;
+
+import biathlon.BiathleteParameters;
+import biathlon.BiathleteSampler;
+import biathlon.Biathlon;
+import biathlon.RaceConfiguration;
+import biathlon.forecast.RaceState;
+import desmoj.core.dist.StatefulRandomGenerator;
+import java.util.Arrays;
+
+/**
+ * Bezpośrednie (bez listy zdarzeń) losowanie wyników biegu indywidualnego.
+ * W biegu indywidualnym zawodnicy na siebie nie wpływają, więc czas biegu zawodnika
+ * to po prostu suma czasów biegu między punktami pomiaru czasu (rozkład normalny),
+ * czasów oddania strzałów (rozkład jednostajny) i kar za pudła. Sampler losuje te
+ * wielkości w pętlach na tablicach typów prostych - bez eksperymentu, harmonogramu,
+ * encji i obiektów czasu - z tymi samymi parametrami rozkładów, co model biathlon.Biathlon
+ * (domyślnie jednakowymi dla wszystkich zawodników, lub indywidualnymi - biathlon.BiathleteParameters).
+ *
+ * Obiekt przechowuje tablice robocze, więc nie jest bezpieczny wątkowo - każdy wątek
+ * powinien używać własnej instancji (zob. ReplicationRunner#setDirectSampling(boolean)).
+ * Zgodność statystyczną z symulacją zdarzeniową sprawdza test biathlon.replication.DirectSamplerTest.
+ *
+ * {@code
+ *      DirectSampler sampler = new DirectSampler(new RaceConfiguration());
+ *      int[] positions = sampler.sample(seed);
+ * }
+ *
+ * @author Artur Hebda
+ * @see biathlon.Biathlon
+ */
+public class DirectSampler {
+    /**
+     * liczba odcinków biegu na okrążeniu - strzelnica (między punktami przed i za nią)
+     * nie jest odcinkiem biegu.
+     */
+    public static final int LEGS_PER_LAP = Biathlon.CHECKPOINTS_PER_LAP - 1;
+
+    /**
+     * maksymalna liczba losowań odcinka trwającego dłużej niż czas, który już upłynął
+     * (zob. sampleTimes(RaceState, long)).
+     */
+    public static final int CONDITIONING_ATTEMPTS = 100;
+
+    protected final RaceConfiguration configuration;
+    protected final double missPenaltyInMilliSeconds;
+    protected final double legTimeFactor;
+
+    /**
+     * czasy biegu zawodników w milisekundach (indeksowane numerem startowym od 0)
+     * i ich posortowana kopia.
+     */
+    protected final double[] times;
+    protected final double[] sortedTimes;
+
+    protected final BiathleteSampler sampler;
+
+    /**
+     * Sampler zawodników o jednakowych parametrach modelu biathlon.Biathlon.
+     *
+     * @param configuration konfiguracja biegu
+     */
+    public DirectSampler(RaceConfiguration configuration) {
+        this(configuration, new BiathleteParameters(configuration.getBiathleteCount()));
+    }
+
+    /**
+     * @param configuration konfiguracja biegu
+     * @param parameters parametry zawodników (co najmniej tylu, ilu startuje w biegu)
+     */
+    public DirectSampler(RaceConfiguration configuration, BiathleteParameters parameters) {
+        if (parameters.getBiathleteCount() < configuration.getBiathleteCount()) {
+            throw new IllegalArgumentException("Parameters of " + configuration.getBiathleteCount() + " biathletes are required");
+        }
+        this.configuration = configuration;
+        this.sampler = new BiathleteSampler(parameters, 42);
+        this.missPenaltyInMilliSeconds = configuration.getMissPenaltyInSeconds() * 1000.0;
+        this.legTimeFactor = configuration.getLegTimeFactor();
+        this.times = new double[configuration.getBiathleteCount()];
+        this.sortedTimes = new double[configuration.getBiathleteCount()];
+    }
+
+    /**
+     * Losuje wynik jednego biegu.
+     *
+     * @param seed ziarno replikacji
+     * @return miejsca na mecie (od 1) indeksowane numerem startowym zawodnika (od 0),
+     * w tej samej postaci co biathlon.Biathlon#getFinishingPositions()
+     */
+    public int[] sample(long seed) {
+        sampleTimes(seed);
+        return positions();
+    }
+
+    /**
+     * Losuje wynik jednego biegu z podanego strumienia liczb pseudolosowych
+     * (np. desmoj.core.dist.Xoshiro256StarStarRandomGenerator#forStream(long, long) dla numeru replikacji).
+     *
+     * @param stream generator ustawiony na początku strumienia replikacji
+     * @return miejsca na mecie (od 1) indeksowane numerem startowym zawodnika (od 0)
+     */
+    public int[] sample(StatefulRandomGenerator stream) {
+        sampler.setRandomGenerator(stream);
+        sampleAllTimes();
+        return positions();
+    }
+
+    /**
+     * Losuje wynik pozostałej części trwającego biegu.
+     *
+     * @param state stan biegu w chwili t
+     * @param seed ziarno replikacji
+     * @return miejsca na mecie (od 1) indeksowane numerem startowym zawodnika (od 0)
+     */
+    public int[] sample(RaceState state, long seed) {
+        sampleTimes(state, seed);
+        return positions();
+    }
+
+    /**
+     * @return miejsca na mecie wynikające z wylosowanych czasów biegu
+     */
+    protected int[] positions() {
+        System.arraycopy(times, 0, sortedTimes, 0, times.length);
+        Arrays.sort(sortedTimes);
+
+        int[] positions = new int[times.length];
+        for (int i = 0; i < times.length; i++) {
+            positions[i] = Arrays.binarySearch(sortedTimes, times[i]) + 1;
+            // zawodnicy z identycznym czasem zajmują to samo (najwyższe) miejsce
+            while (positions[i] > 1 && sortedTimes[positions[i] - 2] == times[i]) {
+                positions[i]--;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Losuje czasy biegu wszystkich zawodników.
+     *
+     * @param seed ziarno replikacji
+     * @return czasy biegu w milisekundach indeksowane numerem startowym (tablica robocza samplera,
+     * nadpisywana przy kolejnym losowaniu)
+     */
+    public double[] sampleTimes(long seed) {
+        sampler.setSeed(seed);
+        return sampleAllTimes();
+    }
+
+    /**
+     * Losuje czasy biegu wszystkich zawodników bieżącym generatorem samplera.
+     */
+    protected double[] sampleAllTimes() {
+        for (int biathlete = 0; biathlete < times.length; biathlete++) {
+            times[biathlete] = sampleTime(biathlete);
+        }
+        return times;
+    }
+
+    /**
+     * Ustawia ziarno generatora przed losowaniem pojedynczych zawodników (sampleTime(int)).
+     *
+     * @param seed ziarno replikacji
+     */
+    public void setSeed(long seed) {
+        sampler.setSeed(seed);
+    }
+
+    /**
+     * Losuje czas biegu jednego zawodnika, kontynuując bieżący ciąg liczb pseudolosowych.
+     *
+     * @param biathlete numer zawodnika w tabeli parametrów (od 0)
+     * @return czas biegu w milisekundach (bez opóźnienia startu)
+     */
+    public double sampleTime(int biathlete) {
+        int laps = configuration.getLaps();
+        int sessions = configuration.getShootingSessions();
+        double time = 0;
+        for (int lap = 1; lap <= laps; lap++) {
+            for (int leg = 0; leg < LEGS_PER_LAP; leg++) {
+                time += sampler.sampleLegTimeInMilliSeconds(biathlete, lap) * legTimeFactor;
+            }
+            // serie strzałów odbywają się na pierwszych okrążeniach, po jednej na okrążenie
+            if (lap <= sessions) {
+                boolean prone = configuration.isProne(lap - 1);
+                for (int shot = 0; shot < Biathlon.SHOTS_PER_SESSION; shot++) {
+                    time += sampler.sampleShotTimeInMilliSeconds(biathlete);
+                    if (!sampler.sampleShotResult(biathlete, prone)) {
+                        time += missPenaltyInMilliSeconds;
+                    }
+                }
+            }
+        }
+        return time;
+    }
+
+    /**
+     * Losuje czasy biegu wszystkich zawodników, dla których pozostała część biegu
+     * jest losowana od ich ostatniego zdarzenia (zawodnicy na mecie zachowują swój czas).
+     * Bieżący odcinek zawodnika (bieg do kolejnego punktu lub kolejny strzał) jest losowany
+     * pod warunkiem, że trwa dłużej niż czas, który upłynął od ostatniego zdarzenia zawodnika
+     * (RaceState#getElapsedTime(int)): losowanie jest powtarzane, a jeśli po CONDITIONING_ATTEMPTS
+     * próbach odcinek nadal jest za krótki, zawodnik kończy go w chwili t.
+     *
+     * @param state stan biegu w chwili t
+     * @param seed ziarno replikacji
+     * @return czasy biegu w milisekundach indeksowane numerem startowym (tablica robocza samplera)
+     */
+    public double[] sampleTimes(RaceState state, long seed) {
+        sampler.setSeed(seed);
+
+        for (int biathlete = 0; biathlete < times.length; biathlete++) {
+            times[biathlete] = state.getTime(biathlete);
+            if (!state.isFinished(biathlete)) {
+                times[biathlete] += sampleRemainingTime(biathlete, state.getLap(biathlete), state.getPosition(biathlete),
+                        state.getSessionShots(biathlete), state.getSessionMisses(biathlete), state.getElapsedTime(biathlete));
+            }
+        }
+        return times;
+    }
+
+    /**
+     * Losuje czas pozostałej części biegu zawodnika.
+     *
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param lap bieżące okrążenie (od 1)
+     * @param position ostatnio minięty punkt pomiaru czasu (zob. biathlon.forecast.RaceState)
+     * @param shots liczba strzałów oddanych w bieżącej serii (gdy zawodnik jest na strzelnicy)
+     * @param misses liczba pudeł w bieżącej serii
+     * @param elapsed czas, który upłynął od ostatniego zdarzenia zawodnika (w milisekundach)
+     * @return czas od ostatniego zdarzenia zawodnika w milisekundach
+     */
+    protected double sampleRemainingTime(int biathlete, int lap, int position, int shots, int misses, double elapsed) {
+        int laps = configuration.getLaps();
+        double time = 0;
+        while (lap < laps || position < RaceState.START_FINISH) {
+            if (position == RaceState.START_FINISH) {
+                position = RaceState.STARTING;
+                lap++;
+            }
+            position++;
+            double segment = 0;
+            if (position == RaceState.AFTER_SHOOTING_AREA) {
+                if (lap <= configuration.getShootingSessions()) {
+                    boolean prone = configuration.isProne(lap - 1);
+                    for (; shots < Biathlon.SHOTS_PER_SESSION; shots++) {
+                        segment += sampleShotTime(biathlete, elapsed);
+                        elapsed = 0;
+                        if (!sampler.sampleShotResult(biathlete, prone)) {
+                            misses++;
+                        }
+                    }
+                    segment += misses * missPenaltyInMilliSeconds;
+                }
+                shots = 0;
+                misses = 0;
+            }
+            else {
+                segment = sampleLegTime(biathlete, lap, elapsed);
+            }
+            // odcinek bez losowania (np. same kary) także nie mógł się skończyć przed chwilą t
+            time += Math.max(segment, elapsed);
+            elapsed = 0;
+        }
+        return time;
+    }
+
+    /**
+     * @param elapsed czas, którego odcinek musi przekroczyć (0 - bez warunku)
+     * @return czas odcinka biegu w milisekundach, dłuższy niż elapsed
+     */
+    protected double sampleLegTime(int biathlete, int lap, double elapsed) {
+        double legTime = sampler.sampleLegTimeInMilliSeconds(biathlete, lap) * legTimeFactor;
+        for (int attempt = 1; elapsed > 0 && legTime <= elapsed && attempt < CONDITIONING_ATTEMPTS; attempt++) {
+            legTime = sampler.sampleLegTimeInMilliSeconds(biathlete, lap) * legTimeFactor;
+        }
+        return Math.max(legTime, elapsed);
+    }
+
+    /**
+     * @param elapsed czas, którego strzał musi przekroczyć (0 - bez warunku)
+     * @return czas oddania strzału w milisekundach, dłuższy niż elapsed
+     */
+    protected double sampleShotTime(int biathlete, double elapsed) {
+        double shotTime = sampler.sampleShotTimeInMilliSeconds(biathlete);
+        for (int attempt = 1; elapsed > 0 && shotTime <= elapsed && attempt < CONDITIONING_ATTEMPTS; attempt++) {
+            shotTime = sampler.sampleShotTimeInMilliSeconds(biathlete);
+        }
+        return Math.max(shotTime, elapsed);
+    }
+
+    public RaceConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public BiathleteParameters getParameters() {
+        return sampler.getParameters();
+    }
+}
@@ -0,0 +1,88 @@
+package biathlon.replication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rozdziela elementy o numerach z zakresu [0, items) (replikacje, gałęzie, łańcuchy biegów)
+ * między wątki puli: elementy są dzielone na spójne zakresy [from, to) o prawie równej długości,
+ * a każdy zakres jest przetwarzany przez jedno zadanie puli. Podział zależy tylko od liczby
+ * elementów i wątków, więc zadanie może przygotować zasoby (np. eksperyment i model) raz
+ * dla całego zakresu.
+ *
+ * {@code
+ *      List<ReplicationResults> parts = ParallelRanges.run(replications, threads,
+ *              new ParallelRanges.Task<ReplicationResults>() {
+ *                  public ReplicationResults run(int from, int to) {
+ *                      return runReplications(from, to);
+ *                  }
+ *              });
+ * }
+ *
+ * @author Artur Hebda
+ * @see biathlon.replication.ReplicationRunner
+ */
+public class ParallelRanges {
+    /**
+     * liczba zadań przypadających na jeden wątek - kilka mniejszych zadań
+     * wyrównuje obciążenie wątków.
+     */
+    public static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * Przetwarzanie jednego zakresu elementów w wątku puli.
+     *
+     * @param <T> typ wyniku zakresu
+     */
+    public interface Task<T> {
+        /**
+         * @param from numer pierwszego elementu
+         * @param to numer za ostatnim elementem
+         * @return wynik przetworzenia elementów [from, to)
+         */
+        T run(int from, int to) throws Exception;
+    }
+
+    /**
+     * Przetwarza elementy [0, items) na puli wątków i czeka na zakończenie wszystkich zadań.
+     * Wyjątek zgłoszony przez zadanie przerywa pozostałe zadania i jest zgłaszany
+     * jako przyczyna ExecutionException.
+     *
+     * @param items liczba elementów
+     * @param threads liczba wątków puli
+     * @param task przetwarzanie zakresu elementów
+     * @return wyniki kolejnych zakresów (w kolejności numerów elementów)
+     */
+    public static <T> List<T> run(int items, int threads, final Task<T> task)
+            throws InterruptedException, ExecutionException {
+        threads = Math.max(1, threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            int taskCount = Math.min(items, threads * TASKS_PER_THREAD);
+            List<Future<T>> futures = new ArrayList<Future<T>>(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                final int from = (int)((long)items * i / taskCount);
+                final int to = (int)((long)items * (i + 1) / taskCount);
+                futures.add(pool.submit(new Callable<T>() {
+                    @Override
+                    public T call() throws Exception {
+                        return task.run(from, to);
+                    }
+                }));
+            }
+            List<T> results = new ArrayList<T>(taskCount);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+}
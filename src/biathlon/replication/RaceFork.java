@@ -0,0 +1,207 @@
+package biathlon.replication;
+
+import biathlon.Biathlete;
+import biathlon.BiathleteParameters;
+import biathlon.Biathlon;
+import biathlon.RaceConfiguration;
+import biathlon.ShootingStageCondition;
+import biathlon.StopCondition;
+import desmoj.core.dist.DistributionManager;
+import desmoj.core.simulator.Experiment;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Rozgałęzia trwający bieg w chwili jego zatrzymania na wiele niezależnych gałęzi
+ * (warianty "co by było, gdyby"), które są dokańczane równolegle na wątkach puli
+ * (biathlon.replication.ParallelRanges).
+ * Stan biegu jest raz zapisywany w pamięci (desmoj.core.simulator.Experiment#snapshot()),
+ * a każda gałąź odtwarza go we własnym eksperymencie i modelu (Experiment#restore(ByteBuffer)).
+ * Migawka i parametry zawodników niezmienione w gałęzi są współdzielone przez wszystkie gałęzie
+ * bez kopiowania - gałąź ze zmienionymi parametrami otrzymuje własną tabelę.
+ * Gałęzie różnią się ziarnami generatorów (Experiment#reseed(long)) - gałąź o danym numerze
+ * otrzymuje to samo ziarno niezależnie od parametrów, a każdy zawodnik losuje z własnych podstrumieni
+ * (biathlon.BiathleteSampler), więc warianty są porównywane na wspólnych liczbach losowych:
+ * zawodnik o niezmienionych parametrach ma w odpowiadających sobie gałęziach obu wariantów te same czasy
+ * biegu i strzałów oraz te same rezultaty strzałów.
+ *
+ * {@code
+ *      RaceFork fork = new RaceFork(race, 4);
+ *      ReplicationResults unchanged = fork.run(null, 1000, 979);
+ *      ReplicationResults changed = fork.run(parameters.withHitProbabilities(0, 0.6, 0.5), 1000, 979);
+ * }
+ *
+ * @author Artur Hebda
+ * @see biathlon.replication.ReplicationRunner
+ */
+public class RaceFork {
+    protected final RaceConfiguration configuration;
+
+    /**
+     * parametry zawodników rozgałęzianego biegu lub null (wspólne rozkłady).
+     */
+    protected final BiathleteParameters parameters;
+
+    /**
+     * stan biegu w chwili rozgałęzienia (tylko do odczytu, współdzielony przez gałęzie).
+     */
+    protected final ByteBuffer snapshot;
+
+    protected int threads;
+
+    /**
+     * Zapisuje stan zatrzymanego biegu, od którego rozpoczną się gałęzie.
+     * Bieg może być następnie kontynuowany lub zakończony - gałęzie nie zależą od jego eksperymentu.
+     *
+     * @param race bieg zatrzymany w chwili rozgałęzienia (np. warunkiem biathlon.ShootingStageCondition)
+     * @param threads liczba wątków puli
+     */
+    public RaceFork(Biathlon race, int threads) {
+        this.snapshot = race.getExperiment().snapshot();
+        if (snapshot == null) {
+            throw new IllegalStateException("Only a stopped race can be forked");
+        }
+        this.configuration = race.getConfiguration();
+        this.parameters = race.getParameters();
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Dokańcza bieg w podanej liczbie gałęzi i agreguje ich wyniki.
+     *
+     * @param branchParameters parametry zawodników we wszystkich gałęziach lub null (parametry rozgałęzianego biegu).
+     * Zmienione mogą być tylko parametry (np. prawdopodobieństwa trafienia) - nie liczba zawodników.
+     * @param branches liczba gałęzi
+     * @param seed ziarno generatora ziaren gałęzi
+     * @return zagregowane wyniki gałęzi wraz z czasem trwania obliczeń
+     */
+    public ReplicationResults run(BiathleteParameters branchParameters, int branches, long seed)
+            throws InterruptedException, ExecutionException {
+        final BiathleteParameters used = branchParameters != null ? branchParameters : parameters;
+        if ((used == null) != (parameters == null)
+                || (used != null && used.getBiathleteCount() != parameters.getBiathleteCount())) {
+            throw new IllegalArgumentException("Branches must keep the biathletes of the forked race");
+        }
+        final long[] seeds = new long[branches];
+        DistributionManager seedGenerator = new DistributionManager("Branches", seed);
+        for (int i = 0; i < branches; i++) {
+            seeds[i] = seedGenerator.nextSeed();
+        }
+
+        ReplicationResults results = new ReplicationResults(configuration.getBiathleteCount());
+        long startedAt = System.nanoTime();
+
+        List<ReplicationResults> parts = ParallelRanges.run(branches, threads,
+                new ParallelRanges.Task<ReplicationResults>() {
+                    @Override
+                    public ReplicationResults run(int from, int to) throws IOException {
+                        return runBranches(used, seeds, from, to);
+                    }
+                });
+        for (ReplicationResults part : parts) {
+            results.merge(part);
+        }
+
+        results.setElapsedNanos(System.nanoTime() - startedAt);
+        return results;
+    }
+
+    /**
+     * Dokańcza gałęzie o numerach z zakresu [from, to) w bieżącym wątku.
+     * Eksperyment i model są tworzone raz, a przed każdą gałęzią odtwarzany jest w nich stan z migawki.
+     *
+     * @param branchParameters parametry zawodników w gałęziach lub null
+     * @param seeds ziarna gałęzi
+     * @param from numer pierwszej gałęzi
+     * @param to numer za ostatnią gałęzią
+     * @return wyniki tych gałęzi
+     */
+    protected ReplicationResults runBranches(BiathleteParameters branchParameters, long[] seeds, int from, int to)
+            throws IOException {
+        ReplicationResults results = new ReplicationResults(configuration.getBiathleteCount());
+        if (from < to) {
+            Experiment experiment = new Experiment("Branch " + from, false);
+            experiment.setSilent(true);
+            experiment.setShowProgressBar(false);
+            experiment.setEventNotePooling(true);
+            Biathlon model = new Biathlon(null, "Biathlon", false, false, configuration, branchParameters);
+            model.setTracing(false);
+            model.connectToExperiment(experiment);
+            experiment.stop(new StopCondition(model, "Stop Condition", false));
+            for (int i = from; i < to; i++) {
+                experiment.restore(snapshot);
+                experiment.reseed(seeds[i]);
+                experiment.start();
+                results.add(model.getFinishingPositions());
+            }
+            experiment.finish();
+        }
+        return results;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Rozgałęzia bieg w chwili rozpoczęcia podanej serii strzałów przez pierwszego zawodnika
+     * i porównuje szanse na podium bez zmian oraz przy zmienionym prawdopodobieństwie trafienia tego zawodnika.
+     *
+     * @param args [liczba gałęzi] [ziarno] [liczba wątków] [seria strzałów] [zmiana prawdopodobieństwa trafienia]
+     * [plik parametrów zawodników]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int branches = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 979;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int stage = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        double hitChange = args.length > 4 ? Double.parseDouble(args[4]) : -0.2;
+
+        BiathleteParameters parameters = args.length > 5 ? BiathleteParameters.read(args[5])
+                : new BiathleteParameters(RaceConfiguration.DEFAULT_BIATHLETE_COUNT);
+        RaceConfiguration configuration = new RaceConfiguration().withBiathleteCount(parameters.getBiathleteCount());
+
+        Experiment experiment = new Experiment("Forked race", false);
+        experiment.setSilent(true);
+        experiment.setShowProgressBar(false);
+        experiment.setSeedGenerator(seed);
+        Biathlon race = new Biathlon(null, "Biathlon", false, false, configuration, parameters);
+        race.setTracing(false);
+        race.connectToExperiment(experiment);
+        ShootingStageCondition forkPoint = new ShootingStageCondition(race, "Fork point", false, stage);
+        experiment.stop(forkPoint);
+        experiment.start();
+
+        Biathlete biathlete = forkPoint.getBiathlete();
+        if (biathlete == null) {
+            System.out.println("No biathlete has reached shooting stage " + stage);
+            experiment.finish();
+            return;
+        }
+        int id = biathlete.getId();
+        BiathleteParameters changed = parameters.withHitProbabilities(id,
+                Math.max(0, Math.min(1, parameters.getHitProbability(id, true) + hitChange)),
+                Math.max(0, Math.min(1, parameters.getHitProbability(id, false) + hitChange)));
+
+        RaceFork fork = new RaceFork(race, threads);
+        String forkTime = race.presentTime().toString();
+        experiment.finish();
+        ReplicationResults unchanged = fork.run(null, branches, seed);
+        ReplicationResults whatIf = fork.run(changed, branches, seed);
+
+        System.out.println(String.format("Forked at %s when %s began shooting stage %d, hit probability %+.2f",
+                forkTime, biathlete, stage, hitChange));
+        System.out.println(String.format("%-12s %8s %8s %8s %8s", "Biathlete", "Win", "Podium", "Win'", "Podium'"));
+        for (int i = 0; i < unchanged.getBiathleteCount(); i++) {
+            System.out.println(String.format("%-12d %8.4f %8.4f %8.4f %8.4f", i + 1,
+                    unchanged.getWinProbability(i), unchanged.getPodiumProbability(i),
+                    whatIf.getWinProbability(i), whatIf.getPodiumProbability(i)));
+        }
+        System.out.println(String.format("2 x %d branches on %d threads in %.2f s (%.1f branches/s)",
+                branches, threads,
+                (unchanged.getElapsedNanos() + whatIf.getElapsedNanos()) / 1e9,
+                2e9 * branches / (unchanged.getElapsedNanos() + whatIf.getElapsedNanos())));
+    }
+}
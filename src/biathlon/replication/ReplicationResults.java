@@ -0,0 +1,145 @@
+/**
+ * Wielokrotne (równoległe) przeprowadzanie symulacji biegu metodą Monte Carlo.
+ */
+package biathlon.replication;
+
+/**
+ * Zagregowane wyniki wielu replikacji biegu.
+ * Dla każdego zawodnika (identyfikowanego numerem startowym, od 0) przechowuje
+ * liczbę replikacji, w których ukończył bieg na danym miejscu.
+ * Pozwala to oszacować rozkład miejsc na mecie, prawdopodobieństwo zwycięstwa
+ * czy zajęcia miejsca na podium.
+ *
+ * Obiekt nie jest bezpieczny wątkowo - każdy wątek powinien zbierać wyniki
+ * we własnej instancji, które na końcu są łączone metodą merge().
+ *
+ * @author Artur Hebda
+ */
+public class ReplicationResults {
+    /**
+     * positionCounts[zawodnik][miejsce - 1] - liczba replikacji, w których zawodnik zajął dane miejsce.
+     */
+    protected long[][] positionCounts;
+
+    /**
+     * liczba replikacji, które złożyły się na wyniki.
+     */
+    protected long replications = 0;
+
+    /**
+     * czas (rzeczywisty) przeprowadzenia replikacji w nanosekundach.
+     */
+    protected long elapsedNanos = 0;
+
+    /**
+     * @param biathleteCount liczba zawodników startujących w każdej replikacji
+     */
+    public ReplicationResults(int biathleteCount) {
+        positionCounts = new long[biathleteCount][biathleteCount];
+    }
+
+    /**
+     * Dodaje wynik pojedynczej replikacji.
+     *
+     * @param positions miejsca na mecie (od 1) indeksowane numerem startowym zawodnika (od 0);
+     * zawodnicy z miejscem 0 (nieukończony bieg) są pomijani.
+     * @see biathlon.Biathlon#getFinishingPositions()
+     */
+    public void add(int[] positions) {
+        for (int biathlete = 0; biathlete < positions.length; biathlete++) {
+            if (positions[biathlete] > 0) {
+                positionCounts[biathlete][positions[biathlete] - 1]++;
+            }
+        }
+        replications++;
+    }
+
+    /**
+     * Dołącza wyniki zebrane w innej instancji (np. przez inny wątek).
+     *
+     * @param other wyniki dla tej samej liczby zawodników
+     */
+    public void merge(ReplicationResults other) {
+        for (int biathlete = 0; biathlete < positionCounts.length; biathlete++) {
+            for (int position = 0; position < positionCounts[biathlete].length; position++) {
+                positionCounts[biathlete][position] += other.positionCounts[biathlete][position];
+            }
+        }
+        replications += other.replications;
+    }
+
+    public int getBiathleteCount() {
+        return positionCounts.length;
+    }
+
+    public long getReplications() {
+        return replications;
+    }
+
+    /**
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param position miejsce na mecie (od 1)
+     * @return liczba replikacji, w których zawodnik zajął dane miejsce
+     */
+    public long getPositionCount(int biathlete, int position) {
+        return positionCounts[biathlete][position - 1];
+    }
+
+    /**
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param position miejsce na mecie (od 1)
+     * @return oszacowanie prawdopodobieństwa zajęcia przez zawodnika danego miejsca
+     */
+    public double getPositionProbability(int biathlete, int position) {
+        return replications == 0 ? 0.0 : (double)getPositionCount(biathlete, position) / replications;
+    }
+
+    /**
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @param position najgorsze akceptowane miejsce (od 1)
+     * @return oszacowanie prawdopodobieństwa zajęcia miejsca nie gorszego niż podane
+     */
+    public double getTopProbability(int biathlete, int position) {
+        double probability = 0.0;
+        for (int i = 1; i <= position && i <= positionCounts.length; i++) {
+            probability += getPositionProbability(biathlete, i);
+        }
+        return probability;
+    }
+
+    public double getWinProbability(int biathlete) {
+        return getTopProbability(biathlete, 1);
+    }
+
+    public double getPodiumProbability(int biathlete) {
+        return getTopProbability(biathlete, 3);
+    }
+
+    /**
+     * @param biathlete numer startowy zawodnika (od 0)
+     * @return średnie miejsce zawodnika na mecie
+     */
+    public double getMeanPosition(int biathlete) {
+        long sum = 0, count = 0;
+        for (int position = 1; position <= positionCounts[biathlete].length; position++) {
+            sum += position * positionCounts[biathlete][position - 1];
+            count += positionCounts[biathlete][position - 1];
+        }
+        return count == 0 ? 0.0 : (double)sum / count;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return przepustowość - liczba replikacji na sekundę czasu rzeczywistego
+     */
+    public double getReplicationsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : replications * 1e9 / elapsedNanos;
+    }
+}
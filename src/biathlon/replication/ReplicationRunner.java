@@ -0,0 +1,299 @@
+package biathlon.replication;
+
+import biathlon.BiathleteParameters;
+import biathlon.Biathlon;
+import biathlon.RaceConfiguration;
+import biathlon.StopCondition;
+import desmoj.core.dist.DistributionManager;
+import desmoj.core.dist.JumpableRandomGenerator;
+import desmoj.core.dist.Xoshiro256StarStarRandomGenerator;
+import desmoj.core.simulator.Experiment;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Przeprowadza wiele niezależnych replikacji biegu (bez trace'ów i raportów)
+ * i agreguje ich wyniki.
+ * Replikacje są rozdzielane między wątki puli (biathlon.replication.ParallelRanges) - każda replikacja ma własne ziarno
+ * pobrane z generatora ziaren (desmoj.core.dist.DistributionManager), więc wyniki
+ * nie zależą od liczby wątków ani kolejności wykonania.
+ * Zadanie puli tworzy eksperyment i model tylko raz i przed każdą kolejną replikacją
+ * przywraca je do stanu początkowego (desmoj.core.simulator.Experiment#reset(long)),
+ * z wynikami identycznymi jak dla nowego eksperymentu i modelu.
+ * W trybie bezpośredniego losowania (setDirectSampling(true)) replikacje są wykonywane
+ * bez symulacji zdarzeniowej, przez biathlon.replication.DirectSampler.
+ * W trybie strumieni (setStreams(true)) replikacja o numerze i korzysta ze strumienia i generatora
+ * desmoj.core.dist.Xoshiro256StarStarRandomGenerator (Experiment#setStream(long, long)), dzielonego
+ * na rozłączne podstrumienie rozkładów - strumienie replikacji nie nakładają się na siebie,
+ * a każdą replikację można odtworzyć osobno (runReplication(int)) z wynikiem identycznym jak w serii.
+ *
+ * {@code
+ *      ReplicationRunner runner = new ReplicationRunner(10000, 979);
+ *      ReplicationResults results = runner.run();
+ *      results.getPodiumProbability(0);
+ * }
+ *
+ * @author Artur Hebda
+ */
+public class ReplicationRunner {
+    protected RaceConfiguration configuration;
+    protected int replications;
+    protected int threads;
+
+    /**
+     * czy losować wyniki bezpośrednio (DirectSampler) zamiast symulować bieg.
+     */
+    protected boolean directSampling = false;
+
+    /**
+     * czy replikacje korzystają z rozłącznych strumieni generatora xoshiro256** zamiast ziaren.
+     */
+    protected boolean streams = false;
+
+    /**
+     * indywidualne parametry zawodników lub null (wspólne rozkłady modelu biathlon.Biathlon).
+     */
+    protected BiathleteParameters parameters;
+
+    /**
+     * ziarno generatora ziaren (w trybie strumieni - ziarno wszystkich strumieni replikacji).
+     */
+    protected long seed;
+
+    /**
+     * ziarna kolejnych replikacji.
+     */
+    protected long[] seeds;
+
+    /**
+     * Tworzy runner dla domyślnej konfiguracji biegu, korzystający ze wszystkich dostępnych procesorów.
+     *
+     * @param replications liczba replikacji
+     * @param seed ziarno generatora ziaren replikacji
+     */
+    public ReplicationRunner(int replications, long seed) {
+        this(new RaceConfiguration(), replications, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param configuration konfiguracja biegu wspólna dla wszystkich replikacji
+     * @param replications liczba replikacji
+     * @param seed ziarno generatora ziaren replikacji
+     * @param threads liczba wątków puli
+     */
+    public ReplicationRunner(RaceConfiguration configuration, int replications, long seed, int threads) {
+        this.configuration = configuration;
+        this.replications = replications;
+        this.threads = Math.max(1, threads);
+        this.seed = seed;
+
+        DistributionManager seedGenerator = new DistributionManager("Replications", seed);
+        seeds = new long[replications];
+        for (int i = 0; i < replications; i++) {
+            seeds[i] = seedGenerator.nextSeed();
+        }
+    }
+
+    /**
+     * Uruchamia wszystkie replikacje i czeka na ich zakończenie.
+     *
+     * @return zagregowane wyniki wraz z czasem trwania obliczeń
+     */
+    public ReplicationResults run() throws InterruptedException, ExecutionException {
+        ReplicationResults results = new ReplicationResults(configuration.getBiathleteCount());
+        long startedAt = System.nanoTime();
+
+        List<ReplicationResults> parts = ParallelRanges.run(replications, threads,
+                new ParallelRanges.Task<ReplicationResults>() {
+                    @Override
+                    public ReplicationResults run(int from, int to) {
+                        return runReplications(from, to);
+                    }
+                });
+        for (ReplicationResults part : parts) {
+            results.merge(part);
+        }
+
+        results.setElapsedNanos(System.nanoTime() - startedAt);
+        return results;
+    }
+
+    /**
+     * Przeprowadza replikacje o numerach z zakresu [from, to) w bieżącym wątku.
+     *
+     * @param from numer pierwszej replikacji
+     * @param to numer za ostatnią replikacją
+     * @return wyniki tych replikacji
+     */
+    protected ReplicationResults runReplications(int from, int to) {
+        ReplicationResults results = new ReplicationResults(configuration.getBiathleteCount());
+        // w trybie strumieni strumień kolejnej replikacji to strumień poprzedniej po longJump();
+        // forStream(seed, from) wykonuje from skoków longJump() (ok. 1 µs każdy), więc ustawienie
+        // strumieni wszystkich zakresów kosztuje łącznie ok. replikacje * zadania / 2 skoków
+        // (np. 10^6 replikacji w 64 zadaniach - ok. 32 s czasu procesora)
+        JumpableRandomGenerator stream = streams ? Xoshiro256StarStarRandomGenerator.forStream(seed, from) : null;
+        if (directSampling) {
+            DirectSampler sampler = parameters == null
+                    ? new DirectSampler(configuration) : new DirectSampler(configuration, parameters);
+            for (int i = from; i < to; i++) {
+                if (streams) {
+                    results.add(sampler.sample(stream.copy()));
+                    stream.longJump();
+                }
+                else {
+                    results.add(sampler.sample(seeds[i]));
+                }
+            }
+        }
+        else if (from < to) {
+            Experiment experiment = createExperiment(from);
+            Biathlon model = createModel(experiment);
+            experiment.start();
+            results.add(model.getFinishingPositions());
+            for (int i = from + 1; i < to; i++) {
+                if (streams) {
+                    stream.longJump();
+                    experiment.reset(stream.copy());
+                }
+                else {
+                    experiment.reset(seeds[i]);
+                }
+                experiment.start();
+                results.add(model.getFinishingPositions());
+            }
+            experiment.finish();
+        }
+        return results;
+    }
+
+    /**
+     * Przeprowadza pojedynczą replikację biegu.
+     *
+     * @param index numer replikacji
+     * @return miejsca na mecie indeksowane numerem startowym zawodnika
+     */
+    public int[] runReplication(int index) {
+        Experiment experiment = createExperiment(index);
+        Biathlon model = createModel(experiment);
+        experiment.start();
+        experiment.finish();
+        return model.getFinishingPositions();
+    }
+
+    /**
+     * Tworzy eksperyment replikacji (bez plików wynikowych i komunikatów na konsoli).
+     *
+     * @param index numer replikacji, której ziarno otrzymuje generator ziaren eksperymentu
+     * (w trybie strumieni - numer strumienia eksperymentu)
+     */
+    protected Experiment createExperiment(int index) {
+        Experiment experiment = new Experiment("Replication " + index, false);
+        experiment.setSilent(true);
+        experiment.setShowProgressBar(false);
+        if (streams) {
+            experiment.setStream(seed, index);
+        }
+        else {
+            experiment.setSeedGenerator(seeds[index]);
+        }
+        experiment.setEventNotePooling(true);
+        return experiment;
+    }
+
+    /**
+     * Tworzy model biegu (bez trace'ów) połączony z eksperymentem, wraz z warunkiem zatrzymania.
+     */
+    protected Biathlon createModel(Experiment experiment) {
+        Biathlon model = new Biathlon(null, "Biathlon", false, false, configuration, parameters);
+        model.setTracing(false);
+        model.connectToExperiment(experiment);
+        experiment.stop(new StopCondition(model, "Stop Condition", false));
+        return model;
+    }
+
+    public boolean isDirectSampling() {
+        return directSampling;
+    }
+
+    /**
+     * Włącza lub wyłącza bezpośrednie losowanie wyników (bez symulacji zdarzeniowej).
+     * Dopuszczalne tylko dla formatów, w których zawodnicy nie wpływają na siebie (bieg indywidualny).
+     *
+     * @param directSampling true, by replikacje wykonywał biathlon.replication.DirectSampler
+     */
+    public void setDirectSampling(boolean directSampling) {
+        this.directSampling = directSampling;
+    }
+
+    public boolean isStreams() {
+        return streams;
+    }
+
+    /**
+     * Włącza lub wyłącza tryb strumieni: replikacja o numerze i korzysta ze strumienia i
+     * generatora xoshiro256** zamiast z i-tego ziarna generatora ziaren.
+     *
+     * @param streams true, by replikacje korzystały z rozłącznych strumieni
+     */
+    public void setStreams(boolean streams) {
+        this.streams = streams;
+    }
+
+    public BiathleteParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Ustawia indywidualne parametry zawodników wspólne dla wszystkich replikacji.
+     *
+     * @param parameters parametry (co najmniej tylu zawodników, ilu startuje w biegu) lub null
+     */
+    public void setParameters(BiathleteParameters parameters) {
+        if (parameters != null && parameters.getBiathleteCount() < configuration.getBiathleteCount()) {
+            throw new IllegalArgumentException("Parameters of " + configuration.getBiathleteCount() + " biathletes are required");
+        }
+        this.parameters = parameters;
+    }
+
+    /**
+     * Przeprowadza replikacje i wypisuje prawdopodobieństwa zwycięstwa i podium
+     * dla każdego zawodnika oraz przepustowość.
+     *
+     * @param args [liczba replikacji] [ziarno] [liczba wątków] [tryb: des lub direct - bezpośrednie
+     * losowanie, z opcjonalnym +streams - rozłączne strumienie replikacji, np. direct+streams]
+     * [plik parametrów zawodników]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int replications = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 979;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        BiathleteParameters parameters = args.length > 4 ? BiathleteParameters.read(args[4]) : null;
+        RaceConfiguration configuration = new RaceConfiguration();
+        if (parameters != null) {
+            configuration = configuration.withBiathleteCount(parameters.getBiathleteCount());
+        }
+
+        ReplicationRunner runner = new ReplicationRunner(configuration, replications, seed, threads);
+        List<String> modes = args.length > 3 ? Arrays.asList(args[3].split("\\+")) : new ArrayList<String>();
+        runner.setDirectSampling(modes.contains("direct"));
+        runner.setStreams(modes.contains("streams"));
+        runner.setParameters(parameters);
+        ReplicationResults results = runner.run();
+
+        System.out.println(String.format("%-12s %8s %8s %8s", "Biathlete", "Win", "Podium", "Mean"));
+        for (int i = 0; i < results.getBiathleteCount(); i++) {
+            System.out.println(String.format("%-12d %8.4f %8.4f %8.2f", i + 1,
+                    results.getWinProbability(i),
+                    results.getPodiumProbability(i),
+                    results.getMeanPosition(i)));
+        }
+        System.out.println(String.format("%d replications on %d threads in %.2f s (%.1f replications/s)",
+                results.getReplications(), threads,
+                results.getElapsedNanos() / 1e9,
+                results.getReplicationsPerSecond()));
+    }
+}
@@ -59,6 +59,18 @@ public class HTMLFileOutput extends desmoj.core.report.FileOutput {
         writeln(HTMLFileOutput.header(title));
     }
 
+    /**
+     * Tworzenie trace'a bez obiektu encji (np. przy generowaniu z pliku biathlon.report.RaceTraceOutput).
+     * Utworzy plik w katalogu traces/#{entityClass}/ o podanej nazwie.
+     * @param entityClass pełna nazwa klasy encji
+     * @param title tytuł trace'a
+     * @param filename nazwa pliku trace
+     */
+    public HTMLFileOutput(String entityClass, String title, String filename) {
+        open("traces/" + entityClass + "/" + filename + ".html");
+        writeln(HTMLFileOutput.header(title));
+    }
+
     /**
      * Dodaje do trace'a nagłówek tabeli
      * @param columns kolumny tabeli
@@ -0,0 +1,93 @@
+package biathlon.report;
+
+import biathlon.core.Entity;
+import biathlon.event.BiathleteEvent;
+import biathlon.event.BiathleteEventStore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wspólny trace całego biegu zapisywany do jednego pliku CSV.
+ * Zdarzenia z magazynu biathlon.event.BiathleteEventStore są dopisywane na końcu pliku (bufor FileOutput),
+ * więc otwarty jest tylko jeden plik, niezależnie od liczby zawodników.
+ * Plik jest tworzony dopiero przy generowaniu raportu (biathlon.Biathlon#generateTraces()),
+ * a widoki HTML dla poszczególnych encji są generowane z niego na żądanie przez biathlon.report.RaceTraceReport.
+ *
+ * Format wiersza (pierwszy wiersz to nagłówek):
+ * {@code
+ *      lap;simulationTime;biathleteTime;placeClass;place;biathlete;message
+ * }
+ * Czasy zapisywane są w milisekundach, a pola zawierające separator lub cudzysłów są ujmowane w cudzysłowy.
+ *
+ * @author Artur Hebda
+ * @see biathlon.report.RaceTraceReport
+ * @see desmoj.core.report.FileOutput
+ */
+public class RaceTraceOutput extends desmoj.core.report.FileOutput {
+    public static final String DEFAULT_FILE_NAME = "traces/race.csv";
+    public static final char SEPARATOR = ';';
+    public static final String HEADER = "lap;simulationTime;biathleteTime;placeClass;place;biathlete;message";
+
+    /**
+     * Tworzy (nadpisuje) plik trace'a i zapisuje nagłówek.
+     * @param fileName ścieżka do pliku
+     */
+    public RaceTraceOutput(String fileName) {
+        open(fileName);
+        writeln(HEADER);
+    }
+
+    /**
+     * Dopisuje do trace'a wszystkie zdarzenia z magazynu (w kolejności czasu symulacji).
+     * Wiersze są tworzone bezpośrednio z kolumn magazynu, bez tworzenia obiektów BiathleteEvent.
+     * @param events magazyn zdarzeń biegu
+     */
+    public void record(BiathleteEventStore events) {
+        for (int i = 0; i < events.size(); i++) {
+            write(events.getLap(i),
+                  events.toMillis(events.getSimulationTime(i)),
+                  events.toMillis(events.getBiathleteTime(i)),
+                  events.getPlace(i),
+                  events.getBiathlete(i),
+                  events.getMessage(i));
+        }
+    }
+
+    /**
+     * Dopisuje zdarzenie do trace'a.
+     * @param event zdarzenie
+     */
+    public void record(BiathleteEvent event) {
+        write(event.getLap(),
+              event.getSimulationTime().getTimeAsDouble(TimeUnit.MILLISECONDS),
+              event.getBiathleteTime().getTimeAsDouble(TimeUnit.MILLISECONDS),
+              event.getPlace(),
+              event.getBiathlete(),
+              event.getMessage());
+    }
+
+    protected void write(int lap, double simulationTime, double biathleteTime, Entity place, Entity biathlete, String message) {
+        StringBuilder line = new StringBuilder();
+        line.append(lap).append(SEPARATOR)
+            .append(simulationTime).append(SEPARATOR)
+            .append(biathleteTime).append(SEPARATOR)
+            .append(place.getClass().getName()).append(SEPARATOR);
+        appendField(line, place.toString()).append(SEPARATOR);
+        appendField(line, biathlete.toString()).append(SEPARATOR);
+        appendField(line, message);
+        writeln(line.toString());
+    }
+
+    /**
+     * Dopisuje pole, ujmując je w cudzysłowy, jeśli zawiera separator, cudzysłów lub znak nowej linii.
+     * null zostaje zapisany jako puste pole.
+     */
+    protected static StringBuilder appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
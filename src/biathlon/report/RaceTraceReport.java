@@ -0,0 +1,453 @@
+package biathlon.report;
+
+import biathlon.Biathlete;
+import biathlon.ShootingArea;
+import biathlon.checkpoint.Checkpoint;
+import biathlon.checkpoint.StartFinish;
+import desmoj.core.simulator.TimeInstant;
+import desmoj.core.simulator.TimeSpan;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generowanie trace'ów HTML z pliku zapisanego przez biathlon.report.RaceTraceOutput.
+ * Pozycje i straty do lidera na punktach pomiaru czasu są wyznaczane przy wczytywaniu pliku,
+ * a pliki HTML powstają tylko dla encji, o które poproszono.
+ *
+ * {@code
+ *      java biathlon.report.RaceTraceReport traces/race.csv "Biathlete: 7" "Start Finish"
+ * }
+ *
+ * @author Artur Hebda
+ * @see biathlon.report.RaceTraceOutput
+ */
+public class RaceTraceReport {
+    protected final List<Row> rows;
+
+    /**
+     * wiersze pogrupowane według miejsca zdarzenia (w kolejności pierwszego wystąpienia).
+     */
+    protected final Map<String, List<Row>> rowsByPlace = new LinkedHashMap<String, List<Row>>();
+
+    /**
+     * wiersze pogrupowane według zawodnika (w kolejności startu).
+     */
+    protected final Map<String, List<Row>> rowsByBiathlete = new LinkedHashMap<String, List<Row>>();
+
+    protected int laps = 0;
+
+    /**
+     * @param rows wiersze trace'a w kolejności zapisu
+     */
+    public RaceTraceReport(List<Row> rows) {
+        this.rows = rows;
+        for (Row row : rows) {
+            group(rowsByPlace, row.place, row);
+            group(rowsByBiathlete, row.biathlete, row);
+            laps = Math.max(laps, row.lap);
+        }
+        rankCheckpointArrivals();
+    }
+
+    /**
+     * Wczytuje trace biegu z pliku.
+     * @param fileName plik zapisany przez biathlon.report.RaceTraceOutput
+     * @return raport gotowy do generowania trace'ów HTML
+     */
+    public static RaceTraceReport read(String fileName) throws IOException {
+        List<Row> rows = new ArrayList<Row>();
+        BufferedReader in = new BufferedReader(new FileReader(fileName));
+        try {
+            String line = in.readLine(); // nagłówek
+            while ((line = in.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    rows.add(Row.parse(line));
+                }
+            }
+        }
+        finally {
+            in.close();
+        }
+        return new RaceTraceReport(rows);
+    }
+
+    /**
+     * Generuje trace'y wszystkich punktów pomiaru czasu, strzelnicy i zawodników oraz wyniki końcowe.
+     */
+    public void generateAll() {
+        for (String place : rowsByPlace.keySet()) {
+            generatePlace(place);
+        }
+        for (String biathlete : rowsByBiathlete.keySet()) {
+            generateBiathlete(biathlete);
+        }
+        generateFinalResults();
+    }
+
+    /**
+     * Generuje trace dla encji o podanej nazwie (zawodnika, punktu pomiaru czasu lub strzelnicy).
+     * @param name nazwa encji
+     * @return false, jeśli w trace'ie nie ma encji o takiej nazwie
+     */
+    public boolean generate(String name) {
+        if (rowsByBiathlete.containsKey(name)) {
+            generateBiathlete(name);
+            return true;
+        }
+        if (rowsByPlace.containsKey(name)) {
+            generatePlace(name);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Generuje trace dla zawodnika z przebiegu całego wyścigu.
+     * @param name nazwa zawodnika
+     */
+    public void generateBiathlete(String name) {
+        List<Row> biathleteRows = rowsByBiathlete.get(name);
+        HTMLFileOutput html = new HTMLFileOutput(Biathlete.class.getName(), "Trace for " + name, name);
+
+        for (int lap = 1; lap <= laps; lap++) {
+            List<Row> lapRows = sortedByBiathleteTime(onLap(biathleteRows, lap));
+            html.startSection("Lap " + lap);
+            html.startTable("Position", "Description", "Time", "Lost");
+            for (Row row : lapRows) {
+                html.insertRow(row.rank, row.message, row.getBiathleteTime(), row.getLost());
+            }
+            html.closeTable();
+            html.closeSection();
+        }
+
+        html.close();
+    }
+
+    /**
+     * Generuje trace dla punktu pomiaru czasu lub strzelnicy.
+     * @param name nazwa miejsca
+     */
+    public void generatePlace(String name) {
+        List<Row> placeRows = rowsByPlace.get(name);
+        String placeClass = placeRows.get(0).placeClass;
+        if (isA(placeClass, Checkpoint.class)) {
+            generateCheckpoint(name, placeClass, placeRows);
+        }
+        else if (isA(placeClass, ShootingArea.class)) {
+            generateShootingArea(name, placeClass, placeRows);
+        }
+    }
+
+    protected void generateCheckpoint(String name, String placeClass, List<Row> placeRows) {
+        HTMLFileOutput html = new HTMLFileOutput(placeClass, "Trace for " + name, name);
+
+        for (int lap = 1; lap <= laps; lap++) {
+            html.startSection("Lap " + lap);
+            html.startTable("Position", "Name", "Time", "Lost");
+            for (Row row : sortedByBiathleteTime(onLap(placeRows, lap))) {
+                html.insertRow(row.rank, row.biathlete, row.getBiathleteTime(), row.getLost());
+            }
+            html.closeTable();
+            html.closeSection();
+        }
+
+        html.close();
+    }
+
+    protected void generateShootingArea(String name, String placeClass, List<Row> placeRows) {
+        HTMLFileOutput html = new HTMLFileOutput(placeClass, "Trace for " + name, name);
+
+        for (int lap = 1; lap <= laps; lap++) {
+            html.startSection("Lap " + lap);
+            html.startTable("Name", "Result", "Biathlete Time", "Simulation Time");
+            for (Row row : onLap(placeRows, lap)) {
+                html.insertRow(row.biathlete, row.message, row.getBiathleteTime(), row.getSimulationTime());
+            }
+            html.closeTable();
+            html.closeSection();
+        }
+
+        html.close();
+    }
+
+    /**
+     * Generowanie trace'a zawierającego ostateczne wyniki biegu.
+     * Uwzględnia liczbę niecelnych strzałów w każdej serii.
+     */
+    public void generateFinalResults() {
+        List<Row> finishes = new ArrayList<Row>();
+        for (Row row : rows) {
+            if (row.lap == laps && isA(row.placeClass, StartFinish.class)) {
+                finishes.add(row);
+            }
+        }
+        if (finishes.isEmpty()) {
+            return;
+        }
+        finishes = sortedByBiathleteTime(finishes);
+
+        HTMLFileOutput html = new HTMLFileOutput(StartFinish.class.getName(), "Final Results", "final_results");
+        html.startSection("Results");
+        html.startTable("Position", "Name", "Missed Shots", "Time", "Lost");
+
+        double firstFinishAt = finishes.get(0).biathleteTime;
+        for (int i = 0; i < finishes.size(); i++) {
+            Row finish = finishes.get(i);
+            html.insertRow(Integer.valueOf(i + 1),
+                           finish.biathlete,
+                           missedShots(finish.biathlete),
+                           finish.getBiathleteTime(),
+                           new TimeSpan(finish.biathleteTime - firstFinishAt, TimeUnit.MILLISECONDS));
+        }
+
+        html.closeTable();
+        html.closeSection();
+        html.close();
+    }
+
+    /**
+     * Opis niecelnych strzałów zawodnika, np. "3 (1+0+2+0)".
+     * @param biathlete nazwa zawodnika
+     */
+    protected String missedShots(String biathlete) {
+        int[] missesOnLap = new int[laps + 1];
+        boolean[] shotOnLap = new boolean[laps + 1];
+        for (Row row : rowsByBiathlete.get(biathlete)) {
+            if (isA(row.placeClass, ShootingArea.class)) {
+                shotOnLap[row.lap] = true;
+                if (ShootingArea.MISS_MESSAGE.equals(row.message)) {
+                    missesOnLap[row.lap]++;
+                }
+            }
+        }
+
+        int missCount = 0;
+        StringBuilder perLap = new StringBuilder();
+        for (int lap = 1; lap <= laps; lap++) {
+            if (shotOnLap[lap]) {
+                perLap.append(perLap.length() > 0 ? "+" : "").append(missesOnLap[lap]);
+                missCount += missesOnLap[lap];
+            }
+        }
+        return missCount + " (" + perLap + ")";
+    }
+
+    /**
+     * Ustala pozycję i stratę do lidera dla każdego przybycia do punktu pomiaru czasu
+     * (osobno dla każdego punktu i okrążenia).
+     */
+    protected final void rankCheckpointArrivals() {
+        for (List<Row> placeRows : rowsByPlace.values()) {
+            if (!isA(placeRows.get(0).placeClass, Checkpoint.class)) {
+                continue;
+            }
+            for (int lap = 1; lap <= laps; lap++) {
+                List<Row> arrivals = sortedByBiathleteTime(onLap(placeRows, lap));
+                for (int i = 0; i < arrivals.size(); i++) {
+                    arrivals.get(i).rank = i + 1;
+                    arrivals.get(i).lost = arrivals.get(i).biathleteTime - arrivals.get(0).biathleteTime;
+                }
+            }
+        }
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public int getLaps() {
+        return laps;
+    }
+
+    protected static void group(Map<String, List<Row>> groups, String key, Row row) {
+        List<Row> group = groups.get(key);
+        if (group == null) {
+            group = new ArrayList<Row>();
+            groups.put(key, group);
+        }
+        group.add(row);
+    }
+
+    protected static List<Row> onLap(List<Row> rows, int lap) {
+        List<Row> lapRows = new ArrayList<Row>();
+        for (Row row : rows) {
+            if (row.lap == lap) {
+                lapRows.add(row);
+            }
+        }
+        return lapRows;
+    }
+
+    protected static List<Row> sortedByBiathleteTime(List<Row> rows) {
+        List<Row> sorted = new ArrayList<Row>(rows);
+        Collections.sort(sorted, new Comparator<Row>() {
+            @Override
+            public int compare(Row a, Row b) {
+                return Double.compare(a.biathleteTime, b.biathleteTime);
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * Sprawdza, czy klasa o podanej nazwie jest podklasą podanej klasy.
+     */
+    protected static boolean isA(String className, Class<?> type) {
+        try {
+            return type.isAssignableFrom(Class.forName(className));
+        }
+        catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param args plik trace'a biegu, a następnie nazwy encji (bez nazw generowane są wszystkie trace'y)
+     */
+    public static void main(String[] args) throws IOException {
+        String fileName = args.length > 0 ? args[0] : RaceTraceOutput.DEFAULT_FILE_NAME;
+        RaceTraceReport report = RaceTraceReport.read(fileName);
+        if (args.length < 2) {
+            report.generateAll();
+            return;
+        }
+        for (int i = 1; i < args.length; i++) {
+            if (!report.generate(args[i])) {
+                System.out.println("No entity named " + args[i] + " in " + fileName);
+            }
+        }
+    }
+
+    /**
+     * Pojedyncze zdarzenie odczytane z trace'a biegu.
+     */
+    public static class Row {
+        protected int lap;
+        protected double simulationTime, biathleteTime;
+        protected String placeClass, place, biathlete, message;
+
+        /**
+         * pozycja i strata do lidera (w milisekundach), wyznaczane tylko dla przybyć do punktów pomiaru czasu.
+         */
+        protected Integer rank;
+        protected Double lost;
+
+        /**
+         * Odczytuje wiersz w formacie biathlon.report.RaceTraceOutput.
+         * @param line wiersz pliku
+         * @return zdarzenie
+         */
+        public static Row parse(String line) {
+            List<String> fields = split(line);
+            if (fields.size() != 7) {
+                throw new IllegalArgumentException("Malformed race trace line: " + line);
+            }
+            Row row = new Row();
+            row.lap = Integer.parseInt(fields.get(0));
+            row.simulationTime = Double.parseDouble(fields.get(1));
+            row.biathleteTime = Double.parseDouble(fields.get(2));
+            row.placeClass = fields.get(3);
+            row.place = fields.get(4);
+            row.biathlete = fields.get(5);
+            row.message = fields.get(6).isEmpty() ? null : fields.get(6);
+            return row;
+        }
+
+        /**
+         * Dzieli wiersz na pola z uwzględnieniem pól ujętych w cudzysłowy.
+         */
+        protected static List<String> split(String line) {
+            List<String> fields = new ArrayList<String>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    }
+                    else if (c == '"') {
+                        quoted = false;
+                    }
+                    else {
+                        field.append(c);
+                    }
+                }
+                else if (c == '"') {
+                    quoted = true;
+                }
+                else if (c == RaceTraceOutput.SEPARATOR) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                }
+                else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        public int getLap() {
+            return lap;
+        }
+
+        public String getPlaceClass() {
+            return placeClass;
+        }
+
+        public String getPlace() {
+            return place;
+        }
+
+        public String getBiathlete() {
+            return biathlete;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public Integer getRank() {
+            return rank;
+        }
+
+        public TimeInstant getBiathleteTime() {
+            return new TimeInstant(biathleteTime, TimeUnit.MILLISECONDS);
+        }
+
+        public TimeInstant getSimulationTime() {
+            return new TimeInstant(simulationTime, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * @return czas symulacji w milisekundach (bez tworzenia obiektu czasu)
+         */
+        public double getSimulationTimeInMilliSeconds() {
+            return simulationTime;
+        }
+
+        /**
+         * @return czas, który upłynął od startu zawodnika, w milisekundach (bez tworzenia obiektu czasu)
+         */
+        public double getBiathleteTimeInMilliSeconds() {
+            return biathleteTime;
+        }
+
+        /**
+         * @return strata do lidera lub null, jeśli zdarzenie nie jest przybyciem do punktu pomiaru czasu
+         */
+        public TimeSpan getLost() {
+            return lost == null ? null : new TimeSpan(lost, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Symulacja całego sezonu Pucharu Świata (biegi indywidualne, sprinty i biegi pościgowe).
+ */
+package biathlon.season;
+
+import biathlon.RaceConfiguration;
+
+/**
+ * Bieg w kalendarzu sezonu: format biegu (biathlon.RaceConfiguration) i, dla biegu pościgowego,
+ * bieg, którego wyniki wyznaczają listę startową i straty na starcie.
+ *
+ * @author Artur Hebda
+ * @see biathlon.season.SeasonSimulator
+ */
+public class SeasonRace {
+    /**
+     * liczba najlepszych zawodników sprintu startujących w biegu pościgowym.
+     */
+    public static final int PURSUIT_FIELD_SIZE = 60;
+
+    protected final String name;
+    protected final RaceConfiguration configuration;
+
+    /**
+     * numer biegu w kalendarzu (od 0), którego wyniki wyznaczają listę startową, lub -1.
+     */
+    protected final int startListRace;
+
+    /**
+     * maksymalna liczba startujących (0 - wszyscy zawodnicy sezonu).
+     */
+    protected final int fieldSize;
+
+    /**
+     * @param name nazwa biegu
+     * @param configuration format biegu (liczba zawodników jest ustalana przez symulator)
+     * @param startListRace numer biegu w kalendarzu (od 0), którego wyniki wyznaczają listę startową, lub -1
+     * @param fieldSize maksymalna liczba startujących (0 - wszyscy zawodnicy sezonu)
+     */
+    public SeasonRace(String name, RaceConfiguration configuration, int startListRace, int fieldSize) {
+        if (fieldSize < 0) {
+            throw new IllegalArgumentException("Field size must not be negative");
+        }
+        this.name = name;
+        this.configuration = configuration;
+        this.startListRace = startListRace;
+        this.fieldSize = fieldSize;
+    }
+
+    public static SeasonRace individual(String name) {
+        return new SeasonRace(name, RaceConfiguration.individual(), -1, 0);
+    }
+
+    public static SeasonRace sprint(String name) {
+        return new SeasonRace(name, RaceConfiguration.sprint(), -1, 0);
+    }
+
+    /**
+     * @param name nazwa biegu
+     * @param sprint numer sprintu w kalendarzu (od 0), z którego wyników startują zawodnicy
+     */
+    public static SeasonRace pursuit(String name, int sprint) {
+        return new SeasonRace(name, RaceConfiguration.pursuit(), sprint, PURSUIT_FIELD_SIZE);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RaceConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public int getStartListRace() {
+        return startListRace;
+    }
+
+    /**
+     * @return czy lista startowa i straty na starcie pochodzą z wyników innego biegu
+     */
+    public boolean hasStartList() {
+        return startListRace >= 0;
+    }
+
+    public int getFieldSize() {
+        return fieldSize;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,148 @@
+package biathlon.season;
+
+import java.util.Arrays;
+
+/**
+ * Wyniki wielu symulowanych sezonów: punkty Pucharu Świata zdobyte przez każdego zawodnika
+ * w każdym sezonie, przechowywane w jednej tablicy (sezon po sezonie).
+ * Pozwala oszacować rozkład punktów zawodnika i prawdopodobieństwo zdobycia Kryształowej Kuli.
+ *
+ * @author Artur Hebda
+ * @see biathlon.season.SeasonSimulator
+ */
+public class SeasonResults {
+    protected final int seasons;
+    protected final int biathleteCount;
+
+    /**
+     * points[sezon * biathleteCount + zawodnik] - punkty zawodnika w klasyfikacji generalnej sezonu.
+     */
+    protected final int[] points;
+
+    /**
+     * liczba sezonów wygranych przez zawodnika (sezony ex aequo dzielone po równo).
+     */
+    protected final double[] overallWins;
+
+    /**
+     * czas (rzeczywisty) symulacji w nanosekundach.
+     */
+    protected long elapsedNanos = 0;
+
+    /**
+     * @param seasons liczba sezonów
+     * @param biathleteCount liczba zawodników
+     * @param points punkty zawodników w kolejnych sezonach (sezon po sezonie)
+     */
+    public SeasonResults(int seasons, int biathleteCount, int[] points) {
+        if (points.length != seasons * biathleteCount) {
+            throw new IllegalArgumentException("Points of " + seasons + " seasons and " + biathleteCount + " biathletes are required");
+        }
+        this.seasons = seasons;
+        this.biathleteCount = biathleteCount;
+        this.points = points;
+        this.overallWins = new double[biathleteCount];
+        countOverallWins();
+    }
+
+    protected void countOverallWins() {
+        for (int season = 0; season < seasons; season++) {
+            int offset = season * biathleteCount;
+            int best = Integer.MIN_VALUE;
+            int winners = 0;
+            for (int biathlete = 0; biathlete < biathleteCount; biathlete++) {
+                if (points[offset + biathlete] > best) {
+                    best = points[offset + biathlete];
+                    winners = 1;
+                }
+                else if (points[offset + biathlete] == best) {
+                    winners++;
+                }
+            }
+            for (int biathlete = 0; biathlete < biathleteCount; biathlete++) {
+                if (points[offset + biathlete] == best) {
+                    overallWins[biathlete] += 1.0 / winners;
+                }
+            }
+        }
+    }
+
+    public int getSeasons() {
+        return seasons;
+    }
+
+    public int getBiathleteCount() {
+        return biathleteCount;
+    }
+
+    /**
+     * @param season numer sezonu (od 0)
+     * @param biathlete numer zawodnika (od 0)
+     * @return punkty zawodnika w klasyfikacji generalnej sezonu
+     */
+    public int getPoints(int season, int biathlete) {
+        return points[season * biathleteCount + biathlete];
+    }
+
+    /**
+     * @param biathlete numer zawodnika (od 0)
+     * @return średnia liczba punktów w sezonie
+     */
+    public double getMeanPoints(int biathlete) {
+        long sum = 0;
+        for (int season = 0; season < seasons; season++) {
+            sum += points[season * biathleteCount + biathlete];
+        }
+        return (double)sum / seasons;
+    }
+
+    /**
+     * @param biathlete numer zawodnika (od 0)
+     * @return odchylenie standardowe liczby punktów w sezonie
+     */
+    public double getPointsStandardDeviation(int biathlete) {
+        if (seasons < 2) {
+            return 0;
+        }
+        double mean = getMeanPoints(biathlete);
+        double sum = 0;
+        for (int season = 0; season < seasons; season++) {
+            double deviation = points[season * biathleteCount + biathlete] - mean;
+            sum += deviation * deviation;
+        }
+        return Math.sqrt(sum / (seasons - 1));
+    }
+
+    /**
+     * @param biathlete numer zawodnika (od 0)
+     * @param quantile rząd kwantyla z przedziału [0, 1]
+     * @return kwantyl liczby punktów w sezonie (wartość z próby)
+     */
+    public int getPointsQuantile(int biathlete, double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be within [0, 1]");
+        }
+        int[] values = new int[seasons];
+        for (int season = 0; season < seasons; season++) {
+            values[season] = points[season * biathleteCount + biathlete];
+        }
+        Arrays.sort(values);
+        return values[(int)Math.min(seasons - 1, Math.floor(quantile * seasons))];
+    }
+
+    /**
+     * @param biathlete numer zawodnika (od 0)
+     * @return prawdopodobieństwo wygrania klasyfikacji generalnej (Kryształowej Kuli)
+     */
+    public double getOverallWinProbability(int biathlete) {
+        return overallWins[biathlete] / seasons;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+}
@@ -0,0 +1,397 @@
+package biathlon.season;
+
+import biathlon.BiathleteParameters;
+import biathlon.Biathlon;
+import biathlon.RaceConfiguration;
+import biathlon.StopCondition;
+import biathlon.event.BiathleteEventStore;
+import biathlon.replication.DirectSampler;
+import biathlon.replication.ParallelRanges;
+import desmoj.core.dist.DistributionManager;
+import desmoj.core.simulator.Experiment;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Symulacja wielu sezonów Pucharu Świata: każdy sezon to kalendarz biegów (biathlon.season.SeasonRace),
+ * a wynikiem jest rozkład punktów klasyfikacji generalnej każdego zawodnika (biathlon.season.SeasonResults).
+ *
+ * Biegi kalendarza są dzielone na łańcuchy - bieg pościgowy należy do łańcucha sprintu, z którego
+ * wyników startuje, a pozostałe biegi tworzą osobne łańcuchy. Biegi łańcucha są symulowane po kolei,
+ * natomiast łańcuchy (wszystkich sezonów) są od siebie niezależne i rozdzielane między wątki puli
+ * (biathlon.replication.ParallelRanges).
+ * Każdy bieg każdego sezonu ma własne ziarno, więc wyniki nie zależą od liczby wątków.
+ *
+ * Zawodnicy biegu na siebie nie wpływają, dlatego domyślnie biegi są losowane bezpośrednio
+ * (biathlon.replication.DirectSampler). Po wyłączeniu bezpośredniego losowania (setDirectSampling(false))
+ * każdy bieg jest symulowany modelem biathlon.Biathlon.
+ *
+ * {@code
+ *      SeasonSimulator simulator = new SeasonSimulator(parameters, SeasonSimulator.defaultCalendar(), 10000, 979, 16);
+ *      SeasonResults results = simulator.run();
+ *      results.getOverallWinProbability(0);
+ * }
+ *
+ * @author Artur Hebda
+ */
+public class SeasonSimulator {
+    /**
+     * punkty Pucharu Świata za miejsca 1-40.
+     */
+    public static final int[] WORLD_CUP_POINTS = {
+        90, 75, 65, 55, 50, 45, 41, 37, 34, 31,
+        30, 29, 28, 27, 26, 25, 24, 23, 22, 21,
+        20, 19, 18, 17, 16, 15, 14, 13, 12, 11,
+        10, 9, 8, 7, 6, 5, 4, 3, 2, 1
+    };
+
+    /**
+     * domyślna liczba zawodników startujących w sezonie.
+     */
+    public static final int DEFAULT_BIATHLETE_COUNT = 100;
+
+    protected final BiathleteParameters parameters;
+    protected final List<SeasonRace> calendar;
+    protected final int seasons;
+    protected final int threads;
+
+    /**
+     * numery biegów kolejnych łańcuchów (w kolejności kalendarza).
+     */
+    protected final int[][] chains;
+
+    /**
+     * ziarna biegów: seeds[sezon * liczba biegów + bieg].
+     */
+    protected final long[] seeds;
+
+    /**
+     * czy losować biegi bezpośrednio (DirectSampler) zamiast symulować je modelem biathlon.Biathlon.
+     */
+    protected boolean directSampling = true;
+
+    /**
+     * @param parameters parametry wszystkich zawodników sezonu
+     * @param calendar kolejne biegi sezonu
+     * @param seasons liczba symulowanych sezonów
+     * @param seed ziarno generatora ziaren biegów
+     * @param threads liczba wątków puli
+     */
+    public SeasonSimulator(BiathleteParameters parameters, List<SeasonRace> calendar, int seasons, long seed, int threads) {
+        if (seasons < 1 || calendar.isEmpty()) {
+            throw new IllegalArgumentException("At least one season and one race are required");
+        }
+        this.parameters = parameters;
+        this.calendar = new ArrayList<SeasonRace>(calendar);
+        this.seasons = seasons;
+        this.threads = Math.max(1, threads);
+        this.chains = chains(this.calendar);
+
+        DistributionManager seedGenerator = new DistributionManager("Seasons", seed);
+        seeds = new long[seasons * calendar.size()];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = seedGenerator.nextSeed();
+        }
+    }
+
+    /**
+     * Dzieli kalendarz na łańcuchy zależnych od siebie biegów.
+     */
+    protected static int[][] chains(List<SeasonRace> calendar) {
+        int[] chainOfRace = new int[calendar.size()];
+        int[] chainLengths = new int[calendar.size()];
+        int chainCount = 0;
+        for (int race = 0; race < calendar.size(); race++) {
+            SeasonRace seasonRace = calendar.get(race);
+            if (seasonRace.hasStartList()) {
+                if (seasonRace.getStartListRace() >= race) {
+                    throw new IllegalArgumentException(seasonRace + ": start list must come from an earlier race");
+                }
+                chainOfRace[race] = chainOfRace[seasonRace.getStartListRace()];
+            }
+            else {
+                chainOfRace[race] = chainCount++;
+            }
+            chainLengths[chainOfRace[race]]++;
+        }
+
+        int[][] chains = new int[chainCount][];
+        for (int chain = 0; chain < chainCount; chain++) {
+            chains[chain] = new int[chainLengths[chain]];
+            chainLengths[chain] = 0;
+        }
+        for (int race = 0; race < calendar.size(); race++) {
+            int chain = chainOfRace[race];
+            chains[chain][chainLengths[chain]++] = race;
+        }
+        return chains;
+    }
+
+    /**
+     * Kalendarz sezonu: 9 weekendów ze sprintem i biegiem pościgowym, w trzech z nich także bieg indywidualny.
+     */
+    public static List<SeasonRace> defaultCalendar() {
+        List<SeasonRace> calendar = new ArrayList<SeasonRace>();
+        int individuals = 0;
+        for (int weekend = 1; weekend <= 9; weekend++) {
+            if (weekend == 1 || weekend == 5 || weekend == 8) {
+                calendar.add(SeasonRace.individual("Individual " + ++individuals));
+            }
+            calendar.add(SeasonRace.sprint("Sprint " + weekend));
+            calendar.add(SeasonRace.pursuit("Pursuit " + weekend, calendar.size() - 1));
+        }
+        return calendar;
+    }
+
+    /**
+     * Symuluje wszystkie sezony i czeka na zakończenie obliczeń.
+     *
+     * @return punkty zawodników w kolejnych sezonach wraz z czasem trwania obliczeń
+     */
+    public SeasonResults run() throws InterruptedException, ExecutionException {
+        final AtomicIntegerArray points = new AtomicIntegerArray(seasons * parameters.getBiathleteCount());
+        long startedAt = System.nanoTime();
+
+        ParallelRanges.run(seasons * chains.length, threads, new ParallelRanges.Task<Void>() {
+            @Override
+            public Void run(int from, int to) {
+                new ChainRunner(points).run(from, to);
+                return null;
+            }
+        });
+
+        int[] totals = new int[points.length()];
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = points.get(i);
+        }
+        SeasonResults results = new SeasonResults(seasons, parameters.getBiathleteCount(), totals);
+        results.setElapsedNanos(System.nanoTime() - startedAt);
+        return results;
+    }
+
+    /**
+     * Przebieg łańcuchów biegów w jednym wątku. Przechowuje tablice robocze (listy startowe,
+     * czasy i kolejność na mecie każdego biegu kalendarza), wykorzystywane w kolejnych sezonach.
+     */
+    protected class ChainRunner {
+        protected final AtomicIntegerArray points;
+        protected final int biathleteCount = parameters.getBiathleteCount();
+
+        /**
+         * samplery kolejnych biegów kalendarza (tylko przy bezpośrednim losowaniu).
+         */
+        protected final DirectSampler[] samplers = new DirectSampler[calendar.size()];
+
+        /**
+         * dla każdego biegu: liczba startujących, numery zawodników w kolejności startu,
+         * opóźnienia startu, czasy na mecie (z opóźnieniem startu) i kolejność na mecie
+         * (indeksy listy startowej).
+         */
+        protected final int[] fieldSizes = new int[calendar.size()];
+        protected final int[][] starters = new int[calendar.size()][biathleteCount];
+        protected final double[][] startTimes = new double[calendar.size()][biathleteCount];
+        protected final double[][] times = new double[calendar.size()][biathleteCount];
+        protected final int[][] orders = new int[calendar.size()][biathleteCount];
+        protected final double[] sortedTimes = new double[biathleteCount];
+
+        protected ChainRunner(AtomicIntegerArray points) {
+            this.points = points;
+            if (directSampling) {
+                for (int race = 0; race < calendar.size(); race++) {
+                    samplers[race] = new DirectSampler(
+                            calendar.get(race).getConfiguration().withBiathleteCount(biathleteCount), parameters);
+                }
+            }
+        }
+
+        /**
+         * Przeprowadza łańcuchy o numerach z zakresu [from, to) (numer = sezon * liczba łańcuchów + łańcuch).
+         */
+        protected void run(int from, int to) {
+            for (int item = from; item < to; item++) {
+                int season = item / chains.length;
+                for (int race : chains[item % chains.length]) {
+                    runRace(season, race);
+                }
+            }
+        }
+
+        /**
+         * Ustala listę startową biegu, przeprowadza go i przyznaje punkty.
+         */
+        protected void runRace(int season, int race) {
+            SeasonRace seasonRace = calendar.get(race);
+            int[] field = starters[race];
+            double[] start = startTimes[race];
+            int fieldSize;
+            if (seasonRace.hasStartList()) {
+                // start w kolejności mety biegu źródłowego, ze stratami do jego zwycięzcy
+                int source = seasonRace.getStartListRace();
+                fieldSize = fieldSizes[source];
+                if (seasonRace.getFieldSize() > 0) {
+                    fieldSize = Math.min(fieldSize, seasonRace.getFieldSize());
+                }
+                int[] sourceOrder = orders[source];
+                double winnerTime = times[source][sourceOrder[0]];
+                for (int k = 0; k < fieldSize; k++) {
+                    field[k] = starters[source][sourceOrder[k]];
+                    start[k] = times[source][sourceOrder[k]] - winnerTime;
+                }
+            }
+            else {
+                fieldSize = seasonRace.getFieldSize() > 0 ? Math.min(biathleteCount, seasonRace.getFieldSize()) : biathleteCount;
+                for (int k = 0; k < fieldSize; k++) {
+                    field[k] = k;
+                    start[k] = 0;
+                }
+            }
+            fieldSizes[race] = fieldSize;
+
+            long seed = seeds[season * calendar.size() + race];
+            if (directSampling) {
+                DirectSampler sampler = samplers[race];
+                sampler.setSeed(seed);
+                for (int k = 0; k < fieldSize; k++) {
+                    times[race][k] = start[k] + sampler.sampleTime(field[k]);
+                }
+            }
+            else {
+                simulateRace(seasonRace, field, start, fieldSize, seed, times[race]);
+            }
+
+            rank(times[race], fieldSize, orders[race]);
+            int offset = season * biathleteCount;
+            for (int place = 0; place < Math.min(fieldSize, WORLD_CUP_POINTS.length); place++) {
+                points.addAndGet(offset + field[orders[race][place]], WORLD_CUP_POINTS[place]);
+            }
+        }
+
+        /**
+         * Symuluje bieg modelem biathlon.Biathlon.
+         *
+         * @param times tablica, do której zostaną zapisane czasy na mecie (z opóźnieniem startu)
+         */
+        protected void simulateRace(SeasonRace seasonRace, int[] field, double[] start, int fieldSize, long seed, double[] times) {
+            Experiment experiment = new Experiment(seasonRace.getName(), false);
+            experiment.setSilent(true);
+            experiment.setShowProgressBar(false);
+            experiment.setSeedGenerator(seed);
+            experiment.setEventNotePooling(true);
+
+            RaceConfiguration configuration = seasonRace.getConfiguration().withBiathleteCount(fieldSize);
+            Biathlon model = new Biathlon(null, seasonRace.getName(), false, false, configuration,
+                    parameters.select(Arrays.copyOf(field, fieldSize)));
+            model.setTracing(false);
+            if (seasonRace.hasStartList()) {
+                model.setStartTimesInMilliSeconds(Arrays.copyOf(start, fieldSize));
+            }
+            model.connectToExperiment(experiment);
+            experiment.stop(new StopCondition(model, "Stop Condition", false));
+            experiment.start();
+            experiment.finish();
+
+            // numery startowe modelu odpowiadają kolejności na liście startowej
+            BiathleteEventStore events = model.getEvents();
+            for (int i = 0; i < events.size(); i++) {
+                if (events.getKind(i) == BiathleteEventStore.FINISH) {
+                    int k = events.getBiathleteId(i);
+                    times[k] = start[k] + events.toMillis(events.getBiathleteTime(i));
+                }
+            }
+        }
+
+        /**
+         * Wyznacza kolejność na mecie.
+         *
+         * @param times czasy na mecie
+         * @param count liczba zawodników
+         * @param order tablica, do której zostaną zapisane indeksy zawodników od zwycięzcy
+         */
+        protected void rank(double[] times, int count, int[] order) {
+            System.arraycopy(times, 0, sortedTimes, 0, count);
+            Arrays.sort(sortedTimes, 0, count);
+            Arrays.fill(order, 0, count, -1);
+            for (int k = 0; k < count; k++) {
+                int place = Arrays.binarySearch(sortedTimes, 0, count, times[k]);
+                // zawodnicy z identycznym czasem zajmują kolejne miejsca w kolejności startu
+                while (place > 0 && sortedTimes[place - 1] == times[k]) {
+                    place--;
+                }
+                while (order[place] >= 0) {
+                    place++;
+                }
+                order[place] = k;
+            }
+        }
+    }
+
+    public boolean isDirectSampling() {
+        return directSampling;
+    }
+
+    /**
+     * Włącza lub wyłącza bezpośrednie losowanie biegów (bez symulacji zdarzeniowej).
+     *
+     * @param directSampling false, by każdy bieg był symulowany modelem biathlon.Biathlon
+     */
+    public void setDirectSampling(boolean directSampling) {
+        this.directSampling = directSampling;
+    }
+
+    public List<SeasonRace> getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Symuluje sezony domyślnego kalendarza i wypisuje rozkład punktów najlepszych zawodników
+     * (średnia, odchylenie standardowe, kwantyle 5%, 50%, 95%), prawdopodobieństwo zdobycia
+     * Kryształowej Kuli oraz przepustowość.
+     *
+     * @param args [liczba sezonów] [ziarno] [liczba wątków] [des - symulacja zdarzeniowa] [plik parametrów zawodników]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int seasons = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 979;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        BiathleteParameters parameters = args.length > 4
+                ? BiathleteParameters.read(args[4]) : BiathleteParameters.random(DEFAULT_BIATHLETE_COUNT, seed);
+
+        List<SeasonRace> calendar = defaultCalendar();
+        SeasonSimulator simulator = new SeasonSimulator(parameters, calendar, seasons, seed, threads);
+        simulator.setDirectSampling(!(args.length > 3 && "des".equals(args[3])));
+        SeasonResults results = simulator.run();
+
+        Integer[] ranking = new Integer[results.getBiathleteCount()];
+        final double[] meanPoints = new double[results.getBiathleteCount()];
+        for (int i = 0; i < ranking.length; i++) {
+            ranking[i] = i;
+            meanPoints[i] = results.getMeanPoints(i);
+        }
+        Arrays.sort(ranking, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(meanPoints[b], meanPoints[a]);
+            }
+        });
+
+        System.out.println(String.format("%-10s %8s %8s %6s %6s %6s %8s", "Biathlete", "Mean", "StdDev", "P5", "P50", "P95", "Globe"));
+        for (int i = 0; i < Math.min(20, ranking.length); i++) {
+            int biathlete = ranking[i];
+            System.out.println(String.format("%-10d %8.1f %8.1f %6d %6d %6d %8.4f", biathlete + 1,
+                    meanPoints[biathlete],
+                    results.getPointsStandardDeviation(biathlete),
+                    results.getPointsQuantile(biathlete, 0.05),
+                    results.getPointsQuantile(biathlete, 0.5),
+                    results.getPointsQuantile(biathlete, 0.95),
+                    results.getOverallWinProbability(biathlete)));
+        }
+        System.out.println(String.format("%d seasons of %d races (%d biathletes) on %d threads in %.2f s (%.1f seasons/s)",
+                seasons, calendar.size(), results.getBiathleteCount(), threads, results.getElapsedNanos() / 1e9,
+                seasons * 1e9 / results.getElapsedNanos()));
+    }
+}
@@ -0,0 +1,109 @@
+package biathlon.checkpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Porównuje klasyfikację (treap) z posortowaną listą zawodników: po każdym losowym wstawieniu
+ * pozycje, straty do lidera, zawodnicy na kolejnych pozycjach i lider muszą się zgadzać.
+ * Czasy są losowane z wąskiego przedziału, więc wiele z nich się powtarza (o kolejności
+ * decyduje wtedy identyfikator zawodnika).
+ *
+ * @author Artur Hebda
+ * @see biathlon.checkpoint.Standings
+ */
+public class StandingsTest {
+    protected static final int BIATHLETES = 300;
+    protected static final int TIME_RANGE = 50;
+
+    @Test
+    public void ranksAndLostTimesMatchSortedList() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            // pojemność mniejsza niż liczba zawodników - tablice muszą rosnąć
+            Standings standings = new Standings(4);
+            insertAndCompare(standings, random, seed);
+        }
+    }
+
+    @Test
+    public void clearedStandingsBehaveLikeNewOnes() {
+        Random random = new Random(979);
+        Standings standings = new Standings(BIATHLETES);
+        insertAndCompare(standings, random, 979);
+        standings.clear();
+        assertEquals(0, standings.size());
+        assertEquals(-1, standings.getLeader());
+        assertFalse(standings.contains(0));
+        insertAndCompare(standings, random, 979);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rankingBiathleteTwiceIsRejected() {
+        Standings standings = new Standings(4);
+        standings.insert(1, 10);
+        standings.insert(1, 20);
+    }
+
+    protected static void insertAndCompare(Standings standings, Random random, long seed) {
+        List<Integer> order = new ArrayList<Integer>();
+        for (int i = 0; i < BIATHLETES; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, random);
+
+        long[] times = new long[BIATHLETES];
+        List<Long> expected = new ArrayList<Long>();
+        for (int i = 0; i < BIATHLETES; i++) {
+            int biathlete = order.get(i);
+            times[biathlete] = random.nextInt(TIME_RANGE);
+            Long key = key(times[biathlete], biathlete);
+            int position = Collections.binarySearch(expected, key);
+            expected.add(-position - 1, key);
+
+            String context = "seed " + seed + ", insertion " + i;
+            assertEquals(context, -position, standings.insert(biathlete, times[biathlete]));
+            assertEquals(context, expected.size(), standings.size());
+            long leaderTime = timeOf(expected.get(0));
+            assertEquals(context, biathleteOf(expected.get(0)), standings.getLeader());
+            assertEquals(context, leaderTime, standings.getLeaderTime());
+
+            // pełne porównanie co kilka wstawień i na końcu (koszt O(n) na wstawienie)
+            if (i % 7 == 0 || i == BIATHLETES - 1) {
+                for (int rank = 1; rank <= expected.size(); rank++) {
+                    int ranked = biathleteOf(expected.get(rank - 1));
+                    assertEquals(context + ", rank " + rank, ranked, standings.getBiathleteAt(rank));
+                    assertEquals(context + ", biathlete " + ranked, rank, standings.getRank(ranked));
+                    assertEquals(context + ", biathlete " + ranked, times[ranked] - leaderTime,
+                            standings.getLost(ranked));
+                }
+            }
+        }
+        for (int biathlete = 0; biathlete < BIATHLETES; biathlete++) {
+            assertTrue(standings.contains(biathlete));
+        }
+        assertEquals(0, standings.getRank(BIATHLETES));
+    }
+
+    /**
+     * @return klucz porządkujący jak klasyfikacja: czas, a przy równych czasach identyfikator
+     */
+    protected static Long key(long time, int biathlete) {
+        return time * BIATHLETES + biathlete;
+    }
+
+    protected static long timeOf(Long key) {
+        return key / BIATHLETES;
+    }
+
+    protected static int biathleteOf(Long key) {
+        return (int)(key % BIATHLETES);
+    }
+}
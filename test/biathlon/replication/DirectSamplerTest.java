@@ -0,0 +1,101 @@
+package biathlon.replication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import biathlon.Biathlon;
+import biathlon.RaceConfiguration;
+import biathlon.StopCondition;
+import biathlon.event.BiathleteEventStore;
+import desmoj.core.dist.DistributionManager;
+import desmoj.core.simulator.Experiment;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * Sprawdza zgodność statystyczną bezpośredniego losowania (DirectSampler) z symulacją zdarzeniową:
+ * losuje czasy biegu zawodników w REPLICATIONS replikacjach obiema metodami (z różnymi ziarnami,
+ * pobieranymi z jednego generatora ziaren o stałym ziarnie SEED) i porównuje ich rozkłady
+ * dwupróbkowym testem Kołmogorowa-Smirnowa na poziomie istotności 0.01.
+ *
+ * @author Artur Hebda
+ * @see biathlon.replication.DirectSampler
+ */
+public class DirectSamplerTest {
+    protected static final int REPLICATIONS = 300;
+    protected static final long SEED = 979;
+
+    /**
+     * współczynnik wartości krytycznej testu Kołmogorowa-Smirnowa dla poziomu istotności 0.01.
+     */
+    protected static final double KS_COEFFICIENT_001 = 1.628;
+
+    @Test
+    public void finishTimesMatchEventSimulation() {
+        RaceConfiguration configuration = new RaceConfiguration();
+        int biathleteCount = configuration.getBiathleteCount();
+        DistributionManager seedGenerator = new DistributionManager("Verification", SEED);
+
+        double[] simulated = new double[REPLICATIONS * biathleteCount];
+        for (int r = 0; r < REPLICATIONS; r++) {
+            Experiment experiment = new Experiment("Verification " + r, false);
+            experiment.setSilent(true);
+            experiment.setShowProgressBar(false);
+            experiment.setSeedGenerator(seedGenerator.nextSeed());
+            experiment.setEventNotePooling(true);
+
+            Biathlon model = new Biathlon(null, "Biathlon", false, false, configuration);
+            model.setTracing(false);
+            model.connectToExperiment(experiment);
+            experiment.stop(new StopCondition(model, "Stop Condition", false));
+            experiment.start();
+            experiment.finish();
+
+            BiathleteEventStore events = model.getEvents();
+            for (int i = 0; i < events.size(); i++) {
+                if (events.getKind(i) == BiathleteEventStore.FINISH) {
+                    simulated[r * biathleteCount + events.getBiathleteId(i)] = events.toMillis(events.getBiathleteTime(i));
+                }
+            }
+        }
+
+        DirectSampler sampler = new DirectSampler(configuration);
+        double[] sampled = new double[REPLICATIONS * biathleteCount];
+        for (int r = 0; r < REPLICATIONS; r++) {
+            System.arraycopy(sampler.sampleTimes(seedGenerator.nextSeed()), 0, sampled, r * biathleteCount, biathleteCount);
+        }
+
+        double statistic = kolmogorovSmirnov(simulated, sampled);
+        double criticalValue = KS_COEFFICIENT_001 * Math.sqrt(2.0 / simulated.length);
+        assertTrue(String.format("Kolmogorov-Smirnov D = %.4f, critical value %.4f at 0.01", statistic, criticalValue),
+                statistic < criticalValue);
+    }
+
+    @Test
+    public void kolmogorovSmirnovOfSeparatedSamples() {
+        assertEquals(0.0, kolmogorovSmirnov(new double[] { 1, 2, 3 }, new double[] { 3, 2, 1 }), 0.0);
+        assertEquals(1.0, kolmogorovSmirnov(new double[] { 1, 2 }, new double[] { 3, 4, 5 }), 0.0);
+        assertEquals(0.5, kolmogorovSmirnov(new double[] { 1, 3 }, new double[] { 2, 4 }), 1e-12);
+    }
+
+    /**
+     * @return statystyka D dwupróbkowego testu Kołmogorowa-Smirnowa (tablice zostają posortowane)
+     */
+    protected static double kolmogorovSmirnov(double[] a, double[] b) {
+        Arrays.sort(a);
+        Arrays.sort(b);
+        int i = 0, j = 0;
+        double statistic = 0;
+        while (i < a.length && j < b.length) {
+            double value = Math.min(a[i], b[j]);
+            while (i < a.length && a[i] == value) {
+                i++;
+            }
+            while (j < b.length && b[j] == value) {
+                j++;
+            }
+            statistic = Math.max(statistic, Math.abs((double)i / a.length - (double)j / b.length));
+        }
+        return statistic;
+    }
+}
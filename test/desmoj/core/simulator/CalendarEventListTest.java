@@ -0,0 +1,263 @@
+package desmoj.core.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Regression test of the <code>CalendarEventList</code>: the same seeded
+ * model is run on an <code>EventTreeList</code> and on a
+ * <code>CalendarEventList</code> and both runs have to dispatch exactly the
+ * same sequence of events.
+ * <p>
+ * The model first fills the event-list with several hundred event-notes and
+ * then drains it again, so the calendar doubles and halves its buckets
+ * several times during a run. Delays are either small, producing many ties
+ * in time and priority, or large, spreading the event-notes over many
+ * "years" of the calendar. Events schedule, reschedule and cancel each
+ * other and use <code>scheduleAfter</code> and <code>scheduleBefore</code>,
+ * so <code>insertAfter</code>, <code>insertBefore</code> and
+ * <code>remove</code> are covered as well.
+ *
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+public class CalendarEventListTest {
+
+    /**
+     * Number of events of the model.
+     */
+    private static final int EVENTS = 600;
+
+    /**
+     * Number of dispatches during which the event-list is filled.
+     */
+    private static final int GROWTH_DISPATCHES = 3000;
+
+    /**
+     * Number of pending event-notes the calendar has to exceed at least once;
+     * it starts with 16 buckets and doubles them whenever it holds more than
+     * twice as many event-notes as buckets, so this forces four resizes.
+     */
+    private static final int MIN_PEAK = 257;
+
+    /**
+     * Range of the small random delays in epsilon, producing many ties.
+     */
+    private static final int SHORT_DELAY_RANGE = 20;
+
+    /**
+     * Range of the large random delays in epsilon.
+     */
+    private static final int LONG_DELAY_RANGE = 100000;
+
+    @Test
+    public void dispatchesInTheSameOrderAsEventTreeListAcrossResizes() {
+
+        for (long seed = 1; seed <= 10; seed++) {
+            RandomModel expected = run(EventTreeList.class, seed, false);
+            RandomModel actual = run(CalendarEventList.class, seed, false);
+            assertTrue("Event-list too small for seed " + seed + ": "
+                    + actual.peak, actual.peak >= MIN_PEAK);
+            assertSameDispatches(seed, expected.dispatches, actual.dispatches);
+        }
+    }
+
+    @Test
+    public void dispatchesInTheSameOrderWithEventNotePooling() {
+
+        for (long seed = 1; seed <= 3; seed++) {
+            assertSameDispatches(seed, run(EventTreeList.class, seed, false).dispatches,
+                    run(CalendarEventList.class, seed, true).dispatches);
+        }
+    }
+
+    /**
+     * Compares two dispatch sequences, reporting the first difference.
+     */
+    private static void assertSameDispatches(long seed, List<String> expected,
+            List<String> actual) {
+
+        int common = Math.min(expected.size(), actual.size());
+        for (int i = 0; i < common; i++) {
+            assertEquals("Dispatch " + i + " for seed " + seed, expected.get(i),
+                    actual.get(i));
+        }
+        assertEquals("Number of dispatches for seed " + seed, expected.size(),
+                actual.size());
+    }
+
+    /**
+     * Runs the random model on the given event-list until the event-list is
+     * empty.
+     */
+    private static RandomModel run(Class<? extends EventList> eventList, long seed,
+            boolean pooling) {
+
+        Experiment experiment = new Experiment("CalendarEventListTest", false);
+        experiment.setSilent(true);
+        experiment.setShowProgressBar(false);
+        experiment.setEventList(eventList);
+        experiment.setEventNotePooling(pooling);
+        RandomModel model = new RandomModel(seed);
+        model.connectToExperiment(experiment);
+        experiment.start();
+        experiment.finish();
+        return model;
+    }
+
+    /**
+     * Model whose events first fill the event-list and then let it drain.
+     */
+    private static class RandomModel extends Model {
+
+        private final Random random;
+        private final RandomEvent[] events = new RandomEvent[EVENTS];
+        private final List<String> dispatches = new ArrayList<String>();
+        private int pending;
+        private int peak;
+
+        RandomModel(long seed) {
+
+            super(null, "RandomModel", false, false);
+            random = new Random(seed);
+        }
+
+        public String description() {
+
+            return "Events filling and draining the event-list at random.";
+        }
+
+        public void init() {
+
+            for (int i = 0; i < EVENTS; i++) {
+                events[i] = new RandomEvent(this, i);
+            }
+        }
+
+        public void doInitialSchedules() {
+
+            for (int i = 0; i < EVENTS / 10; i++) {
+                events[i].setSchedulingPriority(random.nextInt(3));
+                events[i].scheduleAtEpsilon(delay());
+            }
+            pending = EVENTS / 10;
+        }
+
+        /**
+         * Returns a short or a long random delay.
+         */
+        long delay() {
+
+            return random.nextBoolean() ? random.nextInt(SHORT_DELAY_RANGE)
+                    : random.nextInt(LONG_DELAY_RANGE);
+        }
+
+        /**
+         * Returns an event which is (or is not) scheduled, starting the
+         * search at a random index, or <code>null</code> if there is none.
+         */
+        RandomEvent pick(boolean scheduled) {
+
+            int start = random.nextInt(EVENTS);
+            for (int i = 0; i < EVENTS; i++) {
+                RandomEvent event = events[(start + i) % EVENTS];
+                if (event.isScheduled() == scheduled) {
+                    return event;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Schedules an idle event with a random priority and delay.
+         */
+        void scheduleIdle() {
+
+            RandomEvent idle = pick(false);
+            if (idle != null) {
+                idle.setSchedulingPriority(random.nextInt(3));
+                idle.scheduleInEpsilon(delay());
+                pending++;
+            }
+        }
+
+        /**
+         * Performs one random operation on a scheduled event: scheduling an
+         * idle event after or before it, rescheduling or cancelling it.
+         */
+        void act() {
+
+            RandomEvent scheduled = pick(true);
+            if (scheduled == null) {
+                return;
+            }
+            int operation = random.nextInt(4);
+            if (operation <= 1) {
+                RandomEvent idle = pick(false);
+                if (idle != null) {
+                    if (operation == 0) {
+                        idle.scheduleAfter(scheduled);
+                    }
+                    else {
+                        idle.scheduleBefore(scheduled);
+                    }
+                    pending++;
+                }
+            }
+            else if (operation == 2) {
+                scheduled.reScheduleInEpsilon(delay());
+            }
+            else {
+                scheduled.cancel();
+                pending--;
+            }
+        }
+    }
+
+    /**
+     * Event recording its dispatch and triggering random operations.
+     */
+    private static class RandomEvent extends ExternalEvent {
+
+        private final int id;
+
+        RandomEvent(RandomModel owner, int id) {
+
+            super(owner, "RandomEvent", false);
+            this.id = id;
+        }
+
+        public void eventRoutine() {
+
+            RandomModel model = (RandomModel) getModel();
+            model.pending--;
+            model.dispatches.add(id + "@" + presentTime().getTimeInEpsilon());
+            if (model.dispatches.size() < GROWTH_DISPATCHES) {
+                model.scheduleIdle();
+                model.scheduleIdle();
+                model.act();
+            }
+            else if (model.random.nextInt(4) == 0) {
+                model.act();
+            }
+            model.peak = Math.max(model.peak, model.pending);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package desmoj.core.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Regression test of the <code>HeapEventList</code>: the same seeded model
+ * is run on an <code>EventTreeList</code> and on a <code>HeapEventList</code>
+ * and both runs have to dispatch exactly the same sequence of events.
+ * <p>
+ * The events of the model schedule, reschedule and cancel each other at
+ * random, with random priorities and many ties in time, and also use
+ * <code>scheduleAfter</code> and <code>scheduleBefore</code>, so that the
+ * linear <code>insertAfter</code>, <code>insertBefore</code>,
+ * <code>nextNote</code> and <code>prevNote</code> of the heap are covered,
+ * not only <code>insert</code> and <code>remove</code>.
+ *
+ * @version DESMO-J, Ver. 2.3.4 copyright (c) 2012
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+public class HeapEventListTest {
+
+    /**
+     * Number of events of the model.
+     */
+    private static final int EVENTS = 200;
+
+    /**
+     * Number of dispatches after which the events stop scheduling others.
+     */
+    private static final int DISPATCHES = 5000;
+
+    /**
+     * Range of the random delays in epsilon; small to produce many ties.
+     */
+    private static final int DELAY_RANGE = 20;
+
+    @Test
+    public void dispatchesInTheSameOrderAsEventTreeList() {
+
+        for (long seed = 1; seed <= 20; seed++) {
+            List<String> expected = run(EventTreeList.class, seed);
+            List<String> actual = run(HeapEventList.class, seed);
+            assertTrue("Too few dispatches for seed " + seed,
+                    expected.size() >= DISPATCHES);
+            assertSameDispatches(seed, expected, actual);
+        }
+    }
+
+    @Test
+    public void dispatchesInTheSameOrderWithEventNotePooling() {
+
+        for (long seed = 1; seed <= 5; seed++) {
+            assertSameDispatches(seed, run(EventTreeList.class, seed, false),
+                    run(HeapEventList.class, seed, true));
+        }
+    }
+
+    /**
+     * Compares two dispatch sequences, reporting the first difference.
+     */
+    private static void assertSameDispatches(long seed, List<String> expected,
+            List<String> actual) {
+
+        int common = Math.min(expected.size(), actual.size());
+        for (int i = 0; i < common; i++) {
+            assertEquals("Dispatch " + i + " for seed " + seed, expected.get(i),
+                    actual.get(i));
+        }
+        assertEquals("Number of dispatches for seed " + seed, expected.size(),
+                actual.size());
+    }
+
+    private static List<String> run(Class<? extends EventList> eventList, long seed) {
+
+        return run(eventList, seed, false);
+    }
+
+    /**
+     * Runs the random model on the given event-list and returns the
+     * dispatched events as "event@time".
+     */
+    private static List<String> run(Class<? extends EventList> eventList, long seed,
+            boolean pooling) {
+
+        Experiment experiment = new Experiment("HeapEventListTest", false);
+        experiment.setSilent(true);
+        experiment.setShowProgressBar(false);
+        experiment.setEventList(eventList);
+        experiment.setEventNotePooling(pooling);
+        RandomModel model = new RandomModel(seed);
+        model.connectToExperiment(experiment);
+        experiment.start();
+        experiment.finish();
+        return model.dispatches;
+    }
+
+    /**
+     * Model whose events schedule each other at random.
+     */
+    private static class RandomModel extends Model {
+
+        private final Random random;
+        private final RandomEvent[] events = new RandomEvent[EVENTS];
+        private final List<String> dispatches = new ArrayList<String>();
+
+        RandomModel(long seed) {
+
+            super(null, "RandomModel", false, false);
+            random = new Random(seed);
+        }
+
+        public String description() {
+
+            return "Events scheduling each other at random.";
+        }
+
+        public void init() {
+
+            for (int i = 0; i < EVENTS; i++) {
+                events[i] = new RandomEvent(this, i);
+            }
+        }
+
+        public void doInitialSchedules() {
+
+            for (int i = 0; i < EVENTS / 4; i++) {
+                events[i].setSchedulingPriority(random.nextInt(3));
+                events[i].scheduleAtEpsilon(random.nextInt(DELAY_RANGE));
+            }
+        }
+
+        /**
+         * Returns an event which is (or is not) scheduled, starting the
+         * search at a random index, or <code>null</code> if there is none.
+         */
+        RandomEvent pick(boolean scheduled) {
+
+            int start = random.nextInt(EVENTS);
+            for (int i = 0; i < EVENTS; i++) {
+                RandomEvent event = events[(start + i) % EVENTS];
+                if (event.isScheduled() == scheduled) {
+                    return event;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Schedules an idle event with a random priority and delay.
+         */
+        void scheduleIdle() {
+
+            RandomEvent idle = pick(false);
+            if (idle != null) {
+                idle.setSchedulingPriority(random.nextInt(3));
+                idle.scheduleInEpsilon(random.nextInt(DELAY_RANGE));
+            }
+        }
+
+        /**
+         * Performs one random scheduling operation.
+         */
+        void act() {
+
+            int operation = random.nextInt(6);
+            RandomEvent idle = pick(false);
+            RandomEvent scheduled = pick(true);
+            if (operation <= 1 || scheduled == null) {
+                scheduleIdle();
+            }
+            else if (operation == 2) {
+                if (idle != null) {
+                    idle.scheduleAfter(scheduled);
+                }
+            }
+            else if (operation == 3) {
+                if (idle != null) {
+                    idle.scheduleBefore(scheduled);
+                }
+            }
+            else if (operation == 4) {
+                scheduled.reScheduleInEpsilon(random.nextInt(DELAY_RANGE));
+            }
+            else {
+                scheduled.cancel();
+            }
+        }
+    }
+
+    /**
+     * Event recording its dispatch and triggering random operations.
+     */
+    private static class RandomEvent extends ExternalEvent {
+
+        private final int id;
+
+        RandomEvent(RandomModel owner, int id) {
+
+            super(owner, "RandomEvent", false);
+            this.id = id;
+        }
+
+        public void eventRoutine() {
+
+            RandomModel model = (RandomModel) getModel();
+            model.dispatches.add(id + "@" + presentTime().getTimeInEpsilon());
+            if (model.dispatches.size() < DISPATCHES) {
+                model.scheduleIdle();
+                model.act();
+            }
+        }
+    }
+}